@@ -29,11 +29,14 @@ import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
 import org.restlet.data.Encoding;
+import org.restlet.engine.util.TemplateCache;
 import org.restlet.ext.freemarker.internal.ResolverHashModel;
+import org.restlet.representation.Representation;
 import org.restlet.routing.Filter;
 import org.restlet.util.Resolver;
 
 import freemarker.template.Configuration;
+import freemarker.template.Template;
 import freemarker.template.TemplateHashModel;
 
 /**
@@ -57,12 +60,16 @@ public class TemplateFilter extends Filter {
     /** The template's data model. */
     private volatile Object dataModel;
 
+    /** The cache of templates parsed from response entities. */
+    private final TemplateCache<Template> templateCache;
+
     /**
      * Constructor.
      */
     public TemplateFilter() {
         super();
         this.configuration = new Configuration();
+        this.templateCache = new TemplateCache<Template>();
     }
 
     /**
@@ -74,6 +81,7 @@ public class TemplateFilter extends Filter {
     public TemplateFilter(Context context) {
         super(context);
         this.configuration = new Configuration();
+        this.templateCache = new TemplateCache<Template>();
     }
 
     /**
@@ -87,6 +95,7 @@ public class TemplateFilter extends Filter {
     public TemplateFilter(Context context, Restlet next) {
         super(context, next);
         this.configuration = new Configuration();
+        this.templateCache = new TemplateCache<Template>();
     }
 
     /**
@@ -125,9 +134,20 @@ public class TemplateFilter extends Filter {
         if (response.isEntityAvailable()
                 && response.getEntity().getEncodings()
                         .contains(Encoding.FREEMARKER)) {
+            Representation entity = response.getEntity();
+            Template template = this.templateCache.get(entity);
+
+            if (template == null) {
+                template = TemplateRepresentation.getTemplate(
+                        this.configuration, entity);
+                this.templateCache.put(entity, template);
+            } else {
+                // The source of the cached template doesn't need to be read
+                entity.release();
+            }
+
             TemplateRepresentation representation = new TemplateRepresentation(
-                    response.getEntity(), this.configuration, response
-                            .getEntity().getMediaType());
+                    template, entity.getMediaType());
             representation.setDataModel(createDataModel(request, response));
             response.setEntity(representation);
         }
@@ -185,6 +205,7 @@ public class TemplateFilter extends Filter {
      */
     public void setConfiguration(Configuration config) {
         this.configuration = config;
+        this.templateCache.clear();
     }
 
     /**
@@ -25,19 +25,41 @@
 package org.restlet.ext.jackson;
 
 import java.io.IOException;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
 
+import org.restlet.Context;
 import org.restlet.data.MediaType;
 import org.restlet.data.Preference;
 import org.restlet.engine.converter.ConverterHelper;
+import org.restlet.engine.resource.AnnotationInfo;
+import org.restlet.engine.resource.AnnotationUtils;
+import org.restlet.engine.resource.MethodAnnotationInfo;
 import org.restlet.engine.resource.VariantInfo;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Resource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
 /**
  * Converter between the JSON, JSON Smile, CSV, XML, YAML and Representation
- * classes based on Jackson.
+ * classes based on Jackson.<br>
+ * <br>
+ * The converter shares one Jackson object mapper per supported media type,
+ * and caches the object readers and writers specialized for each converted
+ * class, so that Jackson's serializer and deserializer caches are reused
+ * across calls. Those instances are set on the {@link JacksonRepresentation}
+ * created by the converter and shouldn't be reconfigured per call; override
+ * {@link #createObjectMapper(MediaType)} instead to customize the mappings.
+ * The shared instances can be created eagerly at application start with
+ * {@link #preload(Class...)}.
  * 
  * @author Jerome Louvel
  * @author Thierry Boileau
@@ -73,6 +95,34 @@ public class JacksonConverter extends ConverterHelper {
     private static final VariantInfo VARIANT_TEXT_YAML = new VariantInfo(
             MediaType.TEXT_YAML);
 
+    /** The shared object mappers, per mapped media type. */
+    private final ConcurrentMap<MediaType, ObjectMapper> objectMappers;
+
+    /** The cached object readers, per mapped media type and object class. */
+    private final ConcurrentMap<MediaType, ConcurrentMap<Class<?>, ObjectReader>> objectReaders;
+
+    /** The cached object writers, per mapped media type and object class. */
+    private final ConcurrentMap<MediaType, ConcurrentMap<Class<?>, ObjectWriter>> objectWriters;
+
+    /**
+     * Constructor.
+     */
+    public JacksonConverter() {
+        this.objectMappers = new ConcurrentHashMap<MediaType, ObjectMapper>();
+        this.objectReaders = new ConcurrentHashMap<MediaType, ConcurrentMap<Class<?>, ObjectReader>>();
+        this.objectWriters = new ConcurrentHashMap<MediaType, ConcurrentMap<Class<?>, ObjectWriter>>();
+    }
+
+    /**
+     * Clears the shared object mappers and the cached object readers and
+     * writers.
+     */
+    public void clearCache() {
+        this.objectMappers.clear();
+        this.objectReaders.clear();
+        this.objectWriters.clear();
+    }
+
     /**
      * Creates the marshaling {@link JacksonRepresentation}.
      * 
@@ -84,7 +134,16 @@ public class JacksonConverter extends ConverterHelper {
      * @return The marshaling {@link JacksonRepresentation}.
      */
     protected <T> JacksonRepresentation<T> create(MediaType mediaType, T source) {
-        return new JacksonRepresentation<T>(mediaType, source);
+        JacksonRepresentation<T> result = new JacksonRepresentation<T>(
+                mediaType, source);
+        result.setObjectMapper(getObjectMapper(mediaType));
+
+        if (result.getObjectClass() != null) {
+            result.setObjectWriter(getObjectWriter(mediaType,
+                    result.getObjectClass()));
+        }
+
+        return result;
     }
 
     /**
@@ -99,7 +158,114 @@ public class JacksonConverter extends ConverterHelper {
      */
     protected <T> JacksonRepresentation<T> create(Representation source,
             Class<T> objectClass) {
-        return new JacksonRepresentation<T>(source, objectClass);
+        JacksonRepresentation<T> result = new JacksonRepresentation<T>(source,
+                objectClass);
+        result.setObjectMapper(getObjectMapper(source.getMediaType()));
+
+        if ((objectClass != null)
+                && !JacksonRepresentation.class.isAssignableFrom(objectClass)) {
+            result.setObjectReader(getObjectReader(source.getMediaType(),
+                    objectClass));
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates the Jackson object mapper shared for a given media type. By
+     * default, it relies on {@link JacksonRepresentation#createObjectMapper()}.
+     * 
+     * @param mediaType
+     *            The mapped media type.
+     * @return The new Jackson object mapper.
+     */
+    protected ObjectMapper createObjectMapper(MediaType mediaType) {
+        return new JacksonRepresentation<Object>(mediaType, null)
+                .getObjectMapper();
+    }
+
+    /**
+     * Creates the Jackson object reader cached for a given media type and
+     * object class. By default, it relies on
+     * {@link JacksonRepresentation#createObjectReader()} with the shared
+     * object mapper.
+     * 
+     * @param mediaType
+     *            The mapped media type.
+     * @param objectClass
+     *            The object class to instantiate.
+     * @return The new Jackson object reader.
+     */
+    protected <T> ObjectReader createObjectReader(MediaType mediaType,
+            Class<T> objectClass) {
+        return createPrototype(mediaType, objectClass).getObjectReader();
+    }
+
+    /**
+     * Creates the Jackson object writer cached for a given media type and
+     * object class. By default, it relies on
+     * {@link JacksonRepresentation#createObjectWriter()} with the shared
+     * object mapper.
+     * 
+     * @param mediaType
+     *            The mapped media type.
+     * @param objectClass
+     *            The object class to serialize.
+     * @return The new Jackson object writer.
+     */
+    protected <T> ObjectWriter createObjectWriter(MediaType mediaType,
+            Class<T> objectClass) {
+        return createPrototype(mediaType, objectClass).getObjectWriter();
+    }
+
+    /**
+     * Creates an empty representation configured with the shared object
+     * mapper, used to create object readers and writers.
+     * 
+     * @param mediaType
+     *            The mapped media type.
+     * @param objectClass
+     *            The object class.
+     * @return The empty representation.
+     */
+    private <T> JacksonRepresentation<T> createPrototype(MediaType mediaType,
+            Class<T> objectClass) {
+        JacksonRepresentation<T> result = new JacksonRepresentation<T>(
+                mediaType, null);
+        result.setObjectClass(objectClass);
+        result.setObjectMapper(getObjectMapper(mediaType));
+        return result;
+    }
+
+    /**
+     * Returns the media type used to share Jackson instances. Compatible media
+     * types such as "application/xml" and "text/xml" are mapped to the same
+     * media type.
+     * 
+     * @param mediaType
+     *            The media type to map.
+     * @return The mapped media type.
+     */
+    protected MediaType getMappedMediaType(MediaType mediaType) {
+        MediaType result = MediaType.APPLICATION_JSON;
+
+        if (MediaType.APPLICATION_JSON.isCompatible(mediaType)) {
+            result = MediaType.APPLICATION_JSON;
+        } else if (MediaType.APPLICATION_JSON_SMILE.isCompatible(mediaType)) {
+            result = MediaType.APPLICATION_JSON_SMILE;
+            // [ifndef android]
+        } else if (MediaType.APPLICATION_XML.isCompatible(mediaType)
+                || MediaType.TEXT_XML.isCompatible(mediaType)) {
+            result = MediaType.APPLICATION_XML;
+            // [enddef]
+        } else if (MediaType.APPLICATION_YAML.isCompatible(mediaType)
+                || MediaType.TEXT_YAML.isCompatible(mediaType)) {
+            result = MediaType.APPLICATION_YAML;
+        } else if (MediaType.TEXT_CSV.isCompatible(mediaType)) {
+            result = MediaType.TEXT_CSV;
+        }
+
+        return result;
     }
 
     @Override
@@ -114,6 +280,111 @@ public class JacksonConverter extends ConverterHelper {
         return result;
     }
 
+    /**
+     * Returns the Jackson object mapper shared for a given media type, creating
+     * it if necessary.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @return The shared Jackson object mapper.
+     */
+    public ObjectMapper getObjectMapper(MediaType mediaType) {
+        MediaType mappedType = getMappedMediaType(mediaType);
+        ObjectMapper result = this.objectMappers.get(mappedType);
+
+        if (result == null) {
+            result = createObjectMapper(mappedType);
+            ObjectMapper current = this.objectMappers.putIfAbsent(mappedType,
+                    result);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the Jackson object reader cached for a given media type and
+     * object class, creating it if necessary.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @param objectClass
+     *            The object class to instantiate.
+     * @return The cached Jackson object reader.
+     */
+    public ObjectReader getObjectReader(MediaType mediaType,
+            Class<?> objectClass) {
+        MediaType mappedType = getMappedMediaType(mediaType);
+        ConcurrentMap<Class<?>, ObjectReader> readers = this.objectReaders
+                .get(mappedType);
+
+        if (readers == null) {
+            readers = new ConcurrentHashMap<Class<?>, ObjectReader>();
+            ConcurrentMap<Class<?>, ObjectReader> current = this.objectReaders
+                    .putIfAbsent(mappedType, readers);
+
+            if (current != null) {
+                readers = current;
+            }
+        }
+
+        ObjectReader result = readers.get(objectClass);
+
+        if (result == null) {
+            result = createObjectReader(mappedType, objectClass);
+            ObjectReader current = readers.putIfAbsent(objectClass, result);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the Jackson object writer cached for a given media type and
+     * object class, creating it if necessary.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @param objectClass
+     *            The object class to serialize.
+     * @return The cached Jackson object writer.
+     */
+    public ObjectWriter getObjectWriter(MediaType mediaType,
+            Class<?> objectClass) {
+        MediaType mappedType = getMappedMediaType(mediaType);
+        ConcurrentMap<Class<?>, ObjectWriter> writers = this.objectWriters
+                .get(mappedType);
+
+        if (writers == null) {
+            writers = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+            ConcurrentMap<Class<?>, ObjectWriter> current = this.objectWriters
+                    .putIfAbsent(mappedType, writers);
+
+            if (current != null) {
+                writers = current;
+            }
+        }
+
+        ObjectWriter result = writers.get(objectClass);
+
+        if (result == null) {
+            result = createObjectWriter(mappedType, objectClass);
+            ObjectWriter current = writers.putIfAbsent(objectClass, result);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public List<VariantInfo> getVariants(Class<?> source) {
         List<VariantInfo> result = null;
@@ -155,6 +426,59 @@ public class JacksonConverter extends ConverterHelper {
                             .isCompatible(variant));
     }
 
+    /**
+     * Creates the shared object mappers and the cached object readers and
+     * writers for the given classes, for all the supported media types, so
+     * that the first calls don't pay for Jackson's introspection. For
+     * {@link Resource} subclasses, the entity classes declared by the
+     * annotated methods are preloaded instead. Typically called when the
+     * application starts.
+     * 
+     * @param classes
+     *            The resource or entity classes to preload.
+     */
+    public void preload(Class<?>... classes) {
+        Set<Class<?>> entityClasses = new LinkedHashSet<Class<?>>();
+
+        for (Class<?> clazz : classes) {
+            if (Resource.class.isAssignableFrom(clazz)) {
+                for (AnnotationInfo annotationInfo : AnnotationUtils
+                        .getInstance().getAnnotations(clazz)) {
+                    if (annotationInfo instanceof MethodAnnotationInfo) {
+                        MethodAnnotationInfo methodInfo = (MethodAnnotationInfo) annotationInfo;
+
+                        for (Class<?> inputType : methodInfo
+                                .getJavaInputTypes()) {
+                            entityClasses.add(inputType);
+                        }
+
+                        entityClasses.add(methodInfo.getJavaOutputType());
+                    }
+                }
+            } else {
+                entityClasses.add(clazz);
+            }
+        }
+
+        for (Class<?> entityClass : entityClasses) {
+            if ((entityClass != null) && !entityClass.isPrimitive()
+                    && !Representation.class.isAssignableFrom(entityClass)) {
+                for (VariantInfo variant : getVariants(entityClass)) {
+                    try {
+                        getObjectReader(variant.getMediaType(), entityClass);
+                        getObjectWriter(variant.getMediaType(), entityClass);
+                    } catch (Exception e) {
+                        Context.getCurrentLogger().log(
+                                Level.FINE,
+                                "Unable to preload the Jackson reader and writer of "
+                                        + entityClass + " for "
+                                        + variant.getMediaType(), e);
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public float score(Object source, Variant target, Resource resource) {
         float result = -1.0F;
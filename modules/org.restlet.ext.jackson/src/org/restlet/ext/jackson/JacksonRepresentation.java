@@ -324,7 +324,8 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
 
     /**
      * Returns the modifiable Jackson object mapper. Useful to customize
-     * mappings.
+     * mappings. Note that when the representation is created by the
+     * {@link JacksonConverter}, the mapper is shared with other calls.
      * 
      * @return The modifiable Jackson object mapper.
      */
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jaxb;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.logging.Level;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.restlet.Context;
+import org.restlet.data.MediaType;
+import org.restlet.ext.jaxb.internal.Marshaller;
+
+/**
+ * XML representation of a large collection of JAXB elements, written in a
+ * streaming way. The items are wrapped into a root element and each one is
+ * marshalled as a fragment into a StAX stream writer, so that the whole
+ * document never needs to be held in memory. This works best with lazy
+ * iterables such as database cursors. Each item class must be annotated with
+ * {@link javax.xml.bind.annotation.XmlRootElement}. Note that the formatted
+ * output property is not supported by this streaming mode.
+ * 
+ * @author Jerome Louvel
+ * @param <T>
+ *            The type of the collection items.
+ */
+public class JaxbCollectionRepresentation<T> extends
+        JaxbRepresentation<Iterable<T>> {
+
+    /** The root element wrapping the items. */
+    private volatile QName rootElement;
+
+    /**
+     * Constructor.
+     * 
+     * @param mediaType
+     *            The representation's media type.
+     * @param rootElement
+     *            The root element wrapping the items.
+     * @param items
+     *            The items to marshal.
+     * @param itemClass
+     *            The class of the items, used to locate the JAXB context.
+     */
+    public JaxbCollectionRepresentation(MediaType mediaType,
+            QName rootElement, Iterable<T> items, Class<T> itemClass) {
+        super(mediaType, items, itemClass.getClassLoader());
+        setContextPath(itemClass.getPackage().getName());
+        this.rootElement = rootElement;
+    }
+
+    /**
+     * Constructor with {@link MediaType#APPLICATION_XML}.
+     * 
+     * @param rootElement
+     *            The root element wrapping the items.
+     * @param items
+     *            The items to marshal.
+     * @param itemClass
+     *            The class of the items, used to locate the JAXB context.
+     */
+    public JaxbCollectionRepresentation(QName rootElement, Iterable<T> items,
+            Class<T> itemClass) {
+        this(MediaType.APPLICATION_XML, rootElement, items, itemClass);
+    }
+
+    /**
+     * Returns the root element wrapping the items.
+     * 
+     * @return The root element wrapping the items.
+     */
+    public QName getRootElement() {
+        return rootElement;
+    }
+
+    /**
+     * Sets the root element wrapping the items.
+     * 
+     * @param rootElement
+     *            The root element wrapping the items.
+     */
+    public void setRootElement(QName rootElement) {
+        this.rootElement = rootElement;
+    }
+
+    @Override
+    public void write(Writer writer) throws IOException {
+        try {
+            XMLStreamWriter xmlWriter = XMLOutputFactory.newInstance()
+                    .createXMLStreamWriter(writer);
+            QName root = getRootElement();
+
+            if (!isFragment()) {
+                xmlWriter.writeStartDocument(
+                        (getCharacterSet() != null) ? getCharacterSet()
+                                .getName() : "UTF-8", "1.0");
+            }
+
+            if ((root.getNamespaceURI() == null)
+                    || root.getNamespaceURI().isEmpty()) {
+                xmlWriter.writeStartElement(root.getLocalPart());
+            } else {
+                xmlWriter.writeStartElement(root.getPrefix(),
+                        root.getLocalPart(), root.getNamespaceURI());
+
+                if (root.getPrefix().isEmpty()) {
+                    xmlWriter.writeDefaultNamespace(root.getNamespaceURI());
+                } else {
+                    xmlWriter.writeNamespace(root.getPrefix(),
+                            root.getNamespaceURI());
+                }
+            }
+
+            Iterable<T> items = getObject();
+
+            if (items != null) {
+                Marshaller<Iterable<T>> marshaller = new Marshaller<Iterable<T>>(
+                        this, getContextPath(), getClassLoader());
+
+                for (T item : items) {
+                    marshaller.marshal(item, xmlWriter);
+                }
+            }
+
+            xmlWriter.writeEndElement();
+            xmlWriter.writeEndDocument();
+            xmlWriter.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to write the XML stream: "
+                    + e.getMessage());
+        } catch (JAXBException e) {
+            Context.getCurrentLogger().log(Level.WARNING,
+                    "JAXB marshalling error caught.", e);
+            throw new IOException(e.getMessage());
+        }
+    }
+
+}
@@ -27,11 +27,15 @@ package org.restlet.ext.jaxb.internal;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.util.logging.Level;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamWriter;
 
-import org.restlet.Context;
 import org.restlet.ext.jaxb.JaxbRepresentation;
 
 /**
@@ -40,12 +44,41 @@ import org.restlet.ext.jaxb.JaxbRepresentation;
  * 
  * This class is a factory that constructs an instance of itself for multiple
  * uses. The created instance is thread safe and is optimized to be used for
- * multiple, possibly concurrent calls.
+ * multiple, possibly concurrent calls. The underlying JAXB marshallers are
+ * pooled per JAXB context and reconfigured for each call.
  * 
  * @author Overstock.com
  */
 public class Marshaller<T> {
 
+    /** The idle JAXB marshallers, per JAXB context. */
+    private static final ConcurrentMap<JAXBContext, BlockingQueue<javax.xml.bind.Marshaller>> pools = new ConcurrentHashMap<JAXBContext, BlockingQueue<javax.xml.bind.Marshaller>>();
+
+    /**
+     * Returns the pool of idle JAXB marshallers for a given context.
+     * 
+     * @param context
+     *            The JAXB context.
+     * @return The pool of idle JAXB marshallers.
+     */
+    private static BlockingQueue<javax.xml.bind.Marshaller> getPool(
+            JAXBContext context) {
+        BlockingQueue<javax.xml.bind.Marshaller> result = pools.get(context);
+
+        if (result == null) {
+            result = new ArrayBlockingQueue<javax.xml.bind.Marshaller>(
+                    JaxbRepresentation.MAX_POOL_SIZE);
+            BlockingQueue<javax.xml.bind.Marshaller> current = pools
+                    .putIfAbsent(context, result);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
     /** The JAXB classloader. */
     private final ClassLoader classLoader;
 
@@ -55,52 +88,6 @@ public class Marshaller<T> {
     /** The parent JAXB representation. */
     private final JaxbRepresentation<T> jaxbRepresentation;
 
-    /** Use thread identity to preserve safety of access to marshalers. */
-    private final ThreadLocal<javax.xml.bind.Marshaller> marshaller = new ThreadLocal<javax.xml.bind.Marshaller>() {
-
-        @Override
-        protected synchronized javax.xml.bind.Marshaller initialValue() {
-            javax.xml.bind.Marshaller m = null;
-
-            try {
-                m = JaxbRepresentation.getContext(getContextPath(),
-                        getClassLoader()).createMarshaller();
-                m.setProperty("jaxb.formatted.output", getJaxbRepresentation()
-                        .isFormattedOutput());
-
-                if (getJaxbRepresentation().getSchemaLocation() != null) {
-                    m.setProperty("jaxb.schemaLocation",
-                            getJaxbRepresentation().getSchemaLocation());
-                }
-                if (getJaxbRepresentation().getNoNamespaceSchemaLocation() != null) {
-                    m.setProperty("jaxb.noNamespaceSchemaLocation",
-                            getJaxbRepresentation()
-                                    .getNoNamespaceSchemaLocation());
-                }
-
-                if (Marshaller.this.jaxbRepresentation.getCharacterSet() != null) {
-                    m.setProperty("jaxb.encoding",
-                            Marshaller.this.jaxbRepresentation
-                                    .getCharacterSet().getName());
-                }
-
-                if (getJaxbRepresentation().getNamespacePrefixMapper() != null) {
-                    m.setProperty("com.sun.xml.bind.namespacePrefixMapper",
-                            getJaxbRepresentation().getNamespacePrefixMapper());
-                }
-
-                m.setProperty("jaxb.fragment", getJaxbRepresentation()
-                        .isFragment());
-            } catch (Exception e) {
-                Context.getCurrentLogger().log(Level.WARNING,
-                        "Problem creating Marshaller", e);
-                return null;
-            }
-
-            return m;
-        }
-    };
-
     // This is a factory class.
     public Marshaller(JaxbRepresentation<T> jaxbRepresentation) {
         this(jaxbRepresentation, null, null);
@@ -123,6 +110,75 @@ public class Marshaller<T> {
         this.classLoader = classLoader;
     }
 
+    /**
+     * Returns a JAXB marshaller to the pool of its context, if it has room.
+     * 
+     * @param marshaller
+     *            The JAXB marshaller.
+     * @throws JAXBException
+     */
+    private void checkin(javax.xml.bind.Marshaller marshaller)
+            throws JAXBException {
+        if (isPoolable()) {
+            marshaller.setEventHandler(null);
+            getPool(
+                    JaxbRepresentation.getContext(getContextPath(),
+                            getClassLoader())).offer(marshaller);
+        }
+    }
+
+    /**
+     * Checks out a JAXB marshaller configured for the parent representation.
+     * Marshallers are not returned to the pool when a namespace prefix mapper
+     * or a schema location is set as these properties can't be reset.
+     * 
+     * @param fragment
+     *            True if the document level events should be omitted.
+     * @return The JAXB marshaller.
+     * @throws JAXBException
+     */
+    private javax.xml.bind.Marshaller checkout(boolean fragment)
+            throws JAXBException {
+        JAXBContext context = JaxbRepresentation.getContext(getContextPath(),
+                getClassLoader());
+        javax.xml.bind.Marshaller result = null;
+
+        if (getJaxbRepresentation().getNamespacePrefixMapper() == null) {
+            result = getPool(context).poll();
+        }
+
+        if (result == null) {
+            result = context.createMarshaller();
+        }
+
+        result.setProperty("jaxb.formatted.output", getJaxbRepresentation()
+                .isFormattedOutput());
+
+        if (getJaxbRepresentation().getSchemaLocation() != null) {
+            result.setProperty("jaxb.schemaLocation", getJaxbRepresentation()
+                    .getSchemaLocation());
+        }
+
+        if (getJaxbRepresentation().getNoNamespaceSchemaLocation() != null) {
+            result.setProperty("jaxb.noNamespaceSchemaLocation",
+                    getJaxbRepresentation().getNoNamespaceSchemaLocation());
+        }
+
+        result.setProperty("jaxb.encoding", (getJaxbRepresentation()
+                .getCharacterSet() != null) ? getJaxbRepresentation()
+                .getCharacterSet().getName() : "UTF-8");
+
+        if (getJaxbRepresentation().getNamespacePrefixMapper() != null) {
+            result.setProperty("com.sun.xml.bind.namespacePrefixMapper",
+                    getJaxbRepresentation().getNamespacePrefixMapper());
+        }
+
+        result.setProperty("jaxb.fragment", fragment);
+        result.setEventHandler(getJaxbRepresentation()
+                .getValidationEventHandler());
+        return result;
+    }
+
     /**
      * Returns the JAXB classloader.
      * 
@@ -151,18 +207,17 @@ public class Marshaller<T> {
     }
 
     /**
-     * Returns the JAXB marshaller.
+     * Indicates if the marshallers configured for the parent representation
+     * can be returned to the pool. This isn't the case when a namespace prefix
+     * mapper or a schema location is set as these properties can't be reset.
      * 
-     * @return The JAXB marshaller.
-     * @throws JAXBException
+     * @return True if the configured marshallers can be pooled.
      */
-    private javax.xml.bind.Marshaller getMarshaller() throws JAXBException {
-        final javax.xml.bind.Marshaller m = this.marshaller.get();
-        if (m == null) {
-            Context.getCurrentLogger().warning("Unable to locate marshaller.");
-            throw new JAXBException("Unable to locate marshaller.");
-        }
-        return m;
+    private boolean isPoolable() {
+        JaxbRepresentation<T> rep = getJaxbRepresentation();
+        return (rep.getNamespacePrefixMapper() == null)
+                && (rep.getSchemaLocation() == null)
+                && (rep.getNoNamespaceSchemaLocation() == null);
     }
 
     /**
@@ -192,9 +247,36 @@ public class Marshaller<T> {
      *             If any unexpected problem occurs during marshaling.
      */
     public void marshal(Object jaxbElement, Writer writer) throws JAXBException {
-        getMarshaller().setEventHandler(
-                getJaxbRepresentation().getValidationEventHandler());
-        getMarshaller().marshal(jaxbElement, writer);
+        javax.xml.bind.Marshaller m = checkout(getJaxbRepresentation()
+                .isFragment());
+
+        try {
+            m.marshal(jaxbElement, writer);
+        } finally {
+            checkin(m);
+        }
+    }
+
+    /**
+     * Marshal the content tree rooted at {@code jaxbElement} as a fragment
+     * into a StAX stream writer.
+     * 
+     * @param jaxbElement
+     *            The root of the content tree to be marshaled.
+     * @param writer
+     *            The target StAX stream writer to write the XML to.
+     * @throws JAXBException
+     *             If any unexpected problem occurs during marshaling.
+     */
+    public void marshal(Object jaxbElement, XMLStreamWriter writer)
+            throws JAXBException {
+        javax.xml.bind.Marshaller m = checkout(true);
+
+        try {
+            m.marshal(jaxbElement, writer);
+        } finally {
+            checkin(m);
+        }
     }
 
 }
@@ -28,15 +28,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.logging.Level;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.ValidationEventHandler;
 import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.sax.SAXSource;
 
-import org.restlet.Context;
 import org.restlet.ext.jaxb.JaxbRepresentation;
 import org.xml.sax.InputSource;
 import org.xml.sax.XMLReader;
@@ -47,36 +50,49 @@ import org.xml.sax.XMLReader;
  * 
  * Each {@code unmarshal} method takes a different source for the XML. This
  * class caches information to improve unmarshaling performance across calls
- * using the same schema (package).
+ * using the same schema (package). The underlying JAXB unmarshallers are
+ * pooled per JAXB context.
  * 
  * @author Overstock.com
  */
 public class Unmarshaller<T> {
 
+    /** The idle JAXB unmarshallers, per JAXB context. */
+    private static final ConcurrentMap<JAXBContext, BlockingQueue<javax.xml.bind.Unmarshaller>> pools = new ConcurrentHashMap<JAXBContext, BlockingQueue<javax.xml.bind.Unmarshaller>>();
+
+    /**
+     * Returns the pool of idle JAXB unmarshallers for a given context.
+     * 
+     * @param context
+     *            The JAXB context.
+     * @return The pool of idle JAXB unmarshallers.
+     */
+    private static BlockingQueue<javax.xml.bind.Unmarshaller> getPool(
+            JAXBContext context) {
+        BlockingQueue<javax.xml.bind.Unmarshaller> result = pools.get(context);
+
+        if (result == null) {
+            result = new ArrayBlockingQueue<javax.xml.bind.Unmarshaller>(
+                    JaxbRepresentation.MAX_POOL_SIZE);
+            BlockingQueue<javax.xml.bind.Unmarshaller> current = pools
+                    .putIfAbsent(context, result);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
     /** The JAXB classloader. */
     private final ClassLoader classLoader;
 
     /** The JAXB context path. */
     private final String contextPath;
 
-    /**
-     * Use thread identity to preserve safety of access to unmarshallers.
-     */
-    private final ThreadLocal<javax.xml.bind.Unmarshaller> unmarshaller = new ThreadLocal<javax.xml.bind.Unmarshaller>() {
-        @Override
-        protected synchronized javax.xml.bind.Unmarshaller initialValue() {
-            javax.xml.bind.Unmarshaller m = null;
-            try {
-                m = JaxbRepresentation.getContext(getContextPath(),
-                        getClassLoader()).createUnmarshaller();
-            } catch (Exception e) {
-                Context.getCurrentLogger().log(Level.WARNING,
-                        "Problem creating Unmarshaller", e);
-                return null;
-            }
-            return m;
-        }
-    };
+    /** The default validation event handler. */
+    private volatile ValidationEventHandler eventHandler;
 
     /**
      * Constructor.
@@ -110,23 +126,8 @@ public class Unmarshaller<T> {
     }
 
     /**
-     * Returns the JAXB unmarshaller.
-     * 
-     * @return The JAXB unmarshaller.
-     * @throws JAXBException
-     */
-    private javax.xml.bind.Unmarshaller getUnmarshaller() throws JAXBException {
-        final javax.xml.bind.Unmarshaller m = this.unmarshaller.get();
-        if (m == null) {
-            Context.getCurrentLogger()
-                    .warning("Unable to locate unmarshaller.");
-            throw new JAXBException("Unable to locate unmarshaller.");
-        }
-        return m;
-    }
-
-    /**
-     * Sets the validation handler for this unmarshaller.
+     * Sets the default validation handler for this unmarshaller, used when the
+     * JAXB representation doesn't have one.
      * 
      * @param handler
      *            A validation handler.
@@ -135,7 +136,7 @@ public class Unmarshaller<T> {
      */
     public void setEventHandler(ValidationEventHandler handler)
             throws JAXBException {
-        getUnmarshaller().setEventHandler(handler);
+        this.eventHandler = handler;
     }
 
     /**
@@ -209,7 +210,22 @@ public class Unmarshaller<T> {
             throw new JAXBException("Unable to create customized SAX source", e);
         }
 
-        getUnmarshaller().setEventHandler(jaxbRep.getValidationEventHandler());
-        return getUnmarshaller().unmarshal(ss);
+        BlockingQueue<javax.xml.bind.Unmarshaller> pool = getPool(JaxbRepresentation
+                .getContext(getContextPath(), getClassLoader()));
+        javax.xml.bind.Unmarshaller u = pool.poll();
+
+        if (u == null) {
+            u = JaxbRepresentation.getContext(getContextPath(),
+                    getClassLoader()).createUnmarshaller();
+        }
+
+        try {
+            u.setEventHandler((jaxbRep.getValidationEventHandler() != null) ? jaxbRep
+                    .getValidationEventHandler() : this.eventHandler);
+            return u.unmarshal(ss);
+        } finally {
+            u.setEventHandler(null);
+            pool.offer(u);
+        }
     }
 }
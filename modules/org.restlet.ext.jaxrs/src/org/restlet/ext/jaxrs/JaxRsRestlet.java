@@ -914,9 +914,34 @@ public class JaxRsRestlet extends Restlet {
         // c: Set<Class>: root resource classes
         // e: Set<RegExp>
         // Map<UriTemplateRegExp, Class> eAndCs = new HashMap();
+        RootResourceClass tClass = identifyRootResourceClass(u);
+        // (f)
+        PathRegExp rMatch = tClass.getPathRegExp();
+        MatchingResult matchResult = rMatch.match(u);
+        u = matchResult.getFinalCapturingGroup();
+        addPathVarsToMap(matchResult, tlContext.get());
+        ResourceObject o = instantiateRrc(tClass);
+        return new RroRemPathAndMatchedPath(o, u, matchResult.getMatched());
+    }
+
+    /**
+     * Selects the root resource class for the given remaining path, see
+     * JAX-RS-Spec (2008-04-16), section 3.7.2 "Request Matching", Part 1 (a)
+     * to (e). Only the root resource classes whose literal path prefix starts
+     * the remaining path are matched.
+     * 
+     * @param u
+     *            the remaining path after the base ref
+     * @return The selected root resource class.
+     * @throws WebApplicationException
+     * @throws RequestHandledException
+     */
+    private RootResourceClass identifyRootResourceClass(RemainingPath u)
+            throws WebApplicationException, RequestHandledException {
         Collection<RootResourceClass> eAndCs = new ArrayList<RootResourceClass>();
         // (a) and (b) and (c) Filter E
-        for (RootResourceClass rootResourceClass : this.resourceClasses.roots()) {
+        for (RootResourceClass rootResourceClass : this.resourceClasses
+                .roots(u)) {
             // Map.Entry<UriTemplateRegExp, Class> eAndC = eAndCIter.next();
             // UriTemplateRegExp regExp = eAndC.getKey();
             // Class clazz = eAndC.getValue();
@@ -933,14 +958,7 @@ public class JaxRsRestlet extends Restlet {
         if (eAndCs.isEmpty())
             excHandler.rootResourceNotFound();
         // (e) and (f)
-        RootResourceClass tClass = getFirstByNoOfLiteralCharsNoOfCapturingGroups(eAndCs);
-        // (f)
-        PathRegExp rMatch = tClass.getPathRegExp();
-        MatchingResult matchResult = rMatch.match(u);
-        u = matchResult.getFinalCapturingGroup();
-        addPathVarsToMap(matchResult, tlContext.get());
-        ResourceObject o = instantiateRrc(tClass);
-        return new RroRemPathAndMatchedPath(o, u, matchResult.getMatched());
+        return getFirstByNoOfLiteralCharsNoOfCapturingGroups(eAndCs);
     }
 
     /**
@@ -1112,7 +1130,7 @@ public class JaxRsRestlet extends Restlet {
             // (c) and (d) Filter E: remove members do not match U or final
             // match not empty
             for (ResourceMethodOrLocator methodOrLocator : resClass
-                    .getResourceMethodsAndLocators()) {
+                    .getResourceMethodsAndLocators(u)) {
                 PathRegExp pathRegExp = methodOrLocator.getPathRegExp();
                 MatchingResult matchingResult = pathRegExp.match(u);
                 if (matchingResult == null)
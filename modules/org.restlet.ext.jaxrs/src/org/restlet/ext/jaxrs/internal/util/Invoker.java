@@ -0,0 +1,318 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jaxrs.internal.util;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Invokes a method, a constructor or a field setter. An invoker is created
+ * once per resource method, constructor or injected field, so the per request
+ * invocation doesn't need to check the access rights again. When available,
+ * the invocation is done through a method handle, otherwise through
+ * reflection.
+ * 
+ * @author Jerome Louvel
+ */
+public abstract class Invoker {
+
+    /**
+     * Invoker for a constructor using reflection.
+     */
+    private static class ConstructorInvoker extends Invoker {
+
+        private final Constructor<?> constructor;
+
+        ConstructorInvoker(Constructor<?> constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public Object invoke(Object target, Object... args)
+                throws IllegalAccessException, InvocationTargetException {
+            try {
+                return this.constructor.newInstance(args);
+            } catch (InstantiationException e) {
+                throw new IllegalArgumentException("Could not instantiate "
+                        + this.constructor.getDeclaringClass(), e);
+            }
+        }
+    }
+
+    /**
+     * Invoker for a field setter using reflection.
+     */
+    private static class FieldInvoker extends Invoker {
+
+        private final Field field;
+
+        FieldInvoker(Field field) {
+            this.field = field;
+        }
+
+        @Override
+        public Object invoke(Object target, Object... args)
+                throws IllegalAccessException {
+            this.field.set(target, args[0]);
+            return null;
+        }
+    }
+
+    // [ifndef android] member
+    /**
+     * Invoker using a method handle. The handle is adapted once to take the
+     * target and an array of generic arguments.
+     */
+    private static class HandleInvoker extends Invoker {
+
+        /** The numeric primitive types, in widening order. */
+        private static final List<Class<?>> NUMERIC_TYPES = Arrays
+                .<Class<?>> asList(Byte.TYPE, Short.TYPE, Integer.TYPE,
+                        Long.TYPE, Float.TYPE, Double.TYPE);
+
+        /** The numeric wrapper types, in widening order. */
+        private static final List<Class<?>> NUMERIC_WRAPPERS = Arrays
+                .<Class<?>> asList(Byte.class, Short.class, Integer.class,
+                        Long.class, Float.class, Double.class);
+
+        /** The spread method handle. */
+        private final java.lang.invoke.MethodHandle handle;
+
+        /** The parameter types. */
+        private final Class<?>[] parameterTypes;
+
+        /** The class of the target, or null if no target is required. */
+        private final Class<?> targetClass;
+
+        /**
+         * Constructor.
+         * 
+         * @param handle
+         *            the direct method handle.
+         * @param targetClass
+         *            the class of the target, or null if no target is
+         *            required.
+         */
+        HandleInvoker(java.lang.invoke.MethodHandle handle,
+                Class<?> targetClass) {
+            // A varargs handle would collect the trailing array argument
+            // into a new array
+            handle = handle.asFixedArity();
+            java.lang.invoke.MethodType type = handle.type();
+            int offset = (targetClass == null) ? 0 : 1;
+            int count = type.parameterCount() - offset;
+            this.parameterTypes = new Class<?>[count];
+            for (int i = 0; i < count; i++) {
+                this.parameterTypes[i] = type.parameterType(i + offset);
+            }
+            this.targetClass = targetClass;
+            java.lang.invoke.MethodHandle generic = handle.asType(type
+                    .generic());
+            if (targetClass == null) {
+                generic = java.lang.invoke.MethodHandles.dropArguments(
+                        generic, 0, Object.class);
+            }
+            this.handle = generic.asSpreader(Object[].class, count);
+        }
+
+        /**
+         * Indicates if an argument can be passed for a parameter of the given
+         * type. Like with {@link Method#invoke(Object, Object...)}, primitive
+         * parameters accept the wrapped values that can be unboxed then widened
+         * to their type.
+         * 
+         * @param type
+         *            the parameter type.
+         * @param arg
+         *            the argument.
+         * @return True if the argument can be passed.
+         */
+        private static boolean isAssignable(Class<?> type, Object arg) {
+            if (!type.isPrimitive()) {
+                return (arg == null) || type.isInstance(arg);
+            } else if (arg == null) {
+                return false;
+            }
+
+            Class<?> argClass = arg.getClass();
+            if ((type == Boolean.TYPE) || (argClass == Boolean.class)) {
+                return (type == Boolean.TYPE) && (argClass == Boolean.class);
+            } else if (argClass == Character.class) {
+                return (type == Character.TYPE)
+                        || (NUMERIC_TYPES.indexOf(type) >= NUMERIC_TYPES
+                                .indexOf(Integer.TYPE));
+            }
+
+            int argIndex = NUMERIC_WRAPPERS.indexOf(argClass);
+            return (argIndex >= 0)
+                    && (NUMERIC_TYPES.indexOf(type) >= argIndex);
+        }
+
+        @Override
+        public Object invoke(Object target, Object... args)
+                throws InvocationTargetException {
+            if ((this.targetClass != null)
+                    && !this.targetClass.isInstance(target)) {
+                throw new IllegalArgumentException("The object " + target
+                        + " is not an instance of " + this.targetClass);
+            }
+            if (args == null) {
+                args = new Object[0];
+            }
+            if (args.length != this.parameterTypes.length) {
+                throw new IllegalArgumentException("Wrong number of arguments: "
+                        + args.length + " instead of "
+                        + this.parameterTypes.length);
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (!isAssignable(this.parameterTypes[i], args[i])) {
+                    throw new IllegalArgumentException("The argument " + i
+                            + " is not an instance of "
+                            + this.parameterTypes[i]);
+                }
+            }
+
+            // The arguments are checked, so the adapted handle can't fail
+            // before reaching the invoked code
+            try {
+                return (Object) this.handle.invokeExact(target, args);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
+    /**
+     * Invoker for a method using reflection.
+     */
+    private static class MethodInvoker extends Invoker {
+
+        private final Method method;
+
+        MethodInvoker(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object invoke(Object target, Object... args)
+                throws IllegalAccessException, InvocationTargetException {
+            return this.method.invoke(target, args);
+        }
+    }
+
+    /**
+     * Creates an invoker for the given constructor. The target given to
+     * {@link #invoke(Object, Object...)} is ignored, and the created instance
+     * is returned.
+     * 
+     * @param constructor
+     *            the constructor to invoke.
+     * @return the invoker.
+     */
+    public static Invoker create(Constructor<?> constructor) {
+        // [ifndef android]
+        if (!Modifier.isAbstract(constructor.getDeclaringClass()
+                .getModifiers())) {
+            try {
+                return new HandleInvoker(java.lang.invoke.MethodHandles
+                        .lookup().unreflectConstructor(constructor), null);
+            } catch (IllegalAccessException e) {
+                // use reflection, that reports the access problems
+            }
+        }
+        // [enddef]
+        return new ConstructorInvoker(constructor);
+    }
+
+    /**
+     * Creates an invoker for the setter of the given field. The value to set
+     * is the first argument given to {@link #invoke(Object, Object...)}.
+     * 
+     * @param field
+     *            the field to set.
+     * @return the invoker.
+     */
+    public static Invoker create(Field field) {
+        // [ifndef android]
+        if (!Modifier.isFinal(field.getModifiers())) {
+            try {
+                return new HandleInvoker(java.lang.invoke.MethodHandles
+                        .lookup().unreflectSetter(field), Modifier
+                        .isStatic(field.getModifiers()) ? null : field
+                        .getDeclaringClass());
+            } catch (IllegalAccessException e) {
+                // use reflection, that reports the access problems
+            }
+        }
+        // [enddef]
+        return new FieldInvoker(field);
+    }
+
+    /**
+     * Creates an invoker for the given method.
+     * 
+     * @param method
+     *            the method to invoke.
+     * @return the invoker.
+     */
+    public static Invoker create(Method method) {
+        // [ifndef android]
+        try {
+            return new HandleInvoker(java.lang.invoke.MethodHandles.lookup()
+                    .unreflect(method),
+                    Modifier.isStatic(method.getModifiers()) ? null : method
+                            .getDeclaringClass());
+        } catch (IllegalAccessException e) {
+            // use reflection, that reports the access problems
+        }
+        // [enddef]
+        return new MethodInvoker(method);
+    }
+
+    /**
+     * Invokes the wrapped method, constructor or field setter.
+     * 
+     * @param target
+     *            the object to invoke on. Ignored for constructors and static
+     *            members.
+     * @param args
+     *            the arguments.
+     * @return the returned object, the created instance for a constructor, or
+     *         null.
+     * @throws IllegalAccessException
+     *             if the access is not allowed.
+     * @throws IllegalArgumentException
+     *             if the target or the arguments don't match.
+     * @throws InvocationTargetException
+     *             if the invoked code throws an exception.
+     */
+    public abstract Object invoke(Object target, Object... args)
+            throws IllegalAccessException, InvocationTargetException;
+}
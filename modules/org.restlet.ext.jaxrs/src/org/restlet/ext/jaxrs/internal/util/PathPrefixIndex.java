@@ -0,0 +1,150 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jaxrs.internal.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.ext.jaxrs.internal.wrappers.RrcOrRml;
+
+/**
+ * Immutable prefix trie over the literal prefixes of the
+ * {@link PathRegExp}s of root resource classes, sub resource methods or sub
+ * resource locators. It returns the members that could match a given
+ * {@link RemainingPath}, in their original iteration order, so that the
+ * request matching algorithm of the JAX-RS specification selects the same
+ * member as when iterating over the whole collection.
+ * 
+ * @author Jerome Louvel
+ * @param <T>
+ *            the type of the indexed members.
+ * @see PathRegExp#getLiteralPrefix()
+ */
+public class PathPrefixIndex<T extends RrcOrRml> {
+
+    /** Node of the prefix trie. */
+    private static class Node {
+
+        /** The child nodes indexed by their character. */
+        private final Map<Character, Node> children = new HashMap<Character, Node>();
+
+        /** The positions of the members whose literal prefix ends here. */
+        private int[] positions = new int[0];
+
+        /**
+         * Adds a member position to this node.
+         * 
+         * @param position
+         *            The member position.
+         */
+        private void add(int position) {
+            this.positions = Arrays.copyOf(this.positions,
+                    this.positions.length + 1);
+            this.positions[this.positions.length - 1] = position;
+        }
+    }
+
+    /** The indexed members, in their original order. */
+    private final List<T> members;
+
+    /** The root node of the trie. */
+    private final Node root = new Node();
+
+    /**
+     * Creates a new index.
+     * 
+     * @param members
+     *            the members to index, in their iteration order.
+     */
+    public PathPrefixIndex(Iterable<? extends T> members) {
+        this.members = new ArrayList<T>();
+        for (T member : members) {
+            this.members.add(member);
+        }
+        for (int i = 0; i < this.members.size(); i++) {
+            String prefix = this.members.get(i).getPathRegExp()
+                    .getLiteralPrefix();
+            Node node = this.root;
+            for (int j = 0; j < prefix.length(); j++) {
+                Character key = Character.valueOf(prefix.charAt(j));
+                Node child = node.children.get(key);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(key, child);
+                }
+                node = child;
+            }
+            node.add(i);
+        }
+    }
+
+    /**
+     * Returns the members whose literal prefix starts the given path. Only
+     * these members could match it.
+     * 
+     * @param remainingPath
+     *            the remaining path to match.
+     * @return the candidate members, in their original order.
+     */
+    public Collection<T> getCandidates(RemainingPath remainingPath) {
+        String path = remainingPath.getWithoutParams();
+        int[] buffer = null;
+        int count = 0;
+        Node node = this.root;
+        for (int i = 0; node != null; i++) {
+            if (node.positions.length > 0) {
+                if (buffer == null) {
+                    buffer = new int[this.members.size()];
+                }
+                System.arraycopy(node.positions, 0, buffer, count,
+                        node.positions.length);
+                count += node.positions.length;
+            }
+            node = (i < path.length()) ? node.children.get(Character
+                    .valueOf(path.charAt(i))) : null;
+        }
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(buffer, 0, count);
+        List<T> result = new ArrayList<T>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(this.members.get(buffer[i]));
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of indexed members.
+     */
+    public int size() {
+        return this.members.size();
+    }
+}
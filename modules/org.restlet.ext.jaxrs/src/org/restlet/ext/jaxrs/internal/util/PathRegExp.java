@@ -133,6 +133,12 @@ public class PathRegExp {
 
     private final boolean emptyOrSlash;
 
+    /**
+     * The literal prefix that any path matched by this regular expression
+     * starts with.
+     */
+    private final String literalPrefix;
+
     /** Contains the number of literal chars in this Regular Expression */
     private final Integer noLitChars;
 
@@ -184,9 +190,13 @@ public class PathRegExp {
             forStart = 1;
         int noLitChars = 0;
         int numberOfCapturingGroups = 0;
+        int literalPrefixEnd = -1;
         for (int i = forStart; i < l; i++) {
             final char c = pathTemplate.charAt(i);
             if (c == '{') {
+                if (literalPrefixEnd < 0) {
+                    literalPrefixEnd = pathPattern.length();
+                }
                 i = processTemplVarname(pathTemplate, i, pathPattern,
                         pathForExcMess);
                 numberOfCapturingGroups++;
@@ -214,6 +224,13 @@ public class PathRegExp {
         }
         this.noLitChars = noLitChars;
         this.noOfCapturingGroups = numberOfCapturingGroups;
+        String literalPrefix = pathPattern.substring(0,
+                (literalPrefixEnd < 0) ? pathPattern.length()
+                        : literalPrefixEnd);
+        // the '.' is kept unescaped and matches any character
+        int dotIndex = literalPrefix.indexOf('.');
+        this.literalPrefix = (dotIndex < 0) ? literalPrefix : literalPrefix
+                .substring(0, dotIndex);
         // 4. If the resulting string ends with "/" then remove the final char.
         // 5. Append "(/.*)?" to the result.
         if (pathPattern.length() > 0
@@ -253,6 +270,18 @@ public class PathRegExp {
         return this.pattern.pattern().equals(otherRegExp.pattern.pattern());
     }
 
+    /**
+     * Returns the literal prefix that any path matched by this regular
+     * expression starts with. It is computed from the characters located
+     * before the first template variable, and may be empty.
+     * 
+     * @return the literal prefix.
+     * @see RemainingPath#getWithoutParams()
+     */
+    public String getLiteralPrefix() {
+        return this.literalPrefix;
+    }
+
     /**
      * @return the number of capturing groups with regular expressions that are
      *         not the default.
@@ -1452,6 +1452,34 @@ public class Util {
         }
     }
 
+    /**
+     * Injects the given toInject in the resource with the given invoker of a
+     * field setter or a bean setter.
+     * 
+     * @param resource
+     * @param fieldOrBeanSetter
+     * @param toInject
+     * @throws InvocationTargetException
+     *             if the bean setter throws an exception.
+     * @throws InjectException
+     *             if the injection was not possible.
+     * @see Invoker#create(Field)
+     * @see Invoker#create(Method)
+     */
+    public static void inject(Object resource, Invoker fieldOrBeanSetter,
+            Object toInject) throws InvocationTargetException,
+            InjectException {
+        try {
+            fieldOrBeanSetter.invoke(resource, toInject);
+        } catch (IllegalAccessException e) {
+            throw new InjectException("Could not inject the " + toInject
+                    + " into object " + resource, e);
+        } catch (IllegalArgumentException e) {
+            throw new InjectException("Could not inject the " + toInject
+                    + " into object " + resource, e);
+        }
+    }
+
     /**
      * Inject the given toInject into the given field in the given resource (or
      * whatever)
@@ -39,6 +39,7 @@ import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathOnMethodException;
 import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathParamTypeException;
 import org.restlet.ext.jaxrs.internal.exceptions.IllegalTypeException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingAnnotationException;
+import org.restlet.ext.jaxrs.internal.util.Invoker;
 import org.restlet.ext.jaxrs.internal.util.PathRegExp;
 import org.restlet.ext.jaxrs.internal.util.Util;
 import org.restlet.ext.jaxrs.internal.wrappers.params.ParameterList;
@@ -62,6 +63,11 @@ public abstract class AbstractMethodWrapper extends AbstractJaxRsWrapper {
      */
     final Method executeMethod;
 
+    /**
+     * The invoker of the {@link #executeMethod}, created once.
+     */
+    private final Invoker invoker;
+
     final ParameterList parameters;
 
     final ResourceClass resourceClass;
@@ -97,6 +103,7 @@ public abstract class AbstractMethodWrapper extends AbstractJaxRsWrapper {
         super(PathRegExp.createForMethod(annotatedMethod));
         this.executeMethod = executeMethod;
         this.executeMethod.setAccessible(true);
+        this.invoker = Invoker.create(executeMethod);
         // NICE log message, if an Exception with no exc mapper is declared.
         this.resourceClass = resourceClass;
         final boolean leaveEncoded = resourceClass.isLeaveEncoded()
@@ -159,7 +166,7 @@ public abstract class AbstractMethodWrapper extends AbstractJaxRsWrapper {
             WebApplicationException {
         final Object[] args = this.parameters.get();
         final Object jaxRsResourceObj = resourceObject.getJaxRsResourceObject();
-        return this.executeMethod.invoke(jaxRsResourceObj, args);
+        return this.invoker.invoke(jaxRsResourceObj, args);
     }
 
     @Override
@@ -50,6 +50,7 @@ import org.restlet.ext.jaxrs.internal.exceptions.IllegalParamTypeException;
 import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathOnClassException;
 import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathOnMethodException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingAnnotationException;
+import org.restlet.ext.jaxrs.internal.util.PathPrefixIndex;
 import org.restlet.ext.jaxrs.internal.util.PathRegExp;
 import org.restlet.ext.jaxrs.internal.util.RemainingPath;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.ExtensionBackwardMapping;
@@ -78,6 +79,11 @@ public class ResourceClass extends AbstractJaxRsWrapper {
      */
     private final boolean leaveEncoded;
 
+    /**
+     * The prefix index over the resource methods, lazily built.
+     */
+    private volatile PathPrefixIndex<ResourceMethod> resourceMethodIndex;
+
     /**
      * The resource methods of this resource class. (It is initialized in
      * method.)
@@ -92,6 +98,12 @@ public class ResourceClass extends AbstractJaxRsWrapper {
      */
     private final Collection<ResourceMethodOrLocator> resourceMethodsAndLocators = new ArrayList<ResourceMethodOrLocator>();
 
+    /**
+     * The prefix index over the resource methods and sub resource locators,
+     * lazily built.
+     */
+    private volatile PathPrefixIndex<ResourceMethodOrLocator> resourceMethodsAndLocatorsIndex;
+
     /**
      * The sub resource locators of this resource class. (It is initialized in
      * method.)
@@ -303,8 +315,13 @@ public class ResourceClass extends AbstractJaxRsWrapper {
             RemainingPath remainingPath) {
         // NICE results may be chached, if any method is returned.
         // The 404 case will be called rarely and produce a lot of cached data.
+        PathPrefixIndex<ResourceMethod> index = this.resourceMethodIndex;
+        if (index == null) {
+            index = new PathPrefixIndex<ResourceMethod>(this.resourceMethods);
+            this.resourceMethodIndex = index;
+        }
         final List<ResourceMethod> resourceMethods = new ArrayList<ResourceMethod>();
-        for (final ResourceMethod method : this.resourceMethods) {
+        for (final ResourceMethod method : index.getCandidates(remainingPath)) {
             final PathRegExp methodPath = method.getPathRegExp();
             if (remainingPath.isEmptyOrSlash()) {
                 if (methodPath.isEmptyOrSlash()) {
@@ -340,6 +357,26 @@ public class ResourceClass extends AbstractJaxRsWrapper {
         return this.resourceMethodsAndLocators;
     }
 
+    /**
+     * Returns the sub resource methods and sub resource locators that could
+     * match the given remaining path, in the iteration order of
+     * {@link #getResourceMethodsAndLocators()}.
+     * 
+     * @param remainingPath
+     *            the remaining path.
+     * @return the candidate sub resource methods and sub resource locators.
+     */
+    public final Collection<ResourceMethodOrLocator> getResourceMethodsAndLocators(
+            RemainingPath remainingPath) {
+        PathPrefixIndex<ResourceMethodOrLocator> index = this.resourceMethodsAndLocatorsIndex;
+        if (index == null) {
+            index = new PathPrefixIndex<ResourceMethodOrLocator>(
+                    this.resourceMethodsAndLocators);
+            this.resourceMethodsAndLocatorsIndex = index;
+        }
+        return index.getCandidates(remainingPath);
+    }
+
     /**
      * @return Returns the sub resource locators of the given class.
      */
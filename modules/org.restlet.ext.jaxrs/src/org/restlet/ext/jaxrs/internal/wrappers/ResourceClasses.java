@@ -25,6 +25,7 @@
 package org.restlet.ext.jaxrs.internal.wrappers;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -43,7 +44,9 @@ import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathParamTypeException;
 import org.restlet.ext.jaxrs.internal.exceptions.InjectException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingAnnotationException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingConstructorException;
+import org.restlet.ext.jaxrs.internal.util.PathPrefixIndex;
 import org.restlet.ext.jaxrs.internal.util.PathRegExp;
+import org.restlet.ext.jaxrs.internal.util.RemainingPath;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.ExtensionBackwardMapping;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.JaxRsProviders;
 
@@ -68,6 +71,13 @@ public class ResourceClasses {
      */
     private final Set<RootResourceClass> rootResourceClasses = new CopyOnWriteArraySet<RootResourceClass>();
 
+    /**
+     * The prefix index over the root resource classes, rebuilt when a root
+     * resource class is added.
+     */
+    private volatile PathPrefixIndex<RootResourceClass> rootIndex = new PathPrefixIndex<RootResourceClass>(
+            this.rootResourceClasses);
+
     private final ThreadLocalizedContext tlContext;
 
     /**
@@ -157,6 +167,7 @@ public class ResourceClasses {
             }
         }
         rootResourceClasses.add(newRrc);
+        rootsChanged();
         return true;
     }
 
@@ -241,6 +252,7 @@ public class ResourceClasses {
             }
         }
         rootResourceClasses.add(newRrc);
+        rootsChanged();
         return true;
     }
 
@@ -331,4 +343,26 @@ public class ResourceClasses {
     public Iterable<RootResourceClass> roots() {
         return this.rootResourceClasses;
     }
+
+    /**
+     * Returns the root resource classes that could match the given remaining
+     * path, in the iteration order of {@link #roots()}.
+     * 
+     * @param remainingPath
+     *            the remaining path.
+     * @return the candidate root resource classes.
+     */
+    public Collection<RootResourceClass> roots(RemainingPath remainingPath) {
+        return this.rootIndex.getCandidates(remainingPath);
+    }
+
+    /**
+     * Rebuilds the root index after a root resource class was added. The
+     * index of the last call always includes all the added classes, as calls
+     * are serialized and each one follows its addition.
+     */
+    private synchronized void rootsChanged() {
+        this.rootIndex = new PathPrefixIndex<RootResourceClass>(
+                this.rootResourceClasses);
+    }
 }
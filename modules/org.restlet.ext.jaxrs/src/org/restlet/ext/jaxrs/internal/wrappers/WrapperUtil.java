@@ -48,6 +48,7 @@ import org.restlet.data.MediaType;
 import org.restlet.ext.jaxrs.InstantiateException;
 import org.restlet.ext.jaxrs.internal.exceptions.IllegalTypeException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingConstructorException;
+import org.restlet.ext.jaxrs.internal.util.Invoker;
 import org.restlet.util.NamedValue;
 
 /**
@@ -185,17 +186,34 @@ public class WrapperUtil {
     public static Object createInstance(Constructor<?> constructor,
             Object... args) throws InvocationTargetException,
             InstantiateException {
+        return createInstance(Invoker.create(constructor),
+                constructor.getDeclaringClass(), args);
+    }
+
+    /**
+     * Creates an instance with the given constructor invoker.
+     * 
+     * @param constructor
+     *            the invoker of the constructor.
+     * @param instanceClass
+     *            the class to instantiate, used for error messages.
+     * @param args
+     * @return the created instance
+     * @throws InvocationTargetException
+     * @throws InstantiateException
+     * @see Invoker#create(Constructor)
+     */
+    public static Object createInstance(Invoker constructor,
+            Class<?> instanceClass, Object... args)
+            throws InvocationTargetException, InstantiateException {
         try {
-            return constructor.newInstance(args);
+            return constructor.invoke(null, args);
         } catch (IllegalArgumentException e) {
             throw new InstantiateException("Could not instantiate "
-                    + constructor.getDeclaringClass(), e);
-        } catch (InstantiationException e) {
-            throw new InstantiateException("Could not instantiate "
-                    + constructor.getDeclaringClass(), e);
+                    + instanceClass, e);
         } catch (IllegalAccessException e) {
             throw new InstantiateException("Could not instantiate "
-                    + constructor.getDeclaringClass(), e);
+                    + instanceClass, e);
         }
     }
 
@@ -54,6 +54,7 @@ import org.restlet.ext.jaxrs.internal.exceptions.IllegalTypeException;
 import org.restlet.ext.jaxrs.internal.exceptions.ImplementationException;
 import org.restlet.ext.jaxrs.internal.exceptions.InjectException;
 import org.restlet.ext.jaxrs.internal.todo.NotYetImplementedException;
+import org.restlet.ext.jaxrs.internal.util.Invoker;
 import org.restlet.ext.jaxrs.internal.util.Util;
 import org.restlet.ext.jaxrs.internal.wrappers.params.ParameterList.AbstractParamGetter;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.ExtensionBackwardMapping;
@@ -68,11 +69,11 @@ public class ContextInjector {
 
     static class BeanSetter implements InjectionAim {
 
-        private final Method beanSetter;
+        private final Invoker beanSetter;
 
         private BeanSetter(Method beanSetter) {
-            this.beanSetter = beanSetter;
-            this.beanSetter.setAccessible(true);
+            beanSetter.setAccessible(true);
+            this.beanSetter = Invoker.create(beanSetter);
         }
 
         /**
@@ -140,11 +141,11 @@ public class ContextInjector {
 
     static class FieldWrapper implements InjectionAim {
 
-        private final Field field;
+        private final Invoker field;
 
         private FieldWrapper(Field field) {
-            this.field = field;
-            this.field.setAccessible(true);
+            field.setAccessible(true);
+            this.field = Invoker.create(field);
         }
 
         /**
@@ -230,14 +231,20 @@ public class ContextInjector {
 
     private class ParamValueInjector implements Injector {
 
-        private final AccessibleObject fieldOrBeanSetter;
+        private final Invoker fieldOrBeanSetter;
 
         private final AbstractParamGetter iog;
 
         ParamValueInjector(AccessibleObject fieldOrBeanSetter,
                 AbstractParamGetter iog) {
-            this.fieldOrBeanSetter = fieldOrBeanSetter;
-            this.fieldOrBeanSetter.setAccessible(true);
+            fieldOrBeanSetter.setAccessible(true);
+            if (fieldOrBeanSetter instanceof Field) {
+                this.fieldOrBeanSetter = Invoker
+                        .create((Field) fieldOrBeanSetter);
+            } else {
+                this.fieldOrBeanSetter = Invoker
+                        .create((Method) fieldOrBeanSetter);
+            }
             this.iog = iog;
         }
 
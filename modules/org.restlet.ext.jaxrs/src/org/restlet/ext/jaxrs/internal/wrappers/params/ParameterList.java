@@ -29,6 +29,7 @@ import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -84,6 +85,7 @@ import org.restlet.ext.jaxrs.internal.exceptions.IllegalTypeException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingAnnotationException;
 import org.restlet.ext.jaxrs.internal.todo.NotYetImplementedException;
 import org.restlet.ext.jaxrs.internal.util.Converter;
+import org.restlet.ext.jaxrs.internal.util.Invoker;
 import org.restlet.ext.jaxrs.internal.util.Util;
 import org.restlet.ext.jaxrs.internal.wrappers.WrapperUtil;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.ExtensionBackwardMapping;
@@ -130,6 +132,13 @@ public class ParameterList {
          */
         protected final boolean isArray;
 
+        /**
+         * The invokers of the String constructor and of the static valueOf and
+         * fromString methods of {@link #convertTo}, in the order they are
+         * tried. Lazily resolved once.
+         */
+        private volatile Invoker[] stringConverters;
+
         protected final ThreadLocalizedContext tlContext;
 
         @SuppressWarnings({ "unchecked", "rawtypes" })
@@ -228,26 +237,12 @@ public class ParameterList {
                 value = defaultValue.value();
             }
 
-            try {
-                return ConstructorUtils.invokeConstructor(convertTo, value);
-            } catch (Exception e) {
-                handleExceptionOnInvocation(value, e);
-            }
-
-            // fixes for:
-            // https://github.com/restlet/restlet-framework-java/issues/645
-            try {
-                return MethodUtils.invokeStaticMethod(convertTo,
-                        convertTo.isEnum() ? "fromString" : "valueOf", value);
-            } catch (Exception e) {
-                handleExceptionOnInvocation(value, e);
-            }
-
-            try {
-                return MethodUtils.invokeStaticMethod(convertTo,
-                        convertTo.isEnum() ? "valueOf" : "fromString", value);
-            } catch (Exception e) {
-                handleExceptionOnInvocation(value, e);
+            for (Invoker stringConverter : getStringConverters()) {
+                try {
+                    return stringConverter.invoke(null, value);
+                } catch (Exception e) {
+                    handleExceptionOnInvocation(value, e);
+                }
             }
 
             throw ConvertParameterException
@@ -408,6 +403,48 @@ public class ParameterList {
             throw new WebApplicationException(rb.build());
         }
 
+        /**
+         * Returns the invokers of the String constructor and of the static
+         * valueOf and fromString methods of {@link #convertTo}, in the order
+         * they are tried.
+         * 
+         * @return the invokers converting a String to {@link #convertTo}.
+         */
+        private Invoker[] getStringConverters() {
+            Invoker[] result = this.stringConverters;
+            if (result == null) {
+                final List<Invoker> invokers = new ArrayList<Invoker>(3);
+                if (!Modifier.isAbstract(this.convertTo.getModifiers())) {
+                    final Constructor<?> constructor = ConstructorUtils
+                            .getMatchingAccessibleConstructor(this.convertTo,
+                                    String.class);
+                    if (constructor != null) {
+                        invokers.add(Invoker.create(constructor));
+                    }
+                }
+                // fixes for:
+                // https://github.com/restlet/restlet-framework-java/issues/645
+                final String[] methodNames;
+                if (this.convertTo.isEnum()) {
+                    methodNames = new String[] { "fromString", "valueOf" };
+                } else {
+                    methodNames = new String[] { "valueOf", "fromString" };
+                }
+                for (String methodName : methodNames) {
+                    final Method method = MethodUtils
+                            .getMatchingAccessibleMethod(this.convertTo,
+                                    methodName, String.class);
+                    if ((method != null)
+                            && Modifier.isStatic(method.getModifiers())) {
+                        invokers.add(Invoker.create(method));
+                    }
+                }
+                result = invokers.toArray(new Invoker[invokers.size()]);
+                this.stringConverters = result;
+            }
+            return result;
+        }
+
         public Object getValue() {
             return getParamValue();
         }
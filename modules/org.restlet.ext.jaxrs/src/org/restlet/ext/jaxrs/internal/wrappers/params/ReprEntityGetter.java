@@ -34,6 +34,7 @@ import javax.ws.rs.WebApplicationException;
 
 import org.restlet.Request;
 import org.restlet.ext.jaxrs.internal.exceptions.ConvertRepresentationException;
+import org.restlet.ext.jaxrs.internal.util.Invoker;
 import org.restlet.ext.jaxrs.internal.wrappers.params.ParameterList.ParamGetter;
 import org.restlet.representation.Representation;
 
@@ -58,9 +59,10 @@ public abstract class ReprEntityGetter implements ParamGetter {
 
         @Override
         Representation createInstance(Representation entity)
-                throws IllegalArgumentException, InstantiationException,
-                IllegalAccessException, InvocationTargetException {
-            return this.constr.newInstance(this.clazz, entity);
+                throws IllegalArgumentException, IllegalAccessException,
+                InvocationTargetException {
+            return (Representation) this.invoker.invoke(null, this.clazz,
+                    entity);
         }
 
     }
@@ -95,9 +97,10 @@ public abstract class ReprEntityGetter implements ParamGetter {
 
         @Override
         Representation createInstance(Representation entity)
-                throws IllegalArgumentException, InstantiationException,
-                IllegalAccessException, InvocationTargetException {
-            return this.constr.newInstance(entity, this.clazz);
+                throws IllegalArgumentException, IllegalAccessException,
+                InvocationTargetException {
+            return (Representation) this.invoker.invoke(null, entity,
+                    this.clazz);
         }
 
     }
@@ -116,9 +119,9 @@ public abstract class ReprEntityGetter implements ParamGetter {
 
         @Override
         Representation createInstance(Representation entity)
-                throws IllegalArgumentException, InstantiationException,
-                IllegalAccessException, InvocationTargetException {
-            return this.constr.newInstance(entity);
+                throws IllegalArgumentException, IllegalAccessException,
+                InvocationTargetException {
+            return (Representation) this.invoker.invoke(null, entity);
         }
 
     }
@@ -183,14 +186,18 @@ public abstract class ReprEntityGetter implements ParamGetter {
 
     final Constructor<? extends Representation> constr;
 
+    /** The invoker of the {@link #constr}, created once. */
+    final Invoker invoker;
+
     @SuppressWarnings("unchecked")
     ReprEntityGetter(Constructor<?> constr) {
         this.constr = (Constructor<? extends Representation>) constr;
+        this.invoker = Invoker.create(constr);
     }
 
     abstract Representation createInstance(Representation entity)
-            throws IllegalArgumentException, InstantiationException,
-            IllegalAccessException, InvocationTargetException;
+            throws IllegalArgumentException, IllegalAccessException,
+            InvocationTargetException;
 
     /**
      * @return the class of the {@link Representation}.
@@ -218,9 +225,6 @@ public abstract class ReprEntityGetter implements ParamGetter {
         } catch (IllegalArgumentException e) {
             throw ConvertRepresentationException.object(getReprClass(),
                     "the message body", e);
-        } catch (InstantiationException e) {
-            throw ConvertRepresentationException.object(getReprClass(),
-                    "the message body", e);
         } catch (IllegalAccessException e) {
             throw ConvertRepresentationException.object(getReprClass(),
                     "the message body", e);
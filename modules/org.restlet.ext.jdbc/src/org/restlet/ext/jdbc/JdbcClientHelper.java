@@ -27,10 +27,14 @@ package org.restlet.ext.jdbc;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.logging.Level;
 
@@ -42,10 +46,13 @@ import org.apache.commons.dbcp.ConnectionFactory;
 import org.apache.commons.dbcp.DriverManagerConnectionFactory;
 import org.apache.commons.dbcp.PoolableConnectionFactory;
 import org.apache.commons.pool.ObjectPool;
+import org.apache.commons.pool.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool.impl.GenericKeyedObjectPoolFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.restlet.Client;
 import org.restlet.Request;
 import org.restlet.Response;
+import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Protocol;
 import org.restlet.data.Status;
@@ -70,9 +77,20 @@ import org.xml.sax.SAXException;
  * case, a different connection pool is created for each unique combination of
  * JDBC URI and connection properties.
  * <p>
+ * Pooled connections also keep a cache of their prepared statements, reused
+ * by the parameterized statements of later requests.
+ * <p>
  * Paging is supported via two header elements: "start" for the index of the
  * first result (0 by default) and "limit" for the maximum number of results
- * retrieved (unlimited by default).
+ * retrieved (unlimited by default). The "fetchSize" header element indicates
+ * the number of rows fetched from the database at once (left to the JDBC
+ * driver by default).
+ * <p>
+ * By default, the result is returned as a {@link RowSetRepresentation}. If the
+ * client prefers the {@link MediaType#TEXT_CSV} or the
+ * {@link MediaType#APPLICATION_JSON} media types, a
+ * {@link ResultSetRepresentation} is returned instead, streaming the rows
+ * without loading them all in memory.
  * <p>
  * Do not forget to register your JDBC drivers before using this client. See
  * {@link DriverManager} for details.
@@ -95,19 +113,32 @@ import org.xml.sax.SAXException;
  * &nbsp;&nbsp;&nbsp;&nbsp;{@code </connection>}<br>
  * &nbsp;&nbsp;&nbsp;&nbsp;{@code <start>10</start>}<br>
  * &nbsp;&nbsp;&nbsp;&nbsp;{@code <limit>20</limit>}<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;{@code <fetchSize>100</fetchSize>}<br>
  * &nbsp;&nbsp;&nbsp;&nbsp;
  * {@code <returnGeneratedKeys>true</returnGeneratedKeys>}<br>
  * &nbsp;&nbsp;{@code </header>}<br>
  * &nbsp;&nbsp;{@code <body>}<br>
  * &nbsp;&nbsp;&nbsp;&nbsp;{@code <statement>UPDATE myTable SET
  * myField1="value1" </statement>}<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;{@code <batch>}<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;{@code <statement>INSERT INTO myTable
+ * (myField1, myField2) VALUES (?, ?)</statement>}<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;{@code <row><parameter>a</parameter>
+ * <parameter>1</parameter></row>}<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;{@code <row><parameter>b</parameter>
+ * <parameter>2</parameter></row>}<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;{@code </batch>}<br>
  * &nbsp;&nbsp;&nbsp;&nbsp;{@code <statement>SELECT msField1, myField2 FROM
- * myTable</statement>}<br>
+ * myTable WHERE myField1 = ?<parameter>a</parameter></statement>}<br>
  * &nbsp;&nbsp;{@code </body>}<br>
  * {@code </request>}
  * <p>
- * Several SQL Statements can be specified. A {@link RowSetRepresentation} of
- * the last correctly executed SQL request is returned to the Client.
+ * Several SQL Statements can be specified. A statement containing "parameter"
+ * elements is executed as a prepared statement, the parameters being set in
+ * their order as strings. A "batch" element is executed in a single round
+ * trip, either as the list of its statements, or as its only statement
+ * executed once for each of its "row" elements. A representation of the last
+ * correctly executed SQL request is returned to the Client.
  * 
  * @see org.restlet.ext.jdbc.RowSetRepresentation
  * 
@@ -117,6 +148,10 @@ import org.xml.sax.SAXException;
  */
 @Deprecated
 public class JdbcClientHelper extends ClientHelper {
+
+    /** The maximum number of prepared statements cached per connection. */
+    private static final int MAX_OPEN_PREPARED_STATEMENTS = 100;
+
     /**
      * Creates an uniform call.
      * 
@@ -155,11 +190,18 @@ public class JdbcClientHelper extends ClientHelper {
         ConnectionFactory connectionFactory = new DriverManagerConnectionFactory(
                 uri, properties);
 
+        // Create the factory of the prepared statement pool of each
+        // connection, keyed by SQL request
+        GenericKeyedObjectPoolFactory statementPoolFactory = new GenericKeyedObjectPoolFactory(
+                null, -1, GenericKeyedObjectPool.WHEN_EXHAUSTED_FAIL, 0, 1,
+                MAX_OPEN_PREPARED_STATEMENTS);
+
         // Create the PoolableConnectionFactory, which wraps the "real"
         // Connections created by the ConnectionFactory with
         // the classes that implement the pooling functionality.
         PoolableConnectionFactory poolableConnectionFactory = new PoolableConnectionFactory(
-                connectionFactory, result, null, null, false, false);
+                connectionFactory, result, statementPoolFactory, null, false,
+                false);
 
         // To remove warnings
         poolableConnectionFactory.getPool();
@@ -167,6 +209,87 @@ public class JdbcClientHelper extends ClientHelper {
         return result;
     }
 
+    /**
+     * Returns the child elements of an element with a given tag name, in
+     * their document order. Contrary to
+     * {@link Element#getElementsByTagName(String)}, descendants are ignored.
+     * 
+     * @param element
+     *            The parent element.
+     * @param tagName
+     *            The tag name.
+     * @return The child elements.
+     */
+    private static List<Element> getChildElements(Element element,
+            String tagName) {
+        List<Element> result = new ArrayList<Element>();
+
+        for (Node child = element.getFirstChild(); child != null; child = child
+                .getNextSibling()) {
+            if ((child.getNodeType() == Node.ELEMENT_NODE)
+                    && ((tagName == null) || tagName.equals(child
+                            .getNodeName()))) {
+                result.add((Element) child);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the parameters of a statement or of a batch row.
+     * 
+     * @param element
+     *            The statement or row element.
+     * @return The list of parameter values.
+     */
+    private static List<String> getParameters(Element element) {
+        List<String> result = new ArrayList<String>();
+
+        for (Element parameterElt : getChildElements(element, "parameter")) {
+            result.add(parameterElt.getTextContent());
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the SQL request of a statement element, ignoring its parameters.
+     * 
+     * @param statementElt
+     *            The statement element.
+     * @return The SQL request.
+     */
+    private static String getSql(Element statementElt) {
+        StringBuilder result = new StringBuilder();
+
+        for (Node child = statementElt.getFirstChild(); child != null; child = child
+                .getNextSibling()) {
+            if ((child.getNodeType() == Node.TEXT_NODE)
+                    || (child.getNodeType() == Node.CDATA_SECTION_NODE)) {
+                result.append(child.getNodeValue());
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Sets the parameters of a prepared statement as strings.
+     * 
+     * @param statement
+     *            The prepared statement.
+     * @param parameters
+     *            The parameter values.
+     * @throws SQLException
+     */
+    private static void setParameters(PreparedStatement statement,
+            List<String> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setString(i + 1, parameters.get(i));
+        }
+    }
+
     /**
      * Escapes quotes in a SQL query.
      * 
@@ -208,6 +331,54 @@ public class JdbcClientHelper extends ClientHelper {
         this.connectionSources = new ArrayList<ConnectionSource>();
     }
 
+    /**
+     * Executes a batch element, either as a list of SQL statements or as a
+     * single prepared statement executed for each row of parameters.
+     * 
+     * @param connection
+     *            The JDBC connection.
+     * @param batchElt
+     *            The batch element.
+     * @param preparedStatements
+     *            The prepared statements of the current request.
+     * @param returnGeneratedKeys
+     *            Indicates if the generated keys should be returned.
+     * @return The executed statement.
+     * @throws SQLException
+     */
+    private Statement executeBatch(Connection connection, Element batchElt,
+            Map<String, PreparedStatement> preparedStatements,
+            boolean returnGeneratedKeys) throws SQLException {
+        Statement result = null;
+        List<Element> statementElts = getChildElements(batchElt, "statement");
+        List<Element> rowElts = getChildElements(batchElt, "row");
+
+        if (rowElts.isEmpty()) {
+            result = connection.createStatement();
+
+            for (Element statementElt : statementElts) {
+                result.addBatch(statementElt.getTextContent());
+            }
+        } else if (statementElts.size() == 1) {
+            PreparedStatement statement = prepareStatement(connection,
+                    getSql(statementElts.get(0)), preparedStatements,
+                    returnGeneratedKeys);
+
+            for (Element rowElt : rowElts) {
+                setParameters(statement, getParameters(rowElt));
+                statement.addBatch();
+            }
+
+            result = statement;
+        } else {
+            throw new SQLException(
+                    "A batch with rows must contain a single statement");
+        }
+
+        result.executeBatch();
+        return result;
+    }
+
     /**
      * Returns a JDBC connection.
      * 
@@ -310,6 +481,12 @@ public class JdbcClientHelper extends ClientHelper {
                         && limitNode.getTextContent().trim().length() > 0 ? Integer
                         .parseInt(limitNode.getTextContent()) : -1;
 
+                Node fetchSizeNode = headerElt.getElementsByTagName(
+                        "fetchSize").item(0);
+                int fetchSize = fetchSizeNode != null
+                        && fetchSizeNode.getTextContent().trim().length() > 0 ? Integer
+                        .parseInt(fetchSizeNode.getTextContent().trim()) : 0;
+
                 // Read the connection properties
                 NodeList propertyNodes = connectionElt
                         .getElementsByTagName("property");
@@ -334,24 +511,39 @@ public class JdbcClientHelper extends ClientHelper {
                 boolean returnGeneratedKeys = returnGeneratedKeysNode
                         .getTextContent().equals("true") ? true : false;
 
-                // Read the SQL body and get the list of sql statements
+                // Read the SQL body and get the list of sql statements and
+                // batches, in their document order
                 Element bodyElt = (Element) rootElt
                         .getElementsByTagName("body").item(0);
-                NodeList statementNodes = bodyElt
-                        .getElementsByTagName("statement");
-                List<String> sqlRequests = new ArrayList<String>();
-                for (int i = 0; i < statementNodes.getLength(); i++) {
-                    String sqlRequest = statementNodes.item(i).getTextContent();
-                    sqlRequests.add(sqlRequest);
+                List<Element> sqlRequests = new ArrayList<Element>();
+                for (Element sqlElt : getChildElements(bodyElt, null)) {
+                    if ("statement".equals(sqlElt.getNodeName())
+                            || "batch".equals(sqlElt.getNodeName())) {
+                        sqlRequests.add(sqlElt);
+                    }
                 }
 
                 // Execute the List of SQL requests
                 connection = getConnection(connectionURI, properties,
                         usePooling);
                 JdbcResult result = handleSqlRequests(connection,
-                        returnGeneratedKeys, sqlRequests);
-                response.setEntity(new RowSetRepresentation(result, start,
-                        limit));
+                        returnGeneratedKeys, fetchSize, sqlRequests);
+                MediaType mediaType = request.getClientInfo()
+                        .getPreferredMediaType(
+                                Arrays.asList(MediaType.TEXT_XML,
+                                        MediaType.TEXT_CSV,
+                                        MediaType.APPLICATION_JSON));
+
+                if (MediaType.TEXT_CSV.equals(mediaType)
+                        || MediaType.APPLICATION_JSON.equals(mediaType)) {
+                    ResultSetRepresentation rsr = new ResultSetRepresentation(
+                            result, mediaType, start, limit);
+                    rsr.setFetchSize(fetchSize);
+                    response.setEntity(rsr);
+                } else {
+                    response.setEntity(new RowSetRepresentation(result, start,
+                            limit));
+                }
             } catch (SQLException se) {
                 getLogger().log(Level.WARNING,
                         "Error while processing the SQL request", se);
@@ -379,20 +571,63 @@ public class JdbcClientHelper extends ClientHelper {
      * 
      * @param connection
      * @param returnGeneratedKeys
+     * @param fetchSize
+     *            The number of rows fetched at once or 0 to let the driver
+     *            decide.
      * @param sqlRequests
+     *            The statement and batch elements.
      * @return the result of the last executed SQL request
      */
     private JdbcResult handleSqlRequests(Connection connection,
-            boolean returnGeneratedKeys, List<String> sqlRequests) {
+            boolean returnGeneratedKeys, int fetchSize,
+            List<Element> sqlRequests) {
         JdbcResult result = null;
+        Statement resultStatement = null;
+        List<Statement> statements = new ArrayList<Statement>();
         try {
             connection.setAutoCommit(true);
-            Statement statement = connection.createStatement();
-            for (String sqlRequest : sqlRequests) {
-                statement.execute(sqlRequest,
-                        returnGeneratedKeys ? Statement.RETURN_GENERATED_KEYS
-                                : Statement.NO_GENERATED_KEYS);
-                result = new JdbcResult(statement);
+            Statement statement = null;
+            Map<String, PreparedStatement> preparedStatements = new HashMap<String, PreparedStatement>();
+            for (Element sqlRequest : sqlRequests) {
+                if ("batch".equals(sqlRequest.getNodeName())) {
+                    resultStatement = executeBatch(connection, sqlRequest,
+                            preparedStatements, returnGeneratedKeys);
+                    if (!statements.contains(resultStatement)) {
+                        statements.add(resultStatement);
+                    }
+                    result = new JdbcResult(resultStatement);
+                    continue;
+                }
+
+                List<String> parameters = getParameters(sqlRequest);
+                if (parameters.isEmpty()) {
+                    if (statement == null) {
+                        statement = connection.createStatement();
+                        statements.add(statement);
+                        if (fetchSize > 0) {
+                            statement.setFetchSize(fetchSize);
+                        }
+                    }
+                    statement.execute(sqlRequest.getTextContent(),
+                            returnGeneratedKeys ? Statement.RETURN_GENERATED_KEYS
+                                    : Statement.NO_GENERATED_KEYS);
+                    resultStatement = statement;
+                    result = new JdbcResult(statement);
+                } else {
+                    PreparedStatement preparedStatement = prepareStatement(
+                            connection, getSql(sqlRequest),
+                            preparedStatements, returnGeneratedKeys);
+                    if (fetchSize > 0) {
+                        preparedStatement.setFetchSize(fetchSize);
+                    }
+                    if (!statements.contains(preparedStatement)) {
+                        statements.add(preparedStatement);
+                    }
+                    setParameters(preparedStatement, parameters);
+                    preparedStatement.execute();
+                    resultStatement = preparedStatement;
+                    result = new JdbcResult(preparedStatement);
+                }
             }
 
             // Commit any changes to the database
@@ -410,8 +645,58 @@ public class JdbcClientHelper extends ClientHelper {
                 getLogger().log(Level.WARNING,
                         "Error while rollbacking the transaction", se);
             }
+        } finally {
+            // Close the statements not backing the result. Pooled prepared
+            // statements are given back to the statement pool instead.
+            for (Statement statement : statements) {
+                if (statement != resultStatement) {
+                    try {
+                        statement.close();
+                    } catch (SQLException se) {
+                        getLogger().log(Level.FINE,
+                                "Unable to close the SQL statement", se);
+                    }
+                }
+            }
         }
         return result;
 
     }
+
+    /**
+     * Returns a prepared statement for the given SQL request, reusing the one
+     * previously prepared during the current request. Pooled connections also
+     * reuse the statements prepared by the previous requests.
+     * 
+     * @param connection
+     *            The JDBC connection.
+     * @param sql
+     *            The SQL request.
+     * @param preparedStatements
+     *            The prepared statements of the current request.
+     * @param returnGeneratedKeys
+     *            Indicates if the generated keys should be returned.
+     * @return The prepared statement.
+     * @throws SQLException
+     */
+    private PreparedStatement prepareStatement(Connection connection,
+            String sql, Map<String, PreparedStatement> preparedStatements,
+            boolean returnGeneratedKeys) throws SQLException {
+        PreparedStatement result = preparedStatements.get(sql);
+
+        if (result == null) {
+            if (returnGeneratedKeys) {
+                result = connection.prepareStatement(sql,
+                        Statement.RETURN_GENERATED_KEYS);
+            } else {
+                result = connection.prepareStatement(sql);
+            }
+
+            preparedStatements.put(sql, result);
+        } else {
+            result.clearParameters();
+        }
+
+        return result;
+    }
 }
@@ -31,6 +31,7 @@ import java.util.List;
 
 import javax.sql.rowset.WebRowSet;
 
+import org.restlet.data.MediaType;
 import org.restlet.engine.converter.ConverterHelper;
 import org.restlet.engine.resource.VariantInfo;
 import org.restlet.representation.Representation;
@@ -39,7 +40,9 @@ import org.restlet.resource.Resource;
 
 /**
  * A converter helper to convert from {@link WebRowSet}, {@link JdbcResult} or
- * {@link ResultSet} objects to Representation.
+ * {@link ResultSet} objects to Representation. When the target variant is
+ * {@link MediaType#TEXT_CSV} or {@link MediaType#APPLICATION_JSON}, results
+ * are streamed with a {@link ResultSetRepresentation}.
  * 
  * @author Thierry Boileau
  * @deprecated Use a persistence technology such as Mybatis or Hibernate instead.
@@ -82,7 +85,22 @@ public class JdbcConverter extends ConverterHelper {
     @Override
     public Representation toRepresentation(Object source, Variant target,
             Resource resource) throws IOException {
-        if (source instanceof WebRowSet) {
+        MediaType mediaType = (target == null) ? null : target.getMediaType();
+        boolean streaming = MediaType.TEXT_CSV.equals(mediaType, true)
+                || MediaType.APPLICATION_JSON.equals(mediaType, true);
+
+        if (streaming && (source instanceof JdbcResult)) {
+            try {
+                return new ResultSetRepresentation((JdbcResult) source,
+                        mediaType);
+            } catch (SQLException e) {
+                throw new IOException(
+                        "Cannot convert the JdbcResult source object as a ResultSetRepresentation due to:"
+                                + e.getMessage());
+            }
+        } else if (streaming && (source instanceof ResultSet)) {
+            return new ResultSetRepresentation((ResultSet) source, mediaType);
+        } else if (source instanceof WebRowSet) {
             return new RowSetRepresentation((WebRowSet) source);
         } else if (source instanceof JdbcResult) {
             try {
@@ -0,0 +1,498 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jdbc;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.logging.Level;
+
+import org.restlet.Context;
+import org.restlet.data.MediaType;
+import org.restlet.representation.WriterRepresentation;
+
+/**
+ * Representation of a ResultSet instance, wrapped or not in a JdbcResult
+ * instance, that writes its rows incrementally while navigating the cursor.
+ * Contrary to the {@link RowSetRepresentation}, the rows are never loaded in
+ * memory all together, so large results can be transferred with a constant
+ * memory usage.<br>
+ * <br>
+ * Two formats are supported:
+ * <ul>
+ * <li>{@link MediaType#TEXT_CSV}: a header line with the column labels then
+ * one line per row, as defined by RFC 4180.</li>
+ * <li>{@link MediaType#APPLICATION_JSON}: a JSON array containing one object
+ * per row, written on its own line and keyed by the column labels.</li>
+ * </ul>
+ * The JDBC resources are released once the representation has been written
+ * or when the representation is released.
+ * 
+ * @author Jerome Louvel
+ * @deprecated Use a persistence technology such as Mybatis or Hibernate
+ *             instead.
+ */
+@Deprecated
+public class ResultSetRepresentation extends WriterRepresentation {
+
+    /**
+     * Returns the textual form of a column value. Binary values are written in
+     * hexadecimal and character large objects are read.
+     * 
+     * @param value
+     *            The column value.
+     * @return The textual form of the value.
+     * @throws SQLException
+     */
+    private static String getText(Object value) throws SQLException {
+        String result;
+
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+
+            for (byte b : bytes) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+                sb.append(Character.forDigit(b & 0xf, 16));
+            }
+
+            result = sb.toString();
+        } else if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+            result = clob.getSubString(1, (int) clob.length());
+        } else {
+            result = value.toString();
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes a CSV value, quoting it if necessary.
+     * 
+     * @param writer
+     *            The writer to use.
+     * @param value
+     *            The value to write or null.
+     * @throws IOException
+     */
+    private static void writeCsv(Writer writer, String value)
+            throws IOException {
+        if (value != null) {
+            boolean quote = false;
+
+            for (int i = 0; !quote && (i < value.length()); i++) {
+                char c = value.charAt(i);
+                quote = (c == ',') || (c == '"') || (c == '\r')
+                        || (c == '\n');
+            }
+
+            if (quote) {
+                writer.write('"');
+
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+
+                    if (c == '"') {
+                        writer.write('"');
+                    }
+
+                    writer.write(c);
+                }
+
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+    }
+
+    /**
+     * Writes a JSON string.
+     * 
+     * @param writer
+     *            The writer to use.
+     * @param value
+     *            The value to write.
+     * @throws IOException
+     */
+    private static void writeJson(Writer writer, String value)
+            throws IOException {
+        writer.write('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+            case '"':
+                writer.write("\\\"");
+                break;
+            case '\\':
+                writer.write("\\\\");
+                break;
+            case '\b':
+                writer.write("\\b");
+                break;
+            case '\f':
+                writer.write("\\f");
+                break;
+            case '\n':
+                writer.write("\\n");
+                break;
+            case '\r':
+                writer.write("\\r");
+                break;
+            case '\t':
+                writer.write("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    String hex = Integer.toHexString(c);
+                    writer.write("\\u");
+
+                    for (int j = hex.length(); j < 4; j++) {
+                        writer.write('0');
+                    }
+
+                    writer.write(hex);
+                } else {
+                    writer.write(c);
+                }
+            }
+        }
+
+        writer.write('"');
+    }
+
+    /** The number of rows fetched from the database at once. */
+    private volatile int fetchSize;
+
+    /** JdbcResult instance that gives access to the resultSet. */
+    private volatile JdbcResult jdbcResult;
+
+    /** The page size or -1 if no limit is set. */
+    private volatile int limit;
+
+    /** The result set to write. */
+    private volatile ResultSet resultSet;
+
+    /** The start index of the page or 0 for the first result. */
+    private volatile int start;
+
+    /**
+     * Constructor.
+     * 
+     * @param jdbcResult
+     *            The inner JdbcResult.
+     * @param mediaType
+     *            The media type, either {@link MediaType#TEXT_CSV} or
+     *            {@link MediaType#APPLICATION_JSON}.
+     * @throws SQLException
+     */
+    public ResultSetRepresentation(JdbcResult jdbcResult, MediaType mediaType)
+            throws SQLException {
+        this(jdbcResult, mediaType, 0, -1);
+    }
+
+    /**
+     * Constructor with paging.
+     * 
+     * @param jdbcResult
+     *            The inner JdbcResult.
+     * @param mediaType
+     *            The media type, either {@link MediaType#TEXT_CSV} or
+     *            {@link MediaType#APPLICATION_JSON}.
+     * @param start
+     *            The start index of the page or 0 for the first result.
+     * @param limit
+     *            The page size or -1 if no limit is set.
+     * @throws SQLException
+     */
+    public ResultSetRepresentation(JdbcResult jdbcResult, MediaType mediaType,
+            int start, int limit) throws SQLException {
+        this((jdbcResult == null) ? null : jdbcResult.getResultSet(),
+                mediaType, start, limit);
+        this.jdbcResult = jdbcResult;
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param resultSet
+     *            The result set to write.
+     * @param mediaType
+     *            The media type, either {@link MediaType#TEXT_CSV} or
+     *            {@link MediaType#APPLICATION_JSON}.
+     */
+    public ResultSetRepresentation(ResultSet resultSet, MediaType mediaType) {
+        this(resultSet, mediaType, 0, -1);
+    }
+
+    /**
+     * Constructor with paging.
+     * 
+     * @param resultSet
+     *            The result set to write.
+     * @param mediaType
+     *            The media type, either {@link MediaType#TEXT_CSV} or
+     *            {@link MediaType#APPLICATION_JSON}.
+     * @param start
+     *            The start index of the page or 0 for the first result.
+     * @param limit
+     *            The page size or -1 if no limit is set.
+     */
+    public ResultSetRepresentation(ResultSet resultSet, MediaType mediaType,
+            int start, int limit) {
+        super(mediaType);
+
+        if (!MediaType.TEXT_CSV.equals(mediaType, true)
+                && !MediaType.APPLICATION_JSON.equals(mediaType, true)) {
+            throw new IllegalArgumentException("Unsupported media type: "
+                    + mediaType);
+        }
+
+        this.resultSet = resultSet;
+        this.start = start;
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the number of rows fetched from the database at once. A value of
+     * 0 lets the JDBC driver decide.
+     * 
+     * @return The number of rows fetched from the database at once.
+     */
+    public int getFetchSize() {
+        return this.fetchSize;
+    }
+
+    /**
+     * Returns the inner JdbcResult instance or null.
+     * 
+     * @return The inner JdbcResult instance or null.
+     */
+    public JdbcResult getJdbcResult() {
+        return this.jdbcResult;
+    }
+
+    /**
+     * Returns the result set to write.
+     * 
+     * @return The result set to write.
+     */
+    public ResultSet getResultSet() {
+        return this.resultSet;
+    }
+
+    /**
+     * Releases the result set and the inner JdbcResult, if they haven't been
+     * released after writing.
+     */
+    @Override
+    public void release() {
+        try {
+            releaseResults();
+        } catch (SQLException se) {
+            Context.getCurrentLogger().log(Level.WARNING,
+                    "Error while releasing the JDBC result", se);
+        }
+
+        super.release();
+    }
+
+    /**
+     * Closes the result set and releases the inner JdbcResult.
+     * 
+     * @throws SQLException
+     */
+    private void releaseResults() throws SQLException {
+        ResultSet rs = this.resultSet;
+        JdbcResult jr = this.jdbcResult;
+        this.resultSet = null;
+        this.jdbcResult = null;
+
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+        } finally {
+            if (jr != null) {
+                jr.release();
+            }
+        }
+    }
+
+    /**
+     * Sets the number of rows fetched from the database at once. A value of 0
+     * lets the JDBC driver decide.
+     * 
+     * @param fetchSize
+     *            The number of rows fetched from the database at once.
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void write(Writer writer) throws IOException {
+        boolean json = MediaType.APPLICATION_JSON.equals(getMediaType(), true);
+
+        try {
+            ResultSet rs = this.resultSet;
+
+            if (json) {
+                writer.write('[');
+            }
+
+            if (rs != null) {
+                if (this.fetchSize > 0) {
+                    rs.setFetchSize(this.fetchSize);
+                }
+
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                String[] labels = new String[columnCount];
+
+                for (int i = 0; i < columnCount; i++) {
+                    labels[i] = metaData.getColumnLabel(i + 1);
+                }
+
+                if (!json) {
+                    writeCsvRow(writer, labels);
+                }
+
+                boolean hasNext = rs.next();
+
+                for (int i = 0; hasNext && (i < this.start); i++) {
+                    hasNext = rs.next();
+                }
+
+                String[] values = new String[columnCount];
+
+                for (int count = 0; hasNext
+                        && ((this.limit < 0) || (count < this.limit)); count++) {
+                    if (json) {
+                        writer.write((count == 0) ? "\n" : ",\n");
+                        writeJsonRow(writer, rs, labels);
+                    } else {
+                        for (int i = 0; i < columnCount; i++) {
+                            values[i] = rs.getString(i + 1);
+                        }
+
+                        writeCsvRow(writer, values);
+                    }
+
+                    hasNext = rs.next();
+                }
+            }
+
+            if (json) {
+                writer.write("\n]");
+            }
+
+            writer.flush();
+        } catch (SQLException se) {
+            throw new IOException(
+                    "SQL exception while writing the result set. "
+                            + se.getMessage());
+        } finally {
+            try {
+                releaseResults();
+            } catch (SQLException se) {
+                throw new IOException(
+                        "SQL exception while releasing the JdbcResult instance after writing the representation. "
+                                + se.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes a CSV line.
+     * 
+     * @param writer
+     *            The writer to use.
+     * @param values
+     *            The values of the line.
+     * @throws IOException
+     */
+    private void writeCsvRow(Writer writer, String[] values)
+            throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+
+            writeCsv(writer, values[i]);
+        }
+
+        writer.write("\r\n");
+    }
+
+    /**
+     * Writes the current row as a JSON object.
+     * 
+     * @param writer
+     *            The writer to use.
+     * @param rs
+     *            The result set positioned on the row to write.
+     * @param labels
+     *            The column labels.
+     * @throws IOException
+     * @throws SQLException
+     */
+    private void writeJsonRow(Writer writer, ResultSet rs, String[] labels)
+            throws IOException, SQLException {
+        writer.write('{');
+
+        for (int i = 0; i < labels.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+
+            writeJson(writer, labels[i]);
+            writer.write(':');
+            Object value = rs.getObject(i + 1);
+
+            if (value == null) {
+                writer.write("null");
+            } else if (value instanceof Boolean) {
+                writer.write(value.toString());
+            } else if ((value instanceof Number)
+                    && !((value instanceof Double) && (((Double) value)
+                            .isNaN() || ((Double) value).isInfinite()))
+                    && !((value instanceof Float) && (((Float) value)
+                            .isNaN() || ((Float) value).isInfinite()))) {
+                writer.write(value.toString());
+            } else {
+                writeJson(writer, getText(value));
+            }
+        }
+
+        writer.write('}');
+    }
+}
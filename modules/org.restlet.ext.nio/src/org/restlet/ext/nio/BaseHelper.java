@@ -45,6 +45,7 @@ import org.restlet.data.Status;
 import org.restlet.engine.Engine;
 import org.restlet.engine.connector.ConnectorHelper;
 import org.restlet.engine.log.LoggingThreadFactory;
+import org.restlet.engine.util.ThreadPerTaskExecutor;
 import org.restlet.ext.nio.internal.controller.ConnectionController;
 
 /**
@@ -136,6 +137,25 @@ import org.restlet.ext.nio.internal.controller.ConnectionController;
  * never block, otherwise the other connections would hang.</td>
  * </tr>
  * <tr>
+ * <td>virtualThreads</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if each call should be dispatched on its own worker thread,
+ * virtual if supported by the JVM, instead of using a bounded pool of worker
+ * threads. In this mode, the "minThreads", "maxThreads" and "maxQueued"
+ * parameters are ignored and the number of calls processed concurrently is
+ * limited by the "maxConcurrentCalls" parameter. Calls above this limit wait
+ * for a running call to complete.</td>
+ * </tr>
+ * <tr>
+ * <td>maxConcurrentCalls</td>
+ * <td>int</td>
+ * <td>1000</td>
+ * <td>Maximum number of calls processed concurrently in the virtual threads
+ * mode. A value inferior or equal to 0 means no limit. The connector is
+ * considered overloaded when as many calls are waiting.</td>
+ * </tr>
+ * <tr>
  * <td>inboundBufferSize</td>
  * <td>int</td>
  * <td>16 * 1024</td>
@@ -267,22 +287,27 @@ public abstract class BaseHelper<T extends Connector> extends
      * @return The handler service.
      */
     protected ThreadPoolExecutor createWorkerService() {
-        int maxThreads = getMaxThreads();
-        int minThreads = getMinThreads();
+        ThreadPoolExecutor result = null;
 
-        BlockingQueue<Runnable> queue = null;
-
-        if (getMaxQueued() == 0) {
-            queue = new SynchronousQueue<Runnable>();
-        } else if (getMaxQueued() < 0) {
-            queue = new LinkedBlockingQueue<Runnable>();
+        if (isVirtualThreads()) {
+            result = new ThreadPerTaskExecutor(getMaxConcurrentCalls(),
+                    new LoggingThreadFactory(getLogger(), true));
         } else {
-            queue = new ArrayBlockingQueue<Runnable>(getMaxQueued());
+            BlockingQueue<Runnable> queue = null;
+
+            if (getMaxQueued() == 0) {
+                queue = new SynchronousQueue<Runnable>();
+            } else if (getMaxQueued() < 0) {
+                queue = new LinkedBlockingQueue<Runnable>();
+            } else {
+                queue = new ArrayBlockingQueue<Runnable>(getMaxQueued());
+            }
+
+            result = new ThreadPoolExecutor(getMinThreads(), getMaxThreads(),
+                    getMaxThreadIdleTimeMs(), TimeUnit.MILLISECONDS, queue,
+                    new LoggingThreadFactory(getLogger(), true));
         }
 
-        ThreadPoolExecutor result = new ThreadPoolExecutor(minThreads,
-                maxThreads, getMaxThreadIdleTimeMs(), TimeUnit.MILLISECONDS,
-                queue, new LoggingThreadFactory(getLogger(), true));
         result.setRejectedExecutionHandler(new RejectedExecutionHandler() {
             public void rejectedExecution(Runnable r,
                     ThreadPoolExecutor executor) {
@@ -427,6 +452,17 @@ public abstract class BaseHelper<T extends Connector> extends
                 "lowThreads", "8"));
     }
 
+    /**
+     * Returns the maximum number of calls processed concurrently in the
+     * virtual threads mode. A value inferior or equal to 0 means no limit.
+     * 
+     * @return The maximum number of calls processed concurrently.
+     */
+    public int getMaxConcurrentCalls() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxConcurrentCalls", "1000"));
+    }
+
     /**
      * Returns the time for an idle IO connection or request to wait for an
      * operation before being closed. For an unlimited wait, use '0' as value.
@@ -695,16 +731,38 @@ public abstract class BaseHelper<T extends Connector> extends
                 "tracing", "false"));
     }
 
+    /**
+     * Indicates if each call should be dispatched on its own worker thread,
+     * virtual if supported by the JVM.
+     * 
+     * @return True if each call should be dispatched on its own worker thread.
+     */
+    public boolean isVirtualThreads() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "virtualThreads", "false"));
+    }
+
     /**
      * Indicates if the worker service is busy. This state is detected by
      * checking if the number of active task running is superior or equal to the
-     * maximum pool size.
+     * maximum pool size. In the virtual threads mode, it is detected by
+     * checking if as many calls are waiting as the maximum number of
+     * concurrent calls.
      * 
      * @return True if the worker service is busy.
      */
     public boolean isWorkerServiceOverloaded() {
-        return (getWorkerService() != null)
-                && getWorkerService().getActiveCount() >= getLowThreads();
+        ThreadPoolExecutor service = getWorkerService();
+
+        if (service instanceof ThreadPerTaskExecutor) {
+            ThreadPerTaskExecutor executor = (ThreadPerTaskExecutor) service;
+            return (executor.getMaxConcurrency() > 0)
+                    && (executor.getWaitingCount() >= executor
+                            .getMaxConcurrency());
+        }
+
+        return (service != null)
+                && service.getActiveCount() >= getLowThreads();
     }
 
     /**
@@ -719,6 +777,7 @@ public abstract class BaseHelper<T extends Connector> extends
         if (message != null) {
             message.setStatus(status);
             getInboundMessages().add(message);
+            getController().wakeup();
         }
     }
 
@@ -740,6 +799,7 @@ public abstract class BaseHelper<T extends Connector> extends
             }
 
             getInboundMessages().add(message);
+            getController().wakeup();
         }
     }
 
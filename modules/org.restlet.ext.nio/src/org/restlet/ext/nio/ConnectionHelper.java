@@ -31,11 +31,13 @@ import java.net.SocketException;
 import java.nio.channels.SocketChannel;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.restlet.Application;
 import org.restlet.Connector;
 import org.restlet.Context;
 import org.restlet.Response;
+import org.restlet.ext.nio.internal.buffer.BufferPool;
 import org.restlet.ext.nio.internal.connection.Connection;
 import org.restlet.ext.nio.internal.connection.ConnectionPool;
 import org.restlet.ext.nio.internal.controller.ConnectionController;
@@ -69,6 +71,14 @@ import org.restlet.routing.VirtualHost;
  * simply reused.</td>
  * </tr>
  * <tr>
+ * <td>maxBufferPoolSize</td>
+ * <td>long</td>
+ * <td>67108864</td>
+ * <td>Maximum total size in bytes of the byte buffers allocated by the buffer
+ * pool, either idle or in use. Beyond this limit, transient byte buffers are
+ * allocated. Only applicable if "pooledBuffers" is true.</td>
+ * </tr>
+ * <tr>
  * <td>maxTotalConnections</td>
  * <td>int</td>
  * <td>-1</td>
@@ -87,6 +97,22 @@ import org.restlet.routing.VirtualHost;
  * <td>Indicates if pipelining connections are supported.</td>
  * </tr>
  * <tr>
+ * <td>bufferPoolSizeClasses</td>
+ * <td>String</td>
+ * <td>null</td>
+ * <td>Comma separated list of the byte buffer sizes managed by the buffer pool.
+ * By default, the inbound and outbound buffer sizes are used. Only applicable
+ * if "pooledBuffers" is true.</td>
+ * </tr>
+ * <tr>
+ * <td>pooledBuffers</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if the byte buffers of the connections should be checked out
+ * of a shared pool when needed and given back when the connection is idle,
+ * instead of being held for the lifetime of each connection.</td>
+ * </tr>
+ * <tr>
  * <td>pooledConnections</td>
  * <td>boolean</td>
  * <td>true</td>
@@ -147,18 +173,37 @@ import org.restlet.routing.VirtualHost;
  * <td>0</td>
  * <td>Type of service to set in IP packets.</td>
  * </tr>
+ * <tr>
+ * <td>transferringFiles</td>
+ * <td>boolean</td>
+ * <td>true</td>
+ * <td>Indicates if file entities, including byte ranges of files, should be
+ * transferred directly from the file system to the socket with
+ * {@link java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+ * , without copy in user space. Not applicable to SSL connections or when
+ * tracing or throttling are enabled.</td>
+ * </tr>
  * </table>
  * 
  * @author Jerome Louvel
  */
 public abstract class ConnectionHelper<T extends Connector> extends
         BaseHelper<T> {
+    /** The byte buffer pool. */
+    private volatile BufferPool bufferPool;
+
     /** The connection pool. */
     private volatile ConnectionPool<T> connectionPool;
 
     /** The set of active connections. */
     private final List<Connection<T>> connections;
 
+    /** The number of bytes transferred directly from files. */
+    private final AtomicLong transferredBytes;
+
+    /** The number of entities fully transferred directly from files. */
+    private final AtomicLong transferredEntities;
+
     /**
      * Constructor.
      * 
@@ -169,8 +214,11 @@ public abstract class ConnectionHelper<T extends Connector> extends
      */
     public ConnectionHelper(T connector, boolean clientSide) {
         super(connector, clientSide);
+        this.bufferPool = null;
         this.connections = new CopyOnWriteArrayList<Connection<T>>();
         this.connectionPool = null;
+        this.transferredBytes = new AtomicLong();
+        this.transferredEntities = new AtomicLong();
     }
 
     /**
@@ -276,6 +324,16 @@ public abstract class ConnectionHelper<T extends Connector> extends
             ConnectionController controller, InetSocketAddress socketAddress)
             throws IOException;
 
+    /**
+     * Creates the byte buffer pool.
+     */
+    public void createBufferPool() {
+        if (isPooledBuffers()) {
+            this.bufferPool = new BufferPool(getBufferPoolSizeClasses(),
+                    getMaxBufferPoolSize(), isDirectBuffers());
+        }
+    }
+
     /**
      * Creates the connection pool.
      */
@@ -317,6 +375,11 @@ public abstract class ConnectionHelper<T extends Connector> extends
         if (isPooledConnection()) {
             this.connectionPool = null;
         }
+
+        if (this.bufferPool != null) {
+            this.bufferPool.clear();
+            this.bufferPool = null;
+        }
     }
 
     @Override
@@ -329,6 +392,41 @@ public abstract class ConnectionHelper<T extends Connector> extends
         }
     }
 
+    /**
+     * Returns the byte buffer pool or null if buffers aren't pooled. Its
+     * statistics can be used to monitor the buffer memory usage.
+     * 
+     * @return The byte buffer pool or null.
+     */
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Returns the byte buffer sizes managed by the buffer pool.
+     * 
+     * @return The byte buffer sizes managed by the buffer pool.
+     */
+    public int[] getBufferPoolSizeClasses() {
+        int[] result = null;
+        String sizeClasses = getHelpedParameters().getFirstValue(
+                "bufferPoolSizeClasses");
+
+        if (sizeClasses == null) {
+            result = new int[] { getInboundBufferSize(),
+                    getOutboundBufferSize() };
+        } else {
+            String[] sizes = sizeClasses.split(",");
+            result = new int[sizes.length];
+
+            for (int i = 0; i < sizes.length; i++) {
+                result[i] = Integer.parseInt(sizes[i].trim());
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the connection pool.
      * 
@@ -360,6 +458,17 @@ public abstract class ConnectionHelper<T extends Connector> extends
                 "initialConnections", "100"));
     }
 
+    /**
+     * Returns the maximum total size in bytes of the byte buffers allocated by
+     * the buffer pool.
+     * 
+     * @return The maximum total size of the pooled byte buffers.
+     */
+    public long getMaxBufferPoolSize() {
+        return Long.parseLong(getHelpedParameters().getFirstValue(
+                "maxBufferPoolSize", Long.toString(64L * 1024 * 1024)));
+    }
+
     /**
      * Returns the maximum concurrent connections per host (IP address). By
      * default, it is unbounded.
@@ -433,6 +542,27 @@ public abstract class ConnectionHelper<T extends Connector> extends
 
     }
 
+    /**
+     * Returns the number of bytes transferred directly from files to sockets.
+     * 
+     * @return The number of bytes transferred directly from files.
+     * @see #isTransferringFiles()
+     */
+    public long getTransferredBytes() {
+        return this.transferredBytes.get();
+    }
+
+    /**
+     * Returns the number of entities fully transferred directly from files to
+     * sockets.
+     * 
+     * @return The number of entities fully transferred directly from files.
+     * @see #isTransferringFiles()
+     */
+    public long getTransferredEntities() {
+        return this.transferredEntities.get();
+    }
+
     /**
      * Indicates if persistent connections should be used if possible.
      * 
@@ -453,6 +583,16 @@ public abstract class ConnectionHelper<T extends Connector> extends
                 "pipeliningConnections", "false"));
     }
 
+    /**
+     * Indicates if the byte buffers of the connections should be pooled.
+     * 
+     * @return True if the byte buffers of the connections should be pooled.
+     */
+    public boolean isPooledBuffers() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "pooledBuffers", "false"));
+    }
+
     /**
      * Indicates if the connection objects should be pooled to save
      * instantiation time.
@@ -519,4 +659,33 @@ public abstract class ConnectionHelper<T extends Connector> extends
         return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
                 "socketReuseAddress", "true"));
     }
+
+    /**
+     * Indicates if file entities should be transferred directly from the file
+     * system to the socket, without copy in user space.
+     * 
+     * @return True if file entities should be transferred directly.
+     */
+    public boolean isTransferringFiles() {
+        return !isTracing()
+                && (getThrottleTimeMs() <= 0)
+                && Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                        "transferringFiles", "true"));
+    }
+
+    /**
+     * Updates the statistics of the direct file transfers.
+     * 
+     * @param bytes
+     *            The number of bytes transferred.
+     * @param completed
+     *            True if the entity transfer is completed.
+     */
+    public void onTransferred(long bytes, boolean completed) {
+        this.transferredBytes.addAndGet(bytes);
+
+        if (completed) {
+            this.transferredEntities.incrementAndGet();
+        }
+    }
 }
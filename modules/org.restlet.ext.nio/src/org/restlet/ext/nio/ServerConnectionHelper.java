@@ -69,6 +69,15 @@ import org.restlet.ext.nio.internal.request.InboundRequest;
  * <td>Enable/disable the SO_REUSEADDR socket option. See
  * java.io.ServerSocket#reuseAddress property for additional details.</td>
  * </tr>
+ * <tr>
+ * <td>selectorThreads</td>
+ * <td>int</td>
+ * <td>0</td>
+ * <td>Number of event loop threads, each with its own NIO selector, sharing the
+ * IO processing of the accepted connections. Each new connection is assigned
+ * to the least loaded event loop. If 0, the controller thread both accepts the
+ * connections and processes their IO.</td>
+ * </tr>
  * </table>
  * 
  * @author Jerome Louvel
@@ -205,6 +214,11 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
                     if (canHandle(connection, response)) {
                         // Add the response to the outbound queue
                         connection.getOutboundWay().handle(response);
+
+                        if (connection.getController() != getController()) {
+                            // Wake up the event loop of the connection
+                            connection.getController().wakeup();
+                        }
                     } else {
                         // Put the response at the end of the queue
                         getOutboundMessages().add(response);
@@ -228,6 +242,17 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
         return (ServerConnectionController) super.getController();
     }
 
+    /**
+     * Returns the number of event loop threads processing the IO of the
+     * accepted connections.
+     * 
+     * @return The number of event loop threads.
+     */
+    public int getSelectorThreads() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "selectorThreads", "0"));
+    }
+
     /**
      * Returns the server socket channel.
      * 
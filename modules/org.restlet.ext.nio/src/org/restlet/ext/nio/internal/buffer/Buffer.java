@@ -35,39 +35,30 @@ import org.restlet.engine.header.HeaderUtils;
 import org.restlet.ext.nio.internal.util.NioUtils;
 
 /**
- * Wrapper around a byte buffer and its state.
+ * Wrapper around a byte buffer and its state. When created with a
+ * {@link BufferPool}, the byte buffer is only checked out when first needed
+ * and can be given back to the pool by the {@link #release()} method as soon
+ * as it is empty.
  * 
  * @author Jerome Louvel
  */
 public class Buffer {
 
-    /**
-     * Creates a new byte buffer.
-     * 
-     * @param bufferSize
-     *            The buffer size.
-     * @param direct
-     *            Indicates if a direct NIO buffer should be created.
-     * @return The created byte buffer.
-     */
-    private static ByteBuffer createByteBuffer(int bufferSize, boolean direct) {
-        ByteBuffer result = null;
-
-        if (direct) {
-            result = ByteBuffer.allocateDirect(bufferSize);
-        } else {
-            result = ByteBuffer.allocate(bufferSize);
-        }
-
-        return result;
-    }
-
     /** The byte buffer. */
-    private final ByteBuffer bytes;
+    private volatile ByteBuffer bytes;
 
     /** The index of the buffer's beginning while filling. */
     private volatile int fillBegin;
 
+    /** The parent buffer pool or null. */
+    private final BufferPool pool;
+
+    /** Indicates if the current byte buffer was checked out of the pool. */
+    private volatile boolean pooled;
+
+    /** The byte buffer size requested. */
+    private final int size;
+
     /** The byte buffer IO state. */
     private volatile BufferState state;
 
@@ -93,9 +84,30 @@ public class Buffer {
         super();
         this.fillBegin = 0;
         this.bytes = byteBuffer;
+        this.pool = null;
+        this.pooled = false;
+        this.size = byteBuffer.capacity();
         this.state = byteBufferState;
     }
 
+    /**
+     * Constructor. The byte buffer is lazily checked out of the given pool.
+     * 
+     * @param bufferSize
+     *            The byte buffer size.
+     * @param pool
+     *            The parent buffer pool.
+     */
+    public Buffer(int bufferSize, BufferPool pool) {
+        super();
+        this.fillBegin = 0;
+        this.bytes = null;
+        this.pool = pool;
+        this.pooled = false;
+        this.size = bufferSize;
+        this.state = BufferState.FILLING;
+    }
+
     /**
      * Constructor. Allocates a new non-direct byte buffer.
      * 
@@ -117,7 +129,7 @@ public class Buffer {
      *            Indicates if a direct NIO buffer should be created.
      */
     public Buffer(int bufferSize, boolean direct) {
-        this(createByteBuffer(bufferSize, direct));
+        this(BufferPool.createByteBuffer(bufferSize, direct));
     }
 
     /**
@@ -173,7 +185,8 @@ public class Buffer {
      * @return The maximum capacity of this buffer.
      */
     public final int capacity() {
-        return getBytes().capacity();
+        ByteBuffer bb = this.bytes;
+        return (bb == null) ? this.size : bb.capacity();
     }
 
     /**
@@ -181,7 +194,11 @@ public class Buffer {
      */
     public void clear() {
         this.fillBegin = 0;
-        this.bytes.clear();
+
+        if (this.bytes != null) {
+            this.bytes.clear();
+        }
+
         this.state = BufferState.FILLING;
     }
 
@@ -205,7 +222,8 @@ public class Buffer {
      * @return True if bytes could be drained.
      */
     public boolean couldDrain() {
-        return (isFilling() && (getBytes().position() > this.fillBegin));
+        return isFilling() && (this.bytes != null)
+                && (this.bytes.position() > this.fillBegin);
     }
 
     /**
@@ -423,12 +441,36 @@ public class Buffer {
     }
 
     /**
-     * Returns the byte buffer.
+     * Returns the byte buffer. It is lazily checked out of the pool while
+     * synchronizing on the {@link #getLock()} object, so that concurrent
+     * callers share the same byte buffer.
      * 
      * @return The byte buffer.
      */
     public ByteBuffer getBytes() {
-        return bytes;
+        ByteBuffer result = this.bytes;
+
+        if (result == null) {
+            synchronized (getLock()) {
+                result = this.bytes;
+
+                if (result == null) {
+                    result = (this.pool == null) ? null : this.pool
+                            .checkout(this.size);
+                    this.pooled = (result != null);
+
+                    if (result == null) {
+                        // Transient buffer, not retained by the pool
+                        result = BufferPool.createByteBuffer(this.size,
+                                (this.pool != null) && this.pool.isDirect());
+                    }
+
+                    this.bytes = result;
+                }
+            }
+        }
+
+        return result;
     }
 
     /**
@@ -438,7 +480,7 @@ public class Buffer {
      * @return The lock on which multiple thread can synchronize.
      */
     public Object getLock() {
-        return this.bytes;
+        return this;
     }
 
     /**
@@ -456,7 +498,8 @@ public class Buffer {
      * @return True if the buffer has remaining bytes to be read or written.
      */
     public final boolean hasRemaining() {
-        return getBytes().hasRemaining();
+        ByteBuffer bb = this.bytes;
+        return (bb == null) || bb.hasRemaining();
     }
 
     /**
@@ -476,7 +519,17 @@ public class Buffer {
      * @return True if the buffer is empty.
      */
     public boolean isEmpty() {
-        return isFilling() ? (capacity() == remaining()) : !hasRemaining();
+        return (this.bytes == null)
+                || (isFilling() ? (capacity() == remaining()) : !hasRemaining());
+    }
+
+    /**
+     * Indicates if a byte buffer is currently held.
+     * 
+     * @return True if a byte buffer is currently held.
+     */
+    public boolean isHeld() {
+        return this.bytes != null;
     }
 
     /**
@@ -653,7 +706,28 @@ public class Buffer {
      * @return The number of bytes that can be read or written.
      */
     public final int remaining() {
-        return getBytes().remaining();
+        ByteBuffer bb = this.bytes;
+        return (bb == null) ? this.size : bb.remaining();
+    }
+
+    /**
+     * Gives the byte buffer back to the parent pool if it is empty, so that
+     * idle connections don't hold memory. The next access will check out a new
+     * byte buffer. Does nothing if the buffer isn't pooled.
+     */
+    public void release() {
+        synchronized (getLock()) {
+            if ((this.pool != null) && (this.bytes != null) && isEmpty()) {
+                if (this.pooled) {
+                    this.pool.checkin(this.bytes);
+                }
+
+                this.bytes = null;
+                this.pooled = false;
+                this.fillBegin = 0;
+                this.state = BufferState.FILLING;
+            }
+        }
     }
 
     /**
@@ -668,7 +742,9 @@ public class Buffer {
 
     @Override
     public String toString() {
-        return getBytes().toString() + ", " + getState() + ", " + isEmpty();
+        ByteBuffer bb = this.bytes;
+        return ((bb == null) ? "Released" : bb.toString()) + ", "
+                + getState() + ", " + isEmpty();
     }
 
 }
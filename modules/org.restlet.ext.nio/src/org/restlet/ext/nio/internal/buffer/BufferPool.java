@@ -0,0 +1,262 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.nio.internal.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of byte buffers shared by the connections of a connector. Buffers are
+ * organized by size classes: a request is served by the smallest class large
+ * enough, so that buffers of the same class can be reused by any way.<br>
+ * <br>
+ * The total size of the buffers allocated by the pool, either idle or in use,
+ * never exceeds the maximum pool size. When this limit is reached or when the
+ * requested size exceeds the largest class, no buffer is returned and the
+ * caller is expected to allocate a transient buffer itself.<br>
+ * <br>
+ * Concurrency note: instances of this class are thread-safe.
+ * 
+ * @author Jerome Louvel
+ */
+public class BufferPool {
+
+    /**
+     * Creates a new byte buffer.
+     * 
+     * @param bufferSize
+     *            The buffer size.
+     * @param direct
+     *            Indicates if a direct NIO buffer should be created.
+     * @return The created byte buffer.
+     */
+    public static ByteBuffer createByteBuffer(int bufferSize, boolean direct) {
+        return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer
+                .allocate(bufferSize);
+    }
+
+    /** The total size of the buffers allocated by the pool. */
+    private final AtomicLong allocatedSize;
+
+    /** Indicates if direct NIO buffers are allocated. */
+    private final boolean direct;
+
+    /** The idle buffers of each size class. */
+    private final Queue<ByteBuffer>[] idleBuffers;
+
+    /** The total size of the idle buffers. */
+    private final AtomicLong idleSize;
+
+    /** The maximum total size of the buffers allocated by the pool. */
+    private final long maxSize;
+
+    /** The number of requests that couldn't be served by the pool. */
+    private final AtomicLong missedCount;
+
+    /** The sorted size classes. */
+    private final int[] sizeClasses;
+
+    /**
+     * Constructor.
+     * 
+     * @param sizeClasses
+     *            The buffer size classes.
+     * @param maxSize
+     *            The maximum total size of the buffers allocated by the pool.
+     * @param direct
+     *            Indicates if direct NIO buffers are allocated.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public BufferPool(int[] sizeClasses, long maxSize, boolean direct) {
+        this.sizeClasses = sizeClasses.clone();
+        Arrays.sort(this.sizeClasses);
+        this.idleBuffers = new Queue[this.sizeClasses.length];
+
+        for (int i = 0; i < this.idleBuffers.length; i++) {
+            this.idleBuffers[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+        }
+
+        this.maxSize = maxSize;
+        this.direct = direct;
+        this.allocatedSize = new AtomicLong();
+        this.idleSize = new AtomicLong();
+        this.missedCount = new AtomicLong();
+    }
+
+    /**
+     * Returns a cleared buffer whose capacity is at least the given size, or
+     * null if the pool can't serve the request.
+     * 
+     * @param size
+     *            The minimum buffer capacity.
+     * @return A cleared buffer or null.
+     */
+    public ByteBuffer checkout(int size) {
+        ByteBuffer result = null;
+        int index = getSizeClassIndex(size);
+
+        if (index != -1) {
+            result = this.idleBuffers[index].poll();
+
+            if (result != null) {
+                this.idleSize.addAndGet(-result.capacity());
+            } else {
+                int capacity = this.sizeClasses[index];
+                long allocated = this.allocatedSize.addAndGet(capacity);
+
+                if (allocated <= this.maxSize) {
+                    result = createByteBuffer(capacity, this.direct);
+                } else {
+                    this.allocatedSize.addAndGet(-capacity);
+                }
+            }
+        }
+
+        if (result == null) {
+            this.missedCount.incrementAndGet();
+        }
+
+        return result;
+    }
+
+    /**
+     * Gives back a buffer previously obtained with {@link #checkout(int)}.
+     * 
+     * @param buffer
+     *            The buffer to give back.
+     */
+    public void checkin(ByteBuffer buffer) {
+        int index = Arrays.binarySearch(this.sizeClasses, buffer.capacity());
+
+        if (index >= 0) {
+            buffer.clear();
+            this.idleSize.addAndGet(buffer.capacity());
+            this.idleBuffers[index].offer(buffer);
+        }
+    }
+
+    /**
+     * Releases all the idle buffers, letting them be garbage collected.
+     */
+    public void clear() {
+        for (Queue<ByteBuffer> queue : this.idleBuffers) {
+            ByteBuffer buffer = queue.poll();
+
+            while (buffer != null) {
+                this.idleSize.addAndGet(-buffer.capacity());
+                this.allocatedSize.addAndGet(-buffer.capacity());
+                buffer = queue.poll();
+            }
+        }
+    }
+
+    /**
+     * Returns the total size of the buffers allocated by the pool, either idle
+     * or in use.
+     * 
+     * @return The total size of the buffers allocated by the pool.
+     */
+    public long getAllocatedSize() {
+        return this.allocatedSize.get();
+    }
+
+    /**
+     * Returns the total size of the idle buffers.
+     * 
+     * @return The total size of the idle buffers.
+     */
+    public long getIdleSize() {
+        return this.idleSize.get();
+    }
+
+    /**
+     * Returns the total size of the buffers in use.
+     * 
+     * @return The total size of the buffers in use.
+     */
+    public long getInUseSize() {
+        return getAllocatedSize() - getIdleSize();
+    }
+
+    /**
+     * Returns the maximum total size of the buffers allocated by the pool.
+     * 
+     * @return The maximum total size of the buffers allocated by the pool.
+     */
+    public long getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Returns the number of requests that couldn't be served by the pool,
+     * either because the maximum size was reached or because the requested
+     * size was too large.
+     * 
+     * @return The number of requests that couldn't be served by the pool.
+     */
+    public long getMissedCount() {
+        return this.missedCount.get();
+    }
+
+    /**
+     * Returns the index of the smallest size class large enough for the given
+     * size.
+     * 
+     * @param size
+     *            The requested size.
+     * @return The size class index or -1 if the size is too large.
+     */
+    private int getSizeClassIndex(int size) {
+        for (int i = 0; i < this.sizeClasses.length; i++) {
+            if (this.sizeClasses[i] >= size) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns a copy of the sorted size classes.
+     * 
+     * @return A copy of the sorted size classes.
+     */
+    public int[] getSizeClasses() {
+        return this.sizeClasses.clone();
+    }
+
+    /**
+     * Indicates if direct NIO buffers are allocated.
+     * 
+     * @return True if direct NIO buffers are allocated.
+     */
+    public boolean isDirect() {
+        return this.direct;
+    }
+
+}
@@ -61,6 +61,9 @@ import org.restlet.util.SelectionRegistration;
  */
 public class Connection<T extends Connector> implements SelectionListener {
 
+    /** The IO controller. */
+    private volatile ConnectionController controller;
+
     /** The parent connector helper. */
     private final ConnectionHelper<T> helper;
 
@@ -135,6 +138,7 @@ public class Connection<T extends Connector> implements SelectionListener {
     public void clear() {
         this.inboundWay.clear();
         this.outboundWay.clear();
+        this.controller = null;
         this.readableSelectionChannel = null;
         this.socketChannel = null;
         this.registration = null;
@@ -256,6 +260,17 @@ public class Connection<T extends Connector> implements SelectionListener {
                         .getInetAddress().getHostAddress();
     }
 
+    /**
+     * Returns the IO controller in charge of this connection. By default, the
+     * controller of the parent helper is returned.
+     * 
+     * @return The IO controller in charge of this connection.
+     */
+    public ConnectionController getController() {
+        ConnectionController result = this.controller;
+        return (result == null) ? getHelper().getController() : result;
+    }
+
     /**
      * Returns the parent connector helper.
      * 
@@ -445,6 +460,7 @@ public class Connection<T extends Connector> implements SelectionListener {
         this.pipelining = helper.isPipeliningConnections();
         this.maxIoIdleTimeMs = helper.getMaxIoIdleTimeMs();
         this.state = ConnectionState.OPENING;
+        this.controller = controller;
         this.socketChannel = socketChannel;
         this.socketAddress = socketAddress;
 
@@ -568,7 +584,7 @@ public class Connection<T extends Connector> implements SelectionListener {
         close(false);
 
         // Give the controller a hint to clean up the closed connection
-        getHelper().getController().wakeup();
+        getController().wakeup();
     }
 
     /**
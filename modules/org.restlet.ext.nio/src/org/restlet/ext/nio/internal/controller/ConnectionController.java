@@ -114,6 +114,16 @@ public class ConnectionController extends Controller implements Runnable,
         }
     }
 
+    /**
+     * Creates the pools shared by the connections of the parent helper.
+     */
+    protected void createPools() {
+        // Done in the controller for thread safety reason regarding the byte
+        // buffers part of the pooled connections
+        getHelper().createBufferPool();
+        getHelper().createConnectionPool();
+    }
+
     /**
      * Creates a new NIO selector.
      * 
@@ -135,9 +145,7 @@ public class ConnectionController extends Controller implements Runnable,
     @Override
     protected void doInit() {
         this.selector = createSelector();
-        // Done in the controller for thread safety reason regarding the byte
-        // buffers part of the pooled connections
-        getHelper().createConnectionPool();
+        createPools();
     }
 
     @Override
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.nio.internal.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.restlet.ext.nio.ServerConnectionHelper;
+import org.restlet.ext.nio.internal.connection.Connection;
+import org.restlet.ext.nio.internal.state.ConnectionState;
+
+/**
+ * Event loop controlling the IO work of a subset of the connections accepted
+ * by a {@link ServerConnectionController}. Each event loop has its own NIO
+ * selector and its own queues of new and updated selection registrations, so
+ * that the IO processing of the connections can be spread over several
+ * threads.
+ * 
+ * @author Jerome Louvel
+ */
+public class SelectorController extends ConnectionController {
+
+    /** The connections controlled by this event loop. */
+    private final List<Connection<?>> connections;
+
+    /**
+     * Constructor.
+     * 
+     * @param helper
+     *            The parent server helper.
+     */
+    public SelectorController(ServerConnectionHelper helper) {
+        super(helper);
+        this.connections = new CopyOnWriteArrayList<Connection<?>>();
+    }
+
+    /**
+     * Adds a connection to control. The connection must have been opened with
+     * this controller.
+     * 
+     * @param connection
+     *            The connection to control.
+     */
+    public void add(Connection<?> connection) {
+        this.connections.add(connection);
+        wakeup();
+    }
+
+    @Override
+    protected void controlConnection(Connection<?> conn) throws IOException {
+        if (conn.getState() == ConnectionState.CLOSED) {
+            this.connections.remove(conn);
+        }
+
+        super.controlConnection(conn);
+    }
+
+    @Override
+    protected void controlConnections() throws IOException {
+        for (Connection<?> connection : this.connections) {
+            controlConnection(connection);
+        }
+    }
+
+    @Override
+    protected void createPools() {
+        // Pools are shared and created by the acceptor controller
+    }
+
+    @Override
+    protected void doRun(long sleepTime) throws IOException {
+        // Pending messages are handled by the acceptor controller
+        controlConnections();
+        registerKeys();
+        updateKeys();
+        selectKeys(sleepTime);
+    }
+
+    /**
+     * Returns the number of connections controlled by this event loop.
+     * 
+     * @return The number of connections controlled by this event loop.
+     */
+    public int getConnectionCount() {
+        return this.connections.size();
+    }
+
+}
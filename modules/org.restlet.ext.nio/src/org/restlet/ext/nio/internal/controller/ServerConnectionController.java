@@ -32,17 +32,25 @@ import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.restlet.Server;
 import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.log.LoggingThreadFactory;
 import org.restlet.ext.nio.ServerConnectionHelper;
 import org.restlet.ext.nio.internal.connection.Connection;
 
 /**
  * Controls the IO work of parent server helper and manages its connections.
- * Listens on a server socket channel for incoming connections.
+ * Listens on a server socket channel for incoming connections.<br>
+ * <br>
+ * When the "selectorThreads" parameter of the helper is strictly positive, this
+ * controller only accepts new connections and handles pending messages. The IO
+ * processing of the accepted connections is then delegated to a fixed set of
+ * {@link SelectorController} event loops, each running in its own thread.
  * 
  * @author Jerome Louvel
  */
@@ -51,6 +59,15 @@ public class ServerConnectionController extends ConnectionController {
     /** The latch to countdown when the socket is ready to accept connections. */
     private final CountDownLatch latch;
 
+    /** The index of the next event loop to consider. */
+    private volatile int nextSelector;
+
+    /** The event loops processing the IO of the connections or null. */
+    private volatile SelectorController[] selectors;
+
+    /** The service running the event loops or null. */
+    private volatile ExecutorService selectorService;
+
     /**
      * Constructor.
      * 
@@ -60,6 +77,9 @@ public class ServerConnectionController extends ConnectionController {
     public ServerConnectionController(ServerConnectionHelper helper) {
         super(helper);
         this.latch = new CountDownLatch(1);
+        this.nextSelector = 0;
+        this.selectors = null;
+        this.selectorService = null;
     }
 
     /**
@@ -77,9 +97,32 @@ public class ServerConnectionController extends ConnectionController {
         }
     }
 
+    @Override
+    protected void controlConnections() throws IOException {
+        if (this.selectors == null) {
+            super.controlConnections();
+        }
+    }
+
     @Override
     protected void doInit() {
         super.doInit();
+        int selectorThreads = getHelper().getSelectorThreads();
+
+        if (selectorThreads > 0) {
+            // Start the event loops sharing the IO processing
+            SelectorController[] loops = new SelectorController[selectorThreads];
+            this.selectorService = Executors.newFixedThreadPool(
+                    selectorThreads, new LoggingThreadFactory(getHelper()
+                            .getLogger(), getHelper().isControllerDaemon()));
+
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new SelectorController(getHelper());
+                this.selectorService.submit(loops[i]);
+            }
+
+            this.selectors = loops;
+        }
 
         // Register interest in NIO accept events
         try {
@@ -94,6 +137,31 @@ public class ServerConnectionController extends ConnectionController {
         this.latch.countDown();
     }
 
+    @Override
+    protected void doRelease() {
+        ExecutorService service = this.selectorService;
+
+        if (service != null) {
+            for (SelectorController loop : this.selectors) {
+                loop.shutdown();
+            }
+
+            service.shutdown();
+
+            try {
+                service.awaitTermination(IoUtils.TIMEOUT_MS,
+                        TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+
+            this.selectors = null;
+            this.selectorService = null;
+        }
+
+        super.doRelease();
+    }
+
     /**
      * Returns the parent server helper.
      * 
@@ -103,6 +171,36 @@ public class ServerConnectionController extends ConnectionController {
         return (ServerConnectionHelper) super.getHelper();
     }
 
+    /**
+     * Returns the event loop that should process the IO of a new connection,
+     * that is the least loaded one, or null if the IO is processed by this
+     * controller. The search starts from a rotating index so that event loops
+     * with the same load are used in turn.
+     * 
+     * @return The event loop selected or null.
+     */
+    protected SelectorController getSelectorController() {
+        SelectorController result = null;
+        SelectorController[] loops = this.selectors;
+
+        if (loops != null) {
+            int start = this.nextSelector;
+            this.nextSelector = (start + 1) % loops.length;
+
+            for (int i = 0; i < loops.length; i++) {
+                SelectorController loop = loops[(start + i) % loops.length];
+
+                if ((result == null)
+                        || (loop.getConnectionCount() < result
+                                .getConnectionCount())) {
+                    result = loop;
+                }
+            }
+        }
+
+        return result;
+    }
+
     @Override
     protected void onSelected(SelectionKey key) throws IOException {
         if (!key.isAcceptable()) {
@@ -122,14 +220,19 @@ public class ServerConnectionController extends ConnectionController {
                     if ((getHelper().getMaxTotalConnections() == -1)
                             || (connectionsCount <= getHelper()
                                     .getMaxTotalConnections())) {
+                        SelectorController loop = getSelectorController();
                         Connection<Server> connection = getHelper().checkout(
                                 socketChannel,
-                                this,
+                                (loop == null) ? this : loop,
                                 (InetSocketAddress) socketChannel.socket()
                                         .getRemoteSocketAddress());
                         connection.open();
                         getHelper().getConnections().add(connection);
 
+                        if (loop != null) {
+                            loop.add(connection);
+                        }
+
                         if (getHelper().getLogger().isLoggable(Level.FINE)) {
                             getHelper().getLogger().fine(
                                     "Connection from \""
@@ -162,4 +265,16 @@ public class ServerConnectionController extends ConnectionController {
             }
         }
     }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        SelectorController[] loops = this.selectors;
+
+        if (loops != null) {
+            for (SelectorController loop : loops) {
+                loop.shutdown();
+            }
+        }
+    }
 }
@@ -34,6 +34,7 @@ import org.restlet.data.Status;
 import org.restlet.engine.header.HeaderReader;
 import org.restlet.engine.header.HeaderUtils;
 import org.restlet.engine.io.ReadableSelectionChannel;
+import org.restlet.engine.util.StringUtils;
 import org.restlet.ext.nio.internal.buffer.Buffer;
 import org.restlet.ext.nio.internal.buffer.BufferState;
 import org.restlet.ext.nio.internal.channel.ReadableChunkedChannel;
@@ -147,14 +148,27 @@ public abstract class InboundWay extends Way {
      */
     protected boolean fillLine() throws IOException {
         boolean result = false;
-        setLineBuilderState(getBuffer().drain(getLineBuilder(),
-                getLineBuilderState()));
 
-        if (getLineBuilderState() == BufferState.DRAINING) {
-            result = true;
+        if (getMessageState() == MessageState.HEADERS) {
+            // Header lines are read as raw bytes then decoded at once
+            result = fillLineBytes();
 
-            if (getLogger().isLoggable(Level.FINE)) {
-                getLogger().log(Level.FINE, getLineBuilder().toString());
+            if (result && getLogger().isLoggable(Level.FINE)) {
+                getLogger().log(
+                        Level.FINE,
+                        StringUtils.getLatin1String(getLineBytes(), 0,
+                                getLineLength()));
+            }
+        } else {
+            setLineBuilderState(getBuffer().drain(getLineBuilder(),
+                    getLineBuilderState()));
+
+            if (getLineBuilderState() == BufferState.DRAINING) {
+                result = true;
+
+                if (getLogger().isLoggable(Level.FINE)) {
+                    getLogger().log(Level.FINE, getLineBuilder().toString());
+                }
             }
         }
 
@@ -297,7 +311,7 @@ public abstract class InboundWay extends Way {
 
         // Wakeup the controller to update the registrations,
         // since this callback can be called asynchronous
-        getHelper().getController().wakeup();
+        getConnection().getController().wakeup();
 
         if (getLogger().isLoggable(Level.FINER)) {
             getLogger().finer("Inbound message completed");
@@ -363,7 +377,8 @@ public abstract class InboundWay extends Way {
      * @throws IOException
      */
     protected Header readHeader() throws IOException {
-        Header header = HeaderReader.readHeader(getLineBuilder());
+        Header header = HeaderReader.readHeader(getLineBytes(), 0,
+                getLineLength());
         clearLineBuilder();
         return header;
     }
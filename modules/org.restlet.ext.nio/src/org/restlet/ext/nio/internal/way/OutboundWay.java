@@ -36,7 +36,9 @@ import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.data.Header;
 import org.restlet.data.Protocol;
+import org.restlet.data.Range;
 import org.restlet.data.Status;
+import org.restlet.engine.application.RangeRepresentation;
 import org.restlet.engine.connector.ConnectorHelper;
 import org.restlet.engine.header.HeaderConstants;
 import org.restlet.engine.header.HeaderUtils;
@@ -46,8 +48,10 @@ import org.restlet.ext.nio.internal.buffer.Buffer;
 import org.restlet.ext.nio.internal.channel.ReadableChunkingChannel;
 import org.restlet.ext.nio.internal.channel.ReadableSizedChannel;
 import org.restlet.ext.nio.internal.connection.Connection;
+import org.restlet.ext.nio.internal.connection.SslConnection;
 import org.restlet.ext.nio.internal.state.IoState;
 import org.restlet.ext.nio.internal.state.MessageState;
+import org.restlet.representation.FileRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.service.ConnectorService;
 import org.restlet.util.Series;
@@ -89,6 +93,12 @@ public abstract class OutboundWay extends Way {
     /** The header index. */
     private volatile int headerIndex;
 
+    /** The position in the file channel of the next byte to transfer. */
+    private volatile long transferPosition;
+
+    /** The number of bytes remaining to transfer from the file channel. */
+    private volatile long transferRemaining;
+
     /**
      * Constructor.
      * 
@@ -102,6 +112,8 @@ public abstract class OutboundWay extends Way {
         this.entityChannel = null;
         this.entitySelectionKey = null;
         this.headerIndex = 0;
+        this.transferPosition = 0L;
+        this.transferRemaining = 0L;
     }
 
     /**
@@ -148,6 +160,8 @@ public abstract class OutboundWay extends Way {
         this.entityChannel = null;
         this.entitySelectionKey = null;
         this.headerIndex = 0;
+        this.transferPosition = 0L;
+        this.transferRemaining = 0L;
     }
 
     /**
@@ -293,7 +307,13 @@ public abstract class OutboundWay extends Way {
 
         // Write the message or part of it in the byte
         // buffer
-        if (getMessageState() == MessageState.BODY) {
+        if ((getMessageState() == MessageState.BODY)
+                && (getEntityChannelType() == EntityType.TRANSFERABLE)) {
+            // Wait for the headers to be fully written
+            if (buffer.isEmpty()) {
+                transfer();
+            }
+        } else if (getMessageState() == MessageState.BODY) {
             try {
                 int filled = buffer.fill(getEntityChannel());
 
@@ -371,11 +391,16 @@ public abstract class OutboundWay extends Way {
             }
 
             setMessageState(MessageState.BODY);
+
+            if (startTransfer(getActualMessage().getEntity())) {
+                return;
+            }
+
             ReadableByteChannel rbc = getActualMessage().getEntity()
                     .getChannel();
 
             if (rbc instanceof FileChannel) {
-                setEntityChannelType(EntityType.TRANSFERABLE);
+                setEntityChannelType(EntityType.BLOCKING);
             } else if (rbc instanceof BlockableChannel) {
                 BlockableChannel bc = (BlockableChannel) rbc;
 
@@ -418,6 +443,8 @@ public abstract class OutboundWay extends Way {
                 getEntityChannel().close();
             }
 
+            setEntityChannelType(null);
+
             // Release entity
             if (messageEntity != null) {
                 messageEntity.release();
@@ -528,6 +555,104 @@ public abstract class OutboundWay extends Way {
                 && (entity.getAvailableSize() == Representation.UNKNOWN_SIZE);
     }
 
+    /**
+     * Starts the direct transfer of a file entity to the socket, if supported.
+     * The entity must be a {@link FileRepresentation} or a byte range of it
+     * wrapped in a {@link RangeRepresentation}, with a known size.
+     * 
+     * @param entity
+     *            The entity to transfer.
+     * @return True if the direct transfer has been started.
+     * @throws IOException
+     */
+    protected boolean startTransfer(Representation entity) throws IOException {
+        if (!getHelper().isTransferringFiles()
+                || (getConnection() instanceof SslConnection)
+                || (entity.getAvailableSize() == Representation.UNKNOWN_SIZE)) {
+            return false;
+        }
+
+        FileRepresentation fileEntity = null;
+        long position = 0L;
+
+        if ((entity instanceof FileRepresentation)
+                && (entity.getRange() == null)) {
+            fileEntity = (FileRepresentation) entity;
+        } else if ((entity instanceof RangeRepresentation)
+                && (((RangeRepresentation) entity).getWrappedRepresentation() instanceof FileRepresentation)
+                && Range.isBytesRange(entity.getRange())) {
+            Range range = entity.getRange();
+            fileEntity = (FileRepresentation) ((RangeRepresentation) entity)
+                    .getWrappedRepresentation();
+
+            if (range.getIndex() != Range.INDEX_LAST) {
+                position = range.getIndex();
+            } else if (range.getSize() != Range.SIZE_MAX) {
+                position = Math.max(0L, fileEntity.getFile().length()
+                        - range.getSize());
+            }
+        }
+
+        if (fileEntity == null) {
+            return false;
+        }
+
+        setEntityChannel(fileEntity.getChannel());
+        setEntityChannelType(EntityType.TRANSFERABLE);
+        this.transferPosition = position;
+        this.transferRemaining = entity.getAvailableSize();
+
+        if (getLogger().isLoggable(Level.FINER)) {
+            getLogger().finer(
+                    "Transferring " + this.transferRemaining
+                            + " bytes directly from file "
+                            + fileEntity.getFile());
+        }
+
+        return true;
+    }
+
+    /**
+     * Transfers as many bytes as possible from the file entity channel to the
+     * socket channel, without copy in user space.
+     * 
+     * @throws IOException
+     */
+    protected void transfer() throws IOException {
+        FileChannel fileChannel = getEntityFileChannel();
+        long transferred = 0L;
+        long total = 0L;
+
+        do {
+            transferred = fileChannel.transferTo(this.transferPosition,
+                    this.transferRemaining, getConnection().getSocketChannel());
+
+            if (transferred > 0) {
+                this.transferPosition += transferred;
+                this.transferRemaining -= transferred;
+                total += transferred;
+                getConnection().onActivity();
+                getHelper().onTransferred(transferred,
+                        this.transferRemaining == 0);
+            } else if (this.transferPosition >= fileChannel.size()) {
+                throw new IOException(
+                        "The file entity is shorter than its announced size");
+            }
+        } while ((transferred > 0) && (this.transferRemaining > 0));
+
+        if (getLogger().isLoggable(Level.FINER)) {
+            getLogger().log(Level.FINER, total + " bytes transferred from file");
+        }
+
+        if (this.transferRemaining == 0) {
+            setMessageState(MessageState.END);
+        } else if (getIoState() == IoState.PROCESSING) {
+            // The socket channel can't write more, wait for a new NIO
+            // selection.
+            setIoState(IoState.INTEREST);
+        }
+    }
+
     @Override
     public void updateState() {
         if ((getMessageState() == MessageState.IDLE) && (getMessage() != null)) {
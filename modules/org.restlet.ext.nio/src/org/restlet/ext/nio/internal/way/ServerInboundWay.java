@@ -130,6 +130,11 @@ public abstract class ServerInboundWay extends InboundWay {
             // Add it to the helper queue
             getHelper().getInboundMessages().add(message);
 
+            if (getConnection().getController() != getHelper().getController()) {
+                // Handled by the helper controller, not by our event loop
+                getHelper().getController().wakeup();
+            }
+
             if (!message.getRequest().isEntityAvailable()) {
                 // The request has been completely read
                 onMessageCompleted(false);
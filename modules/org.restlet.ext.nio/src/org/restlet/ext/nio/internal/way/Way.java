@@ -25,6 +25,8 @@
 package org.restlet.ext.nio.internal.way;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,6 +36,7 @@ import org.restlet.Message;
 import org.restlet.Response;
 import org.restlet.data.Header;
 import org.restlet.data.Status;
+import org.restlet.engine.header.HeaderUtils;
 import org.restlet.ext.nio.ConnectionHelper;
 import org.restlet.ext.nio.internal.buffer.Buffer;
 import org.restlet.ext.nio.internal.buffer.BufferProcessor;
@@ -57,6 +60,12 @@ import org.restlet.util.Series;
 public abstract class Way implements SelectionListener, CompletionListener,
         BufferProcessor {
 
+    /** The initial size of the raw line bytes. */
+    private static final int LINE_BYTES_SIZE = 256;
+
+    /** The maximum size of the raw line bytes retained between lines. */
+    private static final int MAX_LINE_BYTES_SIZE = 8192;
+
     /** The IO buffer. */
     private final Buffer buffer;
 
@@ -75,6 +84,12 @@ public abstract class Way implements SelectionListener, CompletionListener,
     /** The line builder state. */
     private volatile BufferState lineBuilderState;
 
+    /** The raw bytes of the current line. */
+    private volatile byte[] lineBytes;
+
+    /** The number of raw bytes in the current line. */
+    private volatile int lineLength;
+
     /** The current message exchanged. */
     private volatile Response message;
 
@@ -94,11 +109,15 @@ public abstract class Way implements SelectionListener, CompletionListener,
      */
     public Way(Connection<?> connection, int bufferSize) {
         this.connection = connection;
-        this.buffer = new Buffer(bufferSize, getHelper().isDirectBuffers());
+        this.buffer = (getHelper().getBufferPool() == null) ? new Buffer(
+                bufferSize, getHelper().isDirectBuffers()) : new Buffer(
+                bufferSize, getHelper().getBufferPool());
         this.headers = null;
         this.ioState = IoState.IDLE;
         this.lineBuilder = new StringBuilder();
         this.lineBuilderState = BufferState.IDLE;
+        this.lineBytes = new byte[LINE_BYTES_SIZE];
+        this.lineLength = 0;
         this.message = null;
         this.messageState = MessageState.IDLE;
         this.registration = new SelectionRegistration(0, this, null);
@@ -132,6 +151,7 @@ public abstract class Way implements SelectionListener, CompletionListener,
         }
 
         this.buffer.clear();
+        this.buffer.release();
         this.headers = null;
         this.ioState = IoState.IDLE;
         clearLineBuilder();
@@ -145,9 +165,74 @@ public abstract class Way implements SelectionListener, CompletionListener,
      */
     protected void clearLineBuilder() {
         getLineBuilder().delete(0, getLineBuilder().length());
+        this.lineLength = 0;
+
+        if (this.lineBytes.length > MAX_LINE_BYTES_SIZE) {
+            // Don't retain the memory used by a very large header
+            this.lineBytes = new byte[LINE_BYTES_SIZE];
+        }
+
         setLineBuilderState(BufferState.IDLE);
     }
 
+    /**
+     * Drains the IO buffer into the raw line bytes until the end of the current
+     * line is reached. The buffer content is scanned and copied in bulk
+     * instead of character by character.
+     * 
+     * @return True if the line is complete.
+     * @throws IOException
+     */
+    protected boolean fillLineBytes() throws IOException {
+        ByteBuffer bytes = getBuffer().getBytes();
+        BufferState state = getLineBuilderState();
+
+        if (state == BufferState.IDLE) {
+            state = BufferState.FILLING;
+        }
+
+        while ((state != BufferState.DRAINING) && bytes.hasRemaining()) {
+            if (state == BufferState.FILLING) {
+                int start = bytes.position();
+                int end = start;
+
+                while ((end < bytes.limit())
+                        && !HeaderUtils.isCarriageReturn(bytes.get(end))) {
+                    end++;
+                }
+
+                int count = end - start;
+
+                if (this.lineLength + count > this.lineBytes.length) {
+                    this.lineBytes = Arrays.copyOf(this.lineBytes, Math.max(
+                            this.lineBytes.length * 2, this.lineLength + count));
+                }
+
+                bytes.get(this.lineBytes, this.lineLength, count);
+                this.lineLength += count;
+
+                if (bytes.hasRemaining()) {
+                    // Skip the carriage return
+                    bytes.get();
+                    state = BufferState.FILLED;
+                }
+            } else {
+                int next = bytes.get();
+
+                if (HeaderUtils.isLineFeed(next)) {
+                    state = BufferState.DRAINING;
+                } else {
+                    throw new IOException(
+                            "Missing line feed character at the end of the line. Found character \""
+                                    + (char) next + "\" (" + next + ") instead");
+                }
+            }
+        }
+
+        setLineBuilderState(state);
+        return state == BufferState.DRAINING;
+    }
+
     /**
      * Indicates if the buffer could be drained again.
      * 
@@ -251,6 +336,25 @@ public abstract class Way implements SelectionListener, CompletionListener,
         return lineBuilderState;
     }
 
+    /**
+     * Returns the raw bytes of the current line. Only the first
+     * {@link #getLineLength()} bytes are significant.
+     * 
+     * @return The raw bytes of the current line.
+     */
+    public byte[] getLineBytes() {
+        return lineBytes;
+    }
+
+    /**
+     * Returns the number of raw bytes in the current line.
+     * 
+     * @return The number of raw bytes in the current line.
+     */
+    public int getLineLength() {
+        return lineLength;
+    }
+
     /**
      * Returns a score representing the way load and that could be compared with
      * other ways of the same parent connection.
@@ -338,6 +442,7 @@ public abstract class Way implements SelectionListener, CompletionListener,
         setMessage(null);
         setHeaders(null);
         getBuffer().clear();
+        getBuffer().release();
     }
 
     /**
@@ -462,6 +567,11 @@ public abstract class Way implements SelectionListener, CompletionListener,
                     Status.CONNECTOR_ERROR_COMMUNICATION);
         }
 
+        if (getMessageState() == MessageState.IDLE) {
+            // Give the byte buffer back to the pool between messages
+            getBuffer().release();
+        }
+
         if (this instanceof InboundWay) {
             getLogger().log(Level.FINER,
                     "Inbound way selected. Done for : " + this);
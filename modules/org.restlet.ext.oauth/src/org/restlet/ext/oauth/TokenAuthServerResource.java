@@ -31,6 +31,7 @@ import org.restlet.ext.json.JsonRepresentation;
 import org.restlet.ext.oauth.internal.Scopes;
 import org.restlet.ext.oauth.internal.ServerToken;
 import org.restlet.ext.oauth.internal.Token;
+import org.restlet.ext.oauth.internal.memory.MemoryToken;
 import org.restlet.representation.Representation;
 import org.restlet.resource.Post;
 import org.restlet.resource.ResourceException;
@@ -86,6 +87,8 @@ public class TokenAuthServerResource extends OAuthServerResource {
         JSONObject resp = new JSONObject();
         resp.put(USERNAME, ((ServerToken) token).getUsername());
         resp.put(SCOPE, Scopes.toString(token.getScope()));
+        // Lets the TokenVerifier cache the result until the token expires
+        resp.put(EXPIRES_IN, getExpiresIn(token));
 
         return new JsonRepresentation(resp);
     }
@@ -99,6 +102,23 @@ public class TokenAuthServerResource extends OAuthServerResource {
         getResponse().setEntity(responseErrorRepresentation(oex));
     }
 
+    /**
+     * Returns the number of seconds before the token expires. The remaining time is computed when the token creation
+     * time is known, otherwise the whole expiration period is returned.
+     * 
+     * @param token
+     *            The validated token.
+     * @return The number of seconds before the token expires.
+     */
+    private int getExpiresIn(Token token) {
+        if (token instanceof MemoryToken) {
+            long remaining = ((MemoryToken) token).getExpirationTime() - System.currentTimeMillis();
+            return (int) Math.max(0, remaining / 1000);
+        }
+
+        return token.getExpirePeriod();
+    }
+
     private boolean isLocalAccessOnly() {
         String lo = (String) getContext().getAttributes().get(LOCAL_ACCESS_ONLY);
         return Boolean.parseBoolean(lo);
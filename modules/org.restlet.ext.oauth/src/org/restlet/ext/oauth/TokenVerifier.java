@@ -24,13 +24,22 @@
 
 package org.restlet.ext.oauth;
 
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.restlet.Application;
+import org.restlet.Client;
 import org.restlet.Request;
 import org.restlet.Response;
+import org.restlet.Uniform;
 import org.restlet.data.CacheDirective;
 import org.restlet.data.ChallengeResponse;
 import org.restlet.data.ChallengeScheme;
@@ -42,14 +51,16 @@ import org.restlet.data.Reference;
 import org.restlet.engine.util.StringUtils;
 import org.restlet.ext.json.JsonRepresentation;
 import org.restlet.ext.oauth.internal.Scopes;
-import org.restlet.representation.Representation;
-import org.restlet.resource.ClientResource;
 import org.restlet.security.User;
 import org.restlet.security.Verifier;
 
 /**
  * Verifier for OAuth 2.0 Protected Resources<br>
- * Typically use with ChallengeAuthenticator. "Bearer" and "MAC" challenge schemes are supported.
+ * Typically use with ChallengeAuthenticator. "Bearer" and "MAC" challenge schemes are supported.<br>
+ * <br>
+ * The results returned by the authorization resource are cached per access token, for a limited time that never exceeds
+ * the "expires_in" value of the response when present. Concurrent verifications of the same token share a single call
+ * to the authorization resource, which reuses the same client connector.
  * 
  * @author Shotaro Uchida <fantom@xmaker.mx>
  * @see <a href="http://tools.ietf.org/html/draft-ietf-oauth-v2-bearer-22"> Bearer Token Usage</a>
@@ -57,6 +68,55 @@ import org.restlet.security.Verifier;
  */
 public class TokenVerifier implements Verifier {
 
+    /** Result of a token verification by the authorization resource. */
+    private static class Introspection {
+
+        /** The expiration time in milliseconds. */
+        private final long expirationTime;
+
+        /** The scope granted to the token or null if the token is invalid. */
+        private final String scope;
+
+        /** The resource owner name or null if the token is invalid. */
+        private final String username;
+
+        /**
+         * Constructor.
+         * 
+         * @param username
+         *            The resource owner name or null if the token is invalid.
+         * @param scope
+         *            The scope granted to the token or null if the token is invalid.
+         * @param expirationTime
+         *            The expiration time in milliseconds.
+         */
+        public Introspection(String username, String scope, long expirationTime) {
+            this.username = username;
+            this.scope = scope;
+            this.expirationTime = expirationTime;
+        }
+
+        /**
+         * Indicates if the result has expired.
+         * 
+         * @param now
+         *            The current time in milliseconds.
+         * @return True if the result has expired.
+         */
+        public boolean isExpired(long now) {
+            return now >= this.expirationTime;
+        }
+
+        /**
+         * Indicates if the token is valid.
+         * 
+         * @return True if the token is valid.
+         */
+        public boolean isValid() {
+            return this.username != null;
+        }
+    }
+
     private static final Logger logger = Logger.getLogger(TokenVerifier.class.getName());
 
     private static JSONObject createBearerAuthRequest(String token) throws JSONException {
@@ -76,6 +136,21 @@ public class TokenVerifier implements Verifier {
     /** The authorization resource URI. */
     private Reference authReference;
 
+    /** The verification results, being computed or cached, per access token. */
+    private final ConcurrentMap<String, FutureTask<Introspection>> cache = new ConcurrentHashMap<String, FutureTask<Introspection>>();
+
+    /** The maximum time in seconds a valid token result is cached. Zero disables the cache. */
+    private volatile int cacheTimeToLive = 60;
+
+    /** The maximum number of cached results. */
+    private volatile int maxCacheSize = 10000;
+
+    /** The time in seconds an invalid token result is cached. */
+    private volatile int negativeCacheTimeToLive = 10;
+
+    /** The next Restlet handling the calls to the authorization resource. */
+    private volatile Uniform next;
+
     /**
      * Constructor.
      * 
@@ -86,6 +161,119 @@ public class TokenVerifier implements Verifier {
         this.authReference = authReference;
     }
 
+    /**
+     * Clears the cache of verification results.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Calls the authorization resource to verify an access token.
+     * 
+     * @param authRequest
+     *            The JSON authorization request.
+     * @return The verification result.
+     * @throws Exception
+     */
+    private Introspection introspect(JSONObject authRequest) throws Exception {
+        logger.fine("Post auth request to auth resource...");
+        Request request = new Request(Method.POST, authReference, new JsonRepresentation(authRequest));
+        Response response = new Response(request);
+        getNext().handle(request, response);
+
+        if (response.getStatus().isError()) {
+            throw new Exception("Unexpected status returned by the OAuth authorization resource: "
+                    + response.getStatus());
+        }
+
+        JSONObject jsonResponse = new JsonRepresentation(response.getEntity()).getJsonObject();
+        long now = System.currentTimeMillis();
+
+        if (jsonResponse.has(OAuthServerResource.ERROR)) {
+            try {
+                String error = jsonResponse.getString(OAuthServerResource.ERROR);
+                logger.warning(error);
+                logger.warning(jsonResponse.getString(OAuthServerResource.ERROR_DESC));
+            } catch (JSONException ex) {
+                logger.log(Level.SEVERE, "Error while parsing the OAuth authorization error response.", ex);
+            }
+            // TODO: Configure challenge request
+            return new Introspection(null, null, now + (negativeCacheTimeToLive * 1000L));
+        }
+
+        try {
+            long timeToLive = cacheTimeToLive;
+
+            if (jsonResponse.has(OAuthServerResource.EXPIRES_IN)) {
+                timeToLive = Math.min(timeToLive, jsonResponse.getLong(OAuthServerResource.EXPIRES_IN));
+            }
+
+            return new Introspection(jsonResponse.getString(OAuthServerResource.USERNAME),
+                    jsonResponse.getString(OAuthServerResource.SCOPE), now + (timeToLive * 1000L));
+        } catch (JSONException ex) {
+            logger.log(Level.SEVERE, "Error while parsing the OAuth authorization success response.", ex);
+            return new Introspection(null, null, now);
+        }
+    }
+
+    /**
+     * Returns the verification result of an access token, from the cache if possible. Concurrent lookups of the same
+     * token wait for the same call to the authorization resource.
+     * 
+     * @param token
+     *            The access token.
+     * @param authRequest
+     *            The JSON authorization request.
+     * @return The verification result.
+     * @throws Exception
+     */
+    private Introspection introspect(String token, final JSONObject authRequest) throws Exception {
+        if (cacheTimeToLive <= 0) {
+            return introspect(authRequest);
+        }
+
+        long now = System.currentTimeMillis();
+        FutureTask<Introspection> task = cache.get(token);
+
+        if ((task != null) && task.isDone()) {
+            Introspection result = null;
+
+            try {
+                result = task.get();
+            } catch (ExecutionException ee) {
+                // Don't keep failed calls
+            }
+
+            if ((result == null) || result.isExpired(now)) {
+                cache.remove(token, task);
+                task = null;
+            }
+        }
+
+        if (task == null) {
+            FutureTask<Introspection> newTask = new FutureTask<Introspection>(new Callable<Introspection>() {
+                public Introspection call() throws Exception {
+                    return introspect(authRequest);
+                }
+            });
+            task = cache.putIfAbsent(token, newTask);
+
+            if (task == null) {
+                task = newTask;
+                purgeCache(now);
+                task.run();
+            }
+        }
+
+        try {
+            return task.get();
+        } catch (ExecutionException ee) {
+            cache.remove(token, task);
+            throw (ee.getCause() instanceof Exception) ? (Exception) ee.getCause() : ee;
+        }
+    }
+
     private String getAccessTokenFromBody(Request request) {
         Method method = request.getMethod();
         if (method.equals(Method.GET)) {
@@ -124,6 +312,63 @@ public class TokenVerifier implements Verifier {
         return null;
     }
 
+    /**
+     * Returns the maximum time in seconds a valid token result is cached. The "expires_in" value returned by the
+     * authorization resource further limits this time. Zero disables the cache. Default value is 60 seconds.
+     * 
+     * @return The maximum time in seconds a valid token result is cached.
+     */
+    public int getCacheTimeToLive() {
+        return cacheTimeToLive;
+    }
+
+    /**
+     * Returns the maximum number of cached results. Default value is 10000.
+     * 
+     * @return The maximum number of cached results.
+     */
+    public int getMaxCacheSize() {
+        return maxCacheSize;
+    }
+
+    /**
+     * Returns the time in seconds an invalid token result is cached. Default value is 10 seconds.
+     * 
+     * @return The time in seconds an invalid token result is cached.
+     */
+    public int getNegativeCacheTimeToLive() {
+        return negativeCacheTimeToLive;
+    }
+
+    /**
+     * Returns the next Restlet handling the calls to the authorization resource. By default, it is the outbound root of
+     * the current application if available, or a client connector created once for the protocol of the authorization
+     * resource URI.
+     * 
+     * @return The next Restlet handling the calls to the authorization resource.
+     */
+    public Uniform getNext() {
+        Uniform result = next;
+
+        if (result == null) {
+            Application application = Application.getCurrent();
+
+            if ((application != null) && (application.getOutboundRoot() != null)) {
+                result = application.getOutboundRoot();
+            } else {
+                synchronized (this) {
+                    if (next == null) {
+                        next = new Client(authReference.getTargetRef().getSchemeProtocol());
+                    }
+
+                    result = next;
+                }
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Indicates if the credentials are "Form-Encoded Body Parameter".
      * 
@@ -142,6 +387,38 @@ public class TokenVerifier implements Verifier {
         return acceptQueryMethod;
     }
 
+    /**
+     * Removes the expired results from the cache once it is too large, then other computed ones until a quarter of the
+     * maximum size is free. Evicting in batches lets the following misses add results without scanning the cache.
+     * 
+     * @param now
+     *            The current time in milliseconds.
+     */
+    private void purgeCache(long now) {
+        if (cache.size() > maxCacheSize) {
+            int targetSize = maxCacheSize - (maxCacheSize / 4);
+
+            for (Iterator<FutureTask<Introspection>> iter = cache.values().iterator(); iter.hasNext();) {
+                FutureTask<Introspection> task = iter.next();
+
+                try {
+                    if (task.isDone() && task.get().isExpired(now)) {
+                        iter.remove();
+                    }
+                } catch (Exception e) {
+                    iter.remove();
+                }
+            }
+
+            for (Iterator<FutureTask<Introspection>> iter = cache.values().iterator(); iter.hasNext()
+                    && (cache.size() > targetSize);) {
+                if (iter.next().isDone()) {
+                    iter.remove();
+                }
+            }
+        }
+    }
+
     /**
      * Indicates if the credentials are "Form-Encoded Body Parameter".
      * 
@@ -162,9 +439,50 @@ public class TokenVerifier implements Verifier {
         this.acceptQueryMethod = acceptQueryMethod;
     }
 
+    /**
+     * Sets the maximum time in seconds a valid token result is cached. Zero disables the cache.
+     * 
+     * @param cacheTimeToLive
+     *            The maximum time in seconds a valid token result is cached.
+     */
+    public void setCacheTimeToLive(int cacheTimeToLive) {
+        this.cacheTimeToLive = cacheTimeToLive;
+    }
+
+    /**
+     * Sets the maximum number of cached results.
+     * 
+     * @param maxCacheSize
+     *            The maximum number of cached results.
+     */
+    public void setMaxCacheSize(int maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    /**
+     * Sets the time in seconds an invalid token result is cached.
+     * 
+     * @param negativeCacheTimeToLive
+     *            The time in seconds an invalid token result is cached.
+     */
+    public void setNegativeCacheTimeToLive(int negativeCacheTimeToLive) {
+        this.negativeCacheTimeToLive = negativeCacheTimeToLive;
+    }
+
+    /**
+     * Sets the next Restlet handling the calls to the authorization resource.
+     * 
+     * @param next
+     *            The next Restlet handling the calls to the authorization resource.
+     */
+    public void setNext(Uniform next) {
+        this.next = next;
+    }
+
     @Override
     public int verify(Request request, Response response) {
         final JSONObject authRequest;
+        final String token;
 
         try {
             ChallengeResponse cr = request.getChallengeResponse();
@@ -184,6 +502,7 @@ public class TokenVerifier implements Verifier {
                     return RESULT_MISSING;
                 }
                 logger.config("Verify: Bearer (Alternative)");
+                token = bearer;
                 authRequest = createBearerAuthRequest(bearer);
             } else if (ChallengeScheme.HTTP_OAUTH_BEARER.equals(cr.getScheme())) {
                 logger.config("Verify: Bearer");
@@ -191,6 +510,7 @@ public class TokenVerifier implements Verifier {
                 if (StringUtils.isNullOrEmpty(bearer)) {
                     return RESULT_MISSING;
                 }
+                token = bearer;
                 authRequest = createBearerAuthRequest(bearer);
             }/*
               * else if (cr.getScheme().equals(HTTP_MAC)) { // TODO }
@@ -202,41 +522,22 @@ public class TokenVerifier implements Verifier {
             return RESULT_INVALID;
         }
 
-        ClientResource authResource = new ClientResource(authReference);
-
-        JSONObject jsonResponse;
+        Introspection introspection;
 
         try {
-            logger.fine("Post auth request to auth resource...");
-            Representation resp = authResource.post(new JsonRepresentation(authRequest));
-            JsonRepresentation jsonRepresentation = new JsonRepresentation(resp);
-            jsonResponse = jsonRepresentation.getJsonObject();
+            introspection = introspect(token, authRequest);
         } catch (Exception ex) {
             logger.log(Level.SEVERE, "Error while requesting the OAuth authorization resource.", ex);
             return RESULT_INVALID;
         }
 
-        if (jsonResponse.has(OAuthServerResource.ERROR)) {
-            try {
-                String error = jsonResponse.getString(OAuthServerResource.ERROR);
-                logger.warning(error);
-                logger.warning(jsonResponse.getString(OAuthServerResource.ERROR_DESC));
-            } catch (JSONException ex) {
-                logger.log(Level.SEVERE, "Error while parsing the OAuth authorization error response.", ex);
-            }
-            // TODO: Configure challenge request
-            return RESULT_INVALID;
-        }
-
-        try {
-            ClientInfo clientInfo = request.getClientInfo();
-            clientInfo.setUser(new User(jsonResponse.getString(OAuthServerResource.USERNAME)));
-            clientInfo.setRoles(Scopes.toRoles(jsonResponse.getString(OAuthServerResource.SCOPE)));
-        } catch (JSONException ex) {
-            logger.log(Level.SEVERE, "Error while parsing the OAuth authorization success response.", ex);
+        if (!introspection.isValid()) {
             return RESULT_INVALID;
         }
 
+        ClientInfo clientInfo = request.getClientInfo();
+        clientInfo.setUser(new User(introspection.username));
+        clientInfo.setRoles(Scopes.toRoles(introspection.scope));
         return RESULT_VALID;
     }
 }
@@ -67,6 +67,14 @@ public class MemoryToken implements ServerToken {
         return clientId;
     }
 
+    /**
+     * @return the time in milliseconds from which the token is expired
+     */
+    public long getExpirationTime() {
+        // Consistent with the rounding done by isExpired()
+        return timestamp + ((expirePeriod + 1) * 1000L);
+    }
+
     /**
      * @return the expirePeriod
      */
@@ -88,6 +96,13 @@ public class MemoryToken implements ServerToken {
         return scope;
     }
 
+    /**
+     * @return the time in milliseconds at which the token was issued
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
     /**
      * @return the tokenType
      */
@@ -103,12 +118,7 @@ public class MemoryToken implements ServerToken {
     }
 
     public boolean isExpired() {
-        long elapsedTime = System.currentTimeMillis() - timestamp;
-        long timeout = expirePeriod;
-        if ((elapsedTime / 1000) > timeout) {
-            return true;
-        }
-        return false;
+        return System.currentTimeMillis() >= getExpirationTime();
     }
 
     /**
@@ -26,8 +26,17 @@ package org.restlet.ext.oauth.internal.memory;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.restlet.ext.oauth.OAuthError;
 import org.restlet.ext.oauth.OAuthException;
@@ -38,56 +47,235 @@ import org.restlet.ext.oauth.internal.Client;
 import org.restlet.ext.oauth.internal.Token;
 
 /**
- * Memory implementation of TokenManager interface.
+ * Memory implementation of TokenManager interface.<br>
+ * <br>
+ * Access tokens and sessions are indexed by expiration time, so that they are
+ * evicted as soon as they expire, each time a new one is stored or when
+ * {@link #sweep()} is invoked, for example by the background sweeper started
+ * with {@link #startSweeper(int)}. An expired access token can still be
+ * refreshed, so the token record is kept until it is revoked, refreshed or
+ * until its refresh token expires, see {@link #setRefreshExpirePeriod(int)}.
+ * The number of token records and sessions can be limited, in which case the
+ * oldest ones are evicted first. Tokens are also indexed by client, user name
+ * and refresh token.
  * 
  * @author Shotaro Uchida <fantom@xmaker.mx>
  */
 public class MemoryTokenManager extends AbstractTokenManager {
 
-    private final Map<String, AuthSession> sessions = new ConcurrentHashMap<String, AuthSession>();
+    /** Entry of the expiration index. */
+    private static class Expiration implements Comparable<Expiration> {
 
-    private final Map<String, MemoryToken> tokens = new ConcurrentHashMap<String, MemoryToken>();
+        /** The key of the expiring value. */
+        private final String key;
 
-    public Token findToken(Client client, String username) {
-        for (MemoryToken token : tokens.values()) {
-            if (token.getClientId().equals(client.getClientId())
-                    && ((username == null && token.getUsername() == null) || (username != null && username
-                            .equals(token.getUsername())))) {
-                return token;
-            }
+        /** The expiration time in milliseconds. */
+        private final long time;
+
+        /** The expiring value. */
+        private final Object value;
+
+        /**
+         * Constructor.
+         * 
+         * @param key
+         *            The key of the expiring value.
+         * @param value
+         *            The expiring value.
+         * @param time
+         *            The expiration time in milliseconds.
+         */
+        public Expiration(String key, Object value, long time) {
+            this.key = key;
+            this.value = value;
+            this.time = time;
+        }
+
+        public int compareTo(Expiration other) {
+            return (time < other.time) ? -1 : ((time == other.time) ? 0 : 1);
         }
-        return null;
     }
 
-    protected MemoryToken findTokenByRefreshToken(String refreshToken) {
-        for (MemoryToken token : tokens.values()) {
-            if (token.getRefreshToken().equals(refreshToken)) {
-                return token;
+    /**
+     * Adds a token to an index.
+     * 
+     * @param index
+     *            The index to update.
+     * @param key
+     *            The index key.
+     * @param token
+     *            The token to add.
+     */
+    private static void index(Map<String, Set<MemoryToken>> index, String key,
+            MemoryToken token) {
+        Set<MemoryToken> set = index.get(key);
+
+        if (set == null) {
+            set = Collections
+                    .newSetFromMap(new ConcurrentHashMap<MemoryToken, Boolean>());
+            index.put(key, set);
+        }
+
+        set.add(token);
+    }
+
+    /**
+     * Removes a token from an index.
+     * 
+     * @param index
+     *            The index to update.
+     * @param key
+     *            The index key.
+     * @param token
+     *            The token to remove.
+     */
+    private static void unindex(Map<String, Set<MemoryToken>> index,
+            String key, MemoryToken token) {
+        Set<MemoryToken> set = index.get(key);
+
+        if (set != null) {
+            set.remove(token);
+
+            if (set.isEmpty()) {
+                index.remove(key);
             }
         }
-        return null;
     }
 
-    public Token[] findTokens(Client client) {
-        ArrayList<Token> list = new ArrayList<Token>();
-        for (MemoryToken token : tokens.values()) {
-            if (/* !token.isExpired() && */
-            token.getClientId().equals(client.getClientId())) {
-                list.add(token);
+    /** The number of sessions evicted because of expiration or capacity. */
+    private final AtomicLong evictedSessions = new AtomicLong();
+
+    /** The number of tokens evicted because of expiration or capacity. */
+    private final AtomicLong evictedTokens = new AtomicLong();
+
+    /** The maximum number of live sessions. */
+    private volatile int maxSessions = Integer.MAX_VALUE;
+
+    /** The maximum number of token records. */
+    private volatile int maxTokens = Integer.MAX_VALUE;
+
+    /** The refresh token lifetime in seconds, or 0 if unlimited. */
+    private volatile int refreshExpirePeriod;
+
+    /** The session expiration index. */
+    private final PriorityQueue<Expiration> sessionExpirations = new PriorityQueue<Expiration>();
+
+    private final ConcurrentMap<String, AuthSession> sessions = new ConcurrentHashMap<String, AuthSession>();
+
+    /** The background sweeper. */
+    private Timer sweeper;
+
+    /**
+     * The number of entries of the token expiration index whose access token
+     * was already removed.
+     */
+    private int staleTokenExpirations;
+
+    /** The access token expiration index. */
+    private final PriorityQueue<Expiration> tokenExpirations = new PriorityQueue<Expiration>();
+
+    /** The tokens with a live access token, indexed by access token. */
+    private final ConcurrentMap<String, MemoryToken> tokens = new ConcurrentHashMap<String, MemoryToken>();
+
+    /** The tokens indexed by client identifier. */
+    private final Map<String, Set<MemoryToken>> tokensByClient = new ConcurrentHashMap<String, Set<MemoryToken>>();
+
+    /** The token records indexed by refresh token, oldest first. */
+    private final Map<String, MemoryToken> tokensByRefreshToken = new LinkedHashMap<String, MemoryToken>();
+
+    /** The tokens indexed by user name. */
+    private final Map<String, Set<MemoryToken>> tokensByUsername = new ConcurrentHashMap<String, Set<MemoryToken>>();
+
+    /**
+     * Adds a token and updates the indexes, evicting the oldest tokens if the
+     * maximum number of token records is reached.
+     * 
+     * @param token
+     *            The token to add.
+     */
+    private synchronized void addToken(MemoryToken token) {
+        sweep();
+
+        while (!tokensByRefreshToken.isEmpty()
+                && (tokensByRefreshToken.size() >= maxTokens)) {
+            removeToken(tokensByRefreshToken.values().iterator().next());
+            evictedTokens.incrementAndGet();
+        }
+
+        tokens.put(token.getAccessToken(), token);
+        tokensByRefreshToken.put(token.getRefreshToken(), token);
+        index(tokensByClient, token.getClientId(), token);
+
+        if (token.getUsername() != null) {
+            index(tokensByUsername, token.getUsername(), token);
+        }
+
+        tokenExpirations.add(new Expiration(token.getAccessToken(), token,
+                token.getExpirationTime()));
+    }
+
+    /**
+     * Removes the access token of a token, that can still be refreshed. Does
+     * nothing if the access token is no longer live.
+     * 
+     * @param token
+     *            The token whose access token must be removed.
+     * @return True if the access token was removed.
+     */
+    private synchronized boolean expireAccessToken(MemoryToken token) {
+        boolean result = tokens.remove(token.getAccessToken(), token);
+
+        if (result) {
+            // The expiration index entry is now stale, purge them in batches
+            staleTokenExpirations++;
+
+            if ((staleTokenExpirations > 16)
+                    && (staleTokenExpirations > tokenExpirations.size() / 2)) {
+                Iterator<Expiration> iter = tokenExpirations.iterator();
+
+                while (iter.hasNext()) {
+                    Expiration expiration = iter.next();
+
+                    if (tokens.get(expiration.key) != expiration.value) {
+                        iter.remove();
+                    }
+                }
+
+                staleTokenExpirations = 0;
             }
         }
-        return list.toArray(new Token[list.size()]);
+
+        return result;
     }
 
-    public Token[] findTokens(String username) {
-        ArrayList<Token> list = new ArrayList<Token>();
-        for (MemoryToken token : tokens.values()) {
-            if (/* !token.isExpired() && */
-            token.getUsername() != null && token.getUsername().equals(username)) {
-                list.add(token);
+    public Token findToken(Client client, String username) {
+        Set<MemoryToken> clientTokens = tokensByClient.get(client
+                .getClientId());
+
+        if (clientTokens != null) {
+            for (MemoryToken token : clientTokens) {
+                if ((username == null && token.getUsername() == null)
+                        || (username != null && username.equals(token
+                                .getUsername()))) {
+                    return token;
+                }
             }
         }
-        return list.toArray(new Token[list.size()]);
+        return null;
+    }
+
+    protected synchronized MemoryToken findTokenByRefreshToken(
+            String refreshToken) {
+        return tokensByRefreshToken.get(refreshToken);
+    }
+
+    public Token[] findTokens(Client client) {
+        return toArray(tokensByClient.get(client.getClientId()));
+    }
+
+    public Token[] findTokens(String username) {
+        return toArray((username == null) ? null : tokensByUsername
+                .get(username));
     }
 
     public Token generateToken(Client client, String username, String[] scope)
@@ -101,10 +289,77 @@ public class MemoryTokenManager extends AbstractTokenManager {
         token.setTokenType(OAuthResourceDefs.TOKEN_TYPE_BEARER);
         token.setAccessToken(generateRawToken());
         token.setRefreshToken(generateRawToken());
-        tokens.put(token.getAccessToken(), token);
+        addToken(token);
         return token;
     }
 
+    /**
+     * Returns the number of sessions evicted because they expired or because
+     * the maximum number of live sessions was reached.
+     * 
+     * @return The number of evicted sessions.
+     */
+    public long getEvictedSessionCount() {
+        return evictedSessions.get();
+    }
+
+    /**
+     * Returns the number of tokens evicted because they expired or because the
+     * maximum number of live tokens was reached.
+     * 
+     * @return The number of evicted tokens.
+     */
+    public long getEvictedTokenCount() {
+        return evictedTokens.get();
+    }
+
+    /**
+     * Returns the number of live sessions.
+     * 
+     * @return The number of live sessions.
+     */
+    public int getLiveSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns the number of tokens whose access token is live.
+     * 
+     * @return The number of live tokens.
+     */
+    public int getLiveTokenCount() {
+        return tokens.size();
+    }
+
+    /**
+     * Returns the maximum number of live sessions.
+     * 
+     * @return The maximum number of live sessions.
+     */
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    /**
+     * Returns the maximum number of token records, including the ones whose
+     * access token expired but that can still be refreshed.
+     * 
+     * @return The maximum number of token records.
+     */
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    /**
+     * Returns the refresh token lifetime in seconds, counted from the time the
+     * token was issued, or 0 if refresh tokens only expire when revoked.
+     * 
+     * @return The refresh token lifetime in seconds.
+     */
+    public int getRefreshExpirePeriod() {
+        return refreshExpirePeriod;
+    }
+
     public Token refreshToken(Client client, String refreshToken, String[] scope)
             throws OAuthException {
         MemoryToken token = findTokenByRefreshToken(refreshToken);
@@ -153,8 +408,8 @@ public class MemoryTokenManager extends AbstractTokenManager {
         }
 
         synchronized (this) {
-            if (tokens.remove(token.getAccessToken()) != null) {
-                tokens.put(newToken.getAccessToken(), newToken);
+            if (removeToken(token)) {
+                addToken(newToken);
                 return newToken;
             }
         }
@@ -162,6 +417,33 @@ public class MemoryTokenManager extends AbstractTokenManager {
         return null; // FIXME
     }
 
+    /**
+     * Removes a token record, including its access token, and updates the
+     * indexes. Does nothing if the token was already removed.
+     * 
+     * @param token
+     *            The token to remove.
+     * @return True if the token was removed.
+     */
+    private synchronized boolean removeToken(MemoryToken token) {
+        expireAccessToken(token);
+
+        // Refresh tokens can be shared with a refreshed token
+        String refreshToken = token.getRefreshToken();
+        boolean result = (tokensByRefreshToken.get(refreshToken) == token);
+
+        if (result) {
+            tokensByRefreshToken.remove(refreshToken);
+            unindex(tokensByClient, token.getClientId(), token);
+
+            if (token.getUsername() != null) {
+                unindex(tokensByUsername, token.getUsername(), token);
+            }
+        }
+
+        return result;
+    }
+
     public AuthSession restoreSession(String code) throws OAuthException {
         AuthSession session = sessions.remove(code);
         if (session == null) {
@@ -173,29 +455,169 @@ public class MemoryTokenManager extends AbstractTokenManager {
 
     public void revokeAllTokens(Client client) {
         for (Token token : findTokens(client)) {
-            tokens.remove(token.getAccessToken());
+            removeToken((MemoryToken) token);
         }
     }
 
     public void revokeAllTokens(String username) {
         for (Token token : findTokens(username)) {
-            tokens.remove(token.getAccessToken());
+            removeToken((MemoryToken) token);
         }
     }
 
     public void revokeToken(Client client, String username) {
         Token token = findToken(client, username);
         if (token != null) {
-            tokens.remove(token.getAccessToken());
+            removeToken((MemoryToken) token);
+        }
+    }
+
+    /**
+     * Sets the maximum number of live sessions.
+     * 
+     * @param maxSessions
+     *            The maximum number of live sessions.
+     */
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Sets the maximum number of token records, including the ones whose
+     * access token expired but that can still be refreshed.
+     * 
+     * @param maxTokens
+     *            The maximum number of token records.
+     */
+    public void setMaxTokens(int maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Sets the refresh token lifetime in seconds, counted from the time the
+     * token was issued. Set to 0, the default, so that refresh tokens only
+     * expire when revoked.
+     * 
+     * @param refreshExpirePeriod
+     *            The refresh token lifetime in seconds.
+     */
+    public void setRefreshExpirePeriod(int refreshExpirePeriod) {
+        this.refreshExpirePeriod = refreshExpirePeriod;
+    }
+
+    /**
+     * Starts a background daemon thread that evicts the expired tokens and
+     * sessions periodically.
+     * 
+     * @param period
+     *            The time in seconds between two sweeps.
+     */
+    public synchronized void startSweeper(int period) {
+        stopSweeper();
+        sweeper = new Timer("MemoryTokenManager sweeper", true);
+        sweeper.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                sweep();
+            }
+        }, period * 1000L, period * 1000L);
+    }
+
+    /**
+     * Stops the background sweeper, if started.
+     */
+    public synchronized void stopSweeper() {
+        if (sweeper != null) {
+            sweeper.cancel();
+            sweeper = null;
         }
     }
 
     public String storeSession(AuthSession session) throws OAuthException {
         String code = generateRawCode();
-        sessions.put(code, session);
+
+        synchronized (this) {
+            sweep();
+
+            while (sessions.size() >= maxSessions) {
+                Expiration expiration = sessionExpirations.poll();
+
+                if (expiration == null) {
+                    break;
+                } else if (sessions.remove(expiration.key, expiration.value)) {
+                    evictedSessions.incrementAndGet();
+                }
+            }
+
+            sessions.put(code, session);
+            sessionExpirations.add(new Expiration(code, session, System
+                    .currentTimeMillis()
+                    + (session.getSessionTimeout() * 1000L)));
+        }
+
         return code;
     }
 
+    /**
+     * Evicts the access tokens, refresh tokens and sessions that have expired.
+     */
+    public synchronized void sweep() {
+        long now = System.currentTimeMillis();
+        Expiration expiration = tokenExpirations.peek();
+
+        while ((expiration != null) && (expiration.time <= now)) {
+            tokenExpirations.poll();
+
+            if (tokens.remove(expiration.key, expiration.value)) {
+                evictedTokens.incrementAndGet();
+            } else if (staleTokenExpirations > 0) {
+                staleTokenExpirations--;
+            }
+
+            expiration = tokenExpirations.peek();
+        }
+
+        // Token records are ordered by issue time
+        long refreshPeriod = refreshExpirePeriod * 1000L;
+
+        while ((refreshPeriod > 0) && !tokensByRefreshToken.isEmpty()) {
+            MemoryToken token = tokensByRefreshToken.values().iterator().next();
+
+            if (token.getTimestamp() + refreshPeriod > now) {
+                break;
+            } else if (expireAccessToken(token)) {
+                evictedTokens.incrementAndGet();
+            }
+
+            removeToken(token);
+        }
+
+        expiration = sessionExpirations.peek();
+
+        while ((expiration != null) && (expiration.time <= now)) {
+            sessionExpirations.poll();
+
+            if (sessions.remove(expiration.key, expiration.value)) {
+                evictedSessions.incrementAndGet();
+            }
+
+            expiration = sessionExpirations.peek();
+        }
+    }
+
+    /**
+     * Copies a set of tokens into an array.
+     * 
+     * @param set
+     *            The set of tokens or null.
+     * @return The array of tokens.
+     */
+    private Token[] toArray(Set<MemoryToken> set) {
+        ArrayList<Token> list = (set == null) ? new ArrayList<Token>()
+                : new ArrayList<Token>(set);
+        return list.toArray(new Token[list.size()]);
+    }
+
     public Token validateToken(String accessToken) throws OAuthException {
         MemoryToken token = tokens.get(accessToken);
         if (token == null) {
@@ -203,6 +625,11 @@ public class MemoryTokenManager extends AbstractTokenManager {
                     "The access token revoked.", null);
         }
         if (token.isExpired()) {
+            // The token can still be refreshed
+            if (expireAccessToken(token)) {
+                evictedTokens.incrementAndGet();
+            }
+
             throw new OAuthException(OAuthError.invalid_token,
                     "The access token expired.", null);
         }
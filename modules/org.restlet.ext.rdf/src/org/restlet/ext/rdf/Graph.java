@@ -24,19 +24,34 @@
 
 package org.restlet.ext.rdf;
 
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.restlet.data.MediaType;
 import org.restlet.data.Reference;
+import org.restlet.ext.rdf.internal.GraphIndex;
 import org.restlet.representation.Representation;
 
 /**
  * Graph composed of links. This also called a set of RDF statements or a RDF
- * model.
+ * model.<br>
+ * <br>
+ * The links are stored in an index of dictionary-encoded nodes, so that adding
+ * a link takes constant time and that links can be looked up by source, type
+ * and target with {@link #getLinks(Object, Reference, Object)}. Links are
+ * compared by identity. As their nodes are indexed when they are added, links
+ * and their references must not be modified while they are part of the graph.
+ * To change a link, remove it from the graph, modify it, then add it again.<br>
+ * <br>
+ * Concurrency note: instances of this class are thread-safe. Iterators work on
+ * a snapshot of the links and don't throw concurrent modification exceptions.
  * 
  * @author Jerome Louvel
  */
-public class Graph extends CopyOnWriteArraySet<Link> {
+public class Graph extends AbstractSet<Link> implements Serializable {
 
     /** The serialization unique identifier. */
     private static final long serialVersionUID = 1L;
@@ -44,6 +59,9 @@ public class Graph extends CopyOnWriteArraySet<Link> {
     /** The default link that is used to complete new links. */
     private Link defaultLink;
 
+    /** The index of links. */
+    private final GraphIndex index;
+
     /**
      * Default constructor.
      */
@@ -59,6 +77,7 @@ public class Graph extends CopyOnWriteArraySet<Link> {
      */
     public Graph(Link defaultLink) {
         this.defaultLink = defaultLink;
+        this.index = new GraphIndex();
     }
 
     /**
@@ -300,6 +319,22 @@ public class Graph extends CopyOnWriteArraySet<Link> {
                 new Reference(targetRef));
     }
 
+    @Override
+    public synchronized boolean add(Link link) {
+        return this.index.add(link);
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.index.clear();
+    }
+
+    @Override
+    public synchronized boolean contains(Object o) {
+        return ((o == null) || (o instanceof Link))
+                && this.index.contains((Link) o);
+    }
+
     /**
      * Returns the default link that is used to complete new links.
      * 
@@ -309,6 +344,27 @@ public class Graph extends CopyOnWriteArraySet<Link> {
         return defaultLink;
     }
 
+    /**
+     * Returns the links matching a pattern, in their insertion order. Null
+     * parameters match any value, for example {@code getLinks(subject, null,
+     * null)} returns all the links whose source is the given subject.
+     * Resource references are compared by value, literals by value, datatype
+     * and language, and graphs or links by identity. The result reflects the
+     * nodes of the links when they were added to the graph.
+     * 
+     * @param source
+     *            The source reference, graph or link, or null.
+     * @param typeRef
+     *            The type reference or null.
+     * @param target
+     *            The target reference, literal, graph or link, or null.
+     * @return The matching links.
+     */
+    public synchronized List<Link> getLinks(Object source, Reference typeRef,
+            Object target) {
+        return this.index.getLinks(source, typeRef, target);
+    }
+
     /**
      * Returns a representation in the RDF/n3 format.
      * 
@@ -435,6 +491,54 @@ public class Graph extends CopyOnWriteArraySet<Link> {
         return result;
     }
 
+    /**
+     * Returns an iterator on a snapshot of the links, in their insertion order.
+     * 
+     * @return An iterator on a snapshot of the links.
+     */
+    @Override
+    public Iterator<Link> iterator() {
+        final List<Link> snapshot;
+
+        synchronized (this) {
+            snapshot = this.index.toList();
+        }
+
+        return new Iterator<Link>() {
+            private int next;
+
+            private int last = -1;
+
+            public boolean hasNext() {
+                return this.next < snapshot.size();
+            }
+
+            public Link next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                this.last = this.next++;
+                return snapshot.get(this.last);
+            }
+
+            public void remove() {
+                if (this.last == -1) {
+                    throw new IllegalStateException();
+                }
+
+                Graph.this.remove(snapshot.get(this.last));
+                this.last = -1;
+            }
+        };
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+        return ((o == null) || (o instanceof Link))
+                && this.index.remove((Link) o);
+    }
+
     /**
      * Sets the default link that is used to complete new links.
      * 
@@ -445,4 +549,9 @@ public class Graph extends CopyOnWriteArraySet<Link> {
         this.defaultLink = defaultLink;
     }
 
+    @Override
+    public synchronized int size() {
+        return this.index.size();
+    }
+
 }
@@ -36,6 +36,10 @@ import org.restlet.data.Reference;
  * We use this class in Restlet to enhance resources and make them part of the
  * Web of data (also know as Linked Data and Hyperdata).
  * 
+ * A link added to a {@link Graph} is indexed by its source, type and target, so
+ * it must not be modified while it is part of the graph. Remove it from the
+ * graph before modifying it, then add it again.
+ * 
  * @author Jerome Louvel
  * @see <a href="http://www.w3.org/TR/rdf-concepts/">RDF concepts</a>
  */
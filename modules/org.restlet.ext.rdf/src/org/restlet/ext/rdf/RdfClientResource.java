@@ -280,7 +280,9 @@ public class RdfClientResource extends ClientResource {
     }
 
     /**
-     * Returns the links exposed by this resource.
+     * Returns the links exposed by this resource. The returned graph indexes
+     * its links, which must not be modified unless they are removed from the
+     * graph first.
      * 
      * @return The links exposed by this resource.
      */
@@ -380,11 +382,9 @@ public class RdfClientResource extends ClientResource {
         if (links != null) {
             result = new HashSet<Literal>();
 
-            for (Link link : links) {
+            for (Link link : links.getLinks(null, typeRef, null)) {
                 if (link.hasLiteralTarget()) {
-                    if ((typeRef == null) || typeRef.equals(link.getTypeRef())) {
-                        result.add(link.getTargetAsLiteral());
-                    }
+                    result.add(link.getTargetAsLiteral());
                 }
             }
         }
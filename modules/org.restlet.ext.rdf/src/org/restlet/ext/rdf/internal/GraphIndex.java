@@ -0,0 +1,558 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.rdf.internal;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.data.Reference;
+import org.restlet.ext.rdf.Link;
+import org.restlet.ext.rdf.Literal;
+import org.restlet.ext.rdf.Triple;
+
+/**
+ * In-memory index of the links of a graph. Each source, type and target node
+ * is encoded once in a dictionary and the links are stored as triples of node
+ * identifiers in primitive arrays. The positions of the links are indexed by
+ * source, type and target, and by the SPO, POS and OSP pairs, so that pattern
+ * queries don't need to scan the whole graph.<br>
+ * <br>
+ * Resource references are compared by value, literals by value, datatype and
+ * language and other nodes such as graphs and links by identity. Links and
+ * their references must not be modified while they are part of the index, as
+ * their nodes are only encoded when they are added. Removed positions are
+ * reclaimed by compacting the arrays in place, the dictionary keeping the
+ * nodes of the removed links until the index is cleared.<br>
+ * <br>
+ * Concurrency note: instances of this class are not thread-safe.
+ * 
+ * @author Jerome Louvel
+ */
+public class GraphIndex implements Serializable {
+
+    /** Key of the nodes compared by identity. */
+    private static final class IdentityKey implements Serializable {
+
+        /** The serialization unique identifier. */
+        private static final long serialVersionUID = 1L;
+
+        /** The wrapped node. */
+        private final Object node;
+
+        /**
+         * Constructor.
+         * 
+         * @param node
+         *            The wrapped node.
+         */
+        public IdentityKey(Object node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return (object instanceof IdentityKey)
+                    && (((IdentityKey) object).node == this.node);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.node);
+        }
+    }
+
+    /** Growable and sorted list of link positions. */
+    private static final class Positions implements Serializable {
+
+        /** The serialization unique identifier. */
+        private static final long serialVersionUID = 1L;
+
+        /** The number of positions. */
+        private int size;
+
+        /** The positions. */
+        private int[] values;
+
+        /** Constructor. */
+        public Positions() {
+            this.values = new int[2];
+        }
+
+        /**
+         * Appends a position, greater than all the current ones.
+         * 
+         * @param position
+         *            The position to add.
+         */
+        public void add(int position) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+
+            this.values[this.size++] = position;
+        }
+
+        /**
+         * Replaces the positions with their new values after a compaction.
+         * The order is preserved as the live positions keep their relative
+         * order.
+         * 
+         * @param newPositions
+         *            The new positions indexed by old position.
+         */
+        public void remap(int[] newPositions) {
+            for (int i = 0; i < this.size; i++) {
+                this.values[i] = newPositions[this.values[i]];
+            }
+        }
+
+        /**
+         * Removes a position.
+         * 
+         * @param position
+         *            The position to remove.
+         */
+        public void remove(int position) {
+            int index = Arrays.binarySearch(this.values, 0, this.size,
+                    position);
+
+            if (index >= 0) {
+                System.arraycopy(this.values, index + 1, this.values, index,
+                        this.size - index - 1);
+                this.size--;
+            }
+        }
+    }
+
+    /** Key of the null node. */
+    private static final String NULL_KEY = "";
+
+    /** The serialization unique identifier. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Returns the dictionary key of a node.
+     * 
+     * @param node
+     *            The node.
+     * @return The dictionary key.
+     */
+    private static Object getKey(Object node) {
+        Object result;
+
+        if (node == null) {
+            result = NULL_KEY;
+        } else if (node instanceof Reference) {
+            result = node;
+        } else if (node instanceof Literal) {
+            Literal literal = (Literal) node;
+            result = new Triple<Object, Object, Object>(literal.getValue(),
+                    literal.getDatatypeRef(), literal.getLanguage());
+        } else {
+            result = new IdentityKey(node);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the index key of a pair of node identifiers.
+     * 
+     * @param first
+     *            The first node identifier.
+     * @param second
+     *            The second node identifier.
+     * @return The index key.
+     */
+    private static Long getKey(int first, int second) {
+        return Long.valueOf(((long) first << 32) | (second & 0xFFFFFFFFL));
+    }
+
+    /** The number of used link positions, including the removed ones. */
+    private int count;
+
+    /** The node identifiers indexed by dictionary key. */
+    private Map<Object, Integer> ids;
+
+    /** The links indexed by position. */
+    private Link[] links;
+
+    /** The positions of the links indexed by target and source. */
+    private Map<Long, Positions> ospIndex;
+
+    /** The positions of the links indexed by type and target. */
+    private Map<Long, Positions> posIndex;
+
+    /** The positions of the links, compared by identity. */
+    private IdentityHashMap<Link, Integer> positions;
+
+    /** The positions of the links indexed by source. */
+    private Map<Integer, Positions> sourceIndex;
+
+    /** The source node identifiers indexed by position, -1 when removed. */
+    private int[] sources;
+
+    /** The positions of the links indexed by source and type. */
+    private Map<Long, Positions> spoIndex;
+
+    /** The positions of the links indexed by target. */
+    private Map<Integer, Positions> targetIndex;
+
+    /** The target node identifiers indexed by position. */
+    private int[] targets;
+
+    /** The positions of the links indexed by type. */
+    private Map<Integer, Positions> typeIndex;
+
+    /** The type node identifiers indexed by position. */
+    private int[] types;
+
+    /**
+     * Constructor.
+     */
+    public GraphIndex() {
+        clear();
+    }
+
+    /**
+     * Adds a link if it isn't already indexed.
+     * 
+     * @param link
+     *            The link to add.
+     * @return True if the link was added.
+     */
+    public boolean add(Link link) {
+        if (this.positions.containsKey(link)) {
+            return false;
+        }
+
+        if (this.count == this.links.length) {
+            int capacity = this.count * 2;
+            this.links = Arrays.copyOf(this.links, capacity);
+            this.sources = Arrays.copyOf(this.sources, capacity);
+            this.types = Arrays.copyOf(this.types, capacity);
+            this.targets = Arrays.copyOf(this.targets, capacity);
+        }
+
+        int position = this.count++;
+        int source = encode((link == null) ? null : link.getSource());
+        int type = encode((link == null) ? null : link.getTypeRef());
+        int target = encode((link == null) ? null : link.getTarget());
+
+        this.links[position] = link;
+        this.sources[position] = source;
+        this.types[position] = type;
+        this.targets[position] = target;
+        this.positions.put(link, Integer.valueOf(position));
+
+        getPositions(this.sourceIndex, Integer.valueOf(source)).add(position);
+        getPositions(this.typeIndex, Integer.valueOf(type)).add(position);
+        getPositions(this.targetIndex, Integer.valueOf(target)).add(position);
+        getPositions(this.spoIndex, getKey(source, type)).add(position);
+        getPositions(this.posIndex, getKey(type, target)).add(position);
+        getPositions(this.ospIndex, getKey(target, source)).add(position);
+        return true;
+    }
+
+    /**
+     * Removes all the links and nodes.
+     */
+    public void clear() {
+        this.count = 0;
+        this.ids = new HashMap<Object, Integer>();
+        this.links = new Link[16];
+        this.positions = new IdentityHashMap<Link, Integer>();
+        this.sources = new int[16];
+        this.types = new int[16];
+        this.targets = new int[16];
+        this.sourceIndex = new HashMap<Integer, Positions>();
+        this.typeIndex = new HashMap<Integer, Positions>();
+        this.targetIndex = new HashMap<Integer, Positions>();
+        this.spoIndex = new HashMap<Long, Positions>();
+        this.posIndex = new HashMap<Long, Positions>();
+        this.ospIndex = new HashMap<Long, Positions>();
+    }
+
+    /**
+     * Moves the live links to the start of the arrays, removing the positions
+     * of the removed links, and updates the positions stored in the indexes.
+     * The dictionary is kept.
+     */
+    private void compact() {
+        int[] newPositions = new int[this.count];
+        int size = 0;
+
+        for (int i = 0; i < this.count; i++) {
+            if (this.sources[i] == -1) {
+                newPositions[i] = -1;
+            } else {
+                newPositions[i] = size;
+                this.links[size] = this.links[i];
+                this.sources[size] = this.sources[i];
+                this.types[size] = this.types[i];
+                this.targets[size] = this.targets[i];
+                this.positions.put(this.links[size], Integer.valueOf(size));
+                size++;
+            }
+        }
+
+        Arrays.fill(this.links, size, this.count, null);
+        this.count = size;
+        remap(this.sourceIndex, newPositions);
+        remap(this.typeIndex, newPositions);
+        remap(this.targetIndex, newPositions);
+        remap(this.spoIndex, newPositions);
+        remap(this.posIndex, newPositions);
+        remap(this.ospIndex, newPositions);
+    }
+
+    /**
+     * Indicates if a link is indexed.
+     * 
+     * @param link
+     *            The link to look for.
+     * @return True if the link is indexed.
+     */
+    public boolean contains(Link link) {
+        return this.positions.containsKey(link);
+    }
+
+    /**
+     * Returns the identifier of a node, adding it to the dictionary if needed.
+     * 
+     * @param node
+     *            The node to encode.
+     * @return The node identifier.
+     */
+    private int encode(Object node) {
+        Object key = getKey(node);
+        Integer result = this.ids.get(key);
+
+        if (result == null) {
+            result = Integer.valueOf(this.ids.size());
+            this.ids.put(key, result);
+        }
+
+        return result.intValue();
+    }
+
+    /**
+     * Returns the links matching a pattern, in their insertion order. Null
+     * parameters match any node.
+     * 
+     * @param source
+     *            The source node or null.
+     * @param typeRef
+     *            The type reference or null.
+     * @param target
+     *            The target node or null.
+     * @return The matching links.
+     */
+    public List<Link> getLinks(Object source, Reference typeRef,
+            Object target) {
+        Integer sourceId = (source == null) ? null : this.ids
+                .get(getKey(source));
+        Integer typeId = (typeRef == null) ? null : this.ids
+                .get(getKey(typeRef));
+        Integer targetId = (target == null) ? null : this.ids
+                .get(getKey(target));
+
+        if (((source != null) && (sourceId == null))
+                || ((typeRef != null) && (typeId == null))
+                || ((target != null) && (targetId == null))) {
+            return new ArrayList<Link>(0);
+        }
+
+        Positions candidates;
+
+        if (sourceId != null) {
+            if (typeId != null) {
+                candidates = this.spoIndex.get(getKey(sourceId.intValue(),
+                        typeId.intValue()));
+            } else if (targetId != null) {
+                candidates = this.ospIndex.get(getKey(targetId.intValue(),
+                        sourceId.intValue()));
+            } else {
+                candidates = this.sourceIndex.get(sourceId);
+            }
+        } else if (typeId != null) {
+            if (targetId != null) {
+                candidates = this.posIndex.get(getKey(typeId.intValue(),
+                        targetId.intValue()));
+            } else {
+                candidates = this.typeIndex.get(typeId);
+            }
+        } else if (targetId != null) {
+            candidates = this.targetIndex.get(targetId);
+        } else {
+            return toList();
+        }
+
+        List<Link> result;
+
+        if (candidates == null) {
+            result = new ArrayList<Link>(0);
+        } else {
+            result = new ArrayList<Link>(candidates.size);
+
+            for (int i = 0; i < candidates.size; i++) {
+                int position = candidates.values[i];
+
+                // Only the SPO index may need to be filtered on the target
+                if ((targetId == null)
+                        || (this.targets[position] == targetId.intValue())) {
+                    result.add(this.links[position]);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the positions associated to a key, creating them if needed.
+     * 
+     * @param index
+     *            The index to update.
+     * @param key
+     *            The index key.
+     * @return The positions associated to the key.
+     */
+    private <K> Positions getPositions(Map<K, Positions> index, K key) {
+        Positions result = index.get(key);
+
+        if (result == null) {
+            result = new Positions();
+            index.put(key, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Updates the positions of an index after a compaction.
+     * 
+     * @param index
+     *            The index to update.
+     * @param newPositions
+     *            The new positions indexed by old position.
+     */
+    private <K> void remap(Map<K, Positions> index, int[] newPositions) {
+        for (Positions current : index.values()) {
+            current.remap(newPositions);
+        }
+    }
+
+    /**
+     * Removes a link.
+     * 
+     * @param link
+     *            The link to remove.
+     * @return True if the link was removed.
+     */
+    public boolean remove(Link link) {
+        Integer position = this.positions.remove(link);
+
+        if (position == null) {
+            return false;
+        }
+
+        int pos = position.intValue();
+        int source = this.sources[pos];
+        int type = this.types[pos];
+        int target = this.targets[pos];
+
+        removePosition(this.sourceIndex, Integer.valueOf(source), pos);
+        removePosition(this.typeIndex, Integer.valueOf(type), pos);
+        removePosition(this.targetIndex, Integer.valueOf(target), pos);
+        removePosition(this.spoIndex, getKey(source, type), pos);
+        removePosition(this.posIndex, getKey(type, target), pos);
+        removePosition(this.ospIndex, getKey(target, source), pos);
+        this.links[pos] = null;
+        this.sources[pos] = -1;
+
+        // Reclaim the removed positions
+        if ((this.count > 16) && (size() < this.count / 2)) {
+            compact();
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes a position associated to a key.
+     * 
+     * @param index
+     *            The index to update.
+     * @param key
+     *            The index key.
+     * @param position
+     *            The position to remove.
+     */
+    private <K> void removePosition(Map<K, Positions> index, K key,
+            int position) {
+        Positions positions = index.get(key);
+
+        if (positions != null) {
+            positions.remove(position);
+
+            if (positions.size == 0) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of links.
+     * 
+     * @return The number of links.
+     */
+    public int size() {
+        return this.positions.size();
+    }
+
+    /**
+     * Returns the links in their insertion order.
+     * 
+     * @return The links in their insertion order.
+     */
+    public List<Link> toList() {
+        List<Link> result = new ArrayList<Link>(size());
+
+        for (int i = 0; i < this.count; i++) {
+            if (this.sources[i] != -1) {
+                result.add(this.links[i]);
+            }
+        }
+
+        return result;
+    }
+
+}
@@ -27,6 +27,7 @@ package org.restlet.ext.velocity;
 import java.io.IOException;
 import java.util.Map;
 
+import org.apache.velocity.Template;
 import org.apache.velocity.exception.ParseErrorException;
 import org.apache.velocity.exception.ResourceNotFoundException;
 import org.restlet.Context;
@@ -35,6 +36,8 @@ import org.restlet.Response;
 import org.restlet.Restlet;
 import org.restlet.data.Encoding;
 import org.restlet.data.Status;
+import org.restlet.engine.util.TemplateCache;
+import org.restlet.representation.Representation;
 import org.restlet.routing.Filter;
 import org.restlet.util.Resolver;
 
@@ -59,11 +62,15 @@ public class TemplateFilter extends Filter {
     /** The template's data model as a resolver. */
     private volatile Resolver<Object> resolverDataModel;
 
+    /** The cache of templates parsed from response entities. */
+    private final TemplateCache<Template> templateCache;
+
     /**
      * Constructor.
      */
     public TemplateFilter() {
         super();
+        this.templateCache = new TemplateCache<Template>();
     }
 
     /**
@@ -74,6 +81,7 @@ public class TemplateFilter extends Filter {
      */
     public TemplateFilter(Context context) {
         super(context);
+        this.templateCache = new TemplateCache<Template>();
     }
 
     /**
@@ -88,6 +96,7 @@ public class TemplateFilter extends Filter {
         super(context, next);
         this.mapDataModel = null;
         this.resolverDataModel = null;
+        this.templateCache = new TemplateCache<Template>();
     }
 
     /**
@@ -105,6 +114,7 @@ public class TemplateFilter extends Filter {
         super(context, next);
         this.mapDataModel = dataModel;
         this.resolverDataModel = null;
+        this.templateCache = new TemplateCache<Template>();
     }
 
     /**
@@ -122,6 +132,7 @@ public class TemplateFilter extends Filter {
         super(context, next);
         this.mapDataModel = null;
         this.resolverDataModel = dataModel;
+        this.templateCache = new TemplateCache<Template>();
     }
 
     @Override
@@ -130,9 +141,20 @@ public class TemplateFilter extends Filter {
                 && response.getEntity().getEncodings()
                         .contains(Encoding.VELOCITY)) {
             try {
+                Representation entity = response.getEntity();
+                Template template = this.templateCache.get(entity);
+
+                if (template == null) {
+                    template = TemplateRepresentation.getTemplate(entity);
+                    this.templateCache.put(entity, template);
+                } else {
+                    // The source of the cached template doesn't need to be
+                    // read
+                    entity.release();
+                }
+
                 final TemplateRepresentation representation = new TemplateRepresentation(
-                        response.getEntity(), response.getEntity()
-                                .getMediaType());
+                        template, entity.getMediaType());
 
                 if ((this.mapDataModel == null)
                         && (this.resolverDataModel == null)) {
@@ -36,6 +36,7 @@ import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.exception.ParseErrorException;
 import org.apache.velocity.exception.ResourceNotFoundException;
+import org.apache.velocity.runtime.RuntimeConstants;
 import org.apache.velocity.runtime.RuntimeSingleton;
 import org.restlet.Context;
 import org.restlet.Request;
@@ -54,6 +55,66 @@ import org.restlet.util.Resolver;
  * @author Jerome Louvel
  */
 public class TemplateRepresentation extends WriterRepresentation {
+
+    /** The default Velocity engine, shared by all template representations. */
+    private static volatile VelocityEngine defaultEngine;
+
+    /**
+     * Returns the default Velocity engine, shared by all template
+     * representations that aren't given a specific engine. It is lazily
+     * created and initialized with the file resource loader cache enabled, so
+     * that templates are only parsed again when their source is modified.
+     * 
+     * @return The default Velocity engine.
+     */
+    public static VelocityEngine getDefaultEngine() {
+        VelocityEngine result = defaultEngine;
+
+        if (result == null) {
+            synchronized (TemplateRepresentation.class) {
+                result = defaultEngine;
+
+                if (result == null) {
+                    result = new VelocityEngine();
+                    result.setProperty(
+                            RuntimeConstants.FILE_RESOURCE_LOADER_CACHE, "true");
+                    result.init();
+                    defaultEngine = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses a template from a Velocity 'encoded' representation.
+     * 
+     * @param templateRepresentation
+     *            The representation to 'decode'.
+     * @return The parsed template.
+     * @throws IOException
+     * @throws ParseErrorException
+     * @throws ResourceNotFoundException
+     */
+    public static Template getTemplate(Representation templateRepresentation)
+            throws ResourceNotFoundException, ParseErrorException, IOException {
+        Template result = new Template();
+
+        CharacterSet charSet = (templateRepresentation.getCharacterSet() != null) ? templateRepresentation
+                .getCharacterSet() : CharacterSet.DEFAULT;
+        result.setEncoding(charSet.getName());
+        result.setLastModified((templateRepresentation.getModificationDate() == null) ? new Date()
+                .getTime() : templateRepresentation.getModificationDate()
+                .getTime());
+        result.setName("org.restlet.resource.representation");
+        result.setRuntimeServices(RuntimeSingleton.getRuntimeServices());
+        result.setResourceLoader(new RepresentationResourceLoader(
+                templateRepresentation));
+        result.process();
+        return result;
+    }
+
     /**
      * Velocity context based on a Resolver.
      * 
@@ -155,26 +216,7 @@ public class TemplateRepresentation extends WriterRepresentation {
     public TemplateRepresentation(Representation templateRepresentation,
             Map<String, Object> dataModel, MediaType mediaType)
             throws ResourceNotFoundException, ParseErrorException, IOException {
-        super(mediaType);
-        setDataModel(dataModel);
-        this.engine = null;
-        this.template = new Template();
-
-        CharacterSet charSet = (templateRepresentation.getCharacterSet() != null) ? templateRepresentation
-                .getCharacterSet() : CharacterSet.DEFAULT;
-        this.template.setEncoding(charSet.getName());
-
-        if (templateRepresentation.getModificationDate() != null) {
-            this.template.setLastModified(templateRepresentation
-                    .getModificationDate().getTime());
-        }
-
-        this.template.setName("org.restlet.resource.representation");
-        this.template.setRuntimeServices(RuntimeSingleton.getRuntimeServices());
-        this.template.setResourceLoader(new RepresentationResourceLoader(
-                templateRepresentation));
-        this.template.process();
-        this.templateName = null;
+        this(getTemplate(templateRepresentation), dataModel, mediaType);
     }
 
     /**
@@ -191,22 +233,25 @@ public class TemplateRepresentation extends WriterRepresentation {
     public TemplateRepresentation(Representation templateRepresentation,
             MediaType mediaType) throws ResourceNotFoundException,
             ParseErrorException, IOException {
-        super(mediaType);
-        this.engine = null;
-        this.template = new Template();
+        this(getTemplate(templateRepresentation), mediaType);
+    }
 
-        CharacterSet charSet = (templateRepresentation.getCharacterSet() != null) ? templateRepresentation
-                .getCharacterSet() : CharacterSet.DEFAULT;
-        this.template.setEncoding(charSet.getName());
-        this.template.setLastModified((templateRepresentation
-                .getModificationDate() == null) ? new Date().getTime()
-                : templateRepresentation.getModificationDate().getTime());
-        this.template.setName("org.restlet.resource.representation");
-        this.template.setRuntimeServices(RuntimeSingleton.getRuntimeServices());
-        this.template.setResourceLoader(new RepresentationResourceLoader(
-                templateRepresentation));
-        this.template.process();
-        this.templateName = null;
+    /**
+     * Constructor. The template is retrieved using the default engine, unless
+     * a specific engine is configured via {@link #getEngine()} before the
+     * template is first loaded.
+     * 
+     * @param templateName
+     *            The Velocity template's name. The actual template is retrieved
+     *            using the Velocity configuration.
+     * @param dataModel
+     *            The Velocity template's data model.
+     * @param mediaType
+     *            The representation's media type.
+     */
+    public TemplateRepresentation(String templateName,
+            Map<String, Object> dataModel, MediaType mediaType) {
+        this(templateName, null, dataModel, mediaType);
     }
 
     /**
@@ -215,23 +260,20 @@ public class TemplateRepresentation extends WriterRepresentation {
      * @param templateName
      *            The Velocity template's name. The actual template is retrieved
      *            using the Velocity configuration.
+     * @param engine
+     *            The Velocity engine, typically shared by an application.
      * @param dataModel
      *            The Velocity template's data model.
      * @param mediaType
      *            The representation's media type.
      */
-    public TemplateRepresentation(String templateName,
+    public TemplateRepresentation(String templateName, VelocityEngine engine,
             Map<String, Object> dataModel, MediaType mediaType) {
         super(mediaType);
-
-        try {
-            setDataModel(dataModel);
-            this.engine = new VelocityEngine();
-            this.template = null;
-            this.templateName = templateName;
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        setDataModel(dataModel);
+        this.engine = engine;
+        this.template = null;
+        this.templateName = templateName;
     }
 
     /**
@@ -291,11 +333,17 @@ public class TemplateRepresentation extends WriterRepresentation {
     }
 
     /**
-     * Returns the Velocity engine.
+     * Returns the Velocity engine. For representations based on a template
+     * name, a specific engine is created if none was given, so that it can be
+     * configured before the template is first loaded.
      * 
      * @return The Velocity engine.
      */
     public VelocityEngine getEngine() {
+        if ((this.engine == null) && (this.templateName != null)) {
+            this.engine = new VelocityEngine();
+        }
+
         return this.engine;
     }
 
@@ -308,8 +356,11 @@ public class TemplateRepresentation extends WriterRepresentation {
         if (this.template == null) {
             if (this.templateName != null) {
                 try {
-                    getEngine().init();
-                    this.template = getEngine().getTemplate(this.templateName);
+                    VelocityEngine velocityEngine = (this.engine == null) ? getDefaultEngine()
+                            : this.engine;
+                    velocityEngine.init();
+                    this.template = velocityEngine
+                            .getTemplate(this.templateName);
                 } catch (Exception e) {
                     final Context context = Context.getCurrent();
 
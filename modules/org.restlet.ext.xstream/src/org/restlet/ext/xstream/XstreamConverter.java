@@ -27,6 +27,8 @@ package org.restlet.ext.xstream;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.restlet.data.MediaType;
 import org.restlet.data.Preference;
@@ -62,7 +64,16 @@ import com.thoughtworks.xstream.security.PrimitiveTypePermission;
  * You can configure the Xstream object used by this converter by overriding the
  * {@link #createXstream(MediaType, Class)} method and apply your own security
  * permissions, and provide this new converter to the Restlet Engine (see
- * org.restlet.engine.Engine#getRegisteredConverters method).
+ * org.restlet.engine.Engine#getRegisteredConverters method).<br>
+ * <br>
+ * As XStream objects are expensive to create and thread-safe once configured,
+ * the converter caches them per media type and target class by default. Each
+ * cached instance is configured once at creation time via
+ * {@link #configureXstream(XStream, MediaType, Class)}, which can be
+ * overridden to register aliases or converters. As annotation auto-detection
+ * isn't thread-safe, it is disabled on cached instances, so the annotations of
+ * other classes must be processed there as well. Changing the driver classes
+ * clears the cache.
  * 
  * @author Jerome Louvel
  * @deprecated Use an XML serialization technology such as Jackson instead.
@@ -82,18 +93,52 @@ public class XstreamConverter extends ConverterHelper {
     private static final VariantInfo VARIANT_TEXT_XML = new VariantInfo(
             MediaType.TEXT_XML);
 
+    /** Indicates if the configured XStream objects are cached. */
+    private volatile boolean cachingXstreams;
+
     /** The XStream JSON driver class. */
     private Class<? extends HierarchicalStreamDriver> jsonDriverClass;
 
     /** The XStream XML driver class. */
     private Class<? extends HierarchicalStreamDriver> xmlDriverClass;
 
+    /** The cached XStream objects, per media type and target class. */
+    private final ConcurrentMap<MediaType, ConcurrentMap<Class<?>, XStream>> xstreams;
+
     /**
      * Constructor.
      */
     public XstreamConverter() {
+        this.cachingXstreams = true;
         this.jsonDriverClass = JettisonMappedXmlDriver.class;
         this.xmlDriverClass = DomDriver.class;
+        this.xstreams = new ConcurrentHashMap<MediaType, ConcurrentMap<Class<?>, XStream>>();
+    }
+
+    /**
+     * Clears the cache of configured XStream objects.
+     */
+    public void clearCache() {
+        this.xstreams.clear();
+    }
+
+    /**
+     * Configures a new XStream object before it is used. Called once per media
+     * type and target class when caching, or for each new XStream object
+     * otherwise. By default, it processes the annotations of the target class.
+     * To be overridden in order to register aliases, converters or additional
+     * security permissions.
+     * 
+     * @param xstream
+     *            The XStream object to configure.
+     * @param mediaType
+     *            The serialization media type.
+     * @param target
+     *            The expected class of the Java object.
+     */
+    protected void configureXstream(XStream xstream, MediaType mediaType,
+            Class<?> target) {
+        xstream.processAnnotations(target);
     }
 
     /**
@@ -107,7 +152,19 @@ public class XstreamConverter extends ConverterHelper {
      * @return The marshaling {@link XstreamRepresentation}.
      */
     protected <T> XstreamRepresentation<T> create(MediaType mediaType, T source) {
-        return new XstreamRepresentation<T>(mediaType, source);
+        XstreamRepresentation<T> representation = new XstreamRepresentation<T>(
+                mediaType, source);
+
+        if (isCachingXstreams() && (source != null)) {
+            try {
+                representation.setSharedXstream(getXstream(mediaType,
+                        source.getClass()));
+            } catch (IOException e) {
+                // Let the representation create its own XStream object
+            }
+        }
+
+        return representation;
     }
 
     /**
@@ -125,7 +182,16 @@ public class XstreamConverter extends ConverterHelper {
             Class<T> target) throws IOException {
         XstreamRepresentation<T> representation = new XstreamRepresentation<T>(
                 source, target);
-        representation.setXstream(createXstream(source.getMediaType(), target));
+
+        if (isCachingXstreams() && (source.getMediaType() != null)
+                && (target != null)) {
+            representation.setSharedXstream(getXstream(source.getMediaType(),
+                    target));
+        } else {
+            representation.setXstream(getXstream(source.getMediaType(),
+                    target));
+        }
+
         return representation;
     }
 
@@ -184,6 +250,63 @@ public class XstreamConverter extends ConverterHelper {
         return jsonDriverClass;
     }
 
+    /**
+     * Returns a configured XStream object for the given media type and target
+     * class. If caching is enabled, the object is created and configured once
+     * and then reused for later conversions. Otherwise, a new object is
+     * created for each call.
+     * 
+     * @param mediaType
+     *            The serialization media type.
+     * @param target
+     *            The expected class of the Java object.
+     * @return The configured XStream object.
+     * @throws IOException
+     */
+    public XStream getXstream(MediaType mediaType, Class<?> target)
+            throws IOException {
+        XStream result = null;
+
+        if (!isCachingXstreams() || (mediaType == null) || (target == null)) {
+            result = createXstream(mediaType, target);
+
+            if (target != null) {
+                configureXstream(result, mediaType, target);
+            }
+        } else {
+            // Ignore the media type parameters such as the character set
+            MediaType key = MediaType.valueOf(mediaType.getName());
+            ConcurrentMap<Class<?>, XStream> classXstreams = this.xstreams
+                    .get(key);
+
+            if (classXstreams == null) {
+                classXstreams = new ConcurrentHashMap<Class<?>, XStream>();
+                ConcurrentMap<Class<?>, XStream> current = this.xstreams
+                        .putIfAbsent(key, classXstreams);
+
+                if (current != null) {
+                    classXstreams = current;
+                }
+            }
+
+            result = classXstreams.get(target);
+
+            if (result == null) {
+                // Annotation auto-detection isn't thread-safe
+                result = createXstream(key, target);
+                result.autodetectAnnotations(false);
+                configureXstream(result, key, target);
+                XStream current = classXstreams.putIfAbsent(target, result);
+
+                if (current != null) {
+                    result = current;
+                }
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public List<Class<?>> getObjectClasses(Variant source) {
         List<Class<?>> result = null;
@@ -222,6 +345,16 @@ public class XstreamConverter extends ConverterHelper {
         return xmlDriverClass;
     }
 
+    /**
+     * Indicates if the configured XStream objects are cached per media type and
+     * target class. True by default.
+     * 
+     * @return True if the configured XStream objects are cached.
+     */
+    public boolean isCachingXstreams() {
+        return cachingXstreams;
+    }
+
     @Override
     public float score(Object source, Variant target, Resource resource) {
         float result = -1.0F;
@@ -269,6 +402,17 @@ public class XstreamConverter extends ConverterHelper {
         return result;
     }
 
+    /**
+     * Indicates if the configured XStream objects should be cached per media
+     * type and target class.
+     * 
+     * @param cachingXstreams
+     *            True if the configured XStream objects should be cached.
+     */
+    public void setCachingXstreams(boolean cachingXstreams) {
+        this.cachingXstreams = cachingXstreams;
+    }
+
     /**
      * Sets the XStream JSON driver class.
      * 
@@ -278,6 +422,7 @@ public class XstreamConverter extends ConverterHelper {
     public void setJsonDriverClass(
             Class<? extends HierarchicalStreamDriver> jsonDriverClass) {
         this.jsonDriverClass = jsonDriverClass;
+        clearCache();
     }
 
     /**
@@ -289,6 +434,7 @@ public class XstreamConverter extends ConverterHelper {
     public void setXmlDriverClass(
             Class<? extends HierarchicalStreamDriver> xmlDriverClass) {
         this.xmlDriverClass = xmlDriverClass;
+        clearCache();
     }
 
     @SuppressWarnings("unchecked")
@@ -302,7 +448,9 @@ public class XstreamConverter extends ConverterHelper {
 
         if (source instanceof XstreamRepresentation) {
             xstreamSource = (XstreamRepresentation<?>) source;
-            if (target != null) {
+
+            // Shared XStream objects are already configured
+            if ((target != null) && !xstreamSource.isSharedXstream()) {
                 xstreamSource.getXstream().processAnnotations(target);
             }
         } else if (VARIANT_JSON.isCompatible(source)) {
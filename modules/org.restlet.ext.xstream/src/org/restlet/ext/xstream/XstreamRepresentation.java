@@ -73,6 +73,12 @@ import com.thoughtworks.xstream.security.PrimitiveTypePermission;
 @Deprecated
 public class XstreamRepresentation<T> extends WriterRepresentation {
 
+    /**
+     * Indicates if the annotations of the wrapped object or target class were
+     * processed by the XStream object.
+     */
+    private boolean annotationsProcessed;
+
     /** The XStream JSON driver class. */
     private Class<? extends HierarchicalStreamDriver> jsonDriverClass;
 
@@ -82,6 +88,12 @@ public class XstreamRepresentation<T> extends WriterRepresentation {
     /** The representation to parse. */
     private Representation representation;
 
+    /**
+     * Indicates if the XStream object is shared, in which case it is already
+     * configured and must not be modified.
+     */
+    private boolean sharedXstream;
+
     /** The target class of the object to serialize. */
     private Class<T> targetClass;
 
@@ -189,14 +201,13 @@ public class XstreamRepresentation<T> extends WriterRepresentation {
     public T getObject() throws IOException {
         T result = null;
 
+        if (!this.annotationsProcessed) {
+            processAnnotations(getXstream());
+        }
+
         if (this.object != null) {
-            getXstream().processAnnotations(this.object.getClass());
             result = this.object;
         } else if (this.representation != null) {
-            if (this.targetClass != null) {
-                getXstream().processAnnotations(this.targetClass);
-            }
-
             try {
                 result = (T) getXstream().fromXML(
                         this.representation.getStream());
@@ -232,7 +243,9 @@ public class XstreamRepresentation<T> extends WriterRepresentation {
     }
 
     /**
-     * Returns the modifiable XStream object. Useful to customize mappings.
+     * Returns the modifiable XStream object. Useful to customize mappings. If
+     * no XStream object was set, a new one is created and the annotations of
+     * the wrapped object or target class are processed.
      * 
      * @return The modifiable XStream object.
      * @throws IOException
@@ -246,11 +259,38 @@ public class XstreamRepresentation<T> extends WriterRepresentation {
             this.xstream.addPermission(NullPermission.NULL);
             this.xstream.addPermission(PrimitiveTypePermission.PRIMITIVES);
             this.xstream.allowTypeHierarchy(Collection.class);
+            processAnnotations(this.xstream);
         }
 
         return this.xstream;
     }
 
+    /**
+     * Indicates if the XStream object is shared, in which case it is already
+     * configured and must not be modified.
+     * 
+     * @return True if the XStream object is shared.
+     */
+    boolean isSharedXstream() {
+        return this.sharedXstream;
+    }
+
+    /**
+     * Processes the annotations of the wrapped object or target class.
+     * 
+     * @param xstream
+     *            The XStream object to configure.
+     */
+    private void processAnnotations(XStream xstream) {
+        if (this.object != null) {
+            xstream.processAnnotations(this.object.getClass());
+        } else if (this.targetClass != null) {
+            xstream.processAnnotations(this.targetClass);
+        }
+
+        this.annotationsProcessed = true;
+    }
+
     /**
      * Sets the XStream JSON driver class.
      * 
@@ -274,13 +314,29 @@ public class XstreamRepresentation<T> extends WriterRepresentation {
     }
 
     /**
-     * Sets the XStream object.
+     * Sets a shared XStream object. It is expected to be already configured
+     * for the wrapped object or target class, and is never modified.
+     * 
+     * @param xstream
+     *            The shared XStream object.
+     */
+    void setSharedXstream(XStream xstream) {
+        this.xstream = xstream;
+        this.annotationsProcessed = true;
+        this.sharedXstream = true;
+    }
+
+    /**
+     * Sets the XStream object. The annotations of the wrapped object or target
+     * class are processed once when the object is first parsed or returned.
      * 
      * @param xstream
      *            The XStream object.
      */
     public void setXstream(XStream xstream) {
         this.xstream = xstream;
+        this.annotationsProcessed = false;
+        this.sharedXstream = false;
     }
 
     @Override
@@ -189,6 +189,24 @@ public class TemplateFilterTestCase extends RestletTestCase {
                         response.getEntity().getText());
             }
 
+            // The parsed template is reused
+            response = client.handle(new Request(Method.GET,
+                    "http://localhost:" + TEST_PORT + "/freemarker/"
+                            + testFileFm1.getName()));
+            assertEquals("Method=GET/Authority=localhost:" + TEST_PORT,
+                    response.getEntity().getText());
+
+            // The parsed template is refreshed when its source changes
+            fw = new FileWriter(testFileFm1);
+            fw.write("Authority=${ra}");
+            fw.close();
+            testFileFm1.setLastModified(testFileFm1.lastModified() + 2000);
+            response = client.handle(new Request(Method.GET,
+                    "http://localhost:" + TEST_PORT + "/freemarker/"
+                            + testFileFm1.getName()));
+            assertEquals("Authority=localhost:" + TEST_PORT, response
+                    .getEntity().getText());
+
             response = client.handle(new Request(Method.GET,
                     "http://localhost:" + TEST_PORT + "/freemarker/"
                             + testFileFm2.getName()));
@@ -208,6 +226,24 @@ public class TemplateFilterTestCase extends RestletTestCase {
                         .getEntity().getText());
             }
 
+            // The parsed template is reused
+            response = client.handle(new Request(Method.GET,
+                    "http://localhost:" + TEST_PORT + "/velocity/"
+                            + testFileVl1.getName()));
+            assertEquals("Method=GET/Path=/velocity/testVl1", response
+                    .getEntity().getText());
+
+            // The parsed template is refreshed when its source changes
+            fw = new FileWriter(testFileVl1);
+            fw.write("Path=${rp}");
+            fw.close();
+            testFileVl1.setLastModified(testFileVl1.lastModified() + 2000);
+            response = client.handle(new Request(Method.GET,
+                    "http://localhost:" + TEST_PORT + "/velocity/"
+                            + testFileVl1.getName()));
+            assertEquals("Path=/velocity/testVl1", response.getEntity()
+                    .getText());
+
             response = client.handle(new Request(Method.GET,
                     "http://localhost:" + TEST_PORT + "/velocity/"
                             + testFileVl2.getName()));
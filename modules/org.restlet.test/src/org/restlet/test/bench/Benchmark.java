@@ -0,0 +1,82 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.bench;
+
+/**
+ * Micro-benchmark measured by the {@link BenchmarkRunner}. Each call to
+ * {@link #run()} executes one operation whose result is consumed by the runner
+ * so that it can't be optimized away by the JIT compiler.
+ * 
+ * @author Jerome Louvel
+ */
+public abstract class Benchmark {
+
+    /** The benchmark name, used as a key in the baseline results. */
+    private final String name;
+
+    /**
+     * Constructor.
+     * 
+     * @param name
+     *            The benchmark name.
+     */
+    public Benchmark(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the benchmark name, used as a key in the baseline results.
+     * 
+     * @return The benchmark name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Executes one operation.
+     * 
+     * @return The operation result, consumed by the runner.
+     * @throws Exception
+     */
+    public abstract Object run() throws Exception;
+
+    /**
+     * Prepares the benchmark before the first warmup iteration.
+     * 
+     * @throws Exception
+     */
+    public void setUp() throws Exception {
+    }
+
+    /**
+     * Releases the benchmark resources after the last measurement iteration.
+     * 
+     * @throws Exception
+     */
+    public void tearDown() throws Exception {
+    }
+
+}
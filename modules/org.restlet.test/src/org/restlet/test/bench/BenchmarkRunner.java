@@ -0,0 +1,271 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.bench;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+
+import org.restlet.engine.Engine;
+
+/**
+ * Runs the Restlet micro-benchmarks in a reproducible way and compares their
+ * throughput with baseline results. Each benchmark is run during warmup
+ * iterations, then during measurement iterations of fixed duration, and its
+ * mean throughput is reported with the error at 99.9%, in operations per
+ * second. Supported arguments:
+ * <ul>
+ * <li>-warmup &lt;count&gt;: number of warmup iterations, 3 by default.</li>
+ * <li>-iterations &lt;count&gt;: number of measurement iterations, 5 by
+ * default.</li>
+ * <li>-time &lt;ms&gt;: duration of each iteration, 1000 ms by default.</li>
+ * <li>-include &lt;text&gt;: only runs the benchmarks whose name contains the
+ * given text.</li>
+ * <li>-baseline &lt;file&gt;: baseline results to compare with. By default, the
+ * "baseline.properties" resource next to this class is used.</li>
+ * <li>-tolerance &lt;percent&gt;: throughput loss tolerated before reporting a
+ * regression, 10% by default.</li>
+ * <li>-write &lt;file&gt;: file where the results are written, in the baseline
+ * format.</li>
+ * </ul>
+ * Throughput losses beyond the tolerance are flagged in the report but don't
+ * fail the process, as a single run on a shared or small machine is too noisy
+ * to be used as a gate. Baselines are only comparable when produced on the
+ * same hardware and JVM, so they should be regenerated with the -write option
+ * when those change.
+ * 
+ * @author Jerome Louvel
+ */
+public class BenchmarkRunner {
+
+    /** The Student t-distribution values for 99.9% and 1 to 10 freedoms. */
+    private static final double[] STUDENT_999 = { 636.619, 31.599, 12.924,
+            8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587 };
+
+    /** The sink consuming the benchmark results. */
+    private static volatile int sink;
+
+    /**
+     * Creates the list of all benchmarks.
+     * 
+     * @return The list of all benchmarks.
+     */
+    public static List<Benchmark> createBenchmarks() {
+        List<Benchmark> result = new ArrayList<Benchmark>();
+        result.addAll(CoreBenchmarks.createBenchmarks());
+        result.add(new ConnectorBenchmark("component.internal", false));
+        result.add(new ConnectorBenchmark("component.nio", true));
+        return result;
+    }
+
+    /**
+     * Returns the value of an argument.
+     * 
+     * @param args
+     *            The command line arguments.
+     * @param name
+     *            The argument name.
+     * @param defaultValue
+     *            The default value.
+     * @return The argument value.
+     */
+    private static String getArgument(String[] args, String name,
+            String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+
+        return defaultValue;
+    }
+
+    /**
+     * Loads the baseline results.
+     * 
+     * @param path
+     *            The baseline file path or null for the default resource.
+     * @return The baseline results.
+     * @throws Exception
+     */
+    private static Properties loadBaseline(String path) throws Exception {
+        Properties result = new Properties();
+        InputStream is = (path == null) ? BenchmarkRunner.class
+                .getResourceAsStream("baseline.properties")
+                : new FileInputStream(path);
+
+        if (is != null) {
+            try {
+                result.load(is);
+            } finally {
+                is.close();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Runs the benchmarks.
+     * 
+     * @param args
+     *            The command line arguments.
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        Engine.setLogLevel(Level.WARNING);
+        int warmup = Integer.parseInt(getArgument(args, "-warmup", "3"));
+        int iterations = Integer.parseInt(getArgument(args, "-iterations",
+                "5"));
+        long time = Long.parseLong(getArgument(args, "-time", "1000"));
+        String include = getArgument(args, "-include", null);
+        double tolerance = Double.parseDouble(getArgument(args, "-tolerance",
+                "10")) / 100;
+        String write = getArgument(args, "-write", null);
+        Properties baseline = loadBaseline(getArgument(args, "-baseline",
+                null));
+        Properties results = new Properties();
+        int regressions = 0;
+
+        System.out.println(String.format("%-32s %14s %12s %12s  %s",
+                "Benchmark", "Score", "Error", "Baseline", "Units"));
+
+        for (Benchmark benchmark : createBenchmarks()) {
+            if ((include != null) && !benchmark.getName().contains(include)) {
+                continue;
+            }
+
+            double[] scores = new double[iterations];
+            benchmark.setUp();
+
+            try {
+                for (int i = 0; i < warmup; i++) {
+                    measure(benchmark, time);
+                }
+
+                for (int i = 0; i < iterations; i++) {
+                    scores[i] = measure(benchmark, time);
+                }
+            } finally {
+                benchmark.tearDown();
+            }
+
+            double mean = 0;
+
+            for (double score : scores) {
+                mean += score;
+            }
+
+            mean /= scores.length;
+            double variance = 0;
+
+            for (double score : scores) {
+                variance += (score - mean) * (score - mean);
+            }
+
+            double error = (scores.length < 2) ? Double.NaN : STUDENT_999[Math
+                    .min(scores.length - 2, STUDENT_999.length - 1)]
+                    * Math.sqrt(variance / (scores.length - 1) / scores.length);
+            String reference = baseline.getProperty(benchmark.getName());
+            String status = "";
+
+            if (reference != null) {
+                double expected = Double.parseDouble(reference);
+
+                if (mean < expected * (1 - tolerance)) {
+                    status = "  REGRESSION?";
+                    regressions++;
+                }
+            }
+
+            results.setProperty(benchmark.getName(),
+                    String.format("%.1f", mean));
+            System.out.println(String.format("%-32s %14.1f %12.1f %12s  %s%s",
+                    benchmark.getName(), mean, error, (reference == null) ? "-"
+                            : reference, "ops/s", status));
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions
+                    + " benchmark(s) below the baseline tolerance, to be"
+                    + " confirmed by another run");
+        }
+
+        if (write != null) {
+            OutputStream os = new FileOutputStream(write);
+
+            try {
+                results.store(os, "Restlet benchmark baseline (ops/s), "
+                        + System.getProperty("java.vm.name") + " "
+                        + System.getProperty("java.version") + ", "
+                        + Runtime.getRuntime().availableProcessors() + " CPUs");
+            } finally {
+                os.close();
+            }
+        }
+
+        // Stops the threads left by the connectors
+        System.exit(0);
+    }
+
+    /**
+     * Runs a benchmark during a measurement iteration.
+     * 
+     * @param benchmark
+     *            The benchmark to run.
+     * @param time
+     *            The iteration duration in milliseconds.
+     * @return The throughput in operations per second.
+     * @throws Exception
+     */
+    private static double measure(Benchmark benchmark, long time)
+            throws Exception {
+        long start = System.nanoTime();
+        long end = start + time * 1000000L;
+        long now = start;
+        long operations = 0;
+        int hash = 0;
+
+        while (now < end) {
+            // Only read the clock every 64 operations
+            for (int i = 0; i < 64; i++) {
+                Object result = benchmark.run();
+                hash += (result == null) ? 0 : result.hashCode();
+            }
+
+            operations += 64;
+            now = System.nanoTime();
+        }
+
+        sink += hash;
+        return operations * 1e9 / (now - start);
+    }
+
+}
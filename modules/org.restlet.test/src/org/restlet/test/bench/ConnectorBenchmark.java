@@ -0,0 +1,127 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.bench;
+
+import org.restlet.Client;
+import org.restlet.Component;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.engine.connector.ConnectorHelper;
+
+/**
+ * End-to-end benchmark of a {@link Component} called over the loopback
+ * interface, with either the internal or the NIO server connector. The
+ * internal client connector is always used so that only the server side
+ * varies. Each operation is a GET call on a persistent connection, fully
+ * reading the response entity. TCP_NODELAY is enabled on the internal server
+ * connector, unless the "sun.net.httpserver.nodelay" system property is
+ * already set.
+ * 
+ * @author Jerome Louvel
+ */
+public class ConnectorBenchmark extends Benchmark {
+
+    /** The internal client connector helper. */
+    private volatile ConnectorHelper<Client> clientHelper;
+
+    /** The component. */
+    private volatile Component component;
+
+    /** The server connector helper. */
+    private volatile ConnectorHelper<Server> helper;
+
+    /** Indicates if the NIO server connector is used. */
+    private final boolean nio;
+
+    /** The target URI. */
+    private volatile String uri;
+
+    /**
+     * Constructor.
+     * 
+     * @param name
+     *            The benchmark name.
+     * @param nio
+     *            True if the NIO server connector is used.
+     */
+    public ConnectorBenchmark(String name, boolean nio) {
+        super(name);
+        this.nio = nio;
+    }
+
+    @Override
+    public Object run() throws Exception {
+        Request request = new Request(Method.GET, this.uri);
+        Response response = new Response(request);
+        this.clientHelper.handle(request, response);
+        return response.getEntity().getText();
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        if (!this.nio
+                && (System.getProperty("sun.net.httpserver.nodelay") == null)) {
+            // The JDK HTTP server only disables Nagle's algorithm through
+            // this property, otherwise each small response waits for the
+            // delayed ACK of the client
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        this.component = new Component();
+        this.component.getDefaultHost().attach("/hello", new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                response.setEntity("Hello world", MediaType.TEXT_PLAIN);
+            }
+        });
+        this.component.start();
+
+        Server server = new Server(new Context(), Protocol.HTTP, 0,
+                this.component);
+        this.helper = this.nio ? new org.restlet.ext.nio.HttpServerHelper(
+                server) : new org.restlet.engine.connector.HttpServerHelper(
+                server);
+        this.helper.start();
+        this.uri = "http://localhost:"
+                + this.helper.getAttributes().get("ephemeralPort") + "/hello";
+        this.clientHelper = new org.restlet.engine.connector.HttpClientHelper(
+                new Client(new Context(), Protocol.HTTP));
+        this.clientHelper.start();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        this.clientHelper.stop();
+        this.helper.stop();
+        this.component.stop();
+    }
+
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.bench;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.Header;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Reference;
+import org.restlet.data.Status;
+import org.restlet.data.Tag;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.header.HeaderReader;
+import org.restlet.engine.header.HeaderUtils;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
+import org.restlet.routing.Router;
+import org.restlet.routing.Template;
+import org.restlet.service.ConverterService;
+import org.restlet.test.MockRestlet;
+import org.restlet.util.Series;
+
+/**
+ * Micro-benchmarks of the core request processing pipeline, running in
+ * process without connectors.
+ * 
+ * @author Jerome Louvel
+ */
+public class CoreBenchmarks {
+
+    /** Router dispatch among many routes. */
+    private static class RouterBenchmark extends Benchmark {
+
+        /** The request URIs to route, in turn. */
+        private final Reference[] references;
+
+        /** The router. */
+        private final Router router;
+
+        /** The index of the next URI to route. */
+        private int index;
+
+        /**
+         * Constructor.
+         * 
+         * @param name
+         *            The benchmark name.
+         * @param compiled
+         *            True if the compiled routing is used.
+         */
+        public RouterBenchmark(String name, boolean compiled) {
+            super(name);
+            this.router = new Router();
+            this.router.setCompiledRouting(compiled);
+            this.references = new Reference[ROUTES];
+
+            for (int i = 0; i < ROUTES; i++) {
+                this.router.attach("/resources" + i + "/{id}/items/{item}",
+                        new MockRestlet(null));
+                this.references[i] = new Reference(new Reference(
+                        "http://localhost"), "http://localhost/resources"
+                        + ((i * 7) % ROUTES) + "/123/items/abc");
+            }
+        }
+
+        @Override
+        public Object run() throws Exception {
+            Reference reference = this.references[this.index++ % ROUTES];
+            Request request = new Request(Method.GET, reference);
+            return this.router.getNext(request, new Response(request));
+        }
+    }
+
+    /** The number of routes attached to the benchmarked routers. */
+    private static final int ROUTES = 200;
+
+    /**
+     * Creates the list of core benchmarks.
+     * 
+     * @return The list of core benchmarks.
+     */
+    public static List<Benchmark> createBenchmarks() {
+        List<Benchmark> result = new ArrayList<Benchmark>();
+        result.add(new RouterBenchmark("router.dispatch", false));
+        result.add(new RouterBenchmark("router.dispatch.compiled", true));
+
+        result.add(new Benchmark("template.parse") {
+            private final Template template = new Template(
+                    "http://localhost/users/{user}/orders/{order}?page={page}");
+
+            private final Map<String, Object> variables = new HashMap<String, Object>();
+
+            @Override
+            public Object run() throws Exception {
+                this.variables.clear();
+                return this.template.parse(
+                        "http://localhost/users/jlouvel/orders/1234?page=3",
+                        this.variables);
+            }
+        });
+
+        result.add(new Benchmark("template.format") {
+            private final Template template = new Template(
+                    "http://localhost/users/{user}/orders/{order}?page={page}");
+
+            private final Map<String, Object> values = new HashMap<String, Object>();
+
+            @Override
+            public void setUp() {
+                this.values.put("user", "jlouvel");
+                this.values.put("order", 1234);
+                this.values.put("page", 3);
+            }
+
+            @Override
+            public Object run() throws Exception {
+                return this.template.format(this.values);
+            }
+        });
+
+        result.add(new Benchmark("reference.parse") {
+            @Override
+            public Object run() throws Exception {
+                Reference reference = new Reference(
+                        "http://user@www.restlet.org:8080/path/to/resource;param?a=1&b=2#frag");
+                return reference.getHostDomain() + reference.getHostPort()
+                        + reference.getPath() + reference.getQuery()
+                        + reference.getFragment();
+            }
+        });
+
+        result.add(new Benchmark("header.read") {
+            private final String[] lines = {
+                    "Host: www.restlet.org",
+                    "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:52.0)",
+                    "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8",
+                    "Accept-Language: en-US,en;q=0.5",
+                    "Accept-Encoding: gzip, deflate",
+                    "Cookie: session=abcdef0123456789; theme=dark",
+                    "Connection: keep-alive",
+                    "If-Modified-Since: Sat, 29 Oct 1994 19:43:31 GMT" };
+
+            @Override
+            public Object run() throws Exception {
+                int result = 0;
+
+                for (String line : this.lines) {
+                    result += HeaderReader.readHeader(line).getValue().length();
+                }
+
+                return result;
+            }
+        });
+
+        result.add(new Benchmark("header.write") {
+            private Response response;
+
+            @Override
+            public void setUp() {
+                Request request = new Request(Method.GET,
+                        "http://localhost/resource");
+                this.response = new Response(request);
+                this.response.setStatus(Status.SUCCESS_OK);
+                this.response.setEntity(new StringRepresentation(
+                        "Hello world", MediaType.TEXT_PLAIN));
+                this.response.getEntity().setTag(new Tag("abc", false));
+                this.response.getEntity().setModificationDate(new Date(0));
+            }
+
+            @Override
+            public Object run() throws Exception {
+                Series<Header> headers = new Series<Header>(Header.class);
+                HeaderUtils.addResponseHeaders(this.response, headers);
+                HeaderUtils.addEntityHeaders(this.response.getEntity(),
+                        headers);
+                return headers.size();
+            }
+        });
+
+        result.add(new Benchmark("series.lookup") {
+            private final Series<Header> headers = new Series<Header>(
+                    Header.class);
+
+            @Override
+            public void setUp() {
+                for (int i = 0; i < 16; i++) {
+                    this.headers.add("X-Custom-" + i, "value" + i);
+                }
+
+                this.headers.add(HeaderConstants.HEADER_CONTENT_TYPE,
+                        "text/plain");
+                this.headers.add(HeaderConstants.HEADER_CONTENT_LENGTH, "11");
+            }
+
+            @Override
+            public Object run() throws Exception {
+                return this.headers.getFirstValue("content-type", true)
+                        + this.headers.getFirstValue(
+                                HeaderConstants.HEADER_CONTENT_LENGTH)
+                        + this.headers.getValues("X-Custom-8");
+            }
+        });
+
+        result.add(new Benchmark("converter.select") {
+            private final ConverterService converterService = new ConverterService();
+
+            private final Variant variant = new Variant(MediaType.TEXT_PLAIN);
+
+            @Override
+            public Object run() throws Exception {
+                return this.converterService.toRepresentation("Hello world",
+                        this.variant);
+            }
+        });
+
+        return result;
+    }
+
+}
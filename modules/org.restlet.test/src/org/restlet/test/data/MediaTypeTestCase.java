@@ -342,8 +342,8 @@ public class MediaTypeTestCase extends RestletTestCase {
         assertEquals("x-restlet-test", newType.getSubType());
         assertEquals("application/x-restlet-test", newType.getName());
 
-        // Should not have got registered by call to valueOf() alone
-        assertNotSame(newType, MediaType.valueOf("application/x-restlet-test"));
+        // Should have been interned but not registered by valueOf() alone
+        assertSame(newType, MediaType.valueOf("application/x-restlet-test"));
 
         final MediaType registeredType = MediaType.register(
                 "application/x-restlet-test", "Restlet testcase");
@@ -80,6 +80,22 @@ public class AnnotationUtilsTestCase extends RestletTestCase {
                 true, found);
     }
 
+    public void testGetMethodAnnotations() {
+        List<AnnotationInfo> infos = AnnotationUtils.getInstance()
+                .getMethodAnnotations(IChild.class, Method.GET);
+        Assert.assertEquals("Wrong count: " + infos, 2, infos.size());
+
+        for (AnnotationInfo ai : infos) {
+            Assert.assertEquals(Method.GET,
+                    ((MethodAnnotationInfo) ai).getRestletMethod());
+        }
+
+        Assert.assertSame(infos, AnnotationUtils.getInstance()
+                .getMethodAnnotations(IChild.class, Method.GET));
+        Assert.assertTrue(AnnotationUtils.getInstance()
+                .getMethodAnnotations(IChild.class, Method.DELETE).isEmpty());
+    }
+
     public void testGetAnnotationsWithGenericReturnType() {
         List<AnnotationInfo> infos = AnnotationUtils.getInstance()
                 .getAnnotations(IChild.class);
@@ -24,7 +24,13 @@
 
 package org.restlet.test.engine;
 
+import java.util.List;
+
+import org.restlet.data.CharacterSet;
+import org.restlet.data.MediaType;
+import org.restlet.data.Preference;
 import org.restlet.engine.header.ContentType;
+import org.restlet.engine.header.PreferenceReader;
 import org.restlet.test.RestletTestCase;
 
 /**
@@ -34,6 +40,29 @@ import org.restlet.test.RestletTestCase;
  */
 public class ContentTypeTestCase extends RestletTestCase {
 
+    public void testInterning() {
+        String h1 = "application/vnd.test+json; charset=UTF-8";
+        String h2 = "application/vnd.test+json; version=2; charset=x-test";
+
+        assertSame(new ContentType(h1).getMediaType(),
+                new ContentType(h1).getMediaType());
+        assertSame(CharacterSet.UTF_8, new ContentType(h1).getCharacterSet());
+
+        ContentType ct2 = new ContentType(h2);
+        assertSame(ct2.getMediaType(), new ContentType(h2).getMediaType());
+        assertSame(ct2.getCharacterSet(), new ContentType(h2).getCharacterSet());
+        assertEquals("2", ct2.getMediaType().getParameters()
+                .getFirstValue("version"));
+
+        List<Preference<MediaType>> prefs = new PreferenceReader<MediaType>(
+                PreferenceReader.TYPE_MEDIA_TYPE,
+                "text/vnd.test; level=1; q=0.5, text/vnd.test; level=1")
+                .readValues();
+        assertSame(prefs.get(0).getMetadata(), prefs.get(1).getMetadata());
+        assertSame(MediaType.valueOf("text/vnd.test"),
+                MediaType.valueOf("text/vnd.test"));
+    }
+
     public void testParsingInvalid() {
         String h1 = "application/docbook+xml; version='my version 1.0'";
 
@@ -24,9 +24,16 @@
 
 package org.restlet.test.engine;
 
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
 
+import org.restlet.engine.header.HeaderReader;
 import org.restlet.engine.util.DateUtils;
+import org.restlet.engine.util.HttpDateCodec;
 import org.restlet.test.RestletTestCase;
 
 /**
@@ -54,6 +61,55 @@ public class DateTestCase extends RestletTestCase {
 
     private String DATE_RFC822_1 = "Fri, 12 Apr 85 23:20:50 GMT";
 
+    /**
+     * Tests that the HTTP date codec behaves like the generic formats.
+     */
+    public void testHttpDateCodec() throws Exception {
+        Random random = new Random(1234);
+
+        for (int i = 0; i < 1000; i++) {
+            // Dates between 1840 and 2100, rounded to the second
+            long time = (random.nextLong() % 4102444800000L) / 1000L * 1000L;
+
+            for (String format : new String[] {
+                    DateUtils.FORMAT_RFC_1123.get(0),
+                    DateUtils.FORMAT_RFC_1036.get(0),
+                    DateUtils.FORMAT_ASC_TIME.get(0) }) {
+                SimpleDateFormat sdf = new SimpleDateFormat(format, Locale.US);
+                sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
+                String expected = sdf.format(new Date(time));
+
+                assertEquals(expected, DateUtils.format(new Date(time), format));
+                assertEquals(sdf.parse(expected),
+                        DateUtils.parse(expected, Arrays.asList(format)));
+            }
+        }
+
+        assertEquals(DATE_RFC1123_1, HttpDateCodec.format(DateUtils.parse(
+                DATE_RFC1123_1).getTime()));
+        assertEquals(DateUtils.parse(DATE_RFC1123_1),
+                HttpDateCodec.parse(DATE_ASC_1));
+        assertEquals(DateUtils.parse(DATE_RFC1123_1),
+                HttpDateCodec.parse(DATE_RFC1036_1));
+        assertEquals(DateUtils.parse("Fri, 05 Apr 1985 23:20:50 GMT"),
+                HttpDateCodec.parse("Fri Apr  5 23:20:50 1985"));
+        assertEquals(DateUtils.parse(DATE_RFC1123_1),
+                HeaderReader.readDate(DATE_RFC1036_1, false));
+
+        // Values outside the fast path
+        assertNull(HttpDateCodec.parse("Fri, 12 Apr 1985 23:20:50 PST"));
+        assertNull(HttpDateCodec.parse("Fri, 12 Apr 1985 25:20:50 GMT"));
+        assertNotNull(DateUtils.parse("Fri, 12 Apr 1985 23:20:50 PST"));
+        assertNull(HttpDateCodec.format(-20000000000000L));
+        assertNotNull(DateUtils.format(new Date(-20000000000000L)));
+
+        // The current second is cached
+        long second = HttpDateCodec.parse(HttpDateCodec.formatNow())
+                .getTime();
+        assertSame(HttpDateCodec.format(second),
+                HttpDateCodec.format(second + 999));
+    }
+
     /**
      * Tests for dates in the RFC 822 format.
      */
@@ -28,12 +28,14 @@ import junit.framework.Test;
 import junit.framework.TestSuite;
 
 import org.restlet.test.engine.application.CorsResponseFilterTestCase;
+import org.restlet.test.engine.application.EncodingTestCase;
 import org.restlet.test.engine.connector.ConnectorsTestSuite;
 import org.restlet.test.engine.connector.HttpInboundRequestTestCase;
 import org.restlet.test.engine.io.BioUtilsTestCase;
 import org.restlet.test.engine.io.BufferTestCase;
 import org.restlet.test.engine.io.ReaderInputStreamTestCase;
 import org.restlet.test.engine.util.Base64TestCase;
+import org.restlet.test.engine.util.TemplateCacheTestCase;
 
 /**
  * Suite of unit tests for the Restlet Framework.
@@ -70,6 +72,8 @@ public class EngineTestSuite extends TestSuite {
         addTestSuite(PreferencesTestCase.class);
         addTestSuite(ReaderInputStreamTestCase.class);
         addTestSuite(CorsResponseFilterTestCase.class);
+        addTestSuite(EncodingTestCase.class);
+        addTestSuite(TemplateCacheTestCase.class);
 
         // Tests based on HTTP client connectors are not supported by the GAE
         // edition.
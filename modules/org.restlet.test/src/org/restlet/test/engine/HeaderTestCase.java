@@ -243,5 +243,36 @@ public class HeaderTestCase extends RestletTestCase {
         assertNotNull(result);
         assertEquals("My-Header", result.getName());
         assertNull(result.getValue());
+
+        result = HeaderReader.readHeader("Content-Length: 0");
+        assertEquals("0", result.getValue());
+    }
+
+    public void testReadHeaderBytes() throws IOException {
+        byte[] line = "xxContent-Type:   text/plain; charset=\u00e9".getBytes(
+                "ISO-8859-1");
+        Header result = HeaderReader.readHeader(line, 2, line.length - 2);
+        assertEquals("Content-Type", result.getName());
+        assertEquals("text/plain; charset=\u00e9", result.getValue());
+
+        // The value is copied from the line
+        line = "X:0".getBytes("ISO-8859-1");
+        result = HeaderReader.readHeader(line, 0, line.length);
+        line[2] = '1';
+        assertEquals("0", result.getValue());
+        result.setValue("2");
+        assertEquals("2", result.getValue());
+
+        line = "My-Header: ".getBytes("ISO-8859-1");
+        result = HeaderReader.readHeader(line, 0, line.length);
+        assertEquals("My-Header", result.getName());
+        assertNull(result.getValue());
+        assertNull(HeaderReader.readHeader(line, 0, 0));
+
+        try {
+            HeaderReader.readHeader(line, 0, 9);
+            fail("Not allowed");
+        } catch (IOException e) {
+        }
     }
 }
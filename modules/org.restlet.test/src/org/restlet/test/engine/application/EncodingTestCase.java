@@ -0,0 +1,158 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.application;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.restlet.data.Encoding;
+import org.restlet.engine.application.DecodeRepresentation;
+import org.restlet.engine.application.EncodeRepresentation;
+import org.restlet.engine.application.EncoderOutputStream;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.representation.InputRepresentation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the {@link EncodeRepresentation} and
+ * {@link DecodeRepresentation} classes.
+ * 
+ * @author Jerome Louvel
+ */
+public class EncodingTestCase extends RestletTestCase {
+
+    private static final Encoding[] ENCODINGS = { Encoding.GZIP,
+            Encoding.DEFLATE, Encoding.DEFLATE_NOWRAP, Encoding.ZIP };
+
+    private static String createText() {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 5000; i++) {
+            sb.append("Restlet entity line ").append(i).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    private static byte[] encode(Encoding encoding, String text, int level)
+            throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new EncodeRepresentation(encoding, new StringRepresentation(text),
+                level).write(baos);
+        return baos.toByteArray();
+    }
+
+    private static String decode(Encoding encoding, byte[] content)
+            throws IOException {
+        InputRepresentation encoded = new InputRepresentation(
+                new ByteArrayInputStream(content));
+        encoded.getEncodings().add(encoding);
+        return new DecodeRepresentation(encoded).getText();
+    }
+
+    public void testCompressionLevel() throws IOException {
+        String text = createText();
+        byte[] fast = encode(Encoding.GZIP, text, 1);
+        byte[] best = encode(Encoding.GZIP, text, 9);
+        assertTrue(best.length <= fast.length);
+        assertEquals(text, decode(Encoding.GZIP, fast));
+        assertEquals(text, decode(Encoding.GZIP, best));
+    }
+
+    public void testConcatenatedGzipMembers() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(encode(Encoding.GZIP, "first ", -1));
+        baos.write(encode(Encoding.GZIP, "second", -1));
+        assertEquals("first second", decode(Encoding.GZIP, baos.toByteArray()));
+    }
+
+    public void testGzipInterop() throws IOException {
+        String text = createText();
+
+        // Restlet encoder, JDK decoder
+        InputStream in = new GZIPInputStream(new ByteArrayInputStream(encode(
+                Encoding.GZIP, text, -1)));
+        assertEquals(text, IoUtils.toString(in));
+
+        // JDK encoder, Restlet decoder
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        OutputStream out = new GZIPOutputStream(baos);
+        out.write(text.getBytes("UTF-8"));
+        out.close();
+        assertEquals(text, decode(Encoding.GZIP, baos.toByteArray()));
+    }
+
+    public void testReleaseThenClose() throws IOException {
+        String text = createText();
+        ByteArrayOutputStream aborted = new ByteArrayOutputStream();
+        EncoderOutputStream abortedOut = new EncoderOutputStream(aborted,
+                Encoding.GZIP, 3);
+        abortedOut.write("aborted".getBytes("UTF-8"));
+        abortedOut.release();
+        int abortedSize = aborted.size();
+
+        // The released deflater is likely reused by this stream
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        EncoderOutputStream out = new EncoderOutputStream(baos,
+                Encoding.GZIP, 3);
+        out.write(text.getBytes("UTF-8"));
+
+        // Closing the released stream must not touch the deflater
+        abortedOut.close();
+        abortedOut.close();
+        assertEquals(abortedSize, aborted.size());
+
+        try {
+            abortedOut.write(1);
+            fail("Writing to a released stream should fail");
+        } catch (IOException e) {
+            // Expected
+        }
+
+        out.close();
+        assertEquals(text, decode(Encoding.GZIP, baos.toByteArray()));
+    }
+
+    public void testRoundTrip() throws IOException {
+        String text = createText();
+
+        // Several rounds to reuse pooled deflaters and inflaters
+        for (int i = 0; i < 3; i++) {
+            for (Encoding encoding : ENCODINGS) {
+                byte[] encoded = encode(encoding, text, -1);
+                assertTrue(encoded.length < text.length());
+                assertEquals(encoding.getName(), text,
+                        decode(encoding, encoded));
+            }
+        }
+    }
+
+}
@@ -51,6 +51,8 @@ public class ConnectorsTestSuite extends TestSuite {
         // addTestSuite(AsynchroneTestCase.class);
         addTestSuite(ChunkedEncodingPutTestCase.class);
         addTestSuite(ChunkedEncodingTestCase.class);
+        addTestSuite(FileTransferTestCase.class);
+        addTestSuite(SelectorThreadsTestCase.class);
         addTestSuite(GetTestCase.class);
         addTestSuite(GetChunkedTestCase.class);
         addTestSuite(GetQueryParamTestCase.class);
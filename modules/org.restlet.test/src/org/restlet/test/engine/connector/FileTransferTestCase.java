@@ -0,0 +1,149 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.connector;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.restlet.Application;
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.data.Range;
+import org.restlet.data.Status;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.ext.nio.HttpServerHelper;
+import org.restlet.representation.FileRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the direct transfer of file entities by the NIO server
+ * connector.
+ * 
+ * @author Jerome Louvel
+ */
+public class FileTransferTestCase extends RestletTestCase {
+
+    private byte[] content;
+
+    private File file;
+
+    private HttpServerHelper helper;
+
+    private String uri;
+
+    private byte[] get(Range range) throws Exception {
+        Request request = new Request(Method.GET, this.uri);
+
+        if (range != null) {
+            request.getRanges().add(range);
+        }
+
+        Client client = new Client(Protocol.HTTP);
+
+        try {
+            Response response = client.handle(request);
+            assertTrue(response.getStatus().isSuccess());
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            IoUtils.copy(response.getEntity().getStream(), baos);
+            return baos.toByteArray();
+        } finally {
+            client.stop();
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.content = new byte[300000];
+
+        for (int i = 0; i < this.content.length; i++) {
+            this.content[i] = (byte) (i % 251);
+        }
+
+        this.file = File.createTempFile("transfer", ".bin");
+        OutputStream out = new FileOutputStream(this.file);
+        out.write(this.content);
+        out.close();
+
+        Application application = new Application() {
+            @Override
+            public Restlet createInboundRoot() {
+                return new Restlet(getContext()) {
+                    @Override
+                    public void handle(Request request, Response response) {
+                        response.setEntity(new FileRepresentation(file,
+                                MediaType.APPLICATION_OCTET_STREAM));
+                        response.setStatus(Status.SUCCESS_OK);
+                    }
+                };
+            }
+        };
+        application.setContext(new Context());
+
+        Server server = new Server(new Context(), Protocol.HTTP, 0,
+                application);
+        this.helper = new HttpServerHelper(server);
+        application.start();
+        this.helper.start();
+        this.uri = "http://localhost:"
+                + this.helper.getAttributes().get("ephemeralPort") + "/file";
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.helper.stop();
+        this.file.delete();
+        super.tearDown();
+    }
+
+    public void testFileTransfer() throws Exception {
+        assertTrue(Arrays.equals(this.content, get(null)));
+        assertEquals(this.content.length, this.helper.getTransferredBytes());
+        assertEquals(1, this.helper.getTransferredEntities());
+    }
+
+    public void testRangeTransfer() throws Exception {
+        byte[] result = get(new Range(1000, 5000));
+        assertTrue(Arrays.equals(
+                Arrays.copyOfRange(this.content, 1000, 6000), result));
+        assertEquals(5000, this.helper.getTransferredBytes());
+
+        result = get(new Range(Range.INDEX_LAST, 100));
+        assertTrue(Arrays.equals(Arrays.copyOfRange(this.content,
+                this.content.length - 100, this.content.length), result));
+        assertEquals(2, this.helper.getTransferredEntities());
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.connector;
+
+import org.restlet.Application;
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.ext.nio.HttpServerHelper;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the NIO server connector using several event loop threads.
+ * 
+ * @author Jerome Louvel
+ */
+public class SelectorThreadsTestCase extends RestletTestCase {
+
+    private HttpServerHelper helper;
+
+    private String uri;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Application application = new Application() {
+            @Override
+            public Restlet createInboundRoot() {
+                return new Restlet(getContext()) {
+                    @Override
+                    public void handle(Request request, Response response) {
+                        response.setEntity(request.getResourceRef()
+                                .getLastSegment(), MediaType.TEXT_PLAIN);
+                    }
+                };
+            }
+        };
+        application.setContext(new Context());
+
+        Server server = new Server(new Context(), Protocol.HTTP, 0,
+                application);
+        server.getContext().getParameters().add("selectorThreads", "2");
+        this.helper = new HttpServerHelper(server);
+        application.start();
+        this.helper.start();
+        this.uri = "http://localhost:"
+                + this.helper.getAttributes().get("ephemeralPort") + "/";
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.helper.stop();
+        super.tearDown();
+    }
+
+    public void testSeveralClients() throws Exception {
+        Client[] clients = new Client[4];
+
+        try {
+            for (int i = 0; i < clients.length; i++) {
+                clients[i] = new Client(Protocol.HTTP);
+            }
+
+            for (int j = 0; j < 3; j++) {
+                for (int i = 0; i < clients.length; i++) {
+                    String segment = "c" + i + "r" + j;
+                    Response response = clients[i].handle(new Request(
+                            Method.GET, this.uri + segment));
+                    assertTrue(response.getStatus().isSuccess());
+                    assertEquals(segment, response.getEntity().getText());
+                }
+            }
+        } finally {
+            for (Client client : clients) {
+                if (client != null) {
+                    client.stop();
+                }
+            }
+        }
+    }
+
+}
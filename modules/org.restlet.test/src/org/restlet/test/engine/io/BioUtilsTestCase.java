@@ -25,10 +25,14 @@
 package org.restlet.test.engine.io;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.restlet.data.CharacterSet;
 import org.restlet.data.MediaType;
@@ -43,6 +47,19 @@ import org.restlet.test.RestletTestCase;
  */
 public class BioUtilsTestCase extends RestletTestCase {
 
+    public void testExhaust() throws IOException {
+        OutputRepresentation or = new OutputRepresentation(
+                MediaType.APPLICATION_OCTET_STREAM) {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                outputStream.write(new byte[100]);
+                outputStream.write(1);
+            }
+        };
+
+        assertEquals(101, or.exhaust());
+    }
+
     public void testGetStream() throws IOException {
         StringWriter writer = new StringWriter();
         OutputStream out = IoUtils.getStream(writer, CharacterSet.UTF_8);
@@ -74,4 +91,70 @@ public class BioUtilsTestCase extends RestletTestCase {
         }
     }
 
+    public void testPipeClosedByReader() throws Exception {
+        final Thread[] writer = new Thread[1];
+        final IOException[] error = new IOException[1];
+        final CountDownLatch done = new CountDownLatch(1);
+
+        OutputRepresentation or = new OutputRepresentation(
+                MediaType.APPLICATION_OCTET_STREAM) {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                writer[0] = Thread.currentThread();
+
+                try {
+                    while (true) {
+                        outputStream.write(new byte[1000]);
+                    }
+                } catch (IOException ioe) {
+                    error[0] = ioe;
+                    throw ioe;
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+
+        InputStream is = or.getStream();
+        assertEquals(0, is.read());
+        is.close();
+
+        // The writer is released without waiting for the pipe timeout
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertNotNull(error[0]);
+        assertTrue(writer[0].getName().startsWith("Restlet-IoUtils-"));
+    }
+
+    public void testPipeLargeContent() throws IOException {
+        final byte[] content = new byte[IoUtils.BUFFER_SIZE * 3 + 17];
+
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+
+        OutputRepresentation or = new OutputRepresentation(
+                MediaType.APPLICATION_OCTET_STREAM) {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                // Mix single byte and bulk writes
+                outputStream.write(content[0]);
+                outputStream.write(content, 1, content.length - 1);
+            }
+        };
+
+        for (int run = 0; run < 3; run++) {
+            InputStream is = or.getStream();
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1000];
+            int read;
+
+            while ((read = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, read);
+            }
+
+            assertEquals(-1, is.read());
+            assertTrue(Arrays.equals(content, baos.toByteArray()));
+        }
+    }
+
 }
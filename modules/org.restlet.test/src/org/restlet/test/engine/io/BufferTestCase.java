@@ -27,6 +27,7 @@ package org.restlet.test.engine.io;
 import java.io.IOException;
 
 import org.restlet.ext.nio.internal.buffer.Buffer;
+import org.restlet.ext.nio.internal.buffer.BufferPool;
 import org.restlet.ext.nio.internal.buffer.BufferState;
 import org.restlet.test.RestletTestCase;
 
@@ -64,4 +65,39 @@ public class BufferTestCase extends RestletTestCase {
         buffer.drain(sb, BufferState.FILLING);
         assertEquals("Remaining buffer", "ijklmnopqrstuvwxyz", sb.toString());
     }
+
+    public void testPool() throws IOException {
+        BufferPool pool = new BufferPool(new int[] { 1024, 256 }, 2048, false);
+        assertEquals(256, pool.checkout(100).capacity());
+        assertEquals(1024, pool.checkout(1000).capacity());
+        assertNull("Larger than the largest class", pool.checkout(4096));
+        assertNull("Over the maximum size", pool.checkout(1000));
+        assertEquals(1280, pool.getAllocatedSize());
+        assertEquals(2, pool.getMissedCount());
+
+        // Lazy checkout and release of an empty buffer
+        Buffer buffer = new Buffer(256, pool);
+        assertFalse(buffer.isHeld());
+        assertTrue(buffer.isEmpty());
+        buffer.fill("abc");
+        assertTrue(buffer.isHeld());
+        assertEquals(1536, pool.getAllocatedSize());
+
+        buffer.release();
+        assertTrue("Not empty", buffer.isHeld());
+        buffer.flip();
+        StringBuilder sb = new StringBuilder();
+        buffer.drain(sb, BufferState.FILLING);
+        assertEquals("abc", sb.toString());
+        buffer.clear();
+        buffer.release();
+        assertFalse(buffer.isHeld());
+        assertEquals(256, pool.getIdleSize());
+        assertEquals(1280, pool.getInUseSize());
+
+        // Idle buffers are reused
+        buffer.fill("def");
+        assertEquals(0, pool.getIdleSize());
+        assertEquals(1536, pool.getAllocatedSize());
+    }
 }
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.util;
+
+import java.util.Date;
+
+import org.restlet.data.Tag;
+import org.restlet.engine.util.TemplateCache;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link TemplateCache} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class TemplateCacheTestCase extends RestletTestCase {
+
+    private static Representation createSource(String uri, Date date, Tag tag) {
+        Representation result = new StringRepresentation("${value}");
+        result.setLocationRef(uri);
+        result.setModificationDate(date);
+        result.setTag(tag);
+        return result;
+    }
+
+    public void testFreshness() {
+        TemplateCache<String> cache = new TemplateCache<String>();
+        Date date = new Date(1000000L);
+        cache.put(createSource("http://localhost/t", date, null), "v1");
+        assertEquals("v1",
+                cache.get(createSource("http://localhost/t", date, null)));
+        assertNull(cache.get(createSource("http://localhost/t", new Date(
+                1000001L), null)));
+
+        // Sources only identified by their tag
+        Tag tag = new Tag("abc");
+        cache.put(createSource("http://localhost/u", null, tag), "v2");
+        assertEquals("v2",
+                cache.get(createSource("http://localhost/u", null, tag)));
+        assertNull(cache.get(createSource("http://localhost/u", null, new Tag(
+                "def"))));
+        assertNull(cache.get(createSource("http://localhost/u", date, tag)));
+    }
+
+    public void testKeys() {
+        TemplateCache<String> cache = new TemplateCache<String>();
+        Date date = new Date(1000000L);
+        cache.put(createSource("http://localhost/t?lang=en", date, null), "en");
+        cache.put(createSource("http://localhost/t?lang=fr", date, null), "fr");
+        assertEquals(2, cache.size());
+        assertEquals("en", cache.get(createSource(
+                "http://localhost/t?lang=en", date, null)));
+        assertEquals("fr", cache.get(createSource(
+                "http://localhost/t?lang=fr", date, null)));
+
+        // Unversioned or unlocated sources aren't cached
+        cache.put(createSource("http://localhost/v", null, null), "v");
+        cache.put(createSource(null, date, null), "w");
+        assertEquals(2, cache.size());
+    }
+
+    public void testMaxSize() {
+        TemplateCache<String> cache = new TemplateCache<String>(2);
+        Date date = new Date();
+
+        for (int i = 0; i < 5; i++) {
+            cache.put(createSource("http://localhost/" + i, date, null), "t");
+        }
+
+        assertTrue(cache.size() <= 2);
+    }
+
+}
@@ -28,9 +28,11 @@ import java.io.IOException;
 import java.util.Date;
 
 import org.restlet.data.MediaType;
+import org.restlet.ext.jackson.JacksonConverter;
 import org.restlet.ext.jackson.JacksonRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
 import org.restlet.resource.ClientResource;
 import org.restlet.test.RestletTestCase;
 
@@ -72,6 +74,38 @@ public class JacksonTestCase extends RestletTestCase {
         return invoice;
     }
 
+    @SuppressWarnings("unchecked")
+    public void testConverter() throws Exception {
+        JacksonConverter converter = new JacksonConverter();
+        converter.preload(Customer.class);
+
+        Customer customer = createCustomer();
+        JacksonRepresentation<Customer> rep1 = (JacksonRepresentation<Customer>) converter
+                .toRepresentation(customer, new Variant(
+                        MediaType.APPLICATION_XML), null);
+        JacksonRepresentation<Customer> rep2 = (JacksonRepresentation<Customer>) converter
+                .toRepresentation(customer, new Variant(MediaType.TEXT_XML),
+                        null);
+        assertSame(rep1.getObjectMapper(), rep2.getObjectMapper());
+        assertSame(rep1.getObjectWriter(), rep2.getObjectWriter());
+        assertSame(converter.getObjectWriter(MediaType.APPLICATION_XML,
+                Customer.class), rep1.getObjectWriter());
+        assertNotSame(rep1.getObjectMapper(),
+                converter.getObjectMapper(MediaType.APPLICATION_JSON));
+
+        String text = rep1.getText();
+        Customer result = converter.toObject(new StringRepresentation(text,
+                MediaType.TEXT_XML), Customer.class, null);
+        verify(customer, result);
+        assertSame(converter.getObjectReader(MediaType.APPLICATION_XML,
+                Customer.class), converter.getObjectReader(
+                MediaType.TEXT_XML, Customer.class));
+
+        converter.clearCache();
+        assertNotSame(rep1.getObjectMapper(),
+                converter.getObjectMapper(MediaType.APPLICATION_XML));
+    }
+
     public void testCsv() throws Exception {
         Invoice invoice = createInvoice();
         JacksonRepresentation<Invoice> rep = new JacksonRepresentation<Invoice>(
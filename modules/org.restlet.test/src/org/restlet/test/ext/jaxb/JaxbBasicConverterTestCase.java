@@ -25,12 +25,17 @@
 package org.restlet.test.ext.jaxb;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
 
 import org.restlet.data.MediaType;
+import org.restlet.ext.jaxb.JaxbCollectionRepresentation;
 import org.restlet.ext.jaxb.JaxbRepresentation;
 import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
 import org.restlet.representation.Variant;
 import org.restlet.service.ConverterService;
 import org.restlet.test.RestletTestCase;
@@ -42,6 +47,26 @@ import org.restlet.test.RestletTestCase;
  */
 public class JaxbBasicConverterTestCase extends RestletTestCase {
 
+    public void testCollectionRepresentation() throws IOException {
+        List<Sample> samples = Arrays.asList(new Sample("a"), new Sample("b"));
+        JaxbCollectionRepresentation<Sample> rep = new JaxbCollectionRepresentation<Sample>(
+                new QName("samples"), samples, Sample.class);
+        rep.setFragment(true);
+        assertEquals(
+                "<samples><sample><value>a</value></sample><sample><value>b</value></sample></samples>",
+                rep.getText());
+    }
+
+    public void testMarshallerReuse() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            JaxbRepresentation<Sample> rep = new JaxbRepresentation<Sample>(
+                    new Sample("value" + i));
+            rep = new JaxbRepresentation<Sample>(new StringRepresentation(
+                    rep.getText(), MediaType.APPLICATION_XML), Sample.class);
+            assertEquals("value" + i, rep.getObject().getVal());
+        }
+    }
+
     public void testObjectionToRepresentation() throws IOException {
         ConverterService cs = new ConverterService();
         Representation rep = cs.toRepresentation(new Sample(), new Variant(
@@ -56,4 +81,14 @@ public class JaxbBasicConverterTestCase extends RestletTestCase {
         Object rep = cs.toObject(sampleRep, Sample.class, null);
         assertTrue(rep instanceof Sample);
     }
+
+    public void testSchemaLocationReset() throws IOException {
+        JaxbRepresentation<Sample> rep = new JaxbRepresentation<Sample>(
+                new Sample("a"));
+        rep.setNoNamespaceSchemaLocation("sample.xsd");
+        assertTrue(rep.getText().contains("sample.xsd"));
+
+        rep = new JaxbRepresentation<Sample>(new Sample("b"));
+        assertFalse(rep.getText().contains("sample.xsd"));
+    }
 }
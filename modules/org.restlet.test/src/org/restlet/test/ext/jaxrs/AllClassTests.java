@@ -33,6 +33,7 @@ import org.restlet.test.ext.jaxrs.core.UriBuilderImplTest;
 import org.restlet.test.ext.jaxrs.core.UriInfoTest;
 import org.restlet.test.ext.jaxrs.util.ConverterTests;
 import org.restlet.test.ext.jaxrs.util.EncodeOrCheckTests;
+import org.restlet.test.ext.jaxrs.util.InvokerTests;
 import org.restlet.test.ext.jaxrs.util.OrderedMapTest;
 import org.restlet.test.ext.jaxrs.util.PathRegExpTests;
 import org.restlet.test.ext.jaxrs.util.RemainingPathTests;
@@ -62,6 +63,7 @@ public class AllClassTests extends TestCase {
         // package .util.
         mySuite.addTestSuite(ConverterTests.class);
         mySuite.addTestSuite(EncodeOrCheckTests.class);
+        mySuite.addTestSuite(InvokerTests.class);
         mySuite.addTestSuite(OrderedMapTest.class);
         mySuite.addTestSuite(PathRegExpTests.class);
         mySuite.addTestSuite(RemainingPathTests.class);
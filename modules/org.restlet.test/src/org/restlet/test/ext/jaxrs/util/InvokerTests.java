@@ -0,0 +1,171 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.jaxrs.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import junit.framework.TestCase;
+
+import org.restlet.ext.jaxrs.internal.util.Invoker;
+
+/**
+ * @author Jerome Louvel
+ * @see Invoker
+ */
+public class InvokerTests extends TestCase {
+
+    public static class Bean {
+
+        public static String join(String... values) {
+            StringBuilder sb = new StringBuilder();
+            for (String value : values) {
+                sb.append(value);
+            }
+            return sb.toString();
+        }
+
+        public static int parse(String value) {
+            return Integer.parseInt(value);
+        }
+
+        public static long twice(long value) {
+            return 2 * value;
+        }
+
+        private int count;
+
+        public String name;
+
+        public Bean() {
+        }
+
+        public Bean(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+
+        public int getCount() {
+            return this.count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
+    public void testConstructor() throws Exception {
+        Invoker invoker = Invoker.create(Bean.class.getConstructor(
+                String.class, Integer.TYPE));
+        Bean bean = (Bean) invoker.invoke(null, "abc", 3);
+        assertEquals("abc", bean.name);
+        assertEquals(3, bean.getCount());
+    }
+
+    public void testException() throws Exception {
+        Invoker invoker = Invoker.create(Bean.class.getMethod("fail"));
+        try {
+            invoker.invoke(new Bean());
+            fail("The thrown exception must be wrapped");
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    public void testField() throws Exception {
+        Invoker invoker = Invoker.create(Bean.class.getField("name"));
+        Bean bean = new Bean();
+        assertNull(invoker.invoke(bean, "abc"));
+        assertEquals("abc", bean.name);
+    }
+
+    public void testIllegalArguments() throws Exception {
+        Invoker invoker = Invoker.create(Bean.class.getMethod("setCount",
+                Integer.TYPE));
+        try {
+            invoker.invoke(new Bean(), "abc");
+            fail("A String is not an int");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            invoker.invoke(new Bean(), (Object) null);
+            fail("null is not an int");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            invoker.invoke("abc", 1);
+            fail("The target must be a Bean");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testIllegalNarrowing() throws Exception {
+        Invoker invoker = Invoker.create(Bean.class.getMethod("setCount",
+                Integer.TYPE));
+        try {
+            invoker.invoke(new Bean(), 5L);
+            fail("A long is not narrowed to an int");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testMethod() throws Exception {
+        Bean bean = new Bean();
+        Invoker setter = Invoker.create(Bean.class.getMethod("setCount",
+                Integer.TYPE));
+        assertNull(setter.invoke(bean, 5));
+        Invoker getter = Invoker.create(Bean.class.getMethod("getCount"));
+        assertEquals(5, getter.invoke(bean));
+    }
+
+    public void testPrimitiveWidening() throws Exception {
+        Method method = Bean.class.getMethod("twice", Long.TYPE);
+        assertEquals(method.invoke(null, 3), Invoker.create(method).invoke(
+                null, 3));
+        assertEquals(8L, Invoker.create(method).invoke(null, '\u0004'));
+    }
+
+    public void testStaticMethod() throws Exception {
+        Invoker invoker = Invoker.create(Bean.class.getMethod("parse",
+                String.class));
+        assertEquals(42, invoker.invoke(null, "42"));
+    }
+
+    public void testVarargs() throws Exception {
+        Method method = Bean.class.getMethod("join", String[].class);
+        Object args = new String[] { "a", "b" };
+        assertEquals(method.invoke(null, args),
+                Invoker.create(method).invoke(null, args));
+        assertEquals("ab", Invoker.create(method).invoke(null, args));
+    }
+}
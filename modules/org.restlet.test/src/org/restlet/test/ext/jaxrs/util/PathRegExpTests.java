@@ -87,6 +87,22 @@ public class PathRegExpTests extends TestCase {
 
     private final PathRegExp regExpOneSegment2 = newPathRegExp(PATH_PATTERN_2);
 
+    /**
+     * Test method for
+     * {@link org.restlet.ext.jaxrs.internal.util.PathRegExp#getLiteralPrefix()}
+     * .
+     */
+    public void testLiteralPrefix() {
+        assertEquals("abc/", this.regExpMultipleSegments1.getLiteralPrefix());
+        assertTrue(VALID_PATH_1_RP.getWithoutParams().startsWith(
+                this.regExpMultipleSegments1.getLiteralPrefix()));
+        assertEquals("plain", newPathRegExp("/plain").getLiteralPrefix());
+        assertEquals("a", newPathRegExp("/a.b/{x}").getLiteralPrefix());
+        assertEquals("a%20b/", newPathRegExp("a b/{x}").getLiteralPrefix());
+        assertEquals("", newPathRegExp("{x}/abc").getLiteralPrefix());
+        assertEquals("", newPathRegExp("/").getLiteralPrefix());
+    }
+
     /**
      * Test method for
      * {@link org.restlet.ext.jaxrs.internal.util.PathRegExp#match(java.lang.String)}
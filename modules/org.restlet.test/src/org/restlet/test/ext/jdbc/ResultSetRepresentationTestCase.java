@@ -0,0 +1,168 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+
+import org.restlet.data.MediaType;
+import org.restlet.ext.jdbc.ResultSetRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link ResultSetRepresentation} class.
+ * 
+ * @author Jerome Louvel
+ */
+@SuppressWarnings("deprecation")
+public class ResultSetRepresentationTestCase extends RestletTestCase {
+
+    /**
+     * Result set backed by an array of rows.
+     */
+    private static class ResultSetHandler implements InvocationHandler {
+
+        private boolean closed;
+
+        private final String[] labels;
+
+        private int row;
+
+        private final Object[][] rows;
+
+        private int stringReads;
+
+        public ResultSetHandler(String[] labels, Object[][] rows) {
+            this.labels = labels;
+            this.rows = rows;
+            this.row = -1;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args)
+                throws Throwable {
+            String name = method.getName();
+            Object result = null;
+
+            if ("close".equals(name)) {
+                this.closed = true;
+            } else if ("getMetaData".equals(name)) {
+                result = Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[] { ResultSetMetaData.class },
+                        new InvocationHandler() {
+                            public Object invoke(Object p, Method m,
+                                    Object[] a) throws Throwable {
+                                if ("getColumnCount".equals(m.getName())) {
+                                    return labels.length;
+                                } else if ("getColumnLabel".equals(m
+                                        .getName())) {
+                                    return labels[(Integer) a[0] - 1];
+                                }
+
+                                throw new UnsupportedOperationException(m
+                                        .getName());
+                            }
+                        });
+            } else if ("getObject".equals(name)) {
+                result = this.rows[this.row][(Integer) args[0] - 1];
+            } else if ("getString".equals(name)) {
+                Object value = this.rows[this.row][(Integer) args[0] - 1];
+                result = (value == null) ? null : value.toString();
+                this.stringReads++;
+            } else if ("next".equals(name)) {
+                this.row++;
+                result = this.row < this.rows.length;
+            } else if (!"setFetchSize".equals(name)) {
+                throw new UnsupportedOperationException(name);
+            }
+
+            return result;
+        }
+    }
+
+    private static ResultSet createResultSet(ResultSetHandler handler) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSetRepresentationTestCase.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class }, handler);
+    }
+
+    public void testCsv() throws Exception {
+        ResultSetHandler handler = new ResultSetHandler(new String[] { "id",
+                "name" }, new Object[][] { { 1, "plain" },
+                { 2, "comma, \"quote\"" }, { 3, "line\nbreak" }, { 4, null } });
+        ResultSetRepresentation rsr = new ResultSetRepresentation(
+                createResultSet(handler), MediaType.TEXT_CSV);
+        assertEquals("id,name\r\n1,plain\r\n2,\"comma, \"\"quote\"\"\"\r\n"
+                + "3,\"line\nbreak\"\r\n4,\r\n", rsr.getText());
+        assertTrue(handler.closed);
+    }
+
+    public void testJson() throws Exception {
+        ResultSetHandler handler = new ResultSetHandler(new String[] { "id",
+                "name", "ratio", "active" }, new Object[][] {
+                { 1, "a \"quoted\" \\ value", 0.5D, true },
+                { 2, "tab\tand\u0001", Double.NaN, null },
+                { null, null, null, false } });
+        ResultSetRepresentation rsr = new ResultSetRepresentation(
+                createResultSet(handler), MediaType.APPLICATION_JSON);
+        assertEquals("[\n"
+                + "{\"id\":1,\"name\":\"a \\\"quoted\\\" \\\\ value\","
+                + "\"ratio\":0.5,\"active\":true},\n"
+                + "{\"id\":2,\"name\":\"tab\\tand\\u0001\","
+                + "\"ratio\":\"NaN\",\"active\":null},\n"
+                + "{\"id\":null,\"name\":null,\"ratio\":null,\"active\":false}"
+                + "\n]", rsr.getText());
+
+        // Each column is read once, as an object
+        assertEquals(0, handler.stringReads);
+        assertTrue(handler.closed);
+    }
+
+    public void testPaging() throws Exception {
+        Object[][] rows = new Object[5][];
+
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[] { i };
+        }
+
+        ResultSetRepresentation rsr = new ResultSetRepresentation(
+                createResultSet(new ResultSetHandler(new String[] { "id" },
+                        rows)), MediaType.TEXT_CSV, 1, 2);
+        assertEquals("id\r\n1\r\n2\r\n", rsr.getText());
+
+        rsr = new ResultSetRepresentation(createResultSet(new ResultSetHandler(
+                new String[] { "id" }, rows)), MediaType.APPLICATION_JSON, 4,
+                10);
+        assertEquals("[\n{\"id\":4}\n]", rsr.getText());
+
+        rsr = new ResultSetRepresentation(createResultSet(new ResultSetHandler(
+                new String[] { "id" }, rows)), MediaType.APPLICATION_JSON, 5,
+                10);
+        assertEquals("[\n]", rsr.getText());
+    }
+
+}
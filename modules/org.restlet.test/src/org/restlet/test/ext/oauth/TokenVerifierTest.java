@@ -28,9 +28,12 @@ import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.restlet.ext.oauth.OAuthResourceDefs.ACCESS_TOKEN;
+import static org.restlet.ext.oauth.OAuthResourceDefs.EXPIRES_IN;
 import static org.restlet.ext.oauth.OAuthResourceDefs.SCOPE;
 import static org.restlet.ext.oauth.OAuthResourceDefs.USERNAME;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.json.JSONObject;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -216,4 +219,104 @@ public class TokenVerifierTest extends OAuthTestBase {
         assertThat(Scopes.parseScope(info.getRoles()),
                 is(arrayContainingInAnyOrder("a", "b")));
     }
+
+    /**
+     * Test case 7: Verification results are cached.
+     */
+    @Test
+    public void testCase7() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        TokenVerifier verifier = new TokenVerifier(tokenAuthURI);
+        verifier.setNext(new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                calls.incrementAndGet();
+
+                try {
+                    JSONObject call = new JsonRepresentation(request
+                            .getEntity()).getJsonObject();
+                    JSONObject resp = new JSONObject();
+
+                    if (call.getString(ACCESS_TOKEN).equals(STUB_ACCESS_TOKEN)) {
+                        resp.put(USERNAME, "testuser");
+                        resp.put(SCOPE, "a b");
+                    } else if (call.getString(ACCESS_TOKEN).equals("expired")) {
+                        resp.put(USERNAME, "testuser");
+                        resp.put(SCOPE, "a");
+                        resp.put(EXPIRES_IN, 0);
+                    } else {
+                        resp = new OAuthException(OAuthError.invalid_token,
+                                "Invalid Token", null).createErrorDocument();
+                    }
+
+                    response.setEntity(new JsonRepresentation(resp));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(verify(verifier, STUB_ACCESS_TOKEN),
+                    is(Verifier.RESULT_VALID));
+            assertThat(verify(verifier, "qux"), is(Verifier.RESULT_INVALID));
+        }
+
+        assertThat(calls.get(), is(2));
+
+        // Results shouldn't outlive the token
+        assertThat(verify(verifier, "expired"), is(Verifier.RESULT_VALID));
+        assertThat(verify(verifier, "expired"), is(Verifier.RESULT_VALID));
+        assertThat(calls.get(), is(4));
+
+        verifier.clearCache();
+        assertThat(verify(verifier, STUB_ACCESS_TOKEN),
+                is(Verifier.RESULT_VALID));
+        assertThat(calls.get(), is(5));
+    }
+
+    /**
+     * Test case 8: The cache is purged in batches when full.
+     */
+    @Test
+    public void testCase8() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        TokenVerifier verifier = new TokenVerifier(tokenAuthURI);
+        verifier.setMaxCacheSize(4);
+        verifier.setNext(new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                calls.incrementAndGet();
+
+                try {
+                    JSONObject resp = new JSONObject();
+                    resp.put(USERNAME, "testuser");
+                    resp.put(SCOPE, "a");
+                    response.setEntity(new JsonRepresentation(resp));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(verify(verifier, "token" + i),
+                    is(Verifier.RESULT_VALID));
+        }
+
+        assertThat(calls.get(), is(10));
+
+        // The last result survives the purge made before its computation
+        assertThat(verify(verifier, "token9"), is(Verifier.RESULT_VALID));
+        assertThat(calls.get(), is(10));
+    }
+
+    private int verify(TokenVerifier verifier, String token) {
+        Request request = new Request();
+        ChallengeResponse cr = new ChallengeResponse(
+                ChallengeScheme.HTTP_OAUTH_BEARER);
+        cr.setRawValue(token);
+        request.setChallengeResponse(cr);
+        return verifier.verify(request, new Response(request));
+    }
 }
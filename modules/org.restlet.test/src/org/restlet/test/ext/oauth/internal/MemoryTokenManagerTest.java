@@ -0,0 +1,203 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.oauth.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.restlet.ext.oauth.OAuthException;
+import org.restlet.ext.oauth.internal.AuthSession;
+import org.restlet.ext.oauth.internal.Client;
+import org.restlet.ext.oauth.internal.Client.ClientType;
+import org.restlet.ext.oauth.internal.Token;
+import org.restlet.ext.oauth.internal.memory.MemoryClientManager;
+import org.restlet.ext.oauth.internal.memory.MemoryTokenManager;
+
+/**
+ * Test case for the expiration index, capacity and indexes of
+ * {@link MemoryTokenManager}.
+ * 
+ * @author Jerome Louvel
+ */
+public class MemoryTokenManagerTest {
+
+    private final MemoryClientManager clients = new MemoryClientManager();
+
+    private Client createClient() {
+        return clients.createClient(ClientType.CONFIDENTIAL, null, null);
+    }
+
+    @Test
+    public void testCapacity() throws Exception {
+        MemoryTokenManager tokens = new MemoryTokenManager();
+        tokens.setMaxTokens(2);
+        Client client = createClient();
+        Token token1 = tokens.generateToken(client, "user1", null);
+        tokens.generateToken(client, "user2", null);
+        tokens.generateToken(client, "user3", null);
+        assertEquals(2, tokens.getLiveTokenCount());
+        assertEquals(1, tokens.getEvictedTokenCount());
+        assertNull(tokens.findToken(client, "user1"));
+
+        try {
+            tokens.validateToken(token1.getAccessToken());
+            fail("The token should have been evicted");
+        } catch (OAuthException e) {
+            // Expected
+        }
+
+        tokens.setMaxSessions(1);
+        tokens.storeSession(AuthSession.newAuthSession());
+        String code = tokens.storeSession(AuthSession.newAuthSession());
+        assertEquals(1, tokens.getLiveSessionCount());
+        assertEquals(1, tokens.getEvictedSessionCount());
+        tokens.restoreSession(code);
+        assertEquals(0, tokens.getLiveSessionCount());
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        MemoryTokenManager tokens = new MemoryTokenManager();
+        tokens.setExpirePeriod(0);
+        Client client = createClient();
+        tokens.generateToken(client, "user1", null);
+        tokens.generateToken(client, "user2", null);
+        assertEquals(2, tokens.getLiveTokenCount());
+
+        Thread.sleep(1100);
+        tokens.sweep();
+        assertEquals(0, tokens.getLiveTokenCount());
+        assertEquals(2, tokens.getEvictedTokenCount());
+
+        // Expired tokens can still be refreshed until they are revoked
+        assertEquals(2, tokens.findTokens(client).length);
+        tokens.revokeAllTokens(client);
+        assertEquals(0, tokens.findTokens(client).length);
+        assertEquals(2, tokens.getEvictedTokenCount());
+    }
+
+    @Test
+    public void testIndexes() throws Exception {
+        MemoryTokenManager tokens = new MemoryTokenManager();
+        Client client1 = createClient();
+        Client client2 = createClient();
+        Token token1 = tokens.generateToken(client1, "user1", null);
+        tokens.generateToken(client2, "user1", null);
+        Token token3 = tokens.generateToken(client1, null);
+
+        assertSame(token1, tokens.findToken(client1, "user1"));
+        assertSame(token3, tokens.findToken(client1));
+        assertEquals(2, tokens.findTokens(client1).length);
+        assertEquals(2, tokens.findTokens("user1").length);
+
+        // Regenerating a token revokes the previous one
+        Token token4 = tokens.generateToken(client2, "user1", null);
+        assertSame(token4, tokens.findToken(client2, "user1"));
+        assertEquals(3, tokens.getLiveTokenCount());
+
+        Token token5 = tokens.refreshToken(client1, token1.getRefreshToken(),
+                null);
+        assertSame(token5, tokens.findToken(client1, "user1"));
+        assertSame(token5, tokens.validateToken(token5.getAccessToken()));
+
+        tokens.revokeAllTokens("user1");
+        assertEquals(0, tokens.findTokens("user1").length);
+        assertEquals(1, tokens.getLiveTokenCount());
+        assertSame(token3, tokens.validateToken(token3.getAccessToken()));
+        assertEquals(0, tokens.getEvictedTokenCount());
+
+        tokens.revokeAllTokens(client1);
+        assertEquals(0, tokens.getLiveTokenCount());
+        assertNull(tokens.findToken(client1));
+    }
+
+    @Test
+    public void testRefreshAfterExpiration() throws Exception {
+        MemoryTokenManager tokens = new MemoryTokenManager();
+        tokens.setExpirePeriod(0);
+        Client client = createClient();
+        Token token1 = tokens.generateToken(client, "user1", null);
+        Token token2 = tokens.generateToken(client, "user2", null);
+        Thread.sleep(1100);
+
+        try {
+            tokens.validateToken(token1.getAccessToken());
+            fail("The access token should have expired");
+        } catch (OAuthException e) {
+            // Expected
+        }
+
+        tokens.sweep();
+        assertEquals(0, tokens.getLiveTokenCount());
+        assertEquals(2, tokens.getEvictedTokenCount());
+
+        Token token3 = tokens.refreshToken(client, token1.getRefreshToken(),
+                null);
+        assertSame(token3, tokens.validateToken(token3.getAccessToken()));
+        assertSame(token3, tokens.findToken(client, "user1"));
+
+        try {
+            tokens.refreshToken(client, token1.getRefreshToken(), null);
+            fail("The refresh token should have been replaced");
+        } catch (OAuthException e) {
+            // Expected
+        }
+
+        // Refresh tokens can have their own lifetime
+        tokens.setRefreshExpirePeriod(1);
+        tokens.sweep();
+        assertNull(tokens.findToken(client, "user2"));
+
+        try {
+            tokens.refreshToken(client, token2.getRefreshToken(), null);
+            fail("The refresh token should have expired");
+        } catch (OAuthException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testRevocations() throws Exception {
+        MemoryTokenManager tokens = new MemoryTokenManager();
+        Client client = createClient();
+
+        for (int i = 0; i < 100; i++) {
+            tokens.generateToken(client, "user" + i, null);
+            tokens.revokeToken(client, "user" + i);
+        }
+
+        tokens.setExpirePeriod(0);
+        Token token = tokens.generateToken(client, "user", null);
+        Thread.sleep(1100);
+        tokens.sweep();
+        assertEquals(0, tokens.getLiveTokenCount());
+        assertEquals(1, tokens.getEvictedTokenCount());
+        assertSame(token, tokens.findToken(client, "user"));
+    }
+
+}
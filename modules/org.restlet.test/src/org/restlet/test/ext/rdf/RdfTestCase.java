@@ -24,7 +24,13 @@
 
 package org.restlet.test.ext.rdf;
 
+import java.util.Iterator;
+
 import org.restlet.data.MediaType;
+import org.restlet.data.Reference;
+import org.restlet.ext.rdf.Graph;
+import org.restlet.ext.rdf.Link;
+import org.restlet.ext.rdf.Literal;
 import org.restlet.ext.rdf.RdfRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
@@ -35,6 +41,119 @@ import org.restlet.test.RestletTestCase;
  */
 public class RdfTestCase extends RestletTestCase {
 
+    public void testGraphCompaction() throws Exception {
+        Graph graph = new Graph();
+        Reference even = new Reference("http://ex.org/even");
+        Link[] links = new Link[64];
+
+        for (int i = 0; i < links.length; i++) {
+            links[i] = graph.addReference("http://ex.org/" + i,
+                    (i % 2 == 0) ? even.toString() : "http://ex.org/odd",
+                    "http://ex.org/" + (i + 1));
+        }
+
+        // Removing most links compacts the index
+        for (int i = 0; i < links.length; i++) {
+            if ((i % 2 == 1) || (i < 40)) {
+                assertTrue(graph.remove(links[i]));
+            }
+        }
+
+        assertEquals(12, graph.size());
+        Iterator<Link> iter = graph.iterator();
+
+        for (int i = 40; i < links.length; i += 2) {
+            assertSame(links[i], iter.next());
+        }
+
+        assertEquals(12, graph.getLinks(null, even, null).size());
+        assertSame(links[42], graph.getLinks(null, even, null).get(1));
+        assertSame(links[50],
+                graph.getLinks(new Reference("http://ex.org/50"), even,
+                        new Reference("http://ex.org/51")).get(0));
+        assertTrue(graph.getLinks(new Reference("http://ex.org/41"), null,
+                null).isEmpty());
+
+        // Links can be modified once removed, then added again
+        graph.remove(links[40]);
+        links[40].setTarget(new Reference("http://ex.org/0"));
+        graph.add(links[40]);
+        assertSame(links[40],
+                graph.getLinks(null, null, new Reference("http://ex.org/0"))
+                        .get(0));
+        assertSame(links[40], graph.getLinks(null, even, null).get(11));
+        assertTrue(graph.contains(links[62]));
+        assertFalse(graph.contains(links[1]));
+    }
+
+    public void testGraphLinks() throws Exception {
+        Graph graph = new Graph();
+        Link name = graph.addLiteral("http://ex.org/a", "http://ex.org/name",
+                "a");
+        Link knowsB = graph.addReference("http://ex.org/a",
+                "http://ex.org/knows", "http://ex.org/b");
+        Link knowsC = graph.addReference("http://ex.org/a",
+                "http://ex.org/knows", "http://ex.org/c");
+        Link knownBy = graph.addReference("http://ex.org/c",
+                "http://ex.org/knows", "http://ex.org/a");
+
+        Reference a = new Reference("http://ex.org/a");
+        Reference knows = new Reference("http://ex.org/knows");
+        assertEquals(4, graph.size());
+        assertFalse(graph.add(name));
+        assertEquals(3, graph.getLinks(a, null, null).size());
+        assertEquals(3, graph.getLinks(null, knows, null).size());
+        assertEquals(2, graph.getLinks(a, knows, null).size());
+        assertSame(knowsB, graph.getLinks(a, knows, null).get(0));
+        assertSame(knowsC, graph.getLinks(a, knows, null).get(1));
+        assertSame(knownBy, graph.getLinks(null, knows, a).get(0));
+        assertSame(knowsC,
+                graph.getLinks(a, null, new Reference("http://ex.org/c"))
+                        .get(0));
+        assertSame(name, graph.getLinks(null, null, new Literal("a")).get(0));
+        assertTrue(graph.getLinks(new Reference("http://ex.org/d"), null,
+                null).isEmpty());
+        assertEquals(4, graph.getLinks(null, null, null).size());
+
+        // Removal through the snapshot iterator
+        for (Iterator<Link> iter = graph.iterator(); iter.hasNext();) {
+            if (iter.next().hasLiteralTarget()) {
+                iter.remove();
+            }
+        }
+
+        assertFalse(graph.contains(name));
+        assertEquals(3, graph.size());
+        assertEquals(2, graph.getLinks(a, null, null).size());
+
+        for (int i = 0; i < 100; i++) {
+            graph.addLiteral("http://ex.org/" + i, "http://ex.org/name",
+                    Integer.toString(i));
+        }
+
+        graph.removeAll(graph.getLinks(null, new Reference(
+                "http://ex.org/name"), null));
+        assertEquals(3, graph.size());
+        assertSame(knownBy, graph.getLinks(null, knows, a).get(0));
+    }
+
+    public void testGraphParsing() throws Exception {
+        Representation rep = new StringRepresentation(
+                "<http://ex.org/a> <http://ex.org/knows> <http://ex.org/b> .\n"
+                        + "<http://ex.org/a> <http://ex.org/name> \"a\" .\n"
+                        + "<http://ex.org/b> <http://ex.org/knows> <http://ex.org/a> .\n",
+                MediaType.TEXT_RDF_NTRIPLES);
+        Graph graph = new RdfRepresentation(rep).getGraph();
+        assertEquals(3, graph.size());
+        assertEquals(2,
+                graph.getLinks(new Reference("http://ex.org/a"), null, null)
+                        .size());
+        assertEquals(
+                "a",
+                graph.getLinks(null, new Reference("http://ex.org/name"),
+                        null).get(0).getTargetAsLiteral().getValue());
+    }
+
     public void testN3() throws Exception {
         Representation rep = new StringRepresentation(
                 "@prefix rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> ."
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.xstream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.restlet.data.MediaType;
+import org.restlet.ext.xstream.XstreamConverter;
+import org.restlet.ext.xstream.XstreamRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
+import org.restlet.test.RestletTestCase;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+
+/**
+ * Unit test case for the XStream extension.
+ * 
+ * @author Jerome Louvel
+ */
+@SuppressWarnings("deprecation")
+public class XstreamTestCase extends RestletTestCase {
+
+    @XStreamAlias("item")
+    public static class Item {
+
+        @XStreamAlias("label")
+        private String name;
+
+        public Item(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private String roundTrip(XstreamConverter converter, MediaType mediaType,
+            String name) throws Exception {
+        Representation rep = converter.toRepresentation(new Item(name),
+                new Variant(mediaType), null);
+        String text = rep.getText();
+        Item item = converter.toObject(new StringRepresentation(text,
+                mediaType), Item.class, null);
+        assertEquals(name, item.getName());
+        return text;
+    }
+
+    public void testConcurrentUse() throws Exception {
+        final XstreamConverter converter = new XstreamConverter();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+        try {
+            for (int i = 0; i < 8; i++) {
+                final int thread = i;
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        for (int j = 0; j < 100; j++) {
+                            String name = "item-" + thread + "-" + j;
+                            roundTrip(converter, MediaType.APPLICATION_XML,
+                                    name);
+                            roundTrip(converter, MediaType.APPLICATION_JSON,
+                                    name);
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testPreconfiguredXstream() throws Exception {
+        XstreamRepresentation<Item> rep = new XstreamRepresentation<Item>(
+                new Item("a"));
+        rep.setXstream(new XStream(new DomDriver()));
+        rep.getObject();
+
+        // The annotations are processed on a preconfigured instance too
+        String text = rep.getText();
+        assertTrue(text.contains("<item>\n  <label>a</label>"));
+        assertFalse(text.contains(Item.class.getName().replace("$", "_-")));
+    }
+
+    public void testReuse() throws Exception {
+        XstreamConverter converter = new XstreamConverter();
+        XstreamRepresentation<?> rep1 = (XstreamRepresentation<?>) converter
+                .toRepresentation(new Item("a"), new Variant(
+                        MediaType.APPLICATION_XML), null);
+        XstreamRepresentation<?> rep2 = (XstreamRepresentation<?>) converter
+                .toRepresentation(new Item("b"), new Variant(
+                        MediaType.APPLICATION_XML), null);
+        assertSame(rep1.getXstream(), rep2.getXstream());
+        assertTrue(roundTrip(converter, MediaType.APPLICATION_XML, "a")
+                .contains("<item>\n  <label>a</label>"));
+        assertTrue(roundTrip(converter, MediaType.APPLICATION_JSON, "b")
+                .contains("\"label\":\"b\""));
+
+        converter.setCachingXstreams(false);
+        rep1 = (XstreamRepresentation<?>) converter.toRepresentation(new Item(
+                "a"), new Variant(MediaType.APPLICATION_XML), null);
+        rep2 = (XstreamRepresentation<?>) converter.toRepresentation(new Item(
+                "b"), new Variant(MediaType.APPLICATION_XML), null);
+        assertNotSame(rep1.getXstream(), rep2.getXstream());
+        assertTrue(roundTrip(converter, MediaType.APPLICATION_XML, "c")
+                .contains("<label>c</label>"));
+    }
+
+}
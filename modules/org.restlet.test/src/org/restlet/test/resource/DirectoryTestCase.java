@@ -38,31 +38,45 @@ import static org.restlet.data.Status.CLIENT_ERROR_BAD_REQUEST;
 import static org.restlet.data.Status.CLIENT_ERROR_FORBIDDEN;
 import static org.restlet.data.Status.CLIENT_ERROR_METHOD_NOT_ALLOWED;
 import static org.restlet.data.Status.CLIENT_ERROR_NOT_FOUND;
+import static org.restlet.data.Status.REDIRECTION_NOT_MODIFIED;
 import static org.restlet.data.Status.REDIRECTION_SEE_OTHER;
 import static org.restlet.data.Status.SUCCESS_CREATED;
 import static org.restlet.data.Status.SUCCESS_NO_CONTENT;
 import static org.restlet.data.Status.SUCCESS_OK;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Date;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 import org.restlet.Application;
 import org.restlet.Component;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
+import org.restlet.data.Encoding;
 import org.restlet.data.Header;
 import org.restlet.data.Language;
 import org.restlet.data.Metadata;
 import org.restlet.data.Method;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.engine.Engine;
+import org.restlet.engine.application.DecodeRepresentation;
 import org.restlet.engine.header.HeaderConstants;
 import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.local.DirectoryServerResource;
+import org.restlet.engine.local.EncodedEntityCache;
 import org.restlet.engine.util.ReferenceUtils;
+import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
 import org.restlet.resource.Directory;
 import org.restlet.test.RestletTestCase;
 
@@ -230,6 +244,153 @@ public class DirectoryTestCase extends RestletTestCase {
         clientComponent.stop();
     }
 
+    public void testEncodedVariants() throws Exception {
+        Component clientComponent = new Component();
+        clientComponent.getClients().add(FILE);
+        this.testDir = new File(getProperty("java.io.tmpdir"), "DirectoryTestCase/tests8" + new Date().getTime());
+        this.testDir.mkdirs();
+
+        MyApplication application = new MyApplication(this.testDir);
+        Application.setCurrent(application);
+        clientComponent.getDefaultHost().attach("", application);
+        clientComponent.start();
+
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                sb.append("var line").append(i).append(" = ").append(i).append(";\n");
+            }
+            String script = sb.toString();
+
+            File file = new File(this.testDir, "app.js");
+            OutputStream out = new FileOutputStream(file);
+            out.write(script.getBytes("UTF-8"));
+            out.close();
+            String fileUrl = this.webSiteURL.concat("app.js");
+
+            // No encoding by default
+            Response response = new TestRequest(fileUrl).baseRef(this.webSiteURL).accept(Encoding.GZIP).handle(GET);
+            assertEquals(SUCCESS_OK, response.getStatus());
+            assertTrue(response.getEntity().getEncodings().isEmpty());
+            assertEquals(script, response.getEntityAsText());
+
+            // Encoded cache
+            EncodedEntityCache cache = new EncodedEntityCache();
+            application.getDirectory().setEncodedCache(cache);
+
+            for (int i = 0; i < 2; i++) {
+                response = new TestRequest(fileUrl).baseRef(this.webSiteURL).accept(Encoding.GZIP).handle(GET);
+                assertEquals(SUCCESS_OK, response.getStatus());
+                assertEquals(Encoding.GZIP, response.getEntity().getEncodings().get(0));
+                assertTrue(response.getEntity().getSize() < script.length());
+                assertEquals(script, new DecodeRepresentation(response.getEntity()).getText());
+            }
+
+            assertEquals(1, cache.getCount());
+            assertEquals(1, cache.getHits());
+
+            response = new TestRequest(fileUrl).baseRef(this.webSiteURL).handle(GET);
+            assertTrue(response.getEntity().getEncodings().isEmpty());
+
+            // Conditions are evaluated against the tag of the encoded entity
+            application.getDirectory().setTargetClass(TaggedDirectoryServerResource.class);
+            response = new TestRequest(fileUrl).baseRef(this.webSiteURL).accept(Encoding.GZIP).handle(GET);
+            Tag tag = response.getEntity().getTag();
+            assertEquals(new Tag("app-gzip"), tag);
+
+            response = new TestRequest(fileUrl).baseRef(this.webSiteURL).accept(Encoding.GZIP).noneMatch(tag).handle(GET);
+            assertEquals(REDIRECTION_NOT_MODIFIED, response.getStatus());
+
+            response = new TestRequest(fileUrl).baseRef(this.webSiteURL).accept(Encoding.GZIP).match(tag).handle(GET);
+            assertEquals(SUCCESS_OK, response.getStatus());
+            assertEquals(script, new DecodeRepresentation(response.getEntity()).getText());
+
+            response = new TestRequest(fileUrl).baseRef(this.webSiteURL).noneMatch(tag).handle(GET);
+            assertEquals(SUCCESS_OK, response.getStatus());
+            assertEquals(new Tag("app"), response.getEntity().getTag());
+            application.getDirectory().setTargetClass(DirectoryServerResource.class);
+
+            // Precompressed sibling
+            File gzFile = new File(this.testDir, "app.js.gz");
+            out = new GZIPOutputStream(new FileOutputStream(gzFile));
+            out.write("precompressed".getBytes("UTF-8"));
+            out.close();
+            assertTrue(gzFile.setLastModified(file.lastModified() + 1000));
+            application.getDirectory().setServingPrecompressed(true);
+
+            response = new TestRequest(fileUrl).baseRef(this.webSiteURL).accept(Encoding.GZIP).handle(GET);
+            assertEquals(SUCCESS_OK, response.getStatus());
+            assertEquals(Encoding.GZIP, response.getEntity().getEncodings().get(0));
+            assertEquals(file.lastModified(), response.getEntity().getModificationDate().getTime());
+            assertEquals("precompressed", new DecodeRepresentation(response.getEntity()).getText());
+
+            // Stale sibling falls back to the cache
+            assertTrue(gzFile.setLastModified(file.lastModified() - 1000));
+            response = new TestRequest(fileUrl).baseRef(this.webSiteURL).accept(Encoding.GZIP).handle(GET);
+            assertEquals(script, new DecodeRepresentation(response.getEntity()).getText());
+
+            // Encoding without sibling
+            response = new TestRequest(fileUrl).baseRef(this.webSiteURL).accept(Encoding.DEFLATE).handle(GET);
+            assertEquals(Encoding.DEFLATE, response.getEntity().getEncodings().get(0));
+            assertEquals(script, new DecodeRepresentation(response.getEntity()).getText());
+
+            // Entries too large to be cached are encoded on the fly
+            cache = new EncodedEntityCache(1024 * 1024, 64);
+            application.getDirectory().setEncodedCache(cache);
+            application.getDirectory().setServingPrecompressed(false);
+            response = new TestRequest(fileUrl).baseRef(this.webSiteURL).accept(Encoding.GZIP).handle(GET);
+            assertEquals(SUCCESS_OK, response.getStatus());
+            assertEquals(Encoding.GZIP, response.getEntity().getEncodings().get(0));
+            assertEquals(script, new DecodeRepresentation(response.getEntity()).getText());
+            assertEquals(0, cache.getCount());
+
+            // Entries too large to be cached are not encoded again
+            final int[] reads = new int[1];
+            Representation large = new StringRepresentation(script) {
+                @Override
+                public InputStream getStream() throws IOException {
+                    reads[0]++;
+                    return super.getStream();
+                }
+            };
+            assertNull(cache.encode("large", 0L, Encoding.GZIP, large));
+            assertNull(cache.encode("large", 0L, Encoding.GZIP, large));
+            assertEquals(1, reads[0]);
+
+            // Each compression level is cached separately
+            cache = new EncodedEntityCache();
+            cache.encode("app.js", 0L, Encoding.GZIP, new StringRepresentation(script), Deflater.BEST_SPEED);
+            cache.encode("app.js", 0L, Encoding.GZIP, new StringRepresentation(script), Deflater.BEST_COMPRESSION);
+            assertEquals(2, cache.getCount());
+        } finally {
+            clientComponent.stop();
+            IoUtils.delete(this.testDir, true);
+        }
+    }
+
+    /**
+     * Directory resource tagging the files it serves.
+     */
+    public static class TaggedDirectoryServerResource extends
+            DirectoryServerResource {
+
+        @Override
+        protected List<Variant> getVariants(Method method) {
+            List<Variant> result = super.getVariants(method);
+
+            if (result != null) {
+                for (Variant variant : result) {
+                    if ((variant instanceof Representation)
+                            && (((Representation) variant).getTag() == null)) {
+                        ((Representation) variant).setTag(new Tag("app"));
+                    }
+                }
+            }
+
+            return result;
+        }
+    }
+
     private static class TestRequest {
         Request request = new Request();
 
@@ -261,6 +422,16 @@ public class DirectoryTestCase extends RestletTestCase {
             return this;
         }
 
+        protected TestRequest match(Tag tag) {
+            request.getConditions().getMatch().add(tag);
+            return this;
+        }
+
+        protected TestRequest noneMatch(Tag tag) {
+            request.getConditions().getNoneMatch().add(tag);
+            return this;
+        }
+
         protected TestRequest header(Header header) {
             request.getHeaders().add(header);
             return this;
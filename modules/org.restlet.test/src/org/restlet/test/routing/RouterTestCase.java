@@ -0,0 +1,113 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.routing;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.Method;
+import org.restlet.routing.Route;
+import org.restlet.routing.Router;
+import org.restlet.routing.Template;
+import org.restlet.test.MockRestlet;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the compiled routing mode of the {@link Router} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class RouterTestCase extends RestletTestCase {
+
+    private static final String[] PATHS = { "/users", "/users/{id}",
+            "/users/{id}/orders", "/users/me", "/orders/{id}",
+            "/{collection}/{id}", "/orders", "/" };
+
+    private static final String[] URIS = { "/users", "/users/123",
+            "/users/123/orders", "/users/me", "/orders/1", "/orders",
+            "/items/2", "/", "/unknown/a/b", "/users?x=1", "" };
+
+    private Router createRouter(boolean compiled, int routingMode,
+            int matchingMode) {
+        Router router = new Router();
+        router.setCompiledRouting(compiled);
+        router.setRoutingMode(routingMode);
+        router.setDefaultMatchingMode(matchingMode);
+
+        for (String path : PATHS) {
+            router.attach(path, new MockRestlet(null));
+        }
+
+        return router;
+    }
+
+    private Route route(Router router, String uri) {
+        Request request = new Request(Method.GET, "http://localhost" + uri);
+        request.getResourceRef().setBaseRef("http://localhost");
+        return (Route) router.getNext(request, new Response(request));
+    }
+
+    private void testSameRoutes(int routingMode, int matchingMode) {
+        Router linear = createRouter(false, routingMode, matchingMode);
+        Router compiled = createRouter(true, routingMode, matchingMode);
+
+        for (String uri : URIS) {
+            Route expected = route(linear, uri);
+            Route actual = route(compiled, uri);
+            int index = (expected == null) ? -1 : linear.getRoutes().indexOf(
+                    expected);
+
+            if (index == -1) {
+                assertNull(uri, actual);
+            } else {
+                assertSame(uri, compiled.getRoutes().get(index), actual);
+            }
+        }
+    }
+
+    public void testBestMatch() {
+        testSameRoutes(Router.MODE_BEST_MATCH, Template.MODE_EQUALS);
+        testSameRoutes(Router.MODE_BEST_MATCH, Template.MODE_STARTS_WITH);
+    }
+
+    public void testFirstMatch() {
+        testSameRoutes(Router.MODE_FIRST_MATCH, Template.MODE_EQUALS);
+        testSameRoutes(Router.MODE_FIRST_MATCH, Template.MODE_STARTS_WITH);
+    }
+
+    public void testAttachDetach() {
+        Router router = createRouter(true, Router.MODE_FIRST_MATCH,
+                Template.MODE_EQUALS);
+        assertNull(route(router, "/products/1/reviews"));
+
+        Restlet reviews = new MockRestlet(null);
+        Route route = router.attach("/products/{id}/reviews", reviews);
+        assertSame(route, route(router, "/products/1/reviews"));
+
+        router.detach(reviews);
+        assertNull(route(router, "/products/1/reviews"));
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.service;
+
+import java.util.Date;
+
+import org.restlet.data.MediaType;
+import org.restlet.engine.Engine;
+import org.restlet.engine.converter.ConverterHelper;
+import org.restlet.engine.converter.DefaultConverter;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
+import org.restlet.service.ConverterService;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the converter service.
+ * 
+ * @author Jerome Louvel
+ */
+public class ConverterServiceTestCase extends RestletTestCase {
+
+    /**
+     * Converter service exposing the converter selection, so that the cache
+     * can be checked whatever converters are registered.
+     */
+    private static class SelectingConverterService extends ConverterService {
+
+        public ConverterHelper select(Object source, Variant target) {
+            return getBestHelper(source, target, null);
+        }
+    }
+
+    public void testCache() throws Exception {
+        ConverterService cs = new ConverterService();
+        Representation rep = cs.toRepresentation("hello",
+                MediaType.TEXT_PLAIN);
+        assertEquals("hello", rep.getText());
+        assertEquals(0, cs.getCacheHits());
+        assertEquals(1, cs.getCacheMisses());
+
+        cs.toRepresentation("world", MediaType.TEXT_PLAIN);
+        assertEquals(1, cs.getCacheHits());
+        assertEquals(1, cs.getCacheSize());
+
+        StringRepresentation source = new StringRepresentation("text");
+        assertEquals("text", cs.toObject(source, String.class, null));
+        assertEquals(2, cs.getCacheMisses());
+        assertEquals(2, cs.getCacheSize());
+
+        // Registering a converter invalidates the cache
+        ConverterHelper converter = new DefaultConverter();
+        Engine.getInstance().getRegisteredConverters().add(converter);
+        try {
+            cs.toRepresentation("hello", MediaType.TEXT_PLAIN);
+            assertEquals(3, cs.getCacheMisses());
+            assertEquals(1, cs.getCacheSize());
+        } finally {
+            Engine.getInstance().getRegisteredConverters().remove(converter);
+        }
+    }
+
+    public void testDisabledCache() throws Exception {
+        ConverterService cs = new ConverterService();
+        cs.setCacheCapacity(0);
+        cs.toRepresentation("hello", MediaType.TEXT_PLAIN);
+        cs.toRepresentation("hello", MediaType.TEXT_PLAIN);
+        assertEquals(0, cs.getCacheHits());
+        assertEquals(0, cs.getCacheSize());
+    }
+
+    public void testNullTarget() throws Exception {
+        SelectingConverterService cs = new SelectingConverterService();
+        Date date = new Date();
+        cs.select(date, null);
+        assertEquals(1, cs.getCacheMisses());
+
+        // A variant without media type is scored differently
+        cs.select(date, new Variant());
+        assertEquals(0, cs.getCacheHits());
+        assertEquals(2, cs.getCacheMisses());
+
+        cs.select(date, null);
+        assertEquals(1, cs.getCacheHits());
+    }
+}
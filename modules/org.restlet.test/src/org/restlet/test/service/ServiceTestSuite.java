@@ -34,10 +34,12 @@ public class ServiceTestSuite {
 
         // $JUnit-BEGIN$
         suite.addTestSuite(ConnegServiceTestCase.class);
+        suite.addTestSuite(ConverterServiceTestCase.class);
         suite.addTestSuite(MetadataServiceTestCase.class);
         // [ifndef jee]
         suite.addTestSuite(StatusServiceTestCase.class);
         // [enddef]
+        suite.addTestSuite(TaskServiceTestCase.class);
 
         // $JUnit-END$
 
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.engine.util.ThreadPerTaskExecutor;
+import org.restlet.service.TaskService;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the virtual threads mode of the {@link TaskService}.
+ * 
+ * @author Jerome Louvel
+ */
+public class TaskServiceTestCase extends RestletTestCase {
+
+    public void testPlatformThreadsCapped() throws Exception {
+        if (ThreadPerTaskExecutor.isVirtualThreadsSupported()) {
+            return;
+        }
+
+        final AtomicInteger created = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(20);
+        ThreadPerTaskExecutor executor = new ThreadPerTaskExecutor(2,
+                new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        created.incrementAndGet();
+                        return new Thread(r);
+                    }
+                });
+
+        try {
+            for (int i = 0; i < 20; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+
+                        done.countDown();
+                    }
+                });
+            }
+
+            Thread.sleep(200);
+
+            // Tasks over the limit are queued instead of getting a thread
+            assertEquals(2, created.get());
+            assertEquals(2, executor.getActiveCount());
+            assertEquals(18, executor.getWaitingCount());
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(2, created.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testVirtualThreads() throws Exception {
+        TaskService taskService = new TaskService();
+        taskService.setShutdownAllowed(true);
+        taskService.setVirtualThreads(true);
+        taskService.setMaxConcurrentTasks(2);
+        taskService.start();
+
+        try {
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+
+            for (int i = 0; i < 6; i++) {
+                final int index = i;
+                futures.add(taskService.submit(new Callable<Integer>() {
+                    public Integer call() throws Exception {
+                        int current = running.incrementAndGet();
+
+                        synchronized (maxRunning) {
+                            maxRunning.set(Math.max(maxRunning.get(), current));
+                        }
+
+                        release.await(5, TimeUnit.SECONDS);
+                        running.decrementAndGet();
+                        return index;
+                    }
+                }));
+            }
+
+            Thread.sleep(200);
+            assertEquals(2, running.get());
+            release.countDown();
+
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(Integer.valueOf(i),
+                        futures.get(i).get(5, TimeUnit.SECONDS));
+            }
+
+            assertEquals(2, maxRunning.get());
+
+            // Delayed tasks are still supported
+            Future<String> delayed = taskService.schedule(
+                    new Callable<String>() {
+                        public String call() throws Exception {
+                            return "delayed";
+                        }
+                    }, 10, TimeUnit.MILLISECONDS);
+            assertEquals("delayed", delayed.get(5, TimeUnit.SECONDS));
+        } finally {
+            taskService.stop();
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.restlet.data.Header;
+import org.restlet.data.Parameter;
+import org.restlet.test.RestletTestCase;
+import org.restlet.util.Series;
+
+/**
+ * Test case for the {@link Series} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class SeriesTestCase extends RestletTestCase {
+
+    private Series<Header> createHeaders(int count) {
+        Series<Header> result = new Series<Header>(Header.class);
+
+        for (int i = 0; i < count; i++) {
+            result.add("X-Header-" + i, "value" + i);
+        }
+
+        result.add("Accept", "text/html");
+        result.add("ACCEPT", "application/xml");
+        result.add("Accept-Charset", "utf-8");
+        return result;
+    }
+
+    public void testEntryFactory() {
+        Series<Parameter> params = new Series<Parameter>(Parameter.class,
+                new Series.EntryFactory<Parameter>() {
+                    public Parameter createEntry(String name, String value) {
+                        return new Parameter(name.toLowerCase(), value);
+                    }
+                });
+        params.add("Name", "value");
+        assertEquals("value", params.getFirstValue("name"));
+        assertEquals("value", params.subList("name").getFirstValue("name"));
+
+        Series<Header> headers = new Series<Header>(Header.class);
+        assertTrue(headers.createEntry("a", "b") instanceof Header);
+        assertEquals("b", headers.createEntry("a", "b").getValue());
+    }
+
+    public void testIndexedLookups() {
+        for (int count : new int[] { 0, 40 }) {
+            Series<Header> headers = createHeaders(count);
+
+            // Repeated lookups build the index for large series
+            for (int i = 0; i < 3; i++) {
+                assertEquals("text/html", headers.getFirstValue("accept", true));
+                assertEquals("application/xml",
+                        headers.getFirstValue("ACCEPT", false));
+                assertNull(headers.getFirstValue("accept", false));
+                assertNull(headers.getFirstValue("Missing", true));
+                assertEquals("text/html,application/xml",
+                        headers.getValues("accept"));
+                assertEquals("text/html",
+                        headers.getValues("Accept", ",", false));
+                assertTrue(Arrays.equals(new String[] { "text/html",
+                        "application/xml" },
+                        headers.getValuesArray("accept", true)));
+            }
+
+            // Modifications invalidate the index
+            headers.add(0, new Header("accept", "text/plain"));
+            assertEquals("text/plain", headers.getFirstValue("Accept", true));
+            assertEquals("text/plain", headers.getFirstValue("Accept", true));
+
+            headers.set(0, new Header("Other", "value"));
+            assertEquals("text/html", headers.getFirstValue("Accept", true));
+            assertEquals("text/html", headers.getFirstValue("Accept", true));
+
+            for (Iterator<Header> iter = headers.iterator(); iter.hasNext();) {
+                if (iter.next().getName().equalsIgnoreCase("accept")) {
+                    iter.remove();
+                }
+            }
+
+            assertNull(headers.getFirstValue("Accept", true));
+            assertNull(headers.getFirstValue("Accept", true));
+            assertEquals("utf-8", headers.getFirstValue("accept-charset", true));
+        }
+    }
+
+}
@@ -24,12 +24,17 @@
 
 package org.restlet.data;
 
+import org.restlet.engine.util.MetadataCache;
+
 /**
  * Metadata used to specify the character set of textual representations.
  * 
  * @author Jerome Louvel
  */
 public final class CharacterSet extends Metadata {
+    /** The character sets parsed with {@link #valueOf(String)}. */
+    private static final MetadataCache<CharacterSet> _parsedCharacterSets = new MetadataCache<CharacterSet>();
+
     /** All character sets acceptable. */
     public static final CharacterSet ALL = new CharacterSet("*",
             "All character sets");
@@ -216,7 +221,8 @@ public final class CharacterSet extends Metadata {
 
     /**
      * Returns the character set associated to a name. If an existing constant
-     * exists then it is returned, otherwise a new instance is created.
+     * exists then it is returned, otherwise a shared instance is taken from a
+     * bounded cache of parsed character sets, or created.
      * 
      * @param name
      *            The name.
@@ -242,7 +248,12 @@ public final class CharacterSet extends Metadata {
             } else if (name.equalsIgnoreCase(MACINTOSH.getName())) {
                 result = MACINTOSH;
             } else {
-                result = new CharacterSet(name);
+                result = _parsedCharacterSets.get(name);
+
+                if (result == null) {
+                    result = _parsedCharacterSets.intern(name,
+                            new CharacterSet(name));
+                }
             }
         }
 
@@ -24,6 +24,8 @@
 
 package org.restlet.data;
 
+import org.restlet.engine.util.MetadataCache;
+
 /**
  * Modifier of a representation's media type. Useful to apply compression
  * without losing the identity of the underlying media type.
@@ -31,9 +33,16 @@ package org.restlet.data;
  * @author Jerome Louvel
  */
 public final class Encoding extends Metadata {
+    /** The encodings parsed with {@link #valueOf(String)}. */
+    private static final MetadataCache<Encoding> _parsedEncodings = new MetadataCache<Encoding>();
+
     /** All encodings acceptable. */
     public static final Encoding ALL = new Encoding("*", "All encodings");
 
+    /** The Brotli compression format defined by RFC 7932. */
+    public static final Encoding BROTLI = new Encoding("br",
+            "Brotli compression");
+
     /** The common Unix file compression. */
     public static final Encoding COMPRESS = new Encoding("compress",
             "Common Unix compression");
@@ -67,7 +76,8 @@ public final class Encoding extends Metadata {
 
     /**
      * Returns the encoding associated to a name. If an existing constant exists
-     * then it is returned, otherwise a new instance is created.
+     * then it is returned, otherwise a shared instance is taken from a bounded
+     * cache of parsed encodings, or created.
      * 
      * @param name
      *            The name.
@@ -83,6 +93,8 @@ public final class Encoding extends Metadata {
                 result = GZIP;
             } else if (name.equalsIgnoreCase(ZIP.getName())) {
                 result = ZIP;
+            } else if (name.equalsIgnoreCase(BROTLI.getName())) {
+                result = BROTLI;
             } else if (name.equalsIgnoreCase(COMPRESS.getName())) {
                 result = COMPRESS;
             } else if (name.equalsIgnoreCase(DEFLATE.getName())) {
@@ -96,7 +108,11 @@ public final class Encoding extends Metadata {
             } else if (name.equalsIgnoreCase(VELOCITY.getName())) {
                 result = VELOCITY;
             } else {
-                result = new Encoding(name);
+                result = _parsedEncodings.get(name);
+
+                if (result == null) {
+                    result = _parsedEncodings.intern(name, new Encoding(name));
+                }
             }
         }
 
@@ -28,6 +28,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.restlet.engine.util.MetadataCache;
+
 /**
  * Language used in representations and preferences. A language tag is composed
  * of one or more parts: A primary language tag and a possibly empty series of
@@ -36,6 +38,9 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * @author Jerome Louvel
  */
 public final class Language extends Metadata {
+    /** The languages parsed with {@link #valueOf(String)}. */
+    private static final MetadataCache<Language> _parsedLanguages = new MetadataCache<Language>();
+
     /** All languages acceptable. */
     public static final Language ALL = new Language("*", "All languages");
 
@@ -73,7 +78,8 @@ public final class Language extends Metadata {
 
     /**
      * Returns the language associated to a name. If an existing constant exists
-     * then it is returned, otherwise a new instance is created.
+     * then it is returned, otherwise a shared instance is taken from a bounded
+     * cache of parsed languages, or created.
      * 
      * @param name
      *            The name.
@@ -96,7 +102,11 @@ public final class Language extends Metadata {
             } else if (name.equalsIgnoreCase(SPANISH.getName())) {
                 result = SPANISH;
             } else {
-                result = new Language(name);
+                result = _parsedLanguages.get(name);
+
+                if (result == null) {
+                    result = _parsedLanguages.intern(name, new Language(name));
+                }
             }
         }
 
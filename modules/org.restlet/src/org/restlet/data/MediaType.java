@@ -25,12 +25,14 @@
 package org.restlet.data;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 
 import org.restlet.Context;
 import org.restlet.engine.header.HeaderWriter;
+import org.restlet.engine.util.MetadataCache;
 import org.restlet.engine.util.StringUtils;
 import org.restlet.engine.util.SystemUtils;
 import org.restlet.util.Series;
@@ -53,12 +55,26 @@ public final class MediaType extends Metadata {
      */
     private static final String _TSPECIALS = "()<>@,;:/[]?=\\\"";
 
+    /**
+     * The media types parsed with {@link #valueOf(String)}, indexed by their
+     * raw name.<br>
+     * Keep the underscore for the ordering.
+     */
+    private static final MetadataCache<MediaType> _parsedTypes = new MetadataCache<MediaType>();
+
+    /**
+     * The media types parsed with {@link #valueOf(String, Series)}, indexed by
+     * their normalized name.<br>
+     * Keep the underscore for the ordering.
+     */
+    private static final MetadataCache<MediaType> _parameterizedTypes = new MetadataCache<MediaType>();
+
     /**
      * The known media types registered with {@link #register(String, String)},
      * retrievable using {@link #valueOf(String)}.<br>
      * Keep the underscore for the ordering.
      */
-    private static volatile Map<String, MediaType> _types = null;
+    private static volatile ConcurrentMap<String, MediaType> _types = null;
 
     public static final MediaType ALL = register("*/*", "All media");
 
@@ -728,9 +744,10 @@ public final class MediaType extends Metadata {
      * 
      * @return the known media types map.
      */
-    private static Map<String, MediaType> getTypes() {
+    private static ConcurrentMap<String, MediaType> getTypes() {
         if (_types == null) {
-            _types = new HashMap<String, MediaType>();
+            // Initialized by the first constant, during class initialization
+            _types = new ConcurrentHashMap<String, MediaType>();
         }
         return _types;
     }
@@ -842,20 +859,25 @@ public final class MediaType extends Metadata {
      *            The description.
      * @return The registered media type
      */
-    public static synchronized MediaType register(String name,
-            String description) {
+    public static MediaType register(String name, String description) {
+        MediaType result = getTypes().get(name);
 
-        if (!getTypes().containsKey(name)) {
+        if (result == null) {
             final MediaType type = new MediaType(name, description);
-            getTypes().put(name, type);
+            result = getTypes().putIfAbsent(name, type);
+
+            if (result == null) {
+                result = type;
+            }
         }
 
-        return getTypes().get(name);
+        return result;
     }
 
     /**
      * Returns the media type associated to a name. If an existing constant
-     * exists then it is returned, otherwise a new instance is created.
+     * exists then it is returned, otherwise a shared instance is taken from a
+     * bounded cache of parsed media types, or created.
      * 
      * @param name
      *            The name.
@@ -866,8 +888,51 @@ public final class MediaType extends Metadata {
 
         if (!StringUtils.isNullOrEmpty(name)) {
             result = getTypes().get(name);
+
+            if (result == null) {
+                result = _parsedTypes.get(name);
+
+                if (result == null) {
+                    result = _parsedTypes.intern(name, new MediaType(name));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the media type associated to a name and a list of parameters. If
+     * the list of parameters is empty, {@link #valueOf(String)} is used,
+     * otherwise a shared instance is taken from a bounded cache of parsed
+     * media types, or created.
+     * 
+     * @param name
+     *            The name.
+     * @param parameters
+     *            The list of parameters.
+     * @return The associated media type.
+     */
+    public static MediaType valueOf(String name, Series<Parameter> parameters) {
+        if ((parameters == null) || parameters.isEmpty()) {
+            return valueOf(name);
+        }
+
+        MediaType result = null;
+
+        if (!StringUtils.isNullOrEmpty(name)) {
+            String key = normalizeType(name, parameters);
+            result = _parameterizedTypes.get(key);
+
             if (result == null) {
-                result = new MediaType(name);
+                // Copy the parameters as the instance will be shared
+                // [ifndef gwt] instruction
+                Series<Parameter> params = new Series<Parameter>(
+                        Parameter.class, new ArrayList<Parameter>(parameters));
+                // [ifdef gwt] instruction uncomment
+                // Series<Parameter> params = parameters;
+                result = _parameterizedTypes.intern(key, new MediaType(name,
+                        params));
             }
         }
 
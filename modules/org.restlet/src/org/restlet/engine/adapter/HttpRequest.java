@@ -63,7 +63,6 @@ import org.restlet.engine.header.StringReader;
 import org.restlet.engine.header.TagReader;
 import org.restlet.engine.header.WarningReader;
 import org.restlet.engine.security.AuthenticatorUtils;
-import org.restlet.engine.util.DateUtils;
 import org.restlet.engine.util.ReferenceUtils;
 import org.restlet.engine.util.StringUtils;
 import org.restlet.representation.Representation;
@@ -199,7 +198,7 @@ public class HttpRequest extends Request {
         String dateHeader = httpCall.getRequestHeaders().getFirstValue(HeaderConstants.HEADER_DATE, true);
         Date date = null;
         if (dateHeader != null) {
-            date = DateUtils.parse(dateHeader);
+            date = HeaderReader.readDate(dateHeader, false);
         }
 
         if (date == null) {
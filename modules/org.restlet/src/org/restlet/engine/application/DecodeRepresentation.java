@@ -35,9 +35,6 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.Inflater;
-import java.util.zip.InflaterInputStream;
 import java.util.zip.ZipInputStream;
 
 import org.restlet.data.Encoding;
@@ -119,13 +116,8 @@ public class DecodeRepresentation extends WrapperRepresentation {
         InputStream result = null;
 
         if (encodedStream != null) {
-            if (encoding.equals(Encoding.GZIP)) {
-                result = new GZIPInputStream(encodedStream);
-            } else if (encoding.equals(Encoding.DEFLATE)) {
-                result = new InflaterInputStream(encodedStream);
-            } else if (encoding.equals(Encoding.DEFLATE_NOWRAP)) {
-                result = new InflaterInputStream(encodedStream, new Inflater(
-                        true));
+            if (DecoderInputStream.isSupported(encoding)) {
+                result = new DecoderInputStream(encodedStream, encoding);
             } else if (encoding.equals(Encoding.ZIP)) {
                 @SuppressWarnings("resource")
                 final ZipInputStream stream = new ZipInputStream(encodedStream);
@@ -0,0 +1,369 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.application;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import org.restlet.data.Encoding;
+import org.restlet.engine.io.IoUtils;
+
+// [excludes gwt]
+/**
+ * Input stream decoding content encoded with the GZIP, DEFLATE or
+ * DEFLATE_NOWRAP algorithms using an inflater borrowed from an
+ * {@link InflaterPool}. The inflater is given back to its pool once the end of
+ * the content is reached or the stream is closed or released. Concatenated
+ * GZIP members are supported.
+ * 
+ * @author Jerome Louvel
+ */
+public class DecoderInputStream extends InflaterInputStream {
+
+    /** The GZIP header magic number. */
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    /** The GZIP header flag indicating a header checksum. */
+    private static final int FHCRC = 2;
+
+    /** The GZIP header flag indicating extra fields. */
+    private static final int FEXTRA = 4;
+
+    /** The GZIP header flag indicating a file name. */
+    private static final int FNAME = 8;
+
+    /** The GZIP header flag indicating a comment. */
+    private static final int FCOMMENT = 16;
+
+    /**
+     * Indicates if the given encoding is supported by this stream.
+     * 
+     * @param encoding
+     *            The encoding to test.
+     * @return True if the encoding is supported.
+     */
+    public static boolean isSupported(Encoding encoding) {
+        return EncoderOutputStream.isSupported(encoding);
+    }
+
+    /** The checksum of the decoded content, for the GZIP encoding. */
+    private final CRC32 crc;
+
+    /** Indicates if the end of the decoded content was reached. */
+    private boolean eos;
+
+    /** The pool of the inflater. */
+    private final InflaterPool pool;
+
+    /** Indicates if the inflater has been given back to its pool. */
+    private boolean released;
+
+    /**
+     * Constructor.
+     * 
+     * @param inputStream
+     *            The encoded input stream.
+     * @param encoding
+     *            The encoding to decode.
+     * @throws IOException
+     */
+    public DecoderInputStream(InputStream inputStream, Encoding encoding)
+            throws IOException {
+        this(inputStream, encoding, InflaterPool.getInstance(!Encoding.DEFLATE
+                .equals(encoding)));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param inputStream
+     *            The encoded input stream.
+     * @param encoding
+     *            The encoding to decode.
+     * @param pool
+     *            The pool of inflaters to use.
+     * @throws IOException
+     */
+    private DecoderInputStream(InputStream inputStream, Encoding encoding,
+            InflaterPool pool) throws IOException {
+        super(inputStream, pool.checkout(), IoUtils.BUFFER_SIZE);
+        this.pool = pool;
+        this.eos = false;
+        this.released = false;
+
+        if (!isSupported(encoding)) {
+            release();
+            throw new IllegalArgumentException("Unsupported encoding: "
+                    + encoding);
+        }
+
+        if (Encoding.GZIP.equals(encoding)) {
+            this.crc = new CRC32();
+
+            try {
+                readHeader(inputStream);
+            } catch (IOException e) {
+                release();
+                throw e;
+            }
+        } else {
+            this.crc = null;
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        return this.eos ? 0 : super.available();
+    }
+
+    /**
+     * Closes the underlying input stream and gives the inflater back to its
+     * pool.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Reads decoded bytes. When the end of the encoded content is reached, the
+     * inflater is given back to its pool.
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (this.eos) {
+            return -1;
+        }
+
+        if (this.released) {
+            throw new IOException("Stream closed");
+        }
+
+        int result = super.read(b, off, len);
+
+        if (result == -1) {
+            if ((this.crc == null) || readTrailer()) {
+                this.eos = true;
+                release();
+            } else {
+                return read(b, off, len);
+            }
+        } else if (this.crc != null) {
+            this.crc.update(b, off, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads a GZIP member header.
+     * 
+     * @param inputStream
+     *            The input stream to read from.
+     * @return The number of bytes read.
+     * @throws IOException
+     */
+    private int readHeader(InputStream inputStream) throws IOException {
+        CheckedInputStream in = new CheckedInputStream(inputStream, this.crc);
+        this.crc.reset();
+
+        if (readUShort(in) != GZIP_MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+
+        if (readUByte(in) != Deflater.DEFLATED) {
+            throw new ZipException("Unsupported compression method");
+        }
+
+        int flags = readUByte(in);
+        skipBytes(in, 6);
+        int result = 10;
+
+        if ((flags & FEXTRA) == FEXTRA) {
+            int length = readUShort(in);
+            skipBytes(in, length);
+            result += length + 2;
+        }
+
+        if ((flags & FNAME) == FNAME) {
+            do {
+                result++;
+            } while (readUByte(in) != 0);
+        }
+
+        if ((flags & FCOMMENT) == FCOMMENT) {
+            do {
+                result++;
+            } while (readUByte(in) != 0);
+        }
+
+        if ((flags & FHCRC) == FHCRC) {
+            int value = (int) this.crc.getValue() & 0xffff;
+
+            if (readUShort(in) != value) {
+                throw new ZipException("Corrupt GZIP header");
+            }
+
+            result += 2;
+        }
+
+        this.crc.reset();
+        return result;
+    }
+
+    /**
+     * Reads a GZIP member trailer and checks it against the decoded content.
+     * 
+     * @return True if the end of the encoded stream was reached, false if
+     *         another GZIP member follows.
+     * @throws IOException
+     */
+    private boolean readTrailer() throws IOException {
+        InputStream in = this.in;
+        int remaining = this.inf.getRemaining();
+
+        if (remaining > 0) {
+            in = new SequenceInputStream(new ByteArrayInputStream(this.buf,
+                    this.len - remaining, remaining), new FilterInputStream(
+                    this.in) {
+                @Override
+                public void close() throws IOException {
+                }
+            });
+        }
+
+        if ((readUInt(in) != this.crc.getValue())
+                || (readUInt(in) != (this.inf.getBytesWritten() & 0xffffffffL))) {
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+
+        // Detect concatenated members
+        if ((this.in.available() > 0) || (remaining > 26)) {
+            int read = 8;
+
+            try {
+                read += readHeader(in);
+            } catch (IOException e) {
+                // Ignore trailing garbage
+                return true;
+            }
+
+            this.inf.reset();
+
+            if (remaining > read) {
+                this.inf.setInput(this.buf, this.len + read - remaining,
+                        remaining - read);
+            }
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads an unsigned byte.
+     * 
+     * @param in
+     *            The input stream to read from.
+     * @return The unsigned byte.
+     * @throws IOException
+     */
+    private int readUByte(InputStream in) throws IOException {
+        int result = in.read();
+
+        if (result == -1) {
+            throw new EOFException();
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads an unsigned 32-bit integer in little-endian order.
+     * 
+     * @param in
+     *            The input stream to read from.
+     * @return The unsigned integer.
+     * @throws IOException
+     */
+    private long readUInt(InputStream in) throws IOException {
+        long low = readUShort(in);
+        return ((long) readUShort(in) << 16) | low;
+    }
+
+    /**
+     * Reads an unsigned 16-bit integer in little-endian order.
+     * 
+     * @param in
+     *            The input stream to read from.
+     * @return The unsigned short.
+     * @throws IOException
+     */
+    private int readUShort(InputStream in) throws IOException {
+        int low = readUByte(in);
+        return (readUByte(in) << 8) | low;
+    }
+
+    /**
+     * Gives the inflater back to its pool if not already done. This method
+     * should be invoked if the decoding is aborted without closing the stream.
+     */
+    public void release() {
+        if (!this.released) {
+            this.released = true;
+            this.pool.checkin(this.inf);
+        }
+    }
+
+    /**
+     * Skips bytes of the input stream.
+     * 
+     * @param in
+     *            The input stream to read from.
+     * @param count
+     *            The number of bytes to skip.
+     * @throws IOException
+     */
+    private void skipBytes(InputStream in, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            readUByte(in);
+        }
+    }
+
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.application;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+import org.restlet.engine.util.Pool;
+
+// [excludes gwt]
+/**
+ * Bounded pool of {@link Deflater} instances sharing the same compression level
+ * and wrapping mode. Checked in deflaters are reset so that their native zlib
+ * state can be reused by the next encoding, or ended if the pool is full.
+ * 
+ * @author Jerome Louvel
+ */
+public class DeflaterPool extends Pool<Deflater> {
+
+    /** The default maximum number of idle deflaters kept by each pool. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /** The shared pools, indexed by compression level and wrapping mode. */
+    private static final DeflaterPool[] pools = new DeflaterPool[22];
+
+    static {
+        for (int level = Deflater.DEFAULT_COMPRESSION; level <= Deflater.BEST_COMPRESSION; level++) {
+            pools[getIndex(level, false)] = new DeflaterPool(level, false,
+                    DEFAULT_CAPACITY);
+            pools[getIndex(level, true)] = new DeflaterPool(level, true,
+                    DEFAULT_CAPACITY);
+        }
+    }
+
+    /**
+     * Returns the index of a shared pool.
+     * 
+     * @param level
+     *            The compression level.
+     * @param nowrap
+     *            True if the ZLIB header and checksum fields are omitted.
+     * @return The index of the shared pool.
+     */
+    private static int getIndex(int level, boolean nowrap) {
+        return ((level + 1) * 2) + (nowrap ? 1 : 0);
+    }
+
+    /**
+     * Returns the shared pool for the given compression level and wrapping
+     * mode.
+     * 
+     * @param level
+     *            The compression level, between
+     *            {@link Deflater#DEFAULT_COMPRESSION} and
+     *            {@link Deflater#BEST_COMPRESSION}.
+     * @param nowrap
+     *            True if the ZLIB header and checksum fields are omitted.
+     * @return The shared pool.
+     */
+    public static DeflaterPool getInstance(int level, boolean nowrap) {
+        if ((level < Deflater.DEFAULT_COMPRESSION)
+                || (level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: "
+                    + level);
+        }
+
+        return pools[getIndex(level, nowrap)];
+    }
+
+    /** The maximum number of idle deflaters kept. */
+    private final int capacity;
+
+    /** The compression level. */
+    private final int level;
+
+    /** True if the ZLIB header and checksum fields are omitted. */
+    private final boolean nowrap;
+
+    /** The current number of idle deflaters. */
+    private final AtomicInteger size;
+
+    /**
+     * Constructor.
+     * 
+     * @param level
+     *            The compression level.
+     * @param nowrap
+     *            True if the ZLIB header and checksum fields are omitted.
+     * @param capacity
+     *            The maximum number of idle deflaters kept.
+     */
+    public DeflaterPool(int level, boolean nowrap, int capacity) {
+        super();
+        this.capacity = capacity;
+        this.level = level;
+        this.nowrap = nowrap;
+        this.size = new AtomicInteger();
+    }
+
+    /**
+     * Checks in a deflater into the pool. The deflater is ended if the pool is
+     * full.
+     * 
+     * @param deflater
+     *            The deflater to check in.
+     */
+    @Override
+    public void checkin(Deflater deflater) {
+        if (deflater != null) {
+            if (this.size.incrementAndGet() <= this.capacity) {
+                super.checkin(deflater);
+            } else {
+                this.size.decrementAndGet();
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Checks out a deflater from the pool. Creates a new one if the pool is
+     * empty.
+     * 
+     * @return A deflater from the pool.
+     */
+    @Override
+    public Deflater checkout() {
+        Deflater result = getStore().poll();
+
+        if (result == null) {
+            result = createObject();
+        } else {
+            this.size.decrementAndGet();
+        }
+
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        for (Deflater deflater = getStore().poll(); deflater != null; deflater = getStore()
+                .poll()) {
+            this.size.decrementAndGet();
+            deflater.end();
+        }
+    }
+
+    /**
+     * Resets the deflater so that it can be reused.
+     * 
+     * @param deflater
+     *            The deflater to reset.
+     */
+    @Override
+    protected void clear(Deflater deflater) {
+        deflater.reset();
+    }
+
+    @Override
+    protected Deflater createObject() {
+        return new Deflater(this.level, this.nowrap);
+    }
+
+    /**
+     * Returns the maximum number of idle deflaters kept.
+     * 
+     * @return The maximum number of idle deflaters kept.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the current number of idle deflaters.
+     * 
+     * @return The current number of idle deflaters.
+     */
+    public int getSize() {
+        return this.size.get();
+    }
+
+}
@@ -35,8 +35,6 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -50,6 +48,8 @@ import org.restlet.util.WrapperRepresentation;
 // [excludes gwt]
 /**
  * Content that encodes a wrapped content. Allows to apply only one encoding.
+ * The GZIP and DEFLATE encodings reuse deflaters from a shared
+ * {@link DeflaterPool}.
  * 
  * @author Jerome Louvel
  */
@@ -73,8 +73,11 @@ public class EncodeRepresentation extends WrapperRepresentation {
     /** The applied encodings. */
     private volatile List<Encoding> encodings;
 
+    /** The compression level. */
+    private final int level;
+
     /**
-     * Constructor.
+     * Constructor using the default compression level.
      * 
      * @param encoding
      *            Encoder algorithm.
@@ -83,10 +86,28 @@ public class EncodeRepresentation extends WrapperRepresentation {
      */
     public EncodeRepresentation(Encoding encoding,
             Representation wrappedRepresentation) {
+        this(encoding, wrappedRepresentation, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param encoding
+     *            Encoder algorithm.
+     * @param wrappedRepresentation
+     *            The wrapped representation.
+     * @param level
+     *            The compression level, between
+     *            {@link Deflater#DEFAULT_COMPRESSION} and
+     *            {@link Deflater#BEST_COMPRESSION}.
+     */
+    public EncodeRepresentation(Encoding encoding,
+            Representation wrappedRepresentation, int level) {
         super(wrappedRepresentation);
         this.canEncode = getSupportedEncodings().contains(encoding);
         this.encodings = null;
         this.encoding = encoding;
+        this.level = level;
     }
 
     /**
@@ -217,6 +238,15 @@ public class EncodeRepresentation extends WrapperRepresentation {
         }
     }
 
+    /**
+     * Returns the compression level.
+     * 
+     * @return The compression level.
+     */
+    public int getLevel() {
+        return this.level;
+    }
+
     /**
      * Returns the size in bytes of the encoded representation if known,
      * UNKNOWN_SIZE (-1) otherwise.
@@ -259,18 +289,22 @@ public class EncodeRepresentation extends WrapperRepresentation {
     @Override
     public void write(OutputStream outputStream) throws IOException {
         if (canEncode()) {
-            DeflaterOutputStream encoderOutputStream = null;
-
-            if (this.encoding.equals(Encoding.GZIP)) {
-                encoderOutputStream = new GZIPOutputStream(outputStream);
-            } else if (this.encoding.equals(Encoding.DEFLATE)) {
-                encoderOutputStream = new DeflaterOutputStream(outputStream);
-            } else if (this.encoding.equals(Encoding.DEFLATE_NOWRAP)) {
-                encoderOutputStream = new DeflaterOutputStream(outputStream,
-                        new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+            if (EncoderOutputStream.isSupported(this.encoding)) {
+                @SuppressWarnings("resource")
+                EncoderOutputStream encoderOutputStream = new EncoderOutputStream(
+                        outputStream, this.encoding, getLevel());
+
+                try {
+                    getWrappedRepresentation().write(encoderOutputStream);
+                    encoderOutputStream.flush();
+                    encoderOutputStream.finish();
+                } finally {
+                    encoderOutputStream.release();
+                }
             } else if (this.encoding.equals(Encoding.ZIP)) {
                 @SuppressWarnings("resource")
                 final ZipOutputStream stream = new ZipOutputStream(outputStream);
+                stream.setLevel(getLevel());
                 String name = "entry";
 
                 if (getWrappedRepresentation().getDisposition() != null) {
@@ -282,16 +316,11 @@ public class EncodeRepresentation extends WrapperRepresentation {
                 }
 
                 stream.putNextEntry(new ZipEntry(name));
-                encoderOutputStream = stream;
-            } else if (this.encoding.equals(Encoding.IDENTITY)) {
-                // Encoder unnecessary for identity encoding
-            }
-
-            if (encoderOutputStream != null) {
-                getWrappedRepresentation().write(encoderOutputStream);
-                encoderOutputStream.flush();
-                encoderOutputStream.finish();
+                getWrappedRepresentation().write(stream);
+                stream.flush();
+                stream.finish();
             } else {
+                // Encoder unnecessary for identity encoding
                 getWrappedRepresentation().write(outputStream);
             }
         } else {
@@ -299,6 +328,14 @@ public class EncodeRepresentation extends WrapperRepresentation {
         }
     }
 
+    /**
+     * Writes the encoded content to a byte channel. The content is deflated
+     * directly into a channel output of the deflater buffer size, without
+     * intermediate piping.
+     * 
+     * @param writableChannel
+     *            A writable byte channel.
+     */
     @Override
     public void write(WritableByteChannel writableChannel) throws IOException {
         if (canEncode()) {
@@ -142,7 +142,10 @@ public class Encoder extends Filter {
         Encoding bestEncoding = getBestEncoding(client);
 
         if (bestEncoding != null) {
-            result = new EncodeRepresentation(bestEncoding, representation);
+            result = (getEncoderService() == null) ? new EncodeRepresentation(
+                    bestEncoding, representation) : new EncodeRepresentation(
+                    bestEncoding, representation, getEncoderService()
+                            .getCompressionLevel());
         }
 
         return result;
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.application;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.restlet.data.Encoding;
+import org.restlet.engine.io.IoUtils;
+
+// [excludes gwt]
+/**
+ * Output stream encoding its content with the GZIP, DEFLATE or DEFLATE_NOWRAP
+ * algorithms using a deflater borrowed from a {@link DeflaterPool}. The
+ * deflater is given back to its pool once the stream is finished, closed or
+ * released.
+ * 
+ * @author Jerome Louvel
+ */
+public class EncoderOutputStream extends DeflaterOutputStream {
+
+    /** The GZIP header, without modification time nor extra fields. */
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b,
+            Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+    /**
+     * Indicates if the given encoding is supported by this stream.
+     * 
+     * @param encoding
+     *            The encoding to test.
+     * @return True if the encoding is supported.
+     */
+    public static boolean isSupported(Encoding encoding) {
+        return Encoding.GZIP.equals(encoding)
+                || Encoding.DEFLATE.equals(encoding)
+                || Encoding.DEFLATE_NOWRAP.equals(encoding);
+    }
+
+    /** The checksum of the uncompressed content, for the GZIP encoding. */
+    private final CRC32 crc;
+
+    /** Indicates if the compressed content has been fully written. */
+    private boolean finished;
+
+    /** The pool of the deflater. */
+    private final DeflaterPool pool;
+
+    /** Indicates if the deflater has been given back to its pool. */
+    private boolean released;
+
+    /**
+     * Constructor.
+     * 
+     * @param outputStream
+     *            The output stream receiving the encoded content.
+     * @param encoding
+     *            The encoding to apply.
+     * @param level
+     *            The compression level.
+     * @throws IOException
+     */
+    public EncoderOutputStream(OutputStream outputStream, Encoding encoding,
+            int level) throws IOException {
+        this(outputStream, encoding, DeflaterPool.getInstance(level,
+                !Encoding.DEFLATE.equals(encoding)));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param outputStream
+     *            The output stream receiving the encoded content.
+     * @param encoding
+     *            The encoding to apply.
+     * @param pool
+     *            The pool of deflaters to use.
+     * @throws IOException
+     */
+    private EncoderOutputStream(OutputStream outputStream, Encoding encoding,
+            DeflaterPool pool) throws IOException {
+        super(outputStream, pool.checkout(), IoUtils.BUFFER_SIZE);
+        this.pool = pool;
+        this.finished = false;
+        this.released = false;
+
+        if (Encoding.GZIP.equals(encoding)) {
+            this.crc = new CRC32();
+
+            try {
+                this.out.write(GZIP_HEADER);
+            } catch (IOException e) {
+                release();
+                throw e;
+            }
+        } else if (isSupported(encoding)) {
+            this.crc = null;
+        } else {
+            release();
+            throw new IllegalArgumentException("Unsupported encoding: "
+                    + encoding);
+        }
+    }
+
+    /**
+     * Finishes the encoding then closes the underlying output stream. The
+     * deflater is given back to its pool. If the stream was already released,
+     * only the underlying output stream is closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+            this.out.close();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Finishes writing the compressed content to the underlying output stream
+     * without closing it. The deflater is then given back to its pool. Does
+     * nothing if the stream was already released, as the deflater may be used
+     * by another stream.
+     */
+    @Override
+    public void finish() throws IOException {
+        if (!this.finished && !this.released) {
+            this.finished = true;
+
+            try {
+                super.finish();
+
+                if (this.crc != null) {
+                    writeInt((int) this.crc.getValue());
+                    writeInt((int) this.def.getBytesRead());
+                }
+            } finally {
+                release();
+            }
+        }
+    }
+
+    /**
+     * Gives the deflater back to its pool if not already done. This method
+     * should be invoked if the encoding is aborted.
+     */
+    public void release() {
+        if (!this.released) {
+            this.released = true;
+            this.pool.checkin(this.def);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (this.finished) {
+            throw new IOException("Encoded stream already finished");
+        } else if (this.released) {
+            throw new IOException("Encoded stream already released");
+        }
+
+        super.write(b, off, len);
+
+        if (this.crc != null) {
+            this.crc.update(b, off, len);
+        }
+    }
+
+    /**
+     * Writes a 32-bit integer in little-endian order.
+     * 
+     * @param value
+     *            The value to write.
+     * @throws IOException
+     */
+    private void writeInt(int value) throws IOException {
+        this.out.write(value & 0xff);
+        this.out.write((value >> 8) & 0xff);
+        this.out.write((value >> 16) & 0xff);
+        this.out.write((value >> 24) & 0xff);
+    }
+
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.application;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Inflater;
+
+import org.restlet.engine.util.Pool;
+
+// [excludes gwt]
+/**
+ * Bounded pool of {@link Inflater} instances sharing the same wrapping mode.
+ * Checked in inflaters are reset so that their native zlib state can be reused
+ * by the next decoding, or ended if the pool is full.
+ * 
+ * @author Jerome Louvel
+ */
+public class InflaterPool extends Pool<Inflater> {
+
+    /** The default maximum number of idle inflaters kept by each pool. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /** The shared pool of inflaters expecting ZLIB header and checksum. */
+    private static final InflaterPool wrapPool = new InflaterPool(false,
+            DEFAULT_CAPACITY);
+
+    /** The shared pool of inflaters without ZLIB header and checksum. */
+    private static final InflaterPool nowrapPool = new InflaterPool(true,
+            DEFAULT_CAPACITY);
+
+    /**
+     * Returns the shared pool for the given wrapping mode.
+     * 
+     * @param nowrap
+     *            True if the ZLIB header and checksum fields are omitted.
+     * @return The shared pool.
+     */
+    public static InflaterPool getInstance(boolean nowrap) {
+        return nowrap ? nowrapPool : wrapPool;
+    }
+
+    /** The maximum number of idle inflaters kept. */
+    private final int capacity;
+
+    /** True if the ZLIB header and checksum fields are omitted. */
+    private final boolean nowrap;
+
+    /** The current number of idle inflaters. */
+    private final AtomicInteger size;
+
+    /**
+     * Constructor.
+     * 
+     * @param nowrap
+     *            True if the ZLIB header and checksum fields are omitted.
+     * @param capacity
+     *            The maximum number of idle inflaters kept.
+     */
+    public InflaterPool(boolean nowrap, int capacity) {
+        super();
+        this.capacity = capacity;
+        this.nowrap = nowrap;
+        this.size = new AtomicInteger();
+    }
+
+    /**
+     * Checks in an inflater into the pool. The inflater is ended if the pool is
+     * full.
+     * 
+     * @param inflater
+     *            The inflater to check in.
+     */
+    @Override
+    public void checkin(Inflater inflater) {
+        if (inflater != null) {
+            if (this.size.incrementAndGet() <= this.capacity) {
+                super.checkin(inflater);
+            } else {
+                this.size.decrementAndGet();
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Checks out an inflater from the pool. Creates a new one if the pool is
+     * empty.
+     * 
+     * @return An inflater from the pool.
+     */
+    @Override
+    public Inflater checkout() {
+        Inflater result = getStore().poll();
+
+        if (result == null) {
+            result = createObject();
+        } else {
+            this.size.decrementAndGet();
+        }
+
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        for (Inflater inflater = getStore().poll(); inflater != null; inflater = getStore()
+                .poll()) {
+            this.size.decrementAndGet();
+            inflater.end();
+        }
+    }
+
+    /**
+     * Resets the inflater so that it can be reused.
+     * 
+     * @param inflater
+     *            The inflater to reset.
+     */
+    @Override
+    protected void clear(Inflater inflater) {
+        inflater.reset();
+    }
+
+    @Override
+    protected Inflater createObject() {
+        return new Inflater(this.nowrap);
+    }
+
+    /**
+     * Returns the maximum number of idle inflaters kept.
+     * 
+     * @return The maximum number of idle inflaters kept.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the current number of idle inflaters.
+     * 
+     * @return The current number of idle inflaters.
+     */
+    public int getSize() {
+        return this.size.get();
+    }
+
+}
@@ -36,6 +36,7 @@ import java.util.concurrent.TimeUnit;
 import org.restlet.Server;
 import org.restlet.engine.adapter.HttpServerHelper;
 import org.restlet.engine.log.LoggingThreadFactory;
+import org.restlet.engine.util.ThreadPerTaskExecutor;
 
 /**
  * Abstract Internal web server connector based on com.sun.net.httpserver
@@ -82,6 +83,24 @@ import org.restlet.engine.log.LoggingThreadFactory;
  * <td>300 000</td>
  * <td>Time for an idle thread to wait for an operation before being collected.</td>
  * </tr>
+ * <tr>
+ * <td>virtualThreads</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if each call should be dispatched on its own thread, virtual
+ * if supported by the JVM, instead of using a bounded pool of worker threads.
+ * In this mode, the "minThreads", "maxThreads" and "maxQueued" parameters are
+ * ignored and the number of calls serviced concurrently is limited by the
+ * "maxConcurrentCalls" parameter. Calls above this limit wait for a running
+ * call to complete.</td>
+ * </tr>
+ * <tr>
+ * <td>maxConcurrentCalls</td>
+ * <td>int</td>
+ * <td>1000</td>
+ * <td>Maximum number of calls serviced concurrently in the virtual threads
+ * mode. A value inferior or equal to 0 means no limit.</td>
+ * </tr>
  * </table>
  * 
  * @author Jerome Louvel
@@ -113,6 +132,11 @@ public abstract class NetServerHelper extends HttpServerHelper {
      * @return The handler service.
      */
     protected ThreadPoolExecutor createThreadPool() {
+        if (isVirtualThreads()) {
+            return new ThreadPerTaskExecutor(getMaxConcurrentCalls(),
+                    new LoggingThreadFactory(getLogger(), true));
+        }
+
         int maxThreads = getMaxThreads();
         int minThreads = getMinThreads();
 
@@ -151,6 +175,17 @@ public abstract class NetServerHelper extends HttpServerHelper {
         return this.address;
     }
 
+    /**
+     * Returns the maximum number of calls serviced concurrently in the virtual
+     * threads mode. A value inferior or equal to 0 means no limit.
+     * 
+     * @return The maximum number of calls serviced concurrently.
+     */
+    public int getMaxConcurrentCalls() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxConcurrentCalls", "1000"));
+    }
+
     /**
      * Returns the maximum number of calls that can be queued if there aren't
      * any worker thread available to service them. If the value is '0', then no
@@ -211,6 +246,17 @@ public abstract class NetServerHelper extends HttpServerHelper {
         return this.confidential;
     }
 
+    /**
+     * Indicates if each call should be dispatched on its own thread, virtual if
+     * supported by the JVM.
+     * 
+     * @return True if each call should be dispatched on its own thread.
+     */
+    public boolean isVirtualThreads() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "virtualThreads", "false"));
+    }
+
     /**
      * Sets the socket address this server is listening to.
      * 
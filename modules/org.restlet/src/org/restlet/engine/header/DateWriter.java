@@ -27,6 +27,7 @@ package org.restlet.engine.header;
 import java.util.Date;
 
 import org.restlet.engine.util.DateUtils;
+import org.restlet.engine.util.HttpDateCodec;
 
 /**
  * Date header writer.
@@ -56,11 +57,20 @@ public class DateWriter {
      * @return The formatted date.
      */
     public static String write(Date date, boolean cookie) {
-        if (cookie) {
-            return DateUtils.format(date, DateUtils.FORMAT_RFC_1036.get(0));
+        String result = null;
+
+        if (date != null) {
+            result = cookie ? HttpDateCodec.formatRfc1036(date.getTime())
+                    : HttpDateCodec.format(date.getTime());
+        }
+
+        if (result == null) {
+            // Fall back to the generic formats
+            result = cookie ? DateUtils.format(date,
+                    DateUtils.FORMAT_RFC_1036.get(0)) : DateUtils.format(date);
         }
 
-        return DateUtils.format(date);
+        return result;
     }
 
 }
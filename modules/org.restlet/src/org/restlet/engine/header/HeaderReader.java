@@ -49,6 +49,8 @@ import org.restlet.data.Encoding;
 import org.restlet.data.Header;
 import org.restlet.data.Parameter;
 import org.restlet.engine.util.DateUtils;
+import org.restlet.engine.util.HttpDateCodec;
+import org.restlet.engine.util.StringUtils;
 import org.restlet.util.NamedValue;
 
 /**
@@ -118,7 +120,8 @@ public class HeaderReader<V> {
     }
 
     /**
-     * Parses a date string.
+     * Parses a date string. Non cookie dates can be expressed in any of the
+     * three HTTP date formats.
      * 
      * @param date
      *            The date string to parse.
@@ -131,7 +134,14 @@ public class HeaderReader<V> {
             return DateUtils.parse(date, DateUtils.FORMAT_RFC_1036);
         }
 
-        return DateUtils.parse(date, DateUtils.FORMAT_RFC_1123);
+        Date result = HttpDateCodec.parse(date);
+
+        if (result == null) {
+            // Fall back to the generic formats
+            result = DateUtils.parse(date, DateUtils.FORMAT_RFC_1123);
+        }
+
+        return result;
     }
 
     /**
@@ -178,17 +188,15 @@ public class HeaderReader<V> {
                     // No more content to read.
                     return result;
                 }
-                next = header.charAt(index++);
-
-                while ((index < header.length()) && isSpace(next)) {
+                while ((index < header.length())
+                        && isSpace(header.charAt(index))) {
                     // Skip any separator space between colon and header value
-                    next = header.charAt(index++);
+                    index++;
                 }
+
                 if (index < header.length()) {
-                    start = index - 1;
-                    
                     // Parse the header value
-                    result.setValue(header.subSequence(start, header.length())
+                    result.setValue(header.subSequence(index, header.length())
                             .toString());
                 }
 
@@ -198,6 +206,59 @@ public class HeaderReader<V> {
         return result;
     }
 
+    /**
+     * Read a header from a line of ISO-8859-1 bytes, without the line
+     * terminator. Return null if the line is empty, indicating the end of
+     * headers.
+     * 
+     * @param line
+     *            The bytes containing the header line.
+     * @param offset
+     *            The start index of the line.
+     * @param length
+     *            The length of the line.
+     * @return The header read or null.
+     * @throws IOException
+     */
+    public static Header readHeader(byte[] line, int offset, int length)
+            throws IOException {
+        Header result = null;
+
+        if (length > 0) {
+            int end = offset + length;
+            int colon = offset;
+
+            // Parse the header name
+            while ((colon < end) && (line[colon] != ':')) {
+                colon++;
+            }
+
+            if (colon == end) {
+                // Colon character is mandatory
+                throw new IOException(
+                        "Unable to parse the header name. End of line reached too early.");
+            }
+
+            String name = StringUtils.getLatin1String(line, offset, colon
+                    - offset);
+            int start = colon + 1;
+
+            while ((start < end) && isSpace(line[start])) {
+                // Skip any separator space between colon and header value
+                start++;
+            }
+
+            if (start < end) {
+                result = new Header(name, StringUtils.getLatin1String(line,
+                        start, end - start));
+            } else {
+                result = new Header(name, null);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Read a header. Return null if the last header was already read.
      * 
@@ -122,7 +122,6 @@ import org.restlet.data.Reference;
 import org.restlet.data.Tag;
 import org.restlet.engine.Engine;
 import org.restlet.engine.util.CaseInsensitiveHashSet;
-import org.restlet.engine.util.DateUtils;
 import org.restlet.engine.util.StringUtils;
 import org.restlet.representation.EmptyRepresentation;
 import org.restlet.representation.Representation;
@@ -754,7 +753,7 @@ public class HeaderUtils {
                                         + header.getValue(), nfe);
                     }
                 } else if (HEADER_DATE.equalsIgnoreCase(header.getName())) {
-                    Date date = DateUtils.parse(header.getValue());
+                    Date date = HeaderReader.readDate(header.getValue(), false);
 
                     if (date == null) {
                         date = new Date();
@@ -763,7 +762,7 @@ public class HeaderUtils {
                     response.setDate(date);
                 } else if (HEADER_RETRY_AFTER.equalsIgnoreCase(header.getName())) {
                     // [ifndef gwt]
-                    Date retryAfter = DateUtils.parse(header.getValue());
+                    Date retryAfter = HeaderReader.readDate(header.getValue(), false);
 
                     if (retryAfter == null) {
                         // The date might be expressed as a number of seconds
@@ -253,20 +253,20 @@ public class PreferenceReader<T extends Metadata> extends
 
             switch (this.type) {
             case TYPE_CHARACTER_SET:
-                result.setMetadata((T) new CharacterSet(metadata.toString()));
+                result.setMetadata((T) CharacterSet.valueOf(metadata.toString()));
                 break;
 
             case TYPE_ENCODING:
-                result.setMetadata((T) new Encoding(metadata.toString()));
+                result.setMetadata((T) Encoding.valueOf(metadata.toString()));
                 break;
 
             case TYPE_LANGUAGE:
-                result.setMetadata((T) new Language(metadata.toString()));
+                result.setMetadata((T) Language.valueOf(metadata.toString()));
                 break;
 
             case TYPE_MEDIA_TYPE:
             case TYPE_PATCH:
-                result.setMetadata((T) new MediaType(metadata.toString(),
+                result.setMetadata((T) MediaType.valueOf(metadata.toString(),
                         mediaParams));
                 break;
             }
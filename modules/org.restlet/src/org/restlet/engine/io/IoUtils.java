@@ -43,6 +43,12 @@ import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import org.restlet.Context;
@@ -59,6 +65,21 @@ import org.restlet.representation.Representation;
  */
 public class IoUtils {
 
+    // [ifndef gwt] member
+    /**
+     * The maximum number of pooled threads used to bridge write-oriented
+     * representations to readable streams or channels when no executor service
+     * is available in the current context. It looks for the System property
+     * "org.restlet.engine.io.bridgeThreads" and if not defined, uses the "32"
+     * default value.
+     */
+    public static final int BRIDGE_THREADS = getProperty(
+            "org.restlet.engine.io.bridgeThreads", 32);
+
+    // [ifndef gwt] member
+    /** The lazily created pool of bridging threads. */
+    private static volatile ThreadPoolExecutor bridgeExecutor;
+
     /**
      * The size to use when instantiating buffered items such as instances of
      * the {@link BufferedReader} class. It looks for the System property
@@ -265,6 +286,69 @@ public class IoUtils {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Executes a task that bridges a write-oriented representation to a
+     * readable stream or channel. The executor service of the current context
+     * is used if available. Otherwise, the task runs on a bounded pool of
+     * daemon threads which are reused across conversions. When all pooled
+     * threads are busy, a dedicated thread is started instead, because
+     * queueing the task could leave its reader waiting for the pipe.
+     * 
+     * @param task
+     *            The task to execute.
+     */
+    private static void execute(final Runnable task) {
+        org.restlet.Context context = org.restlet.Context.getCurrent();
+
+        if (context != null && context.getExecutorService() != null) {
+            context.getExecutorService().execute(task);
+        } else {
+            // [ifndef gae]
+            // Save the thread local variables
+            final org.restlet.Application currentApplication = org.restlet.Application
+                    .getCurrent();
+            final Context currentContext = Context.getCurrent();
+            final Integer currentVirtualHost = org.restlet.routing.VirtualHost
+                    .getCurrent();
+            final org.restlet.Response currentResponse = org.restlet.Response
+                    .getCurrent();
+            final ClassLoader currentClassLoader = Thread.currentThread()
+                    .getContextClassLoader();
+
+            try {
+                getBridgeExecutor().execute(new Runnable() {
+                    public void run() {
+                        // Copy the thread local variables
+                        org.restlet.Response.setCurrent(currentResponse);
+                        Context.setCurrent(currentContext);
+                        org.restlet.routing.VirtualHost
+                                .setCurrent(currentVirtualHost);
+                        org.restlet.Application.setCurrent(currentApplication);
+                        ClassLoader tccl = Thread.currentThread()
+                                .getContextClassLoader();
+
+                        try {
+                            // Run the bridging task
+                            Thread.currentThread().setContextClassLoader(
+                                    currentClassLoader);
+                            task.run();
+                        } finally {
+                            Engine.clearThreadLocalVariables();
+                            Thread.currentThread().setContextClassLoader(tccl);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException ree) {
+                Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils")
+                        .start();
+            }
+            // [enddef]
+            // [ifdef gae] instruction uncomment
+            // Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils").start();
+        }
+    }
+
     // [ifndef gwt] method
     /**
      * Exhaust the content of the representation by reading it and silently
@@ -326,6 +410,45 @@ public class IoUtils {
         // return representation.getSize();
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns the pool of bridging threads, creating it if needed. It has no
+     * core thread, keeps idle threads alive for one minute and hands tasks
+     * off directly, rejecting them once {@link #BRIDGE_THREADS} threads are
+     * busy.
+     * 
+     * @return The pool of bridging threads.
+     */
+    private static ThreadPoolExecutor getBridgeExecutor() {
+        ThreadPoolExecutor result = bridgeExecutor;
+
+        if (result == null) {
+            synchronized (IoUtils.class) {
+                result = bridgeExecutor;
+
+                if (result == null) {
+                    result = new ThreadPoolExecutor(0, BRIDGE_THREADS, 60L,
+                            TimeUnit.SECONDS,
+                            new SynchronousQueue<Runnable>(),
+                            new ThreadFactory() {
+                                private final AtomicInteger count = new AtomicInteger();
+
+                                public Thread newThread(Runnable runnable) {
+                                    Thread t = new Thread(runnable,
+                                            "Restlet-IoUtils-"
+                                                    + count.incrementAndGet());
+                                    t.setDaemon(true);
+                                    return t;
+                                }
+                            });
+                    bridgeExecutor = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
     // [ifndef gwt] method
     /**
      * Returns a readable byte channel based on a given input stream. If it is
@@ -407,14 +530,7 @@ public class IoUtils {
                 }
             };
 
-            org.restlet.Context context = org.restlet.Context.getCurrent();
-
-            if (context != null && context.getExecutorService() != null) {
-                context.getExecutorService().execute(task);
-            } else {
-                Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils")
-                        .start();
-            }
+            execute(task);
 
             result = pipe.source();
             // [enddef]
@@ -499,14 +615,7 @@ public class IoUtils {
             }
         };
 
-        org.restlet.Context context = org.restlet.Context.getCurrent();
-
-        if (context != null && context.getExecutorService() != null) {
-            context.getExecutorService().execute(task);
-        } else {
-            Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils")
-                    .start();
-        }
+        execute(task);
 
         result = pipedReader;
 
@@ -614,14 +723,7 @@ public class IoUtils {
             }
         };
 
-        org.restlet.Context context = org.restlet.Context.getCurrent();
-
-        if (context != null && context.getExecutorService() != null) {
-            context.getExecutorService().execute(task);
-        } else {
-            Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils")
-                    .start();
-        }
+        execute(task);
 
         result = pipe.getInputStream();
 
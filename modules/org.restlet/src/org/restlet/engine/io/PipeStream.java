@@ -34,21 +34,98 @@ import java.util.concurrent.TimeUnit;
 // [excludes gwt]
 /**
  * Pipe stream that pipes output streams into input streams. Implementation
- * based on a shared synchronized queue.
+ * based on a shared ring buffer of bytes. Writers wait while the buffer is
+ * full and readers wait while it is empty, so that a fast producer can't get
+ * ahead of its consumer by more than the buffer size. Ring buffers are
+ * recycled once the end of the pipe has been read or when the input stream is
+ * closed.
  * 
  * @author Jerome Louvel
  */
 public class PipeStream {
 
+    /** The pool of recycled ring buffers. */
+    private static final BlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<byte[]>(
+            16);
+
     /** The queue timeout. */
     private static final long QUEUE_TIMEOUT = 5;
 
-    /** The supporting synchronized queue. */
-    private final BlockingQueue<Integer> queue;
+    /** The ring buffer, or null once recycled. */
+    private byte[] buffer;
+
+    /** The number of bytes available in the ring buffer. */
+    private int count;
+
+    /** Indicates if the input stream was closed. */
+    private boolean inputClosed;
+
+    /** Indicates if the output stream was closed. */
+    private boolean outputClosed;
+
+    /** The index of the next byte to read in the ring buffer. */
+    private int readIndex;
 
     /** Constructor. */
     public PipeStream() {
-        this.queue = new ArrayBlockingQueue<Integer>(1024);
+        byte[] recycled = BUFFERS.poll();
+        this.buffer = (recycled == null) ? new byte[IoUtils.BUFFER_SIZE]
+                : recycled;
+        this.count = 0;
+        this.inputClosed = false;
+        this.outputClosed = false;
+        this.readIndex = 0;
+    }
+
+    /**
+     * Returns the number of bytes that can be read without waiting.
+     * 
+     * @return The number of bytes that can be read without waiting.
+     */
+    private synchronized int available() {
+        return this.count;
+    }
+
+    /**
+     * Waits until the state of the pipe changes or the queue timeout expires.
+     * 
+     * @param deadline
+     *            The deadline, as returned by {@link System#nanoTime()}.
+     * @param message
+     *            The message of the exception thrown on timeout.
+     * @throws IOException
+     */
+    private void await(long deadline, String message) throws IOException {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline
+                - System.nanoTime());
+
+        if (remaining <= 0) {
+            throw new IOException(message);
+        }
+
+        try {
+            wait(remaining);
+        } catch (InterruptedException ie) {
+            throw new IOException(
+                    "Interruption occurred while waiting for the pipe");
+        }
+    }
+
+    /**
+     * Closes the input side of the pipe and recycles the ring buffer.
+     */
+    private synchronized void closeInput() {
+        this.inputClosed = true;
+        recycle();
+        notifyAll();
+    }
+
+    /**
+     * Closes the output side of the pipe.
+     */
+    private synchronized void closeOutput() {
+        this.outputClosed = true;
+        notifyAll();
     }
 
     /**
@@ -58,29 +135,28 @@ public class PipeStream {
      */
     public InputStream getInputStream() {
         return new InputStream() {
-            private boolean endReached = false;
+            /** The buffer used to read a single byte. */
+            private final byte[] single = new byte[1];
+
+            @Override
+            public int available() throws IOException {
+                return PipeStream.this.available();
+            }
+
+            @Override
+            public void close() throws IOException {
+                closeInput();
+            }
 
             @Override
             public int read() throws IOException {
-                try {
-                    if (this.endReached) {
-                        return -1;
-                    }
-
-                    final Integer value = queue.poll(QUEUE_TIMEOUT,
-                            TimeUnit.SECONDS);
-
-                    if (value == null) {
-                        throw new IOException(
-                                "Timeout while reading from the queue-based input stream");
-                    } else {
-                        this.endReached = (value == -1);
-                        return value.intValue();
-                    }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
-                }
+                int result = read(this.single, 0, 1);
+                return (result == -1) ? -1 : (this.single[0] & 0xff);
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return PipeStream.this.read(b, off, len);
             }
         };
     }
@@ -93,31 +169,121 @@ public class PipeStream {
     public OutputStream getOutputStream() {
         return new OutputStream() {
             @Override
-            public void write(int b) throws IOException {
-                try {
-                    if (!queue.offer(b & 0xff, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
-                        throw new IOException(
-                                "Timeout while writing to the queue-based output stream");
-                    }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
-                }
+            public void close() throws IOException {
+                closeOutput();
             }
 
             @Override
-            public void close() throws IOException {
-                try {
-                    if (!queue.offer(-1, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
-                        throw new IOException(
-                                "Timeout while writing to the queue-based output stream");
-                    }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
-                }
+            public void write(byte[] b, int off, int len) throws IOException {
+                PipeStream.this.write(b, off, len);
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                PipeStream.this.write(new byte[] { (byte) b }, 0, 1);
             }
         };
     }
 
+    /**
+     * Reads bytes from the pipe, waiting until at least one byte is available
+     * or until the end of the pipe is reached.
+     * 
+     * @param b
+     *            The target byte array.
+     * @param off
+     *            The start offset in the target array.
+     * @param len
+     *            The maximum number of bytes to read.
+     * @return The number of bytes read or -1 if the end was reached.
+     * @throws IOException
+     */
+    private synchronized int read(byte[] b, int off, int len)
+            throws IOException {
+        if (this.inputClosed) {
+            throw new IOException("The pipe input stream is closed");
+        }
+
+        if (len == 0) {
+            return 0;
+        }
+
+        long deadline = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(QUEUE_TIMEOUT);
+
+        while (this.count == 0) {
+            if (this.outputClosed) {
+                recycle();
+                return -1;
+            }
+
+            await(deadline,
+                    "Timeout while reading from the queue-based input stream");
+        }
+
+        int result = Math.min(len, this.count);
+        int first = Math.min(result, this.buffer.length - this.readIndex);
+        System.arraycopy(this.buffer, this.readIndex, b, off, first);
+        System.arraycopy(this.buffer, 0, b, off + first, result - first);
+        this.readIndex = (this.readIndex + result) % this.buffer.length;
+        this.count -= result;
+        notifyAll();
+        return result;
+    }
+
+    /**
+     * Returns the ring buffer to the pool, if not already done. Must be called
+     * while holding the pipe lock.
+     */
+    private void recycle() {
+        if (this.buffer != null) {
+            BUFFERS.offer(this.buffer);
+            this.buffer = null;
+            this.count = 0;
+        }
+    }
+
+    /**
+     * Writes bytes to the pipe, waiting while the ring buffer is full.
+     * 
+     * @param b
+     *            The source byte array.
+     * @param off
+     *            The start offset in the source array.
+     * @param len
+     *            The number of bytes to write.
+     * @throws IOException
+     */
+    private synchronized void write(byte[] b, int off, int len)
+            throws IOException {
+        if (this.outputClosed) {
+            throw new IOException("The pipe output stream is closed");
+        }
+
+        while (len > 0) {
+            long deadline = System.nanoTime()
+                    + TimeUnit.SECONDS.toNanos(QUEUE_TIMEOUT);
+
+            while (!this.inputClosed && (this.count == this.buffer.length)) {
+                await(deadline,
+                        "Timeout while writing to the queue-based output stream");
+            }
+
+            if (this.inputClosed) {
+                throw new IOException("The pipe was closed by its reader");
+            }
+
+            int writeIndex = (this.readIndex + this.count)
+                    % this.buffer.length;
+            int written = Math.min(len, this.buffer.length - this.count);
+            int first = Math.min(written, this.buffer.length - writeIndex);
+            System.arraycopy(b, off, this.buffer, writeIndex, first);
+            System.arraycopy(b, off + first, this.buffer, 0, written - first);
+            this.count += written;
+            off += written;
+            len -= written;
+            notifyAll();
+        }
+    }
+
 }
@@ -24,6 +24,7 @@
 
 package org.restlet.engine.local;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -32,16 +33,24 @@ import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.logging.Level;
+import java.util.zip.Deflater;
 
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
+import org.restlet.data.Dimension;
+import org.restlet.data.Encoding;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
+import org.restlet.data.Preference;
 import org.restlet.data.Reference;
 import org.restlet.data.ReferenceList;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
+import org.restlet.engine.application.EncodeRepresentation;
 import org.restlet.engine.util.StringUtils;
+import org.restlet.representation.ByteArrayRepresentation;
+import org.restlet.representation.FileRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Directory;
@@ -60,6 +69,17 @@ import org.restlet.resource.ServerResource;
  */
 public class DirectoryServerResource extends ServerResource {
 
+    /** The encodings applied by the encoded cache, by order of preference. */
+    private static final Encoding[] CACHED_ENCODINGS = { Encoding.GZIP,
+            Encoding.DEFLATE };
+
+    /** The encodings of precompressed files, by order of preference. */
+    private static final Encoding[] PRECOMPRESSED_ENCODINGS = {
+            Encoding.BROTLI, Encoding.GZIP };
+
+    /** The extensions of precompressed files, matching their encodings. */
+    private static final String[] PRECOMPRESSED_EXTENSIONS = { ".br", ".gz" };
+
     /** The list of variants for the GET method. */
     private volatile List<Variant> variantsGet;
 
@@ -389,7 +409,7 @@ public class DirectoryServerResource extends ServerResource {
         }
 
         if (variants.size() == 1) {
-            return (Representation) variants.get(0);
+            return getEncodedRepresentation((Representation) variants.get(0));
         }
 
         ReferenceList variantRefs = new ReferenceList();
@@ -413,6 +433,26 @@ public class DirectoryServerResource extends ServerResource {
         throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND);
     }
 
+    /**
+     * Returns the quality with which the client accepts a given encoding.
+     * 
+     * @param encoding
+     *            The encoding.
+     * @return The quality or 0 if the encoding isn't accepted.
+     */
+    private float getAcceptedQuality(Encoding encoding) {
+        float result = 0F;
+
+        for (Preference<Encoding> pref : getClientInfo().getAcceptedEncodings()) {
+            if ((pref.getMetadata().equals(Encoding.ALL) || pref.getMetadata()
+                    .equals(encoding)) && (pref.getQuality() > result)) {
+                result = pref.getQuality();
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the local base name of the file. For example, "foo.en" and
      * "foo.en-GB.html" return "foo".
@@ -459,6 +499,148 @@ public class DirectoryServerResource extends ServerResource {
         return this.directoryUri;
     }
 
+    /**
+     * Returns an encoded version of a file representation if the client accepts
+     * it. A precompressed sibling file is returned first if the parent
+     * directory serves them, otherwise the encoded content is retrieved from
+     * the directory's encoded cache, if any.
+     * 
+     * @param representation
+     *            The representation to encode.
+     * @return The encoded representation or the original one.
+     * @see Directory#isServingPrecompressed()
+     * @see Directory#getEncodedCache()
+     */
+    protected Representation getEncodedRepresentation(
+            Representation representation) {
+        Representation result = representation;
+
+        if (!(representation instanceof FileRepresentation)
+                || !representation.getEncodings().isEmpty()) {
+            return result;
+        }
+
+        File file = ((FileRepresentation) representation).getFile();
+        Encoding encoding = null;
+
+        if (getDirectory().isServingPrecompressed()) {
+            float bestQuality = 0F;
+
+            for (int i = 0; i < PRECOMPRESSED_ENCODINGS.length; i++) {
+                float quality = getAcceptedQuality(PRECOMPRESSED_ENCODINGS[i]);
+
+                if (quality > bestQuality) {
+                    File sibling = new File(file.getPath()
+                            + PRECOMPRESSED_EXTENSIONS[i]);
+
+                    // Ignore stale precompressed files
+                    if (sibling.isFile()
+                            && (sibling.lastModified() >= file.lastModified())) {
+                        bestQuality = quality;
+                        encoding = PRECOMPRESSED_ENCODINGS[i];
+                        result = new FileRepresentation(sibling,
+                                representation.getMediaType());
+                    }
+                }
+            }
+        }
+
+        EncodedEntityCache cache = getDirectory().getEncodedCache();
+
+        if ((encoding == null)
+                && (cache != null)
+                && ((getApplication() == null) || getApplication()
+                        .getEncoderService().canEncode(representation))) {
+            float bestQuality = 0F;
+
+            for (Encoding cachedEncoding : CACHED_ENCODINGS) {
+                float quality = getAcceptedQuality(cachedEncoding);
+
+                if (quality > bestQuality) {
+                    bestQuality = quality;
+                    encoding = cachedEncoding;
+                }
+            }
+
+            if (encoding != null) {
+                try {
+                    int level = Deflater.DEFAULT_COMPRESSION;
+
+                    if (getApplication() != null) {
+                        level = getApplication().getEncoderService()
+                                .getCompressionLevel();
+                    }
+
+                    byte[] content = cache.encode(file.getAbsolutePath(),
+                            file.lastModified(), encoding, representation,
+                            level);
+
+                    if (content == null) {
+                        // Too large to be cached, encode it on the fly. The
+                        // wrapper delegates its metadata, so wrap a distinct
+                        // file representation.
+                        result = new EncodeRepresentation(encoding,
+                                new FileRepresentation(file,
+                                        representation.getMediaType()), level);
+                    } else {
+                        result = new ByteArrayRepresentation(content,
+                                representation.getMediaType(), content.length);
+                    }
+                } catch (IOException e) {
+                    getLogger().log(Level.WARNING,
+                            "Unable to encode the file: " + file, e);
+                    encoding = null;
+                }
+            }
+        }
+
+        if (encoding != null) {
+            result.setCharacterSet(representation.getCharacterSet());
+            result.setDisposition(representation.getDisposition());
+
+            // Encoding wrappers already declare their encoding
+            if (!result.getEncodings().contains(encoding)) {
+                result.getEncodings().add(encoding);
+            }
+
+            result.setExpirationDate(representation.getExpirationDate());
+            result.getLanguages().addAll(representation.getLanguages());
+            result.setLocationRef(representation.getLocationRef());
+            result.setModificationDate(representation.getModificationDate());
+
+            if (representation.getTag() != null) {
+                // Each encoding is a distinct entity
+                result.setTag(new Tag(representation.getTag().getName() + "-"
+                        + encoding.getName(), representation.getTag().isWeak()));
+            }
+
+            getDimensions().add(Dimension.ENCODING);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the preferred variant. For safe methods, a file representation
+     * is replaced by its encoded version if the client accepts it, so that the
+     * request conditions are evaluated against the tag of the encoded entity.
+     * 
+     * @param variants
+     *            The available variants.
+     * @return The preferred variant.
+     * @see #getEncodedRepresentation(Representation)
+     */
+    @Override
+    protected Variant getPreferredVariant(List<Variant> variants) {
+        Variant result = super.getPreferredVariant(variants);
+
+        if ((result instanceof Representation) && getMethod().isSafe()) {
+            result = getEncodedRepresentation((Representation) result);
+        }
+
+        return result;
+    }
+
     /**
      * Returns a representation of the resource at the target URI. Leverages the
      * client dispatcher of the parent directory's context.
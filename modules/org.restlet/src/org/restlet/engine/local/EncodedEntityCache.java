@@ -0,0 +1,493 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.local;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+import org.restlet.data.Encoding;
+import org.restlet.engine.application.EncodeRepresentation;
+import org.restlet.engine.util.SystemUtils;
+import org.restlet.representation.InputRepresentation;
+import org.restlet.representation.Representation;
+
+/**
+ * Least recently used cache of encoded entities, typically static files served
+ * by a {@link org.restlet.resource.Directory}. Entries are keyed by the path of
+ * the entity, its modification time, the applied encoding and the compression
+ * level, so that updated files are transparently encoded again while stale
+ * entries are evicted over time.<br>
+ * <br>
+ * The cache is bounded by the total size in bytes of the encoded content it
+ * holds. The encoding of entities whose encoded size exceeds the maximum entry
+ * size is aborted as soon as this size is reached, so that they can be encoded
+ * on the fly instead. Such entities are remembered, so that they aren't
+ * partially encoded again for each request.<br>
+ * <br>
+ * Concurrency note: instances of this class are thread-safe. Concurrent misses
+ * for the same entry might encode the entity several times.
+ * 
+ * @author Jerome Louvel
+ */
+public class EncodedEntityCache {
+
+    /**
+     * Output stream buffering content up to a maximum size. Writing beyond
+     * this size throws a {@link SizeExceededException}.
+     */
+    private static final class BoundedOutputStream extends OutputStream {
+
+        /** The buffered content. */
+        private final ByteArrayOutputStream buffer;
+
+        /** The maximum size in bytes. */
+        private final long maxSize;
+
+        /**
+         * Constructor.
+         * 
+         * @param maxSize
+         *            The maximum size in bytes.
+         */
+        public BoundedOutputStream(long maxSize) {
+            this.buffer = new ByteArrayOutputStream();
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Checks that the given number of bytes can be written.
+         * 
+         * @param length
+         *            The number of bytes to write.
+         * @throws SizeExceededException
+         */
+        private void check(int length) throws SizeExceededException {
+            if (this.buffer.size() + (long) length > this.maxSize) {
+                throw new SizeExceededException();
+            }
+        }
+
+        /**
+         * Returns the buffered content.
+         * 
+         * @return The buffered content.
+         */
+        public byte[] toByteArray() {
+            return this.buffer.toByteArray();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            check(len);
+            this.buffer.write(b, off, len);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            check(1);
+            this.buffer.write(b);
+        }
+    }
+
+    /** Key of a cached entry. */
+    private static final class Key {
+
+        /** The applied encoding. */
+        private final Encoding encoding;
+
+        /** The compression level. */
+        private final int level;
+
+        /** The modification time of the source entity. */
+        private final long modificationTime;
+
+        /** The path of the source entity. */
+        private final String path;
+
+        /**
+         * Constructor.
+         * 
+         * @param path
+         *            The path of the source entity.
+         * @param modificationTime
+         *            The modification time of the source entity.
+         * @param encoding
+         *            The applied encoding.
+         * @param level
+         *            The compression level.
+         */
+        public Key(String path, long modificationTime, Encoding encoding,
+                int level) {
+            this.path = path;
+            this.modificationTime = modificationTime;
+            this.encoding = encoding;
+            this.level = level;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+            return (this.modificationTime == other.modificationTime)
+                    && (this.level == other.level)
+                    && this.path.equals(other.path)
+                    && this.encoding.equals(other.encoding);
+        }
+
+        @Override
+        public int hashCode() {
+            return SystemUtils.hashCode(this.path,
+                    Long.valueOf(this.modificationTime), this.encoding,
+                    Integer.valueOf(this.level));
+        }
+    }
+
+    /** Thrown when the encoded content exceeds the maximum entry size. */
+    private static final class SizeExceededException extends IOException {
+
+        /** The serialization unique identifier. */
+        private static final long serialVersionUID = 1L;
+    }
+
+    /** The default capacity in bytes. */
+    public static final long DEFAULT_CAPACITY = 16L * 1024L * 1024L;
+
+    /** The default maximum size in bytes of a single entry. */
+    public static final long DEFAULT_MAX_ENTRY_SIZE = 1024L * 1024L;
+
+    /** The maximum number of remembered entities too large to be cached. */
+    private static final int MAX_OVERSIZED_COUNT = 1024;
+
+    /** The capacity in bytes. */
+    private final long capacity;
+
+    /** The cached entries, in access order. */
+    private final LinkedHashMap<Key, byte[]> entries;
+
+    /** The number of cache hits. */
+    private final AtomicLong hits;
+
+    /** The maximum size in bytes of a single entry. */
+    private final long maxEntrySize;
+
+    /** The number of cache misses. */
+    private final AtomicLong misses;
+
+    /** The keys of the entities too large to be cached, in access order. */
+    private final LinkedHashMap<Key, Boolean> oversized;
+
+    /** The current size in bytes. */
+    private long size;
+
+    /**
+     * Constructor using the default capacity and maximum entry size.
+     */
+    public EncodedEntityCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_ENTRY_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity
+     *            The capacity in bytes.
+     * @param maxEntrySize
+     *            The maximum size in bytes of a single entry.
+     */
+    public EncodedEntityCache(long capacity, long maxEntrySize) {
+        this.capacity = capacity;
+        this.maxEntrySize = Math.min(capacity, maxEntrySize);
+        this.entries = new LinkedHashMap<Key, byte[]>(16, 0.75F, true);
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.oversized = new LinkedHashMap<Key, Boolean>(16, 0.75F, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<Key, Boolean> eldest) {
+                return size() > MAX_OVERSIZED_COUNT;
+            }
+        };
+        this.size = 0L;
+    }
+
+    /**
+     * Removes all the cached entries.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.oversized.clear();
+        this.size = 0L;
+    }
+
+    /**
+     * Returns the encoded content of an entity, encoding and caching it if
+     * needed. Returns null if the encoded content exceeds the maximum entry
+     * size, in which case the entity should be encoded on the fly.
+     * 
+     * @param path
+     *            The path of the source entity.
+     * @param modificationTime
+     *            The modification time of the source entity.
+     * @param encoding
+     *            The encoding to apply.
+     * @param entity
+     *            The source entity.
+     * @return The encoded content or null.
+     * @throws IOException
+     */
+    public byte[] encode(String path, long modificationTime,
+            Encoding encoding, Representation entity) throws IOException {
+        return encode(path, modificationTime, encoding, entity,
+                Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Returns the encoded content of an entity, encoding and caching it if
+     * needed. Returns null if the encoded content exceeds the maximum entry
+     * size, in which case the entity should be encoded on the fly. The
+     * encoding is then aborted as soon as this size is reached, and the entity
+     * is not encoded again by later calls.
+     * 
+     * @param path
+     *            The path of the source entity.
+     * @param modificationTime
+     *            The modification time of the source entity.
+     * @param encoding
+     *            The encoding to apply.
+     * @param entity
+     *            The source entity.
+     * @param level
+     *            The compression level.
+     * @return The encoded content or null.
+     * @throws IOException
+     */
+    public byte[] encode(String path, long modificationTime,
+            Encoding encoding, Representation entity, int level)
+            throws IOException {
+        Key key = new Key(path, modificationTime, encoding, level);
+        byte[] result = get(key);
+
+        if ((result == null) && !isOversized(key)) {
+            BoundedOutputStream out = new BoundedOutputStream(
+                    this.maxEntrySize);
+
+            // Close the source stream even if the encoding is aborted
+            InputStream in = entity.getStream();
+
+            try {
+                new EncodeRepresentation(encoding, new InputRepresentation(in,
+                        entity.getMediaType()), level).write(out);
+                result = out.toByteArray();
+                put(key, result);
+            } catch (SizeExceededException e) {
+                // Too large to be cached
+                synchronized (this) {
+                    this.oversized.put(key, Boolean.TRUE);
+                }
+
+                result = null;
+            } finally {
+                if (in != null) {
+                    in.close();
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the cached encoded content of an entity.
+     * 
+     * @param path
+     *            The path of the source entity.
+     * @param modificationTime
+     *            The modification time of the source entity.
+     * @param encoding
+     *            The applied encoding.
+     * @param level
+     *            The compression level.
+     * @return The encoded content or null.
+     */
+    public byte[] get(String path, long modificationTime, Encoding encoding,
+            int level) {
+        return get(new Key(path, modificationTime, encoding, level));
+    }
+
+    /**
+     * Returns the cached encoded content of an entity.
+     * 
+     * @param key
+     *            The key of the entry.
+     * @return The encoded content or null.
+     */
+    private byte[] get(Key key) {
+        byte[] result;
+
+        synchronized (this) {
+            result = this.entries.get(key);
+        }
+
+        if (result == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the capacity in bytes.
+     * 
+     * @return The capacity in bytes.
+     */
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     * 
+     * @return The number of cached entries.
+     */
+    public synchronized int getCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the number of cache hits.
+     * 
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the maximum size in bytes of a single entry.
+     * 
+     * @return The maximum size in bytes of a single entry.
+     */
+    public long getMaxEntrySize() {
+        return this.maxEntrySize;
+    }
+
+    /**
+     * Indicates if an entity was found too large to be cached.
+     * 
+     * @param key
+     *            The key of the entry.
+     * @return True if the entity was found too large to be cached.
+     */
+    private synchronized boolean isOversized(Key key) {
+        return this.oversized.containsKey(key);
+    }
+
+    /**
+     * Returns the number of cache misses.
+     * 
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the current size in bytes of the cached content.
+     * 
+     * @return The current size in bytes of the cached content.
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Caches the encoded content of an entity, evicting the least recently
+     * used entries if needed. Content larger than the maximum entry size is
+     * ignored.
+     * 
+     * @param path
+     *            The path of the source entity.
+     * @param modificationTime
+     *            The modification time of the source entity.
+     * @param encoding
+     *            The applied encoding.
+     * @param level
+     *            The compression level.
+     * @param content
+     *            The encoded content.
+     */
+    public void put(String path, long modificationTime, Encoding encoding,
+            int level, byte[] content) {
+        put(new Key(path, modificationTime, encoding, level), content);
+    }
+
+    /**
+     * Caches the encoded content of an entity, evicting the least recently
+     * used entries if needed. Content larger than the maximum entry size is
+     * ignored.
+     * 
+     * @param key
+     *            The key of the entry.
+     * @param content
+     *            The encoded content.
+     */
+    private synchronized void put(Key key, byte[] content) {
+        if (content.length <= this.maxEntrySize) {
+            byte[] previous = this.entries.put(key, content);
+
+            if (previous != null) {
+                this.size -= previous.length;
+            }
+
+            this.size += content.length;
+
+            for (Iterator<Map.Entry<Key, byte[]>> iter = this.entries
+                    .entrySet().iterator(); (this.size > this.capacity)
+                    && iter.hasNext();) {
+                this.size -= iter.next().getValue().length;
+                iter.remove();
+            }
+        }
+    }
+
+}
@@ -26,7 +26,11 @@ package org.restlet.engine.resource;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -41,7 +45,9 @@ import org.restlet.service.MetadataService;
 
 // [excludes gwt]
 /**
- * Utilities to manipulate Restlet annotations.
+ * Utilities to manipulate Restlet annotations. The annotation descriptors of a
+ * class are computed once, then cached as immutable lists that can be read
+ * concurrently without locking.
  *
  * @author Jerome Louvel
  */
@@ -50,6 +56,9 @@ public class AnnotationUtils {
     /** Annotation info cache. */
     private static final ConcurrentMap<Class<?>, List<AnnotationInfo>> cache = new ConcurrentHashMap<Class<?>, List<AnnotationInfo>>();
 
+    /** Method annotation info cache, indexed by Restlet method. */
+    private static final ConcurrentMap<Class<?>, Map<Method, List<AnnotationInfo>>> methodCache = new ConcurrentHashMap<Class<?>, Map<Method, List<AnnotationInfo>>>();
+
     /** Current instance. */
     private static AnnotationUtils instance = new AnnotationUtils();
 
@@ -216,6 +225,7 @@ public class AnnotationUtils {
      */
     public void clearCache() {
         cache.clear();
+        methodCache.clear();
     }
 
     /**
@@ -225,13 +235,20 @@ public class AnnotationUtils {
      *            The resource class to introspect.
      * @return The list of annotation descriptors.
      */
-    public synchronized List<AnnotationInfo> getAnnotations(Class<?> clazz) {
+    public List<AnnotationInfo> getAnnotations(Class<?> clazz) {
         List<AnnotationInfo> result = cache.get(clazz);
 
         if (result == null) {
             // Inspect the class itself for annotations
             result = addAnnotations(result, clazz, clazz);
 
+            if (result == null) {
+                result = Collections.emptyList();
+            } else {
+                result = Collections
+                        .unmodifiableList(new ArrayList<AnnotationInfo>(result));
+            }
+
             // Put the list in the cache if no one was previously present
             List<AnnotationInfo> prev = cache.putIfAbsent(clazz, result);
 
@@ -256,6 +273,61 @@ public class AnnotationUtils {
         return addMethodAnnotationDescriptors(null, clazz, clazz, javaMethod);
     }
 
+    /**
+     * Returns the method annotation descriptors of the given resource class
+     * that match the given Restlet method, in declaration order. The lookup
+     * table of each class is computed once and then cached.
+     *
+     * @param clazz
+     *            The resource class to introspect.
+     * @param restletMethod
+     *            The Restlet method to match.
+     * @return The list of matching method annotation descriptors.
+     */
+    public List<AnnotationInfo> getMethodAnnotations(Class<?> clazz,
+            Method restletMethod) {
+        Map<Method, List<AnnotationInfo>> table = methodCache.get(clazz);
+
+        if (table == null) {
+            table = new HashMap<Method, List<AnnotationInfo>>();
+
+            for (AnnotationInfo annotationInfo : getAnnotations(clazz)) {
+                if (annotationInfo instanceof MethodAnnotationInfo) {
+                    Method method = ((MethodAnnotationInfo) annotationInfo)
+                            .getRestletMethod();
+                    List<AnnotationInfo> list = table.get(method);
+
+                    if (list == null) {
+                        list = new ArrayList<AnnotationInfo>();
+                        table.put(method, list);
+                    }
+
+                    list.add(annotationInfo);
+                }
+            }
+
+            for (Map.Entry<Method, List<AnnotationInfo>> entry : table
+                    .entrySet()) {
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+            }
+
+            table = Collections.unmodifiableMap(table);
+
+            // Put the table in the cache if no one was previously present
+            Map<Method, List<AnnotationInfo>> prev = methodCache.putIfAbsent(
+                    clazz, table);
+
+            if (prev != null) {
+                // Reuse the previous entry
+                table = prev;
+            }
+        }
+
+        List<AnnotationInfo> result = table.get(restletMethod);
+        return (result == null) ? Collections.<AnnotationInfo> emptyList()
+                : result;
+    }
+
     /**
      * Returns the first annotation descriptor matching the given Java method.
      *
@@ -62,6 +62,9 @@ public class MethodAnnotationInfo extends AnnotationInfo {
     /** The optional query part of the annotation value. */
     private final String query;
 
+    /** The query parameters required by the annotation, parsed once. */
+    private final Form requiredParams;
+
     /** The matching Restlet method. */
     private final Method restletMethod;
 
@@ -108,6 +111,9 @@ public class MethodAnnotationInfo extends AnnotationInfo {
             this.input = null;
             this.output = null;
         }
+
+        this.requiredParams = (this.query == null) ? null : new Form(
+                this.query);
     }
 
     /**
@@ -390,10 +396,8 @@ public class MethodAnnotationInfo extends AnnotationInfo {
         boolean result = true;
 
         // Verify query parameters
-        if (getQuery() != null) {
-            Form requiredParams = new Form(getQuery());
-
-            for (Iterator<Parameter> iter = requiredParams.iterator(); iter
+        if (this.requiredParams != null) {
+            for (Iterator<Parameter> iter = this.requiredParams.iterator(); iter
                     .hasNext() && result;) {
                 result = queryParams.contains(iter.next());
             }
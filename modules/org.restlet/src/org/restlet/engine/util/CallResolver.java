@@ -26,8 +26,6 @@ package org.restlet.engine.util;
 
 import static org.restlet.engine.util.DateUtils.FORMAT_RFC_1123;
 
-import java.util.Date;
-
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.data.ChallengeResponse;
@@ -100,7 +98,7 @@ public class CallResolver extends Resolver<Object> {
             case "crs":
                 return (cr != null && cr.getScheme() != null) ? cr.getScheme().getTechnicalName() : null;
             case "d":
-                return DateUtils.format(new Date(), FORMAT_RFC_1123.get(0));
+                return HttpDateCodec.formatNow();
             case "ecs":
                 return (entity != null && entity.getCharacterSet() != null) ? entity.getCharacterSet().getName() : null;
             case "ee":
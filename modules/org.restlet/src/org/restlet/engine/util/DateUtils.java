@@ -173,6 +173,21 @@ public final class DateUtils {
             throw new IllegalArgumentException("Date is null");
         }
 
+        // Try the fast path for the HTTP date formats
+        String result = null;
+
+        if (FORMAT_RFC_1123.get(0).equals(format)) {
+            result = HttpDateCodec.format(date.getTime());
+        } else if (FORMAT_RFC_1036.get(0).equals(format)) {
+            result = HttpDateCodec.formatRfc1036(date.getTime());
+        } else if (FORMAT_ASC_TIME.get(0).equals(format)) {
+            result = HttpDateCodec.formatAscTime(date.getTime());
+        }
+
+        if (result != null) {
+            return result;
+        }
+
         // [ifndef gwt]
         java.text.DateFormat formatter = null;
 
@@ -236,6 +251,20 @@ public final class DateUtils {
 
         for (int i = 0; (result == null) && (i < formatsSize); i++) {
             format = formats.get(i);
+
+            // Try the fast path for the HTTP date formats
+            if (FORMAT_RFC_1123.get(0).equals(format)) {
+                result = HttpDateCodec.parseRfc1123(date);
+            } else if (FORMAT_RFC_1036.get(0).equals(format)) {
+                result = HttpDateCodec.parseRfc1036(date);
+            } else if (FORMAT_ASC_TIME.get(0).equals(format)) {
+                result = HttpDateCodec.parseAscTime(date);
+            }
+
+            if (result != null) {
+                break;
+            }
+
             // [ifndef gwt]
             java.text.DateFormat parser = null;
 
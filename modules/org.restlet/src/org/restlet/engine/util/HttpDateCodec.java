@@ -0,0 +1,616 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.Date;
+
+/**
+ * Allocation-light codec for the three HTTP date formats defined by RFC 7231:
+ * the preferred RFC 1123 format, the obsolete RFC 850 (RFC 1036) format and
+ * the ANSI C asctime() format. Dates are converted using plain arithmetic on
+ * the proleptic Gregorian calendar in GMT, without relying on
+ * {@link java.text.SimpleDateFormat} or {@link java.util.Calendar}.<br>
+ * <br>
+ * The methods of this class return null when a value can't be handled by the
+ * fast path, for example when a date string doesn't strictly follow the
+ * expected layout or uses another time zone than GMT, or when a date is
+ * located before year 1600 or after year 9999. In this case, callers should
+ * fall back to the generic formats of {@link DateUtils}.<br>
+ * <br>
+ * The RFC 1123 formatted value of the current second is cached, making the
+ * formatting of the "Date" header almost free.
+ * 
+ * @author Jerome Louvel
+ */
+public final class HttpDateCodec {
+
+    /** Immutable value of a formatted second. */
+    private static final class FormattedSecond {
+
+        /** The formatted value. */
+        private final String value;
+
+        /** The number of seconds since the epoch. */
+        private final long second;
+
+        /**
+         * Constructor.
+         * 
+         * @param second
+         *            The number of seconds since the epoch.
+         * @param value
+         *            The formatted value.
+         */
+        private FormattedSecond(long second, String value) {
+            this.second = second;
+            this.value = value;
+        }
+    }
+
+    /** The full day of week names, starting on Sunday. */
+    private static final String[] DAYS = { "Sunday", "Monday", "Tuesday",
+            "Wednesday", "Thursday", "Friday", "Saturday" };
+
+    /** The number of milliseconds in a day. */
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    /** The number of milliseconds since the epoch of 1600-01-01T00:00:00Z. */
+    private static final long MIN_TIME = -11676096000000L;
+
+    /** The number of milliseconds since the epoch of 10000-01-01T00:00:00Z. */
+    private static final long MAX_TIME = 253402300800000L;
+
+    /** The abbreviated month names. */
+    private static final String[] MONTHS = { "Jan", "Feb", "Mar", "Apr", "May",
+            "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec" };
+
+    /** The ANSI C asctime() style. */
+    private static final int STYLE_ASC_TIME = 2;
+
+    /** The RFC 1036 style. */
+    private static final int STYLE_RFC_1036 = 1;
+
+    /** The RFC 1123 style. */
+    private static final int STYLE_RFC_1123 = 0;
+
+    /** The last formatted second in the RFC 1123 style. */
+    private static volatile FormattedSecond lastSecond = new FormattedSecond(
+            Long.MIN_VALUE, null);
+
+    /**
+     * Appends a number padded with zeros.
+     * 
+     * @param buffer
+     *            The target buffer.
+     * @param index
+     *            The start index.
+     * @param value
+     *            The positive value to append.
+     * @param digits
+     *            The number of digits to write.
+     * @return The next index.
+     */
+    private static int appendNumber(char[] buffer, int index, int value,
+            int digits) {
+        for (int i = index + digits - 1; i >= index; i--) {
+            buffer[i] = (char) ('0' + (value % 10));
+            value /= 10;
+        }
+
+        return index + digits;
+    }
+
+    /**
+     * Appends a string.
+     * 
+     * @param buffer
+     *            The target buffer.
+     * @param index
+     *            The start index.
+     * @param value
+     *            The value to append.
+     * @param length
+     *            The number of characters to write.
+     * @return The next index.
+     */
+    private static int appendString(char[] buffer, int index, String value,
+            int length) {
+        value.getChars(0, length, buffer, index);
+        return index + length;
+    }
+
+    /**
+     * Appends a time of day in the "HH:mm:ss" format.
+     * 
+     * @param buffer
+     *            The target buffer.
+     * @param index
+     *            The start index.
+     * @param millisOfDay
+     *            The number of milliseconds since the start of the day.
+     * @return The next index.
+     */
+    private static int appendTime(char[] buffer, int index, int millisOfDay) {
+        int seconds = millisOfDay / 1000;
+        index = appendNumber(buffer, index, seconds / 3600, 2);
+        buffer[index++] = ':';
+        index = appendNumber(buffer, index, (seconds / 60) % 60, 2);
+        buffer[index++] = ':';
+        return appendNumber(buffer, index, seconds % 60, 2);
+    }
+
+    /**
+     * Returns the number of days since the epoch of a given date of the
+     * proleptic Gregorian calendar.
+     * 
+     * @param year
+     *            The year.
+     * @param month
+     *            The month, from 1 to 12.
+     * @param day
+     *            The day of month, from 1 to 31. Days past the end of the month
+     *            roll over to the next month.
+     * @return The number of days since the epoch.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = (month <= 2) ? year - 1 : year;
+        int era = ((y >= 0) ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + ((month > 2) ? -3 : 9)) + 2) / 5 + day
+                - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100
+                + dayOfYear;
+        return era * 146097L + dayOfEra - 719468L;
+    }
+
+    /**
+     * Formats a date in the preferred HTTP format (RFC 1123). The formatted
+     * value of the current second is cached.
+     * 
+     * @param time
+     *            The number of milliseconds since the epoch.
+     * @return The formatted date or null if it can't be handled by the fast
+     *         path.
+     */
+    public static String format(long time) {
+        String result = null;
+
+        if ((time >= MIN_TIME) && (time < MAX_TIME)) {
+            long second = floorDiv(time, 1000L);
+            FormattedSecond last = lastSecond;
+
+            if (last.second == second) {
+                result = last.value;
+            } else {
+                result = format(time, STYLE_RFC_1123);
+
+                // Only cache the current second, other dates are less likely
+                // to be formatted again
+                if (second == floorDiv(System.currentTimeMillis(), 1000L)) {
+                    lastSecond = new FormattedSecond(second, result);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Formats a date in the given style.
+     * 
+     * @param time
+     *            The number of milliseconds since the epoch, between year 1600
+     *            and year 9999.
+     * @param style
+     *            The formatting style.
+     * @return The formatted date.
+     */
+    private static String format(long time, int style) {
+        long days = floorDiv(time, MILLIS_PER_DAY);
+        int millisOfDay = (int) (time - days * MILLIS_PER_DAY);
+        String dayName = DAYS[(int) ((days % 7 + 11) % 7)];
+
+        // Convert the days into a civil date
+        long z = days + 719468L;
+        long era = ((z >= 0) ? z : z - 146096L) / 146097L;
+        int dayOfEra = (int) (z - era * 146097L);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524
+                - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra
+                - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = (mp < 10) ? mp + 3 : mp - 9;
+        int year = (int) (yearOfEra + era * 400) + ((month <= 2) ? 1 : 0);
+        String monthName = MONTHS[month - 1];
+
+        char[] buffer = new char[33];
+        int index = 0;
+
+        if (style == STYLE_RFC_1123) {
+            // "EEE, dd MMM yyyy HH:mm:ss zzz"
+            index = appendString(buffer, index, dayName, 3);
+            buffer[index++] = ',';
+            buffer[index++] = ' ';
+            index = appendNumber(buffer, index, day, 2);
+            buffer[index++] = ' ';
+            index = appendString(buffer, index, monthName, 3);
+            buffer[index++] = ' ';
+            index = appendNumber(buffer, index, year, 4);
+            buffer[index++] = ' ';
+            index = appendTime(buffer, index, millisOfDay);
+            index = appendString(buffer, index, " GMT", 4);
+        } else if (style == STYLE_RFC_1036) {
+            // "EEEE, dd-MMM-yy HH:mm:ss zzz"
+            index = appendString(buffer, index, dayName, dayName.length());
+            buffer[index++] = ',';
+            buffer[index++] = ' ';
+            index = appendNumber(buffer, index, day, 2);
+            buffer[index++] = '-';
+            index = appendString(buffer, index, monthName, 3);
+            buffer[index++] = '-';
+            index = appendNumber(buffer, index, year % 100, 2);
+            buffer[index++] = ' ';
+            index = appendTime(buffer, index, millisOfDay);
+            index = appendString(buffer, index, " GMT", 4);
+        } else {
+            // "EEE MMM dd HH:mm:ss yyyy"
+            index = appendString(buffer, index, dayName, 3);
+            buffer[index++] = ' ';
+            index = appendString(buffer, index, monthName, 3);
+            buffer[index++] = ' ';
+            index = appendNumber(buffer, index, day, 2);
+            buffer[index++] = ' ';
+            index = appendTime(buffer, index, millisOfDay);
+            buffer[index++] = ' ';
+            index = appendNumber(buffer, index, year, 4);
+        }
+
+        return new String(buffer, 0, index);
+    }
+
+    /**
+     * Formats a date in the obsolete ANSI C asctime() format.
+     * 
+     * @param time
+     *            The number of milliseconds since the epoch.
+     * @return The formatted date or null if it can't be handled by the fast
+     *         path.
+     */
+    public static String formatAscTime(long time) {
+        return ((time >= MIN_TIME) && (time < MAX_TIME)) ? format(time,
+                STYLE_ASC_TIME) : null;
+    }
+
+    /**
+     * Formats the current date in the preferred HTTP format (RFC 1123), for
+     * example for the "Date" header.
+     * 
+     * @return The formatted current date.
+     */
+    public static String formatNow() {
+        return format(System.currentTimeMillis());
+    }
+
+    /**
+     * Formats a date in the obsolete RFC 1036 format, also used by cookies.
+     * 
+     * @param time
+     *            The number of milliseconds since the epoch.
+     * @return The formatted date or null if it can't be handled by the fast
+     *         path.
+     */
+    public static String formatRfc1036(long time) {
+        return ((time >= MIN_TIME) && (time < MAX_TIME)) ? format(time,
+                STYLE_RFC_1036) : null;
+    }
+
+    /**
+     * Returns the largest value less than or equal to the algebraic quotient.
+     * 
+     * @param dividend
+     *            The dividend.
+     * @param divisor
+     *            The positive divisor.
+     * @return The floored quotient.
+     */
+    private static long floorDiv(long dividend, long divisor) {
+        return (dividend >= 0) ? dividend / divisor : (dividend - divisor + 1)
+                / divisor;
+    }
+
+    /**
+     * Indicates if a region of a string matches a name, ignoring case.
+     * 
+     * @param date
+     *            The date string.
+     * @param index
+     *            The start index.
+     * @param name
+     *            The name to match.
+     * @param length
+     *            The number of characters to match.
+     * @return True if the region matches.
+     */
+    private static boolean matches(String date, int index, String name,
+            int length) {
+        return date.regionMatches(true, index, name, 0, length);
+    }
+
+    /**
+     * Parses a date in any of the three HTTP date formats.
+     * 
+     * @param date
+     *            The date to parse.
+     * @return The parsed date or null if it can't be handled by the fast path.
+     */
+    public static Date parse(String date) {
+        Date result = parseRfc1123(date);
+
+        if (result == null) {
+            result = parseRfc1036(date);
+
+            if (result == null) {
+                result = parseAscTime(date);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses a date in the obsolete ANSI C asctime() format, for example
+     * "Sun Nov  6 08:49:37 1994".
+     * 
+     * @param date
+     *            The date to parse.
+     * @return The parsed date or null if it can't be handled by the fast path.
+     */
+    public static Date parseAscTime(String date) {
+        if ((date == null) || (date.length() != 24) || (date.charAt(3) != ' ')
+                || (date.charAt(7) != ' ') || (date.charAt(10) != ' ')
+                || (date.charAt(19) != ' ')
+                || (parseDayOfWeek(date, 0, 3) < 0)) {
+            return null;
+        }
+
+        int day = (date.charAt(8) == ' ') ? parseNumber(date, 9, 1)
+                : parseNumber(date, 8, 2);
+        return toDate(parseNumber(date, 20, 4), parseMonth(date, 4), day,
+                parseTime(date, 11));
+    }
+
+    /**
+     * Parses a day of week name.
+     * 
+     * @param date
+     *            The date string.
+     * @param index
+     *            The start index.
+     * @param length
+     *            The length of the name, either 3 or the full length.
+     * @return The day of week, from 0 for Sunday, or -1.
+     */
+    private static int parseDayOfWeek(String date, int index, int length) {
+        for (int i = 0; i < DAYS.length; i++) {
+            if (((length == 3) || (length == DAYS[i].length()))
+                    && matches(date, index, DAYS[i], length)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Parses an abbreviated month name.
+     * 
+     * @param date
+     *            The date string.
+     * @param index
+     *            The start index.
+     * @return The month, from 1 to 12, or -1.
+     */
+    private static int parseMonth(String date, int index) {
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (matches(date, index, MONTHS[i], 3)) {
+                return i + 1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Parses a positive decimal number.
+     * 
+     * @param date
+     *            The date string.
+     * @param index
+     *            The start index.
+     * @param digits
+     *            The number of digits to read.
+     * @return The number or -1.
+     */
+    private static int parseNumber(String date, int index, int digits) {
+        int result = 0;
+
+        for (int i = index; i < index + digits; i++) {
+            char c = date.charAt(i);
+
+            if ((c < '0') || (c > '9')) {
+                return -1;
+            }
+
+            result = result * 10 + (c - '0');
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses a date in the obsolete RFC 1036 format (also known as RFC 850),
+     * for example "Sunday, 06-Nov-94 08:49:37 GMT". Two digit years are
+     * resolved like {@link java.text.SimpleDateFormat} does, within 80 years
+     * before and 20 years after the current date.
+     * 
+     * @param date
+     *            The date to parse.
+     * @return The parsed date or null if it can't be handled by the fast path.
+     */
+    public static Date parseRfc1036(String date) {
+        int comma = (date == null) ? -1 : date.indexOf(',');
+
+        if ((comma < 6) || (date.length() != comma + 24)
+                || (parseDayOfWeek(date, 0, comma) < 0)
+                || (date.charAt(comma + 1) != ' ')
+                || (date.charAt(comma + 4) != '-')
+                || (date.charAt(comma + 8) != '-')
+                || (date.charAt(comma + 11) != ' ')
+                || (date.charAt(comma + 20) != ' ')
+                || !matches(date, comma + 21, "GMT", 3)) {
+            return null;
+        }
+
+        int shortYear = parseNumber(date, comma + 9, 2);
+
+        if (shortYear < 0) {
+            return null;
+        }
+
+        // Resolve the century like SimpleDateFormat
+        long now = System.currentTimeMillis();
+        int startYear = toYear(now) - 80;
+        int year = (startYear / 100) * 100 + shortYear;
+
+        if (shortYear == startYear % 100) {
+            // Ambiguous year, depends on the full date
+            return null;
+        } else if (year < startYear) {
+            year += 100;
+        }
+
+        return toDate(year, parseMonth(date, comma + 5),
+                parseNumber(date, comma + 2, 2),
+                parseTime(date, comma + 12));
+    }
+
+    /**
+     * Parses a date in the preferred HTTP format (RFC 1123), for example
+     * "Sun, 06 Nov 1994 08:49:37 GMT".
+     * 
+     * @param date
+     *            The date to parse.
+     * @return The parsed date or null if it can't be handled by the fast path.
+     */
+    public static Date parseRfc1123(String date) {
+        if ((date == null) || (date.length() != 29) || (date.charAt(3) != ',')
+                || (date.charAt(4) != ' ') || (date.charAt(7) != ' ')
+                || (date.charAt(11) != ' ') || (date.charAt(16) != ' ')
+                || (date.charAt(25) != ' ') || !matches(date, 26, "GMT", 3)
+                || (parseDayOfWeek(date, 0, 3) < 0)) {
+            return null;
+        }
+
+        return toDate(parseNumber(date, 12, 4), parseMonth(date, 8),
+                parseNumber(date, 5, 2), parseTime(date, 17));
+    }
+
+    /**
+     * Parses a time of day in the "HH:mm:ss" format.
+     * 
+     * @param date
+     *            The date string.
+     * @param index
+     *            The start index.
+     * @return The number of seconds since the start of the day or -1.
+     */
+    private static int parseTime(String date, int index) {
+        if ((date.charAt(index + 2) != ':')
+                || (date.charAt(index + 5) != ':')) {
+            return -1;
+        }
+
+        int hours = parseNumber(date, index, 2);
+        int minutes = parseNumber(date, index + 3, 2);
+        int seconds = parseNumber(date, index + 6, 2);
+
+        if ((hours < 0) || (hours > 23) || (minutes < 0) || (minutes > 59)
+                || (seconds < 0) || (seconds > 60)) {
+            return -1;
+        }
+
+        return hours * 3600 + minutes * 60 + seconds;
+    }
+
+    /**
+     * Converts parsed fields into a date.
+     * 
+     * @param year
+     *            The year or -1.
+     * @param month
+     *            The month or -1.
+     * @param day
+     *            The day of month or -1.
+     * @param secondOfDay
+     *            The number of seconds since the start of the day or -1.
+     * @return The date or null if a field is invalid.
+     */
+    private static Date toDate(int year, int month, int day, int secondOfDay) {
+        if ((year < 1600) || (month < 1) || (day < 1) || (day > 31)
+                || (secondOfDay < 0)) {
+            return null;
+        }
+
+        return new Date(daysFromCivil(year, month, day) * MILLIS_PER_DAY
+                + secondOfDay * 1000L);
+    }
+
+    /**
+     * Returns the year of a given time.
+     * 
+     * @param time
+     *            The number of milliseconds since the epoch.
+     * @return The year.
+     */
+    private static int toYear(long time) {
+        int result = 1970 + (int) (floorDiv(time, MILLIS_PER_DAY) / 366);
+
+        while (daysFromCivil(result + 1, 1, 1) * MILLIS_PER_DAY <= time) {
+            result++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Private constructor to ensure that the class acts as a true utility class
+     * i.e. it isn't instantiable and extensible.
+     */
+    private HttpDateCodec() {
+
+    }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.restlet.data.Metadata;
+
+/**
+ * Bounded cache interning the metadata parsed from header values, such as
+ * "application/json; charset=UTF-8" or "en-us", so that identical values
+ * share the same immutable instance. Lookups are lock-free. When the maximum
+ * size is reached, the cache is cleared before adding new entries, which
+ * prevents unbounded growth when clients send arbitrary values.<br>
+ * <br>
+ * Concurrency note: instances of this class are thread-safe.
+ * 
+ * @author Jerome Louvel
+ * @param <T>
+ *            The type of metadata.
+ */
+public class MetadataCache<T extends Metadata> {
+
+    /** The default maximum number of cached values. */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    /** The cached values, indexed by their lookup key. */
+    private final ConcurrentMap<String, T> values;
+
+    /** The maximum number of cached values. */
+    private final int maxSize;
+
+    /**
+     * Default constructor, using {@link #DEFAULT_MAX_SIZE}.
+     */
+    public MetadataCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            The maximum number of cached values.
+     */
+    public MetadataCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.values = new ConcurrentHashMap<String, T>();
+    }
+
+    /**
+     * Clears the cache.
+     */
+    public void clear() {
+        this.values.clear();
+    }
+
+    /**
+     * Returns the cached value for a given key.
+     * 
+     * @param key
+     *            The lookup key, typically the raw value parsed.
+     * @return The cached value or null.
+     */
+    public T get(String key) {
+        return (key == null) ? null : this.values.get(key);
+    }
+
+    /**
+     * Returns the maximum number of cached values.
+     * 
+     * @return The maximum number of cached values.
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Interns a value. If a value is already cached for the given key, it is
+     * returned, otherwise the given value is cached and returned.
+     * 
+     * @param key
+     *            The lookup key, typically the raw value parsed.
+     * @param value
+     *            The value to intern.
+     * @return The shared value.
+     */
+    public T intern(String key, T value) {
+        if ((key == null) || (value == null)) {
+            return value;
+        }
+
+        if (this.values.size() >= this.maxSize) {
+            clear();
+        }
+
+        T result = this.values.putIfAbsent(key, value);
+        return (result == null) ? value : result;
+    }
+
+    /**
+     * Returns the number of cached values.
+     * 
+     * @return The number of cached values.
+     */
+    public int size() {
+        return this.values.size();
+    }
+
+}
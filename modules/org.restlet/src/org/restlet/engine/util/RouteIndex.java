@@ -0,0 +1,309 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.routing.Route;
+import org.restlet.routing.TemplateRoute;
+
+/**
+ * Immutable prefix trie compiled from a list of routes. Each
+ * {@link TemplateRoute} is indexed by the literal prefix of its URI pattern,
+ * that is the characters located before its first variable. When a call is
+ * routed, only the routes whose literal prefix starts the remaining part of
+ * the resource reference are scored, in their original order, so the selected
+ * route is the same as the one returned by the equivalent linear scan of the
+ * {@link org.restlet.util.RouteList}.<br>
+ * <br>
+ * Routes that can't be indexed, such as custom {@link Route} subclasses or
+ * routes without template, are considered as candidates for every call.<br>
+ * <br>
+ * Concurrency note: instances of this class are immutable and can be shared
+ * by several threads.
+ * 
+ * @author Jerome Louvel
+ */
+public class RouteIndex {
+
+    /** Node of the prefix trie. */
+    private static class Node {
+
+        /**
+         * The sorted positions of the routes whose literal prefix ends here or
+         * at one of the parent nodes.
+         */
+        private int[] candidates;
+
+        /** The child nodes indexed by their character. */
+        private final Map<Character, Node> children;
+
+        /** The positions of the routes whose literal prefix ends here. */
+        private int[] positions;
+
+        /** Constructor. */
+        public Node() {
+            this.children = new HashMap<Character, Node>();
+            this.positions = new int[0];
+        }
+
+        /**
+         * Adds a route position to this node.
+         *
+         * @param position
+         *            The route position.
+         */
+        public void add(int position) {
+            int[] newPositions = Arrays.copyOf(this.positions,
+                    this.positions.length + 1);
+            newPositions[this.positions.length] = position;
+            this.positions = newPositions;
+        }
+    }
+
+    /**
+     * Returns the literal prefix of a route's URI pattern, or null if the
+     * route can't be indexed.
+     *
+     * @param route
+     *            The route to inspect.
+     * @return The literal prefix or null.
+     */
+    private static String getLiteralPrefix(Route route) {
+        String result = null;
+
+        // Subclasses might override the scoring logic
+        if ((route != null) && (route.getClass() == TemplateRoute.class)) {
+            TemplateRoute templateRoute = (TemplateRoute) route;
+
+            if ((templateRoute.getTemplate() != null)
+                    && (templateRoute.getTemplate().getPattern() != null)) {
+                String pattern = templateRoute.getTemplate().getPattern();
+                int index = 0;
+
+                while ((index < pattern.length())
+                        && (pattern.charAt(index) != '{')
+                        && (pattern.charAt(index) != '}')) {
+                    index++;
+                }
+
+                result = pattern.substring(0, index);
+            }
+        }
+
+        return result;
+    }
+
+    /** The root node of the trie. */
+    private final Node root;
+
+    /** The snapshot of indexed routes. */
+    private final Route[] routes;
+
+    /**
+     * Constructor.
+     *
+     * @param routes
+     *            The routes to index.
+     */
+    public RouteIndex(List<Route> routes) {
+        this.routes = routes.toArray(new Route[0]);
+        this.root = new Node();
+
+        for (int i = 0; i < this.routes.length; i++) {
+            String prefix = getLiteralPrefix(this.routes[i]);
+            Node node = this.root;
+
+            if (prefix != null) {
+                for (int j = 0; j < prefix.length(); j++) {
+                    Character key = Character.valueOf(prefix.charAt(j));
+                    Node child = node.children.get(key);
+
+                    if (child == null) {
+                        child = new Node();
+                        node.children.put(key, child);
+                    }
+
+                    node = child;
+                }
+            }
+
+            node.add(i);
+        }
+
+        compile(this.root, new int[0]);
+    }
+
+    /**
+     * Computes the candidate positions of a node and of its children. Nodes
+     * without routes of their own share the candidates of their parent.
+     *
+     * @param node
+     *            The node to compile.
+     * @param inherited
+     *            The sorted candidate positions of the parent node.
+     */
+    private void compile(Node node, int[] inherited) {
+        if (node.positions.length == 0) {
+            node.candidates = inherited;
+        } else {
+            // Merge the sorted positions
+            int[] merged = new int[inherited.length + node.positions.length];
+            int i = 0;
+            int j = 0;
+
+            for (int k = 0; k < merged.length; k++) {
+                if ((j == node.positions.length)
+                        || ((i < inherited.length)
+                        && (inherited[i] < node.positions[j]))) {
+                    merged[k] = inherited[i++];
+                } else {
+                    merged[k] = node.positions[j++];
+                }
+            }
+
+            node.candidates = merged;
+        }
+
+        for (Node child : node.children.values()) {
+            compile(child, node.candidates);
+        }
+    }
+
+    /**
+     * Returns the best route match for a given call. See
+     * {@link org.restlet.util.RouteList#getBest(Request, Response, float)}.
+     *
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The best route match or null.
+     */
+    public Route getBest(Request request, Response response,
+            float requiredScore) {
+        Route result = null;
+        float bestScore = 0F;
+        float score;
+        int[] candidates = getCandidates(request);
+
+        for (int i = 0; i < candidates.length; i++) {
+            Route current = this.routes[candidates[i]];
+            score = current.score(request, response);
+
+            if ((score > bestScore) && (score >= requiredScore)) {
+                bestScore = score;
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the sorted positions of the routes that could match the given
+     * call. The returned array is shared and must not be modified.
+     *
+     * @param request
+     *            The request to route.
+     * @return The sorted positions of the candidate routes.
+     */
+    private int[] getCandidates(Request request) {
+        String remainingPart = null;
+
+        if (request.getResourceRef() != null) {
+            remainingPart = request.getResourceRef().getRemainingPart(false,
+                    true);
+
+            if (remainingPart == null) {
+                remainingPart = request.getResourceRef().getRemainingPart(
+                        false, false);
+            }
+        }
+
+        // The deepest node matching the remaining part holds all candidates
+        Node result = this.root;
+
+        if (remainingPart != null) {
+            Node node = this.root;
+
+            for (int i = 0; (node != null) && (i < remainingPart.length()); i++) {
+                node = node.children.get(Character.valueOf(remainingPart
+                        .charAt(i)));
+
+                if (node != null) {
+                    result = node;
+                }
+            }
+        }
+
+        return result.candidates;
+    }
+
+    /**
+     * Returns the first route match for a given call. See
+     * {@link org.restlet.util.RouteList#getFirst(Request, Response, float)}.
+     *
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The first route match or null.
+     */
+    public Route getFirst(Request request, Response response,
+            float requiredScore) {
+        int[] candidates = getCandidates(request);
+
+        for (int i = 0; i < candidates.length; i++) {
+            Route current = this.routes[candidates[i]];
+
+            if (current.score(request, response) >= requiredScore) {
+                return current;
+            }
+        }
+
+        // No match found
+        return null;
+    }
+
+    /**
+     * Returns the number of indexed routes.
+     *
+     * @return The number of indexed routes.
+     */
+    public int size() {
+        return this.routes.length;
+    }
+
+}
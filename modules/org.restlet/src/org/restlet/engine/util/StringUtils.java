@@ -514,6 +514,27 @@ public class StringUtils {
         return null;
     }
 
+    /**
+     * Decodes a sequence of bytes using the Latin1 character set.
+     * 
+     * @param bytes
+     *            The bytes to decode.
+     * @param offset
+     *            The start index.
+     * @param length
+     *            The number of bytes to decode.
+     * @return The decoded string.
+     */
+    public static String getLatin1String(byte[] bytes, int offset, int length) {
+        char[] chars = new char[length];
+
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (bytes[offset + i] & 0xFF);
+        }
+
+        return new String(chars);
+    }
+
     /**
      * Returns the given {@link String} according to the HTML 4.0 encoding
      * rules.
@@ -0,0 +1,216 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.restlet.data.Reference;
+import org.restlet.data.Tag;
+import org.restlet.representation.Representation;
+
+/**
+ * Cache of the templates parsed from source representations, shared by the
+ * template extensions. Templates are keyed by the full location reference of
+ * their source, including the query. A cached template is only reused if the
+ * modification date and the tag of the source representation haven't changed,
+ * otherwise it is replaced by a newly parsed template. Representations without
+ * location reference, or without both modification date and tag, aren't
+ * cached.<br>
+ * <br>
+ * Concurrency note: instances of this class are thread-safe. Parsed templates
+ * are shared by concurrent calls.
+ * 
+ * @author Jerome Louvel
+ * @param <T>
+ *            The type of parsed template.
+ */
+public class TemplateCache<T> {
+
+    /**
+     * Parsed template with the modification date and tag of its source.
+     * 
+     * @param <T>
+     *            The type of parsed template.
+     */
+    private static class Entry<T> {
+
+        /** The modification time of the template source or -1. */
+        private final long modificationTime;
+
+        /** The tag of the template source or null. */
+        private final Tag tag;
+
+        /** The parsed template. */
+        private final T template;
+
+        /**
+         * Constructor.
+         * 
+         * @param source
+         *            The template source.
+         * @param template
+         *            The parsed template.
+         */
+        public Entry(Representation source, T template) {
+            this.modificationTime = getModificationTime(source);
+            this.tag = source.getTag();
+            this.template = template;
+        }
+
+        /**
+         * Indicates if the template source hasn't changed since the template
+         * was parsed.
+         * 
+         * @param source
+         *            The current template source.
+         * @return True if the template source hasn't changed.
+         */
+        public boolean isFresh(Representation source) {
+            Tag currentTag = source.getTag();
+            boolean sameTag = (this.tag == null) ? (currentTag == null)
+                    : this.tag.equals(currentTag);
+            return sameTag
+                    && (this.modificationTime == getModificationTime(source));
+        }
+    }
+
+    /** The default maximum number of cached templates. */
+    public static final int DEFAULT_MAX_SIZE = 100;
+
+    /**
+     * Returns the cache key of a template source, or null if it can't be
+     * cached.
+     * 
+     * @param source
+     *            The template source.
+     * @return The cache key or null.
+     */
+    private static String getKey(Representation source) {
+        Reference ref = source.getLocationRef();
+        boolean versioned = (source.getModificationDate() != null)
+                || (source.getTag() != null);
+        return ((ref == null) || !versioned) ? null : ref.toString(true, false);
+    }
+
+    /**
+     * Returns the modification time of a template source.
+     * 
+     * @param source
+     *            The template source.
+     * @return The modification time or -1 if it isn't known.
+     */
+    private static long getModificationTime(Representation source) {
+        Date date = source.getModificationDate();
+        return (date == null) ? -1 : date.getTime();
+    }
+
+    /** The cached entries. */
+    private final ConcurrentMap<String, Entry<T>> entries;
+
+    /** The maximum number of cached templates. */
+    private final int maxSize;
+
+    /**
+     * Constructor.
+     */
+    public TemplateCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            The maximum number of cached templates.
+     */
+    public TemplateCache(int maxSize) {
+        this.entries = new ConcurrentHashMap<String, Entry<T>>();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Removes all cached templates.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Returns the parsed template of a source representation if it is cached
+     * and still fresh.
+     * 
+     * @param source
+     *            The template source.
+     * @return The cached template or null.
+     */
+    public T get(Representation source) {
+        String key = getKey(source);
+        Entry<T> entry = (key == null) ? null : this.entries.get(key);
+        return ((entry != null) && entry.isFresh(source)) ? entry.template
+                : null;
+    }
+
+    /**
+     * Returns the maximum number of cached templates.
+     * 
+     * @return The maximum number of cached templates.
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Caches the parsed template of a source representation, if possible.
+     * When the cache is full, it is cleared first.
+     * 
+     * @param source
+     *            The template source.
+     * @param template
+     *            The parsed template.
+     */
+    public void put(Representation source, T template) {
+        String key = getKey(source);
+
+        if ((key != null) && (template != null)) {
+            if (this.entries.size() >= getMaxSize()) {
+                clear();
+            }
+
+            this.entries.put(key, new Entry<T>(source, template));
+        }
+    }
+
+    /**
+     * Returns the number of cached templates.
+     * 
+     * @return The number of cached templates.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor dispatching each task on its own thread. When the JVM supports
+ * virtual threads (Java 21 and later), they are used in place of the given
+ * thread factory and the number of tasks running concurrently is limited by a
+ * semaphore: tasks above this limit are dispatched on their virtual thread but
+ * wait for a permit before running.<br>
+ * <br>
+ * Otherwise, platform threads are created on demand and kept alive for a
+ * minute so that they can be reused. As platform threads are expensive, the
+ * pool is capped to the concurrency limit and tasks above it are queued
+ * instead of waiting on their own thread. Without limit, the executor behaves
+ * like {@link java.util.concurrent.Executors#newCachedThreadPool()}.<br>
+ * <br>
+ * The {@link #getActiveCount()} method returns the number of tasks running
+ * and the {@link #getWaitingCount()} method the number of tasks waiting to
+ * run.<br>
+ * <br>
+ * Concurrency note: instances of this class are thread-safe.
+ * 
+ * @author Jerome Louvel
+ */
+public class ThreadPerTaskExecutor extends ThreadPoolExecutor {
+
+    /** The virtual thread factory or null if not supported. */
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = createVirtualThreadFactory();
+
+    /**
+     * Creates a virtual thread factory using reflection as this API isn't
+     * available before Java 21.
+     * 
+     * @return The virtual thread factory or null if not supported.
+     */
+    private static ThreadFactory createVirtualThreadFactory() {
+        ThreadFactory result = null;
+
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            result = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            // Virtual threads aren't supported by this JVM
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates the queue of tasks waiting for a platform thread.
+     * 
+     * @param maxConcurrency
+     *            The maximum number of tasks running concurrently.
+     * @return The queue of waiting tasks.
+     */
+    private static BlockingQueue<Runnable> createQueue(int maxConcurrency) {
+        return isPooled(maxConcurrency) ? new LinkedBlockingQueue<Runnable>()
+                : new SynchronousQueue<Runnable>();
+    }
+
+    /**
+     * Indicates if tasks are queued for a capped pool of platform threads,
+     * when virtual threads aren't supported and concurrency is limited.
+     * 
+     * @param maxConcurrency
+     *            The maximum number of tasks running concurrently.
+     * @return True if tasks are queued for a capped pool of platform threads.
+     */
+    private static boolean isPooled(int maxConcurrency) {
+        return !isVirtualThreadsSupported() && (maxConcurrency > 0);
+    }
+
+    /**
+     * Indicates if virtual threads are supported by the current JVM.
+     * 
+     * @return True if virtual threads are supported by the current JVM.
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /** The maximum number of tasks running concurrently. */
+    private final int maxConcurrency;
+
+    /**
+     * The semaphore limiting concurrency of virtual threads or null if
+     * unbounded or if platform threads are used.
+     */
+    private final Semaphore permits;
+
+    /** The number of tasks running. */
+    private final AtomicInteger runningCount;
+
+    /** The number of virtual threads waiting for a permit. */
+    private final AtomicInteger waitingCount;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxConcurrency
+     *            The maximum number of tasks running concurrently or a value
+     *            inferior or equal to 0 for no limit.
+     * @param threadFactory
+     *            The thread factory used if virtual threads aren't supported.
+     */
+    public ThreadPerTaskExecutor(int maxConcurrency, ThreadFactory threadFactory) {
+        super(isPooled(maxConcurrency) ? maxConcurrency : 0,
+                isPooled(maxConcurrency) ? maxConcurrency : Integer.MAX_VALUE,
+                isVirtualThreadsSupported() ? 0L : 60L, TimeUnit.SECONDS,
+                createQueue(maxConcurrency),
+                isVirtualThreadsSupported() ? VIRTUAL_THREAD_FACTORY
+                        : threadFactory);
+        this.maxConcurrency = maxConcurrency;
+        this.permits = (isPooled(maxConcurrency) || (maxConcurrency <= 0)) ? null
+                : new Semaphore(maxConcurrency);
+
+        if (isPooled(maxConcurrency)) {
+            allowCoreThreadTimeOut(true);
+        }
+
+        this.runningCount = new AtomicInteger();
+        this.waitingCount = new AtomicInteger();
+    }
+
+    /**
+     * Waits for a permit to run a task.
+     * 
+     * @return True if a permit was acquired, false if the thread was
+     *         interrupted.
+     */
+    private boolean acquire() {
+        boolean result = true;
+
+        if (this.permits != null) {
+            this.waitingCount.incrementAndGet();
+
+            try {
+                this.permits.acquire();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                result = false;
+            } finally {
+                this.waitingCount.decrementAndGet();
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+
+        super.execute(new Runnable() {
+            public void run() {
+                if (acquire()) {
+                    runningCount.incrementAndGet();
+
+                    try {
+                        command.run();
+                    } finally {
+                        runningCount.decrementAndGet();
+
+                        if (permits != null) {
+                            permits.release();
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public String toString() {
+                return command.toString();
+            }
+        });
+    }
+
+    /**
+     * Returns the number of tasks running.
+     * 
+     * @return The number of tasks running.
+     */
+    @Override
+    public int getActiveCount() {
+        return this.runningCount.get();
+    }
+
+    /**
+     * Returns the maximum number of tasks running concurrently or a value
+     * inferior or equal to 0 for no limit.
+     * 
+     * @return The maximum number of tasks running concurrently.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Returns the number of tasks waiting to run, either for a permit or in the
+     * queue of the platform threads pool.
+     * 
+     * @return The number of tasks waiting to run.
+     */
+    public int getWaitingCount() {
+        return this.waitingCount.get() + getQueue().size();
+    }
+
+    /**
+     * Indicates if the tasks are dispatched on virtual threads.
+     * 
+     * @return True if the tasks are dispatched on virtual threads.
+     */
+    public boolean isVirtual() {
+        return isVirtualThreadsSupported();
+    }
+
+}
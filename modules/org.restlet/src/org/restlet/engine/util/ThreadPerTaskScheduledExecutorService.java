@@ -0,0 +1,152 @@
+/**
+ * Copyright 2005-2017 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Scheduled executor service running the immediate tasks with a
+ * {@link ThreadPerTaskExecutor}. Delayed and periodic tasks are still run by
+ * the wrapped scheduled executor service.
+ * 
+ * @author Jerome Louvel
+ */
+public class ThreadPerTaskScheduledExecutorService extends
+        WrapperScheduledExecutorService {
+
+    /** The executor running the immediate tasks. */
+    private final ThreadPerTaskExecutor executor;
+
+    /**
+     * Constructor.
+     * 
+     * @param scheduler
+     *            The scheduled executor service running the delayed tasks.
+     * @param executor
+     *            The executor running the immediate tasks.
+     */
+    public ThreadPerTaskScheduledExecutorService(
+            ScheduledExecutorService scheduler, ThreadPerTaskExecutor executor) {
+        super(scheduler);
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return getExecutor().awaitTermination(timeout, unit)
+                && getWrapped().awaitTermination(
+                        deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        getExecutor().execute(command);
+    }
+
+    /**
+     * Returns the executor running the immediate tasks.
+     * 
+     * @return The executor running the immediate tasks.
+     */
+    public ThreadPerTaskExecutor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks)
+            throws InterruptedException {
+        return getExecutor().invokeAll(tasks);
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(
+            Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return getExecutor().invokeAll(tasks, timeout, unit);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+            throws InterruptedException, ExecutionException {
+        return getExecutor().invokeAny(tasks);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks,
+            long timeout, TimeUnit unit) throws InterruptedException,
+            ExecutionException, TimeoutException {
+        return getExecutor().invokeAny(tasks, timeout, unit);
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return getExecutor().isShutdown() && getWrapped().isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return getExecutor().isTerminated() && getWrapped().isTerminated();
+    }
+
+    @Override
+    public void shutdown() {
+        getExecutor().shutdown();
+        getWrapped().shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> result = new ArrayList<Runnable>(getExecutor()
+                .shutdownNow());
+        result.addAll(getWrapped().shutdownNow());
+        return result;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return getExecutor().submit(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return getExecutor().submit(task);
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        return getExecutor().submit(task, result);
+    }
+
+}
@@ -26,6 +26,7 @@ package org.restlet.representation;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.channels.ReadableByteChannel;
 
 import org.restlet.data.MediaType;
@@ -65,6 +66,37 @@ public abstract class OutputRepresentation extends StreamRepresentation {
         setSize(expectedSize);
     }
 
+    /**
+     * Exhausts the content by writing it to a stream that silently discards
+     * and counts the bytes, without piping it through another thread.
+     * 
+     * @return The number of bytes consumed or -1 if unknown.
+     */
+    @Override
+    public long exhaust() throws IOException {
+        long result = -1L;
+
+        if (isAvailable()) {
+            final long[] count = new long[1];
+
+            write(new OutputStream() {
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    count[0] += len;
+                }
+
+                @Override
+                public void write(int b) {
+                    count[0]++;
+                }
+            });
+
+            result = count[0];
+        }
+
+        return result;
+    }
+
     @Override
     public ReadableByteChannel getChannel() throws IOException {
         return IoUtils.getChannel(this);
@@ -35,6 +35,7 @@ import org.restlet.data.MediaType;
 import org.restlet.data.Reference;
 import org.restlet.data.ReferenceList;
 import org.restlet.engine.local.DirectoryServerResource;
+import org.restlet.engine.local.EncodedEntityCache;
 import org.restlet.engine.util.AlphaNumericComparator;
 import org.restlet.engine.util.AlphabeticalComparator;
 import org.restlet.representation.Representation;
@@ -70,6 +71,13 @@ import org.restlet.representation.Variant;
  * idea</a>, using a different and faster implementation contributed by Rob
  * Heittman.<br>
  * <br>
+ * Static files can also be served compressed without paying the encoding cost
+ * on each call. When the "servingPrecompressed" property is turned on, a
+ * sibling file such as "app.js.gz" or "app.js.br" is returned instead of
+ * "app.js" to clients accepting the matching encoding, as long as it isn't
+ * older than the original file. Otherwise, if an {@link EncodedEntityCache} is
+ * set, files are encoded once and their encoded content kept in memory.<br>
+ * <br>
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
  * should be especially careful when storing state in member variables.
@@ -88,6 +96,9 @@ public class Directory extends Finder {
      */
     private volatile boolean deeplyAccessible;
 
+    /** The cache of encoded file contents. */
+    private volatile EncodedEntityCache encodedCache;
+
     /** The index name, without extensions (ex: "index" or "home"). */
     private volatile String indexName;
 
@@ -109,6 +120,9 @@ public class Directory extends Finder {
     /** The absolute root reference (file, clap URI). */
     private volatile Reference rootRef;
 
+    /** Indicates if precompressed sibling files are served. */
+    private volatile boolean servingPrecompressed;
+
     /**
      * Constructor.
      * 
@@ -139,6 +153,8 @@ public class Directory extends Finder {
         this.listingAllowed = false;
         this.modifiable = false;
         this.negotiatingContent = true;
+        this.encodedCache = null;
+        this.servingPrecompressed = false;
         setTargetClass(DirectoryServerResource.class);
         setName("Directory");
     }
@@ -176,6 +192,15 @@ public class Directory extends Finder {
         return this.comparator;
     }
 
+    /**
+     * Returns the cache of encoded file contents. Returns null by default.
+     * 
+     * @return The cache of encoded file contents or null.
+     */
+    public EncodedEntityCache getEncodedCache() {
+        return this.encodedCache;
+    }
+
     /**
      * Returns the index name, without extensions. Returns "index" by default.
      * 
@@ -279,6 +304,17 @@ public class Directory extends Finder {
         return this.negotiatingContent;
     }
 
+    /**
+     * Indicates if precompressed sibling files, such as "app.js.gz" for
+     * "app.js", are served to clients accepting their encoding. Default value
+     * is false.
+     * 
+     * @return True if precompressed sibling files are served.
+     */
+    public boolean isServingPrecompressed() {
+        return this.servingPrecompressed;
+    }
+
     /**
      * Sets the reference comparator used to sort index pages.
      * 
@@ -299,6 +335,18 @@ public class Directory extends Finder {
         this.deeplyAccessible = deeplyAccessible;
     }
 
+    /**
+     * Sets the cache of encoded file contents. When set, files are encoded
+     * once for clients accepting a compressed encoding, then served from the
+     * cache until their modification time changes.
+     * 
+     * @param encodedCache
+     *            The cache of encoded file contents or null to disable it.
+     */
+    public void setEncodedCache(EncodedEntityCache encodedCache) {
+        this.encodedCache = encodedCache;
+    }
+
     /**
      * Sets the index name, without extensions.
      * 
@@ -353,6 +401,17 @@ public class Directory extends Finder {
         this.rootRef = rootRef;
     }
 
+    /**
+     * Indicates if precompressed sibling files, such as "app.js.gz" for
+     * "app.js", are served to clients accepting their encoding.
+     * 
+     * @param servingPrecompressed
+     *            True if precompressed sibling files are served.
+     */
+    public void setServingPrecompressed(boolean servingPrecompressed) {
+        this.servingPrecompressed = servingPrecompressed;
+    }
+
     /**
      * Sets the reference comparator based on classic alphabetical order.
      * 
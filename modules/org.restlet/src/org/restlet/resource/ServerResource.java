@@ -757,9 +757,11 @@ public abstract class ServerResource extends Resource {
     private MethodAnnotationInfo getAnnotation(Method method, Form query,
             Representation entity) throws IOException {
         if (isAnnotated()) {
-            return AnnotationUtils.getInstance().getMethodAnnotation(
-                    getAnnotations(), method, query, entity,
-                    getMetadataService(), getConverterService());
+            AnnotationUtils annotationUtils = AnnotationUtils.getInstance();
+            return annotationUtils.getMethodAnnotation(
+                    annotationUtils.getMethodAnnotations(getClass(), method),
+                    method, query, entity, getMetadataService(),
+                    getConverterService());
         }
 
         return null;
@@ -924,7 +926,8 @@ public abstract class ServerResource extends Resource {
                 List<Variant> annoVariants = null;
                 method = (Method.HEAD.equals(method)) ? Method.GET : method;
 
-                for (AnnotationInfo annotationInfo : getAnnotations()) {
+                for (AnnotationInfo annotationInfo : AnnotationUtils
+                        .getInstance().getMethodAnnotations(getClass(), method)) {
                     try {
                         if (annotationInfo instanceof MethodAnnotationInfo) {
                             MethodAnnotationInfo methodAnnotationInfo = (MethodAnnotationInfo) annotationInfo;
@@ -31,6 +31,7 @@ import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
 import org.restlet.data.Status;
+import org.restlet.engine.util.RouteIndex;
 import org.restlet.resource.Directory;
 import org.restlet.resource.Finder;
 import org.restlet.resource.ServerResource;
@@ -59,6 +60,12 @@ import org.restlet.util.RouteList;
  * patterns. Finally, you can modify the list of routes while handling incoming
  * calls as the delegation code is ensured to be thread-safe.<br>
  * <br>
+ * When many routes are attached, the {@link #setCompiledRouting(boolean)}
+ * option can be turned on so that the best and first match modes only score
+ * the routes whose URI pattern literally starts like the remaining part of the
+ * resource reference, based on a prefix index built when the router starts and
+ * rebuilt when routes are attached or detached.<br>
+ * <br>
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
  * should be especially careful when storing state in member variables.
@@ -124,6 +131,12 @@ public class Router extends Restlet {
      */
     public static final int MODE_RANDOM_MATCH = 5;
 
+    /**
+     * Indicates if the best and first match modes should use a compiled index
+     * of the routes.
+     */
+    private volatile boolean compiledRouting;
+
     /** The default matching mode to use when selecting routes based on URIs. */
     private volatile int defaultMatchingMode;
 
@@ -148,6 +161,9 @@ public class Router extends Restlet {
     /** The delay (in milliseconds) before a new attempt. */
     private volatile long retryDelay;
 
+    /** The compiled index of routes, lazily built. */
+    private volatile RouteIndex routeIndex;
+
     /** The modifiable list of routes. */
     private volatile RouteList routes;
 
@@ -173,6 +189,8 @@ public class Router extends Restlet {
     public Router(Context context) {
         super(context);
         this.routes = new RouteList();
+        this.compiledRouting = false;
+        this.routeIndex = null;
         this.defaultMatchingMode = Template.MODE_EQUALS;
         this.defaultMatchingQuery = false;
         this.defaultRoute = null;
@@ -282,6 +300,7 @@ public class Router extends Restlet {
             int matchingMode) {
         TemplateRoute result = createRoute(pathTemplate, target, matchingMode);
         getRoutes().add(result);
+        invalidateRouteIndex();
         return result;
     }
 
@@ -376,6 +395,8 @@ public class Router extends Restlet {
             }
         }
 
+        invalidateRouteIndex();
+
         if (getDefaultRoute() != null) {
             Restlet target = getDefaultRoute().getNext();
 
@@ -400,6 +421,8 @@ public class Router extends Restlet {
      */
     public void detach(Restlet target) {
         getRoutes().removeAll(target);
+        invalidateRouteIndex();
+
         if ((getDefaultRoute() != null)
                 && (getDefaultRoute().getNext() == target)) {
             setDefaultRoute(null);
@@ -534,13 +557,23 @@ public class Router extends Restlet {
                 // Select the routing mode
                 switch (getRoutingMode()) {
                 case MODE_BEST_MATCH:
-                    result = getRoutes().getBest(request, response,
-                            getRequiredScore());
+                    if (isCompiledRouting()) {
+                        result = getRouteIndex().getBest(request, response,
+                                getRequiredScore());
+                    } else {
+                        result = getRoutes().getBest(request, response,
+                                getRequiredScore());
+                    }
                     break;
 
                 case MODE_FIRST_MATCH:
-                    result = getRoutes().getFirst(request, response,
-                            getRequiredScore());
+                    if (isCompiledRouting()) {
+                        result = getRouteIndex().getFirst(request, response,
+                                getRequiredScore());
+                    } else {
+                        result = getRoutes().getFirst(request, response,
+                                getRequiredScore());
+                    }
                     break;
 
                 case MODE_LAST_MATCH:
@@ -604,6 +637,22 @@ public class Router extends Restlet {
         return this.retryDelay;
     }
 
+    /**
+     * Returns the compiled index of routes. It is lazily built from the current
+     * list of routes and rebuilt if the number of routes changed since.
+     * 
+     * @return The compiled index of routes.
+     */
+    private RouteIndex getRouteIndex() {
+        RouteIndex result = this.routeIndex;
+
+        if ((result == null) || (result.size() != getRoutes().size())) {
+            this.routeIndex = result = new RouteIndex(getRoutes());
+        }
+
+        return result;
+    }
+
     /**
      * Returns the modifiable list of routes. Creates a new instance if no one
      * has been set.
@@ -644,6 +693,31 @@ public class Router extends Restlet {
         }
     }
 
+    /**
+     * Discards the compiled index of routes so that it is rebuilt on the next
+     * call. It is automatically invoked when routes are attached or detached
+     * via this router, but must be invoked explicitly after updating the
+     * templates of routes already attached or after replacing routes directly
+     * in the list returned by {@link #getRoutes()}.
+     */
+    public void invalidateRouteIndex() {
+        this.routeIndex = null;
+    }
+
+    /**
+     * Indicates if the {@link #MODE_BEST_MATCH} and {@link #MODE_FIRST_MATCH}
+     * modes should use a compiled index of the routes. This index only scores
+     * the routes whose URI pattern literal prefix (before the first variable)
+     * starts the remaining part of the resource reference, in their original
+     * order, and therefore selects the same route as the list scan. By
+     * default, it returns false.
+     * 
+     * @return True if the routes should be compiled into an index.
+     */
+    public boolean isCompiledRouting() {
+        return this.compiledRouting;
+    }
+
     /**
      * Logs the route selected.
      * 
@@ -716,6 +790,19 @@ public class Router extends Restlet {
                 Redirector.MODE_CLIENT_TEMPORARY));
     }
 
+    /**
+     * Indicates if the {@link #MODE_BEST_MATCH} and {@link #MODE_FIRST_MATCH}
+     * modes should use a compiled index of the routes. By default, it is set to
+     * false.
+     * 
+     * @param compiledRouting
+     *            True if the routes should be compiled into an index.
+     */
+    public void setCompiledRouting(boolean compiledRouting) {
+        this.compiledRouting = compiledRouting;
+        invalidateRouteIndex();
+    }
+
     /**
      * Sets the default matching mode to use when selecting routes based on
      * URIs. By default it is set to {@link Template#MODE_EQUALS}.
@@ -793,6 +880,7 @@ public class Router extends Restlet {
      */
     public void setRoutes(RouteList routes) {
         this.routes = routes;
+        invalidateRouteIndex();
     }
 
     /**
@@ -820,6 +908,10 @@ public class Router extends Restlet {
                 getDefaultRoute().start();
             }
 
+            if (isCompiledRouting()) {
+                this.routeIndex = new RouteIndex(getRoutes());
+            }
+
             // Must be invoked as a last step
             super.start();
         }
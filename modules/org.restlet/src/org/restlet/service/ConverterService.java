@@ -27,6 +27,9 @@ package org.restlet.service;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import org.restlet.Context;
@@ -36,6 +39,7 @@ import org.restlet.engine.Engine;
 import org.restlet.engine.converter.ConverterHelper;
 import org.restlet.engine.converter.ConverterUtils;
 import org.restlet.engine.resource.VariantInfo;
+import org.restlet.engine.util.SystemUtils;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Resource;
@@ -48,17 +52,120 @@ import org.restlet.resource.Resource;
  * Root object classes used for conversion shouldn't be generic classes
  * otherwise important contextual type information will be missing at runtime
  * due to Java type erasure mechanism. If needed, create a fully resolved
- * subclasses and/or a container classes.
+ * subclasses and/or a container classes.<br>
+ * <br>
+ * The selection of the best converter helper is memoized in a bounded cache
+ * keyed by the source class, the target media type or class and the resource
+ * class. This cache is automatically cleared when the list of converters
+ * registered with the engine changes.
  * 
  * @author Jerome Louvel
  */
 public class ConverterService extends Service {
 
+    /** Key of the converter selection cache. */
+    private static final class CacheKey {
+
+        /** The media type of the source or target representation. */
+        private final MediaType mediaType;
+
+        /** The parent resource class. */
+        private final Class<?> resourceClass;
+
+        /** The source class. */
+        private final Class<?> sourceClass;
+
+        /** The target class. */
+        private final Class<?> targetClass;
+
+        /** Indicates if a target class or variant was given. */
+        private final boolean targetGiven;
+
+        /** Indicates if the conversion is toward a representation. */
+        private final boolean toRepresentation;
+
+        /**
+         * Constructor.
+         * 
+         * @param sourceClass
+         *            The source class.
+         * @param targetClass
+         *            The target class.
+         * @param mediaType
+         *            The media type of the source or target representation.
+         * @param resourceClass
+         *            The parent resource class.
+         * @param targetGiven
+         *            Indicates if a target class or variant was given.
+         * @param toRepresentation
+         *            Indicates if the conversion is toward a representation.
+         */
+        public CacheKey(Class<?> sourceClass, Class<?> targetClass,
+                MediaType mediaType, Class<?> resourceClass,
+                boolean targetGiven, boolean toRepresentation) {
+            this.sourceClass = sourceClass;
+            this.targetClass = targetClass;
+            this.mediaType = mediaType;
+            this.resourceClass = resourceClass;
+            this.targetGiven = targetGiven;
+            this.toRepresentation = toRepresentation;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+
+            CacheKey that = (CacheKey) obj;
+            return (this.toRepresentation == that.toRepresentation)
+                    && (this.targetGiven == that.targetGiven)
+                    && (this.sourceClass == that.sourceClass)
+                    && (this.targetClass == that.targetClass)
+                    && (this.resourceClass == that.resourceClass)
+                    && ((this.mediaType == null) ? (that.mediaType == null)
+                            : this.mediaType.equals(that.mediaType));
+        }
+
+        @Override
+        public int hashCode() {
+            return SystemUtils.hashCode(this.sourceClass, this.targetClass,
+                    this.mediaType, this.resourceClass,
+                    Boolean.valueOf(this.targetGiven),
+                    Boolean.valueOf(this.toRepresentation));
+        }
+    }
+
+    /** The default maximum number of entries in the converter cache. */
+    public static final int DEFAULT_CACHE_CAPACITY = 1024;
+
+    /** The converter selection cache. */
+    private final ConcurrentMap<CacheKey, ConverterHelper> cache;
+
+    /** The maximum number of entries in the converter cache. */
+    private volatile int cacheCapacity;
+
+    /** The list of converters the cache was computed against. */
+    private volatile List<ConverterHelper> cachedConverters;
+
+    /** The number of converters the cache was computed against. */
+    private volatile int cachedConvertersCount;
+
+    /** The number of converter lookups served by the cache. */
+    private final AtomicLong cacheHits;
+
+    /** The number of converter lookups that had to score converters. */
+    private final AtomicLong cacheMisses;
+
     /**
      * Constructor.
      */
     public ConverterService() {
-        super();
+        this(true);
     }
 
     /**
@@ -69,6 +176,10 @@ public class ConverterService extends Service {
      */
     public ConverterService(boolean enabled) {
         super(enabled);
+        this.cache = new ConcurrentHashMap<CacheKey, ConverterHelper>();
+        this.cacheCapacity = DEFAULT_CACHE_CAPACITY;
+        this.cacheHits = new AtomicLong();
+        this.cacheMisses = new AtomicLong();
     }
 
     /**
@@ -89,6 +200,13 @@ public class ConverterService extends Service {
         return null;
     }
 
+    /**
+     * Clears the converter selection cache.
+     */
+    public void clearCache() {
+        this.cache.clear();
+    }
+
     /**
      * Creates a patch representation by calculating a diff between initial and
      * modified representations.
@@ -107,6 +225,141 @@ public class ConverterService extends Service {
         return null;
     }
 
+    /**
+     * Returns the best converter helper matching the given parameters. The
+     * result is looked up in the cache first.
+     * 
+     * @param source
+     *            The object to convert to a representation.
+     * @param target
+     *            The target representation variant.
+     * @param resource
+     *            The optional parent resource.
+     * @return The matched converter helper or null.
+     */
+    protected ConverterHelper getBestHelper(Object source, Variant target,
+            Resource resource) {
+        if ((source == null) || (getCacheCapacity() <= 0)) {
+            return ConverterUtils.getBestHelper(source, target, resource);
+        }
+
+        CacheKey key = new CacheKey(source.getClass(), null,
+                (target == null) ? null : target.getMediaType(),
+                (resource == null) ? null : resource.getClass(),
+                target != null, true);
+        ConverterHelper result = getCachedHelper(key);
+
+        if (result == null) {
+            result = ConverterUtils.getBestHelper(source, target, resource);
+            putCachedHelper(key, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the best converter helper matching the given parameters. The
+     * result is looked up in the cache first.
+     * 
+     * @param <T>
+     *            The target class.
+     * @param source
+     *            The source representation variant.
+     * @param target
+     *            The target class.
+     * @param resource
+     *            The parent resource.
+     * @return The matched converter helper or null.
+     */
+    protected <T> ConverterHelper getBestHelper(Representation source,
+            Class<T> target, Resource resource) {
+        if (getCacheCapacity() <= 0) {
+            return ConverterUtils.getBestHelper(source, target, resource);
+        }
+
+        CacheKey key = new CacheKey(source.getClass(), target,
+                source.getMediaType(), (resource == null) ? null
+                        : resource.getClass(), target != null, false);
+        ConverterHelper result = getCachedHelper(key);
+
+        if (result == null) {
+            result = ConverterUtils.getBestHelper(source, target, resource);
+            putCachedHelper(key, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the maximum number of entries in the converter selection cache.
+     * When this capacity is reached, the cache is cleared. A value of zero
+     * disables the cache. By default, it returns
+     * {@link #DEFAULT_CACHE_CAPACITY}.
+     * 
+     * @return The maximum number of entries in the converter cache.
+     */
+    public int getCacheCapacity() {
+        return this.cacheCapacity;
+    }
+
+    /**
+     * Returns the cached converter helper matching the given key, after
+     * clearing the cache if the registered converters changed.
+     * 
+     * @param key
+     *            The cache key.
+     * @return The cached converter helper or null.
+     */
+    private ConverterHelper getCachedHelper(CacheKey key) {
+        List<ConverterHelper> converters = Engine.getInstance()
+                .getRegisteredConverters();
+
+        if ((converters != this.cachedConverters)
+                || (converters.size() != this.cachedConvertersCount)) {
+            clearCache();
+            this.cachedConverters = converters;
+            this.cachedConvertersCount = converters.size();
+        }
+
+        ConverterHelper result = this.cache.get(key);
+
+        if (result == null) {
+            this.cacheMisses.incrementAndGet();
+        } else {
+            this.cacheHits.incrementAndGet();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of converter lookups served by the cache.
+     * 
+     * @return The number of converter lookups served by the cache.
+     */
+    public long getCacheHits() {
+        return this.cacheHits.get();
+    }
+
+    /**
+     * Returns the number of converter lookups that weren't served by the cache.
+     * 
+     * @return The number of converter lookups that weren't served by the
+     *         cache.
+     */
+    public long getCacheMisses() {
+        return this.cacheMisses.get();
+    }
+
+    /**
+     * Returns the current number of entries in the converter selection cache.
+     * 
+     * @return The current number of entries in the converter selection cache.
+     */
+    public int getCacheSize() {
+        return this.cache.size();
+    }
+
     /**
      * Returns the list of object classes that can be converted from a given
      * variant.
@@ -164,6 +417,24 @@ public class ConverterService extends Service {
         return ConverterUtils.getVariants(source, target);
     }
 
+    /**
+     * Caches the converter helper selected for the given key.
+     * 
+     * @param key
+     *            The cache key.
+     * @param helper
+     *            The selected converter helper.
+     */
+    private void putCachedHelper(CacheKey key, ConverterHelper helper) {
+        if (helper != null) {
+            if (this.cache.size() >= getCacheCapacity()) {
+                clearCache();
+            }
+
+            this.cache.put(key, helper);
+        }
+    }
+
     /**
      * Reverts a patch representation from a modified representation in order to
      * obtain the initial one. The patch must have a recognized media type in
@@ -183,6 +454,21 @@ public class ConverterService extends Service {
         return null;
     }
 
+    /**
+     * Sets the maximum number of entries in the converter selection cache. A
+     * value of zero disables the cache.
+     * 
+     * @param cacheCapacity
+     *            The maximum number of entries in the converter cache.
+     */
+    public void setCacheCapacity(int cacheCapacity) {
+        this.cacheCapacity = cacheCapacity;
+
+        if (cacheCapacity <= 0) {
+            clearCache();
+        }
+    }
+
     /**
      * Converts a Representation into a regular Java object.
      * 
@@ -215,8 +501,7 @@ public class ConverterService extends Service {
         boolean loggable = (resource == null) ? true : resource.isLoggable();
 
         if ((source != null) && source.isAvailable() && (source.getSize() != 0)) {
-            ConverterHelper ch = ConverterUtils.getBestHelper(source, target,
-                    resource);
+            ConverterHelper ch = getBestHelper(source, target, resource);
 
             if (ch != null) {
                 if (loggable
@@ -311,8 +596,7 @@ public class ConverterService extends Service {
             Resource resource) throws IOException {
         Representation result = null;
         boolean loggable = (resource == null) || resource.isLoggable();
-        ConverterHelper ch = ConverterUtils.getBestHelper(source, target,
-                resource);
+        ConverterHelper ch = getBestHelper(source, target, resource);
 
         if (ch != null) {
             if (loggable && Context.getCurrentLogger().isLoggable(Level.FINE)) {
@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
 
 import org.restlet.Context;
 import org.restlet.data.Encoding;
@@ -83,6 +84,11 @@ public class EncoderService extends Service {
      */
     private final List<MediaType> acceptedMediaTypes;
 
+    /**
+     * The compression level used by deflate based encodings.
+     */
+    private volatile int compressionLevel;
+
     /**
      * The media types that should be ignored.
      */
@@ -109,6 +115,7 @@ public class EncoderService extends Service {
     public EncoderService(boolean enabled) {
         super(enabled);
         this.mininumSize = DEFAULT_MINIMUM_SIZE;
+        this.compressionLevel = Deflater.DEFAULT_COMPRESSION;
         this.acceptedMediaTypes = new CopyOnWriteArrayList<MediaType>(
                 getDefaultAcceptedMediaTypes());
         this.ignoredMediaTypes = new CopyOnWriteArrayList<MediaType>(
@@ -193,6 +200,16 @@ public class EncoderService extends Service {
         return this.acceptedMediaTypes;
     }
 
+    /**
+     * Returns the compression level used by deflate based encodings such as
+     * GZIP or DEFLATE. By default, {@link Deflater#DEFAULT_COMPRESSION}.
+     * 
+     * @return The compression level.
+     */
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
     /**
      * Returns the media types that should be ignored.
      * 
@@ -213,6 +230,25 @@ public class EncoderService extends Service {
         return this.mininumSize;
     }
 
+    /**
+     * Sets the compression level used by deflate based encodings such as GZIP
+     * or DEFLATE. Lower levels trade compression ratio for CPU time.
+     * 
+     * @param compressionLevel
+     *            The compression level, between
+     *            {@link Deflater#DEFAULT_COMPRESSION} and
+     *            {@link Deflater#BEST_COMPRESSION}.
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        if ((compressionLevel < Deflater.DEFAULT_COMPRESSION)
+                || (compressionLevel > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: "
+                    + compressionLevel);
+        }
+
+        this.compressionLevel = compressionLevel;
+    }
+
     /**
      * Sets the minimum size a representation must have before compression is
      * done.
@@ -45,6 +45,8 @@ import org.restlet.Context;
 import org.restlet.Response;
 import org.restlet.engine.Engine;
 import org.restlet.engine.util.ContextualRunnable;
+import org.restlet.engine.util.ThreadPerTaskExecutor;
+import org.restlet.engine.util.ThreadPerTaskScheduledExecutorService;
 import org.restlet.routing.VirtualHost;
 
 /**
@@ -61,7 +63,15 @@ import org.restlet.routing.VirtualHost;
  * Resources that are part of your context. In general this context corresponds
  * to a parent Application's context. If you want to have your own service
  * instance, you can use the {@link TaskService#wrap(ScheduledExecutorService)}
- * method to ensure that thread local variables are correctly set.
+ * method to ensure that thread local variables are correctly set.<br>
+ * <br>
+ * When the "virtualThreads" property is set, immediate tasks are dispatched
+ * each on its own thread, virtual if supported by the JVM, while the number of
+ * tasks running concurrently is limited by the "maxConcurrentTasks" property.
+ * Without virtual threads, platform threads are capped to this limit and the
+ * tasks above it are queued. Delayed and periodic tasks are still run by a
+ * scheduled thread pool. This mode suits tasks blocking on IO, such as client
+ * calls.
  * 
  * @author Jerome Louvel
  * @author Doug Lea (docs of ExecutorService in public domain)
@@ -244,12 +254,24 @@ public class TaskService extends Service implements ScheduledExecutorService {
      */
     private volatile boolean daemon;
 
+    /**
+     * The maximum number of tasks running concurrently in the virtual threads
+     * mode.
+     */
+    private volatile int maxConcurrentTasks;
+
     /**
      * Allow {@link #shutdown()} and {@link #shutdownNow()} methods to
      * effectively shutdown the wrapped executor service.
      */
     private volatile boolean shutdownAllowed;
 
+    /**
+     * Indicates if immediate tasks are dispatched each on its own virtual
+     * thread.
+     */
+    private volatile boolean virtualThreads;
+
     /** The wrapped JDK executor service. */
     private volatile ScheduledExecutorService wrapped;
 
@@ -295,7 +317,9 @@ public class TaskService extends Service implements ScheduledExecutorService {
     public TaskService(boolean enabled, int corePoolSize) {
         super(enabled);
         this.corePoolSize = corePoolSize;
+        this.maxConcurrentTasks = 1000;
         this.shutdownAllowed = false;
+        this.virtualThreads = false;
     }
 
     /**
@@ -328,16 +352,26 @@ public class TaskService extends Service implements ScheduledExecutorService {
 
     /**
      * Creates a new JDK executor service that will be wrapped. By default it
-     * calls {@link Executors#newCachedThreadPool(ThreadFactory)}, passing the
-     * result of {@link #createThreadFactory()} as a parameter.
+     * calls {@link Executors#newScheduledThreadPool(int, ThreadFactory)},
+     * passing the result of {@link #createThreadFactory()} as a parameter. In
+     * the virtual threads mode, immediate tasks are run by a
+     * {@link ThreadPerTaskExecutor} instead.
      * 
      * @param corePoolSize
      *            The core pool size defining the maximum number of threads.
      * @return A new JDK executor service.
      */
     protected ScheduledExecutorService createExecutorService(int corePoolSize) {
-        return Executors.newScheduledThreadPool(corePoolSize,
-                createThreadFactory());
+        ScheduledExecutorService result = Executors.newScheduledThreadPool(
+                corePoolSize, createThreadFactory());
+
+        if (isVirtualThreads()) {
+            result = new ThreadPerTaskScheduledExecutorService(result,
+                    new ThreadPerTaskExecutor(getMaxConcurrentTasks(),
+                            createThreadFactory()));
+        }
+
+        return result;
     }
 
     /**
@@ -370,6 +404,17 @@ public class TaskService extends Service implements ScheduledExecutorService {
         return corePoolSize;
     }
 
+    /**
+     * Returns the maximum number of tasks running concurrently in the virtual
+     * threads mode. A value inferior or equal to 0 means no limit. Default
+     * value is 1000.
+     * 
+     * @return The maximum number of tasks running concurrently.
+     */
+    public int getMaxConcurrentTasks() {
+        return maxConcurrentTasks;
+    }
+
     /**
      * Returns the wrapped JDK executor service.
      * 
@@ -517,6 +562,16 @@ public class TaskService extends Service implements ScheduledExecutorService {
         return (getWrapped() == null) || getWrapped().isTerminated();
     }
 
+    /**
+     * Indicates if immediate tasks are dispatched each on its own thread,
+     * virtual if supported by the JVM. False by default.
+     * 
+     * @return True if immediate tasks are dispatched each on its own thread.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
     /**
      * Creates and executes a ScheduledFuture that becomes enabled after the
      * given delay.
@@ -648,6 +703,18 @@ public class TaskService extends Service implements ScheduledExecutorService {
         this.daemon = daemon;
     }
 
+    /**
+     * Sets the maximum number of tasks running concurrently in the virtual
+     * threads mode. A value inferior or equal to 0 means no limit. Must be set
+     * before the service is started.
+     * 
+     * @param maxConcurrentTasks
+     *            The maximum number of tasks running concurrently.
+     */
+    public void setMaxConcurrentTasks(int maxConcurrentTasks) {
+        this.maxConcurrentTasks = maxConcurrentTasks;
+    }
+
     /**
      * Indicates if the {@link #shutdown()} and {@link #shutdownNow()} methods
      * are allowed to effectively shutdown the wrapped executor service.
@@ -659,6 +726,18 @@ public class TaskService extends Service implements ScheduledExecutorService {
         this.shutdownAllowed = allowShutdown;
     }
 
+    /**
+     * Indicates if immediate tasks are dispatched each on its own thread,
+     * virtual if supported by the JVM. Must be set before the service is
+     * started.
+     * 
+     * @param virtualThreads
+     *            True if immediate tasks are dispatched each on its own thread.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
     /**
      * Sets the wrapped JDK executor service.
      * 
@@ -25,6 +25,7 @@
 package org.restlet.util;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -34,6 +35,8 @@ import java.util.Set;
 import java.util.logging.Level;
 
 import org.restlet.Context;
+import org.restlet.data.Header;
+import org.restlet.data.Parameter;
 
 /**
  * Modifiable list of entries with many helper methods. Note that this class
@@ -54,12 +57,205 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
     // WrapperList<T>
     // {
     // [enddef]
+    // [ifndef gwt] member
+    /**
+     * Factory of series entries, avoiding the reflection-based instantiation
+     * of the entry class.
+     * 
+     * @param <T>
+     *            The type of entries created.
+     */
+    public static interface EntryFactory<T> {
+
+        /**
+         * Creates a new entry.
+         * 
+         * @param name
+         *            The name of the entry.
+         * @param value
+         *            The value of the entry.
+         * @return A new entry.
+         */
+        T createEntry(String name, String value);
+    }
+
+    // [ifndef gwt] member
+    /**
+     * Vector exposing its modification count, also incremented when an entry
+     * is replaced, in order to detect stale name indexes.
+     * 
+     * @param <E>
+     *            The type of entries.
+     */
+    private static class IndexableList<E> extends java.util.Vector<E> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructor.
+         * 
+         * @param initialCapacity
+         *            The initial list capacity.
+         */
+        public IndexableList(int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        /**
+         * Returns the modification count.
+         * 
+         * @return The modification count.
+         */
+        public int getModCount() {
+            return this.modCount;
+        }
+
+        @Override
+        public synchronized E set(int index, E element) {
+            this.modCount++;
+            return super.set(index, element);
+        }
+
+        @Override
+        public synchronized void setElementAt(E obj, int index) {
+            this.modCount++;
+            super.setElementAt(obj, index);
+        }
+    }
+
+    // [ifndef gwt] member
+    /**
+     * Immutable index of entry positions by case insensitive name.
+     */
+    private static final class NameIndex {
+
+        /** The modification count of the indexed list. */
+        private final int modCount;
+
+        /** The ascending entry positions by case insensitive name key. */
+        private final Map<String, int[]> positions;
+
+        /**
+         * Constructor.
+         * 
+         * @param list
+         *            The list to index.
+         * @param modCount
+         *            The modification count of the list, read before
+         *            indexing.
+         */
+        private NameIndex(List<? extends NamedValue<String>> list,
+                int modCount) {
+            this.modCount = modCount;
+            this.positions = new HashMap<String, int[]>();
+            Object[] entries = list.toArray();
+
+            for (int i = 0; i < entries.length; i++) {
+                String name = ((NamedValue<?>) entries[i]).getName();
+
+                if (name != null) {
+                    String key = toKey(name);
+                    int[] current = this.positions.get(key);
+
+                    if (current == null) {
+                        this.positions.put(key, new int[] { i });
+                    } else {
+                        int[] next = java.util.Arrays.copyOf(current,
+                                current.length + 1);
+                        next[current.length] = i;
+                        this.positions.put(key, next);
+                    }
+                }
+            }
+        }
+    }
+
+    // [ifndef gwt] member
+    /**
+     * Default size from which name lookups on series that own their list of
+     * entries are indexed.
+     */
+    public static final int DEFAULT_INDEX_THRESHOLD = 16;
+
     /**
      * A marker for empty values to differentiate from non existing values
      * (null).
      */
     public static final Object EMPTY_VALUE = new Object();
 
+    // [ifndef gwt] member
+    /** The default entry factories by entry class. */
+    private static final java.util.concurrent.ConcurrentMap<Class<?>, EntryFactory<?>> ENTRY_FACTORIES = new java.util.concurrent.ConcurrentHashMap<Class<?>, EntryFactory<?>>();
+
+    // [ifndef gwt] member
+    /** Empty list of positions. */
+    private static final int[] NO_POSITIONS = new int[0];
+
+    // [ifndef gwt] member
+    static {
+        ENTRY_FACTORIES.put(Header.class, new EntryFactory<Header>() {
+            public Header createEntry(String name, String value) {
+                return new Header(name, value);
+            }
+        });
+        ENTRY_FACTORIES.put(Parameter.class, new EntryFactory<Parameter>() {
+            public Parameter createEntry(String name, String value) {
+                return new Parameter(name, value);
+            }
+        });
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Returns the default entry factory of an entry class. Factories are
+     * predefined for {@link Header} and {@link Parameter}, other classes are
+     * instantiated by reflection using their constructor taking the name and
+     * the value as parameters.
+     * 
+     * @param entryClass
+     *            The entry class.
+     * @return The default entry factory.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntryFactory<T> getDefaultEntryFactory(
+            final Class<T> entryClass) {
+        EntryFactory<T> result = (EntryFactory<T>) ENTRY_FACTORIES
+                .get(entryClass);
+
+        if (result == null) {
+            result = new EntryFactory<T>() {
+                /** The cached constructor. */
+                private volatile java.lang.reflect.Constructor<T> constructor;
+
+                public T createEntry(String name, String value) {
+                    try {
+                        java.lang.reflect.Constructor<T> c = this.constructor;
+
+                        if (c == null) {
+                            this.constructor = c = entryClass.getConstructor(
+                                    String.class, String.class);
+                        }
+
+                        return c.newInstance(name, value);
+                    } catch (Exception e) {
+                        Context.getCurrentLogger().log(Level.WARNING,
+                                "Unable to create a series entry", e);
+                        return null;
+                    }
+                }
+            };
+
+            EntryFactory<T> existing = (EntryFactory<T>) ENTRY_FACTORIES
+                    .putIfAbsent(entryClass, result);
+
+            if (existing != null) {
+                result = existing;
+            }
+        }
+
+        return result;
+    }
+
     // [ifndef gwt] method
     /**
      * Returns an unmodifiable view of the specified series. Attempts to call a
@@ -72,19 +268,87 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public static Series<? extends NamedValue> unmodifiableSeries(
             final Series<? extends NamedValue> series) {
-        return new Series(series.entryClass,
+        return new Series(series.entryClass, series.entryFactory,
                 java.util.Collections.unmodifiableList(series.getDelegate()));
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns the case insensitive key of a name in the name indexes. Two names
+     * have the same key if and only if they are equal ignoring case.
+     * 
+     * @param name
+     *            The name.
+     * @return The key.
+     */
+    private static String toKey(String name) {
+        char[] chars = new char[name.length()];
+
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(name
+                    .charAt(i)));
+        }
+
+        return new String(chars);
+    }
+
     /** The entry class. */
     private final Class<T> entryClass;
 
+    // [ifndef gwt] member
+    /** The entry factory. */
+    private final EntryFactory<T> entryFactory;
+
+    // [ifndef gwt] member
+    /** The lazily built index of entry positions by name. */
+    private volatile NameIndex index;
+
+    // [ifndef gwt] member
+    /** The size from which name lookups are indexed. */
+    private volatile int indexThreshold;
+
+    // [ifndef gwt] member
+    /** The modification count observed by the last name lookup. */
+    private volatile int lookupModCount;
+
     /**
      * Constructor.
      */
     public Series(Class<T> entryClass) {
-        super();
+        this(entryClass, 10);
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Constructor.
+     * 
+     * @param entryClass
+     *            The entry class.
+     * @param entryFactory
+     *            The entry factory.
+     */
+    public Series(Class<T> entryClass, EntryFactory<T> entryFactory) {
+        this(entryClass, entryFactory, new IndexableList<T>(10));
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Constructor.
+     * 
+     * @param entryClass
+     *            The entry class.
+     * @param entryFactory
+     *            The entry factory.
+     * @param delegate
+     *            The delegate list.
+     */
+    public Series(Class<T> entryClass, EntryFactory<T> entryFactory,
+            List<T> delegate) {
+        super(delegate);
         this.entryClass = entryClass;
+        this.entryFactory = entryFactory;
+        this.indexThreshold = DEFAULT_INDEX_THRESHOLD;
+        this.lookupModCount = -1;
     }
 
     /**
@@ -94,8 +358,13 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
      *            The initial list capacity.
      */
     public Series(Class<T> entryClass, int initialCapacity) {
-        super(initialCapacity);
-        this.entryClass = entryClass;
+        // [ifndef gwt] instruction
+        this(entryClass, getDefaultEntryFactory(entryClass),
+                new IndexableList<T>(initialCapacity));
+        // [ifdef gwt] uncomment
+        // super(initialCapacity);
+        // this.entryClass = entryClass;
+        // [enddef]
     }
 
     /**
@@ -105,8 +374,12 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
      *            The delegate list.
      */
     public Series(Class<T> entryClass, List<T> delegate) {
-        super(delegate);
-        this.entryClass = entryClass;
+        // [ifndef gwt] instruction
+        this(entryClass, getDefaultEntryFactory(entryClass), delegate);
+        // [ifdef gwt] uncomment
+        // super(delegate);
+        // this.entryClass = entryClass;
+        // [enddef]
     }
 
     /**
@@ -182,14 +455,7 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
      * @return A new entry.
      */
     public T createEntry(String name, String value) {
-        try {
-            return this.entryClass.getConstructor(String.class, String.class)
-                    .newInstance(name, value);
-        } catch (Exception e) {
-            Context.getCurrentLogger().log(Level.WARNING,
-                    "Unable to create a series entry", e);
-            return null;
-        }
+        return this.entryFactory.createEntry(name, value);
     }
 
     // [ifdef gwt] uncomment
@@ -244,6 +510,31 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns the entries whose name may match the given one, ignoring case.
+     * The name index is used if possible, otherwise this series is returned.
+     * 
+     * @param name
+     *            The name to look up.
+     * @return The candidate entries.
+     */
+    private List<T> getCandidates(String name) {
+        int[] positions = getPositions(name);
+
+        if (positions == null) {
+            return this;
+        }
+
+        List<T> result = new ArrayList<T>(positions.length);
+
+        for (int position : positions) {
+            result.add(getDelegate().get(position));
+        }
+
+        return result;
+    }
+
     /**
      * Returns the first parameter found with the given name.
      * 
@@ -265,6 +556,22 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
      * @return The first parameter found with the given name.
      */
     public T getFirst(String name, boolean ignoreCase) {
+        // [ifndef gwt]
+        int[] positions = getPositions(name);
+
+        if (positions != null) {
+            for (int position : positions) {
+                T param = getDelegate().get(position);
+
+                if (equals(param.getName(), name, ignoreCase)) {
+                    return param;
+                }
+            }
+
+            return null;
+        }
+        // [enddef]
+
         for (T param : this) {
             if (equals(param.getName(), name, ignoreCase)) {
                 return param;
@@ -338,6 +645,19 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         return getFirstValue(name, false, defaultValue);
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns the size from which name lookups are indexed. The index is only
+     * used by series owning their list of entries, that is created without a
+     * delegate list, and is built the second time the same unmodified series
+     * is looked up. Entries must not be renamed while indexed.
+     * 
+     * @return The size from which name lookups are indexed.
+     */
+    public int getIndexThreshold() {
+        return this.indexThreshold;
+    }
+
     /**
      * Returns the set of parameter names (case sensitive).
      * 
@@ -353,6 +673,39 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns the ascending positions of the entries whose name may match the
+     * given one, ignoring case, using the name index. Returns null if the
+     * index can't be used, in which case the caller should scan all entries.
+     * 
+     * @param name
+     *            The name to look up.
+     * @return The candidate positions or null.
+     */
+    private int[] getPositions(String name) {
+        if ((name == null) || !(getDelegate() instanceof IndexableList)
+                || (size() < this.indexThreshold)) {
+            return null;
+        }
+
+        int modCount = ((IndexableList<T>) getDelegate()).getModCount();
+        NameIndex current = this.index;
+
+        if ((current == null) || (current.modCount != modCount)) {
+            if (this.lookupModCount != modCount) {
+                // Only index series looked up more than once
+                this.lookupModCount = modCount;
+                return null;
+            }
+
+            this.index = current = new NameIndex(getDelegate(), modCount);
+        }
+
+        int[] result = current.positions.get(toKey(name));
+        return (result == null) ? NO_POSITIONS : result;
+    }
+
     /**
      * Returns the values of the parameters with a given name. If multiple
      * parameters with the same name are found, all values are concatenated and
@@ -382,8 +735,12 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
     public String getValues(String name, String separator, boolean ignoreCase) {
         String result = null;
         StringBuilder sb = null;
+        // [ifndef gwt] instruction
+        List<T> params = getCandidates(name);
+        // [ifdef gwt] instruction uncomment
+        // List<T> params = this;
 
-        for (final T param : this) {
+        for (final T param : params) {
             if ((ignoreCase && param.getName().equalsIgnoreCase(name))
                     || param.getName().equals(name)) {
                 if (sb == null) {
@@ -627,6 +984,19 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Sets the size from which name lookups are indexed. Use
+     * {@link Integer#MAX_VALUE} to disable indexing.
+     * 
+     * @param indexThreshold
+     *            The size from which name lookups are indexed.
+     * @see #getIndexThreshold()
+     */
+    public void setIndexThreshold(int indexThreshold) {
+        this.indexThreshold = indexThreshold;
+    }
+
     /**
      * Returns a view of the portion of this list between the specified
      * fromIndex, inclusive, and toIndex, exclusive.
@@ -640,8 +1010,8 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
     @Override
     public Series<T> subList(int fromIndex, int toIndex) {
         // [ifndef gwt] instruction
-        return new Series<T>(this.entryClass, getDelegate().subList(fromIndex,
-                toIndex));
+        return new Series<T>(this.entryClass, this.entryFactory, getDelegate()
+                .subList(fromIndex, toIndex));
         // [ifdef gwt] instruction uncomment
         // return
         // createSeries(org.restlet.engine.util.ListUtils.copySubList(
@@ -670,11 +1040,15 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
      */
     public Series<T> subList(String name, boolean ignoreCase) {
         // [ifndef gwt] instruction
-        Series<T> result = new Series<T>(this.entryClass);
+        Series<T> result = new Series<T>(this.entryClass, this.entryFactory);
         // [ifdef gwt] instruction uncomment
         // Series<T> result = createSeries(null);
+        // [ifndef gwt] instruction
+        List<T> params = getCandidates(name);
+        // [ifdef gwt] instruction uncomment
+        // List<T> params = this;
 
-        for (T param : this) {
+        for (T param : params) {
             if (equals(param.getName(), name, ignoreCase)) {
                 result.add(param);
             }